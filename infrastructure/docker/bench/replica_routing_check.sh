@@ -0,0 +1,85 @@
+#!/usr/bin/env bash
+# =============================================
+# Kiểm tra read-replica routing với 2 Postgres độc lập (profile "replica")
+#
+# 2 instance không replicate cho nhau → dữ liệu ghi nhầm sang replica, hoặc đọc
+# nhầm từ replica, lộ ra ngay:
+# 1. register (POST, public, BaseResource.query()) phải ghi vào primary, không lỗi
+#    "cannot execute INSERT in a read-only transaction"
+# 2. user vừa tạo chỉ có trên primary (count 1 / 0)
+# 3. login bằng user đó thành công → đọc status / password hash từ primary
+# 4. logout (ghi) thành công
+# 5. (có ADMIN_TOKEN) GET /api/v1/users?query=<username> (page(), read-only) đi replica
+#    → không thấy user vừa tạo trên primary
+#
+# Chuẩn bị:
+#   docker compose -f docker-compose.dev.yml --profile replica up -d
+#   Replica cần cùng schema với primary: chạy app 1 lần với DB_PORT=5433 (Flyway) rồi tắt
+#   App: DB_PORT=5432 DB_REPLICA_URLS=jdbc:postgresql://localhost:5433/edu_crm_db
+#
+# Cần: curl, docker. ADMIN_TOKEN (tuỳ chọn) = access token có quyền USER:VIEW (data scope ALL).
+# Thoát với mã khác 0 ở bước đầu tiên sai.
+# =============================================
+set -euo pipefail
+
+BASE_URL="${BASE_URL:-http://localhost:9100}"
+PRIMARY_CONTAINER="${PRIMARY_CONTAINER:-edu_postgres_dev}"
+REPLICA_CONTAINER="${REPLICA_CONTAINER:-edu_postgres_replica_dev}"
+DB_USER="${POSTGRES_USER:-root}"
+DB_NAME="${POSTGRES_DB:-edu_crm_db}"
+ADMIN_TOKEN="${ADMIN_TOKEN:-}"
+
+USERNAME="replica_check_$(date +%s)"
+PASSWORD="Replica-check-1"
+
+fail() {
+  echo "FAIL: $*" >&2
+  exit 1
+}
+
+count_users() {
+  docker exec "$1" psql -U "${DB_USER}" -d "${DB_NAME}" -tAc \
+    "SELECT count(*) FROM users WHERE username = '${USERNAME}'"
+}
+
+# post <path> <json> [token] → in "<status> <body>"
+post() {
+  local auth=()
+  if [[ -n "${3:-}" ]]; then
+    auth=(-H "Authorization: Bearer $3")
+  fi
+  curl -sS -o /tmp/replica_check_body -w '%{http_code}' -X POST "${BASE_URL}$1" \
+    -H 'Content-Type: application/json' "${auth[@]}" -d "$2"
+}
+
+echo "== 1. register ${USERNAME}"
+status=$(post /api/v1/auth/register \
+  "{\"username\":\"${USERNAME}\",\"email\":\"${USERNAME}@example.com\",\"password\":\"${PASSWORD}\",\"name\":\"Replica Check\"}")
+[[ "${status}" == 200 ]] || fail "register → ${status}: $(cat /tmp/replica_check_body)"
+
+echo "== 2. user chỉ có trên primary"
+[[ "$(count_users "${PRIMARY_CONTAINER}")" == 1 ]] || fail "user không có trên primary"
+[[ "$(count_users "${REPLICA_CONTAINER}")" == 0 ]] || fail "user có trên replica (2 instance phải độc lập)"
+
+echo "== 3. login"
+status=$(post /api/v1/auth/login "{\"identity\":\"${USERNAME}\",\"password\":\"${PASSWORD}\"}")
+[[ "${status}" == 200 ]] || fail "login → ${status}: $(cat /tmp/replica_check_body)"
+token=$(sed -n 's/.*"accessToken":"\([^"]*\)".*/\1/p' /tmp/replica_check_body)
+[[ -n "${token}" ]] || fail "login không trả accessToken"
+
+echo "== 4. logout"
+status=$(post /api/v1/auth/logout '{}' "${token}")
+[[ "${status}" == 200 ]] || fail "logout → ${status}: $(cat /tmp/replica_check_body)"
+
+if [[ -n "${ADMIN_TOKEN}" ]]; then
+  echo "== 5. list users đọc từ replica"
+  body=$(curl -fsS -H "Authorization: Bearer ${ADMIN_TOKEN}" \
+    "${BASE_URL}/api/v1/users?query=${USERNAME}&page=1&size=20")
+  if grep -q "\"${USERNAME}\"" <<< "${body}"; then
+    fail "list users thấy user chỉ có trên primary → page() không đi replica"
+  fi
+else
+  echo "== 5. bỏ qua (không có ADMIN_TOKEN)"
+fi
+
+echo "OK: write flows trên primary, read-only list trên replica"
@@ -0,0 +1,43 @@
+#!/usr/bin/env bash
+# =============================================
+# Chạy tải cùng 1 route với từng chế độ OpenTelemetry tracing (sampler / exporter)
+#
+# Script chỉ sinh tải và in số liệu thô của lần chạy đó; repo không ghi lại kết quả
+# đo nào - overhead phải so sánh từ output của chính môi trường cần đánh giá.
+#
+# Sampler / exporter chỉ đổi được lúc khởi động → chạy app 1 lần cho mỗi chế độ,
+# rồi chạy script với nhãn tương ứng. VD:
+#   TRACING_ENABLED=false                                              → ./tracing_overhead.sh off
+#   TRACING_ENABLED=true TRACING_SAMPLER=always_off                    → ./tracing_overhead.sh sampled-out
+#   TRACING_ENABLED=true TRACING_SAMPLER=ratio TRACING_RATIO=0.1       → ./tracing_overhead.sh ratio-10
+#   TRACING_ENABLED=true TRACING_SAMPLER=always_on TRACING_EXPORTER=none → ./tracing_overhead.sh on-noexport
+#   TRACING_ENABLED=true TRACING_SAMPLER=always_on                     → ./tracing_overhead.sh on-otlp
+#
+# Cần: wrk, curl. TOKEN = access token (POST /api/v1/auth/login), METRICS_TOKEN = app.metrics.token.
+# Mỗi lần chạy in latency (wrk --latency) + số span được ghi (tracing_spans_total trên /metrics).
+# =============================================
+set -euo pipefail
+
+LABEL="${1:?usage: tracing_overhead.sh <label>}"
+BASE_URL="${BASE_URL:-http://localhost:8080}"
+TARGET="${TARGET:-/api/v1/users?page=1&size=20}"
+DURATION="${DURATION:-60s}"
+THREADS="${THREADS:-4}"
+CONNECTIONS="${CONNECTIONS:-64}"
+TOKEN="${TOKEN:?TOKEN is required}"
+METRICS_TOKEN="${METRICS_TOKEN:?METRICS_TOKEN is required}"
+
+spans() {
+  curl -fsS -H "X-Admin-Token: ${METRICS_TOKEN}" "${BASE_URL}/metrics" | awk '/^tracing_spans_total/ { sum += $2 } END { print sum + 0 }'
+}
+
+echo "== ${LABEL}: warmup 15s"
+wrk -t"${THREADS}" -c"${CONNECTIONS}" -d15s -H "Authorization: Bearer ${TOKEN}" "${BASE_URL}${TARGET}" > /dev/null
+
+before=$(spans)
+echo "== ${LABEL}: ${DURATION}, ${THREADS} threads, ${CONNECTIONS} connections"
+wrk -t"${THREADS}" -c"${CONNECTIONS}" -d"${DURATION}" --latency \
+    -H "Authorization: Bearer ${TOKEN}" "${BASE_URL}${TARGET}"
+after=$(spans)
+
+echo "== ${LABEL}: spans recorded: $((after - before))"
@@ -0,0 +1,104 @@
+-- =============================================
+-- Benchmark: user search trên 100k users
+-- So sánh LIKE cũ (lower(col) LIKE) với search_text + GIN trigram (V6)
+--
+-- Chạy sau khi app đã migrate V6:
+--   psql -h localhost -U postgres -d eduplatform -f bench/user_search_100k.sql
+-- Dữ liệu bench có username 'bench_%', xóa ở cuối file.
+--
+-- Cùng tập kết quả ở 2 phía: LIKE cũ nhận đúng chuỗi có dấu (không bỏ dấu được),
+-- search_text nhận chuỗi đã chuẩn hóa (SearchTextUtils) → phần "Kiểm tra" so số dòng trước khi so thời gian.
+-- Chưa có số đo trong repo: kết quả phụ thuộc máy / cấu hình Postgres, chạy lại khi cần số liệu.
+-- =============================================
+
+\timing on
+
+-- ---------- Seed 100k users (họ tên tiếng Việt có dấu) ----------
+INSERT INTO users (username, email, password_hash, first_name, last_name, phone, status)
+SELECT 'bench_' || i,
+       'bench_' || i || '@student.edu.vn',
+       '$2a$10$benchbenchbenchbenchbenchbenchbenchbenchbenchbenchbe',
+       (ARRAY['Văn An', 'Thị Bích', 'Đức Minh', 'Thu Hằng', 'Quốc Huy', 'Ngọc Ánh', 'Hữu Phước', 'Thanh Tâm'])[1 + i % 8],
+       (ARRAY['Nguyễn', 'Trần', 'Lê', 'Phạm', 'Hoàng', 'Huỳnh', 'Phan', 'Vũ', 'Võ', 'Đặng'])[1 + (i / 8) % 10],
+       '09' || lpad((i * 7919 % 100000000)::text, 8, '0'),
+       CASE WHEN i % 20 = 0 THEN 'INACTIVE' ELSE 'ACTIVE' END
+FROM generate_series(1, 100000) AS i
+ON CONFLICT DO NOTHING;
+
+ANALYZE users;
+
+-- ---------- Trước: lower(col) LIKE trên từng cột (seq scan) ----------
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id, username, email, first_name, last_name
+FROM users
+WHERE lower(username) LIKE '%đức minh%'
+   OR lower(email) LIKE '%đức minh%'
+   OR lower(first_name) LIKE '%đức minh%'
+   OR lower(last_name) LIKE '%đức minh%'
+   OR phone LIKE '%đức minh%'
+ORDER BY created_at DESC
+LIMIT 20;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT count(*)
+FROM users
+WHERE lower(username) LIKE '%nguyễn%'
+   OR lower(email) LIKE '%nguyễn%'
+   OR lower(first_name) LIKE '%nguyễn%'
+   OR lower(last_name) LIKE '%nguyễn%'
+   OR phone LIKE '%nguyễn%';
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT count(*)
+FROM users
+WHERE lower(username) LIKE '%0912%'
+   OR lower(email) LIKE '%0912%'
+   OR lower(first_name) LIKE '%0912%'
+   OR lower(last_name) LIKE '%0912%'
+   OR phone LIKE '%0912%';
+
+-- ---------- Sau: search_text + GIN trigram (không phân biệt dấu) ----------
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id, username, email, first_name, last_name
+FROM users
+WHERE search_text LIKE '%duc%' ESCAPE '\'
+  AND search_text LIKE '%minh%' ESCAPE '\'
+ORDER BY word_similarity('duc minh', search_text) DESC, created_at DESC
+LIMIT 20;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT count(*)
+FROM users
+WHERE search_text LIKE '%nguyen%' ESCAPE '\';
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT count(*)
+FROM users
+WHERE search_text LIKE '%0912%' ESCAPE '\';
+
+-- ---------- Kiểm tra: 2 phía trả cùng số dòng ----------
+SELECT 'duc minh' AS term,
+       (SELECT count(*) FROM users
+        WHERE lower(username) LIKE '%đức minh%' OR lower(email) LIKE '%đức minh%'
+           OR lower(first_name) LIKE '%đức minh%' OR lower(last_name) LIKE '%đức minh%'
+           OR phone LIKE '%đức minh%') AS like_rows,
+       (SELECT count(*) FROM users
+        WHERE search_text LIKE '%duc%' ESCAPE '\' AND search_text LIKE '%minh%' ESCAPE '\') AS trgm_rows
+UNION ALL
+SELECT 'nguyen',
+       (SELECT count(*) FROM users
+        WHERE lower(username) LIKE '%nguyễn%' OR lower(email) LIKE '%nguyễn%'
+           OR lower(first_name) LIKE '%nguyễn%' OR lower(last_name) LIKE '%nguyễn%'
+           OR phone LIKE '%nguyễn%'),
+       (SELECT count(*) FROM users WHERE search_text LIKE '%nguyen%' ESCAPE '\')
+UNION ALL
+SELECT '0912',
+       (SELECT count(*) FROM users
+        WHERE lower(username) LIKE '%0912%' OR lower(email) LIKE '%0912%'
+           OR lower(first_name) LIKE '%0912%' OR lower(last_name) LIKE '%0912%'
+           OR phone LIKE '%0912%'),
+       (SELECT count(*) FROM users WHERE search_text LIKE '%0912%' ESCAPE '\');
+
+-- ---------- Cleanup ----------
+DELETE FROM users WHERE username LIKE 'bench\_%';
+ANALYZE users;
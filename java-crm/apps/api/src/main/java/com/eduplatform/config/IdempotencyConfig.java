@@ -0,0 +1,43 @@
+package com.eduplatform.config;
+
+import com.eduplatform.common.idempotency.IdempotencyStore;
+import com.eduplatform.common.idempotency.InMemoryIdempotencyStore;
+import com.eduplatform.infra.jooq.idempotency.PostgresIdempotencyStore;
+import com.eduplatform.infra.jooq.reactive.ReactiveJooqExecutor;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.DSLContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * IdempotencyConfig - IdempotencyStore cho header Idempotency-Key (VertxRoutingBinder)
+ * 
+ * - memory: bounded theo max-entries, chỉ trong instance
+ * - postgres: bảng idempotency_keys (V8), retry qua gateway sang instance khác vẫn replay được
+ */
+@Slf4j
+@Configuration
+public class IdempotencyConfig {
+
+    @Value("${app.http.idempotency.store:memory}")
+    private String store;
+
+    @Value("${app.http.idempotency.max-entries:100000}")
+    private int maxEntries;
+
+    @Value("${app.http.idempotency.purge-interval-minutes:10}")
+    private long purgeIntervalMinutes;
+
+    @Bean
+    public IdempotencyStore idempotencyStore(DSLContext dsl, ReactiveJooqExecutor reactive) {
+        if ("postgres".equalsIgnoreCase(store)) {
+            log.info("Idempotency store: postgres (purge every {} min)", purgeIntervalMinutes);
+            return new PostgresIdempotencyStore(dsl, reactive, Duration.ofMinutes(purgeIntervalMinutes));
+        }
+        log.info("Idempotency store: memory (max {} keys)", maxEntries);
+        return new InMemoryIdempotencyStore(maxEntries);
+    }
+}
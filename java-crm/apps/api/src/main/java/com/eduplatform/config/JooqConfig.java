@@ -1,34 +1,145 @@
 package com.eduplatform.config;
 
+import com.eduplatform.infra.jooq.metrics.DatabaseMetrics;
+import com.eduplatform.infra.jooq.metrics.JfrExecuteListener;
+import com.eduplatform.infra.jooq.metrics.MeteredConnectionProvider;
+import com.eduplatform.infra.jooq.metrics.QueryMetrics;
+import com.eduplatform.infra.jooq.metrics.QueryMetricsListener;
+import com.eduplatform.infra.jooq.routing.ReadReplicaConnectionProvider;
+import com.eduplatform.infra.jooq.timeout.DeadlineExecuteListener;
+import com.eduplatform.infra.jooq.tracing.TracingExecuteListener;
+import org.jooq.ConnectionProvider;
 import org.jooq.Configuration;
 import org.jooq.DSLContext;
+import org.jooq.ExecuteListener;
 import org.jooq.SQLDialect;
 import org.jooq.conf.Settings;
 import org.jooq.impl.DSL;
+import org.jooq.impl.DataSourceConnectionProvider;
 import org.jooq.impl.DefaultConfiguration;
+import org.jooq.impl.ThreadLocalTransactionProvider;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Bean;
 
 import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * JooqConfig - Cấu hình jOOQ DSLContext và Configuration
+ * 
+ * Execute logging tắt mặc định (render + log SQL mỗi query, không có số liệu).
+ * Thay bằng QueryMetricsListener: metrics theo query shape + slow-query log
+ * + auto-EXPLAIN (app.jooq.*).
+ * 
+ * DeadlineExecuteListener: query timeout + hủy statement theo deadline của request.
+ * JfrExecuteListener: SqlQueryEvent (fingerprint, rows) khi có JFR recording bật event.
+ * TracingExecuteListener: span OpenTelemetry cho mỗi query khi app.tracing.enabled.
+ * 
+ * Có read replica (ReadReplicaConfig) thì connection đi qua
+ * ReadReplicaConnectionProvider: read-only → replica, còn lại → primary.
+ * 
+ * Transaction: ThreadLocalTransactionProvider (không nested savepoint) để
+ * JooqTransactions.inTransaction() gom nhiều lệnh repository vào 1 commit.
  */
 @org.springframework.context.annotation.Configuration
 public class JooqConfig {
 
+    @Value("${app.jooq.execute-logging:false}")
+    private boolean executeLogging;
+
+    @Value("${app.jooq.deadline.enabled:true}")
+    private boolean deadlineEnabled;
+
+    @Value("${app.jooq.jfr-events:true}")
+    private boolean jfrEvents;
+
+    @Value("${app.tracing.enabled:false}")
+    private boolean tracingEnabled;
+
+    @Value("${app.jooq.metrics.enabled:true}")
+    private boolean metricsEnabled;
+
+    @Value("${app.jooq.metrics.max-shapes:1000}")
+    private int maxShapes;
+
+    @Value("${app.jooq.metrics.slow-log-size:100}")
+    private int slowLogSize;
+
+    @Value("${app.jooq.metrics.slow-threshold-ms:200}")
+    private long slowThresholdMs;
+
+    @Value("${app.jooq.metrics.auto-explain:true}")
+    private boolean autoExplain;
+
+    @Value("${app.jooq.metrics.explain-threshold-ms:500}")
+    private long explainThresholdMs;
+
+    @Value("${app.jooq.metrics.explain-interval-minutes:10}")
+    private long explainIntervalMinutes;
+
+    @Bean
+    public QueryMetrics queryMetrics() {
+        return new QueryMetrics(maxShapes, slowLogSize);
+    }
+
+    /**
+     * Hikari pool (primary + replicas) + tổng hợp QueryMetrics cho /metrics
+     */
+    @Bean
+    public DatabaseMetrics databaseMetrics(DataSource dataSource,
+                                           QueryMetrics queryMetrics,
+                                           ObjectProvider<ReadReplicaConnectionProvider> readReplicas) {
+        return new DatabaseMetrics(dataSource, readReplicas.getIfAvailable(), queryMetrics);
+    }
+
     @Bean
     @ConditionalOnMissingBean(Configuration.class)
-    public Configuration jooqConfiguration(DataSource dataSource) {
+    public Configuration jooqConfiguration(DataSource dataSource,
+                                           QueryMetrics queryMetrics,
+                                           ObjectProvider<ReadReplicaConnectionProvider> readReplicas) {
         DefaultConfiguration configuration = new DefaultConfiguration();
-        configuration.setDataSource(dataSource);
         configuration.setSQLDialect(SQLDialect.POSTGRES);
         
         Settings settings = new Settings()
                 .withRenderSchema(false)
-                .withExecuteLogging(true);
+                .withExecuteLogging(executeLogging);
         configuration.setSettings(settings);
         
+        ConnectionProvider connectionProvider = readReplicas.getIfAvailable();
+        if (connectionProvider == null) {
+            connectionProvider = new DataSourceConnectionProvider(dataSource);
+        }
+        
+        List<ExecuteListener> listeners = new ArrayList<>();
+        if (deadlineEnabled) {
+            listeners.add(new DeadlineExecuteListener());
+        }
+        if (jfrEvents) {
+            listeners.add(new JfrExecuteListener());
+        }
+        if (tracingEnabled) {
+            listeners.add(new TracingExecuteListener());
+        }
+        if (metricsEnabled) {
+            // EXPLAIN cùng ConnectionProvider (primary / replica theo DbRouting), không gắn listener
+            DSLContext explainDsl = autoExplain ? DSL.using(connectionProvider, SQLDialect.POSTGRES, settings) : null;
+            connectionProvider = new MeteredConnectionProvider(connectionProvider);
+            listeners.add(new QueryMetricsListener(
+                    queryMetrics,
+                    explainDsl,
+                    Duration.ofMillis(slowThresholdMs),
+                    Duration.ofMillis(Math.max(explainThresholdMs, slowThresholdMs)),
+                    Duration.ofMinutes(explainIntervalMinutes)));
+        }
+        configuration.setExecuteListener(listeners.toArray(ExecuteListener[]::new));
+        
+        configuration.setConnectionProvider(connectionProvider);
+        configuration.setTransactionProvider(new ThreadLocalTransactionProvider(connectionProvider, false));
+        
         return configuration;
     }
 
@@ -0,0 +1,87 @@
+package com.eduplatform.config;
+
+import com.eduplatform.common.db.DbRouting;
+import com.eduplatform.infra.jooq.routing.ReadReplicaConnectionProvider;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.impl.DataSourceConnectionProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ReadReplicaConfig - Read replica cho các query read-only
+ * 
+ * Chỉ bật khi có app.datasource.replicas.urls (JDBC URLs, phân cách bằng dấu phẩy).
+ * Mỗi replica một Hikari pool riêng (readOnly), dùng chung user/password với primary.
+ * JooqConfig lắp ReadReplicaConnectionProvider vào DSLContext; Flyway và
+ * các write vẫn dùng DataSource primary.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnExpression("!'${app.datasource.replicas.urls:}'.isBlank()")
+public class ReadReplicaConfig {
+
+    @Value("${app.datasource.replicas.urls}")
+    private List<String> urls;
+
+    @Value("${spring.datasource.username}")
+    private String username;
+
+    @Value("${spring.datasource.password}")
+    private String password;
+
+    @Value("${app.datasource.replicas.max-pool-size:8}")
+    private int maxPoolSize;
+
+    @Value("${app.datasource.replicas.max-lag-ms:2000}")
+    private long maxLagMs;
+
+    @Value("${app.datasource.replicas.health-check-interval-ms:2000}")
+    private long healthCheckIntervalMs;
+
+    @Value("${app.datasource.replicas.sticky-window-ms:5000}")
+    private long stickyWindowMs;
+
+    @Bean
+    public ReadReplicaConnectionProvider readReplicaConnectionProvider(DataSource dataSource) {
+        DbRouting.setStickyWindow(Duration.ofMillis(stickyWindowMs));
+
+        List<ReadReplicaConnectionProvider.Replica> replicas = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            String url = urls.get(i).trim();
+            if (url.isEmpty()) continue;
+            String name = "replica-" + (i + 1);
+            replicas.add(new ReadReplicaConnectionProvider.Replica(name, createDataSource(name, url)));
+            log.info("Read replica {}: {}", name, url);
+        }
+
+        return new ReadReplicaConnectionProvider(
+                new DataSourceConnectionProvider(dataSource),
+                replicas,
+                Duration.ofMillis(maxLagMs),
+                Duration.ofMillis(healthCheckIntervalMs));
+    }
+
+    private DataSource createDataSource(String name, String url) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(name);
+        config.setJdbcUrl(url);
+        config.setUsername(username);
+        config.setPassword(password);
+        config.setMaximumPoolSize(maxPoolSize);
+        config.setMinimumIdle(Math.min(2, maxPoolSize));
+        config.setReadOnly(true);
+        config.setConnectionTimeout(2000);
+        // Replica down lúc khởi động không chặn app, health check sẽ đánh dấu unhealthy
+        config.setInitializationFailTimeout(-1);
+        return new HikariDataSource(config);
+    }
+}
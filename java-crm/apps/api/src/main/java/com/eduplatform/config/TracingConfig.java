@@ -0,0 +1,227 @@
+package com.eduplatform.config;
+
+import com.eduplatform.common.metrics.MetricsSource;
+import com.eduplatform.common.metrics.PrometheusWriter;
+import com.eduplatform.common.tracing.Tracing;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.baggage.propagation.W3CBaggagePropagator;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.context.propagation.TextMapPropagator;
+import io.opentelemetry.exporter.logging.otlp.traces.OtlpStdoutSpanExporter;
+import io.opentelemetry.exporter.otlp.trace.OtlpGrpcSpanExporter;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * TracingConfig - OpenTelemetry SDK (app.tracing.*)
+ *
+ * Tắt (mặc định) → Tracing giữ OpenTelemetry.noop(), không đăng ký hook / listener nào.
+ * Bật → SDK với:
+ * - Propagator W3C traceparent / tracestate + baggage (kraken gateway forward / tự sinh traceparent)
+ * - Sampler: always_on | always_off | ratio | parent_ratio (theo sampled flag của gateway,
+ *   root span sample theo ratio)
+ * - Exporter: otlp (collector / Jaeger gRPC :4317) | file (OTLP JSON, 1 dòng / batch)
+ *   | none (tạo + sample span nhưng không export)
+ * - BatchSpanProcessor: export async, queue đầy thì bỏ span thay vì chờ
+ *
+ * Chưa có số đo overhead của các chế độ. infrastructure/docker/bench/tracing_overhead.sh
+ * chạy tải với từng TRACING_SAMPLER / TRACING_EXPORTER và in latency (wrk)
+ * + tracing_spans_total để tự so sánh.
+ */
+@Slf4j
+@Configuration
+public class TracingConfig {
+
+    @Value("${app.tracing.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.tracing.service-name:java-crm}")
+    private String serviceName;
+
+    @Value("${app.tracing.exporter:otlp}")
+    private String exporter;
+
+    @Value("${app.tracing.otlp.endpoint:http://localhost:4317}")
+    private String otlpEndpoint;
+
+    @Value("${app.tracing.file.path:logs/traces.jsonl}")
+    private String filePath;
+
+    @Value("${app.tracing.sampler:parent_ratio}")
+    private String sampler;
+
+    @Value("${app.tracing.ratio:0.1}")
+    private double ratio;
+
+    @Value("${app.tracing.max-queue-size:2048}")
+    private int maxQueueSize;
+
+    private OpenTelemetrySdk sdk;
+
+    @Bean
+    public SpanCounter tracingSpanCounter() {
+        return new SpanCounter();
+    }
+
+    @Bean
+    public OpenTelemetry openTelemetry(SpanCounter spanCounter) {
+        if (!enabled) {
+            return OpenTelemetry.noop();
+        }
+
+        SdkTracerProvider tracerProvider = SdkTracerProvider.builder()
+                .setResource(Resource.getDefault().merge(Resource.create(
+                        Attributes.of(AttributeKey.stringKey("service.name"), serviceName))))
+                .setSampler(sampler())
+                .addSpanProcessor(spanCounter)
+                .addSpanProcessor(BatchSpanProcessor.builder(exporter())
+                        .setMaxQueueSize(maxQueueSize)
+                        .build())
+                .build();
+
+        sdk = OpenTelemetrySdk.builder()
+                .setTracerProvider(tracerProvider)
+                .setPropagators(ContextPropagators.create(TextMapPropagator.composite(
+                        W3CTraceContextPropagator.getInstance(), W3CBaggagePropagator.getInstance())))
+                .build();
+        Tracing.install(sdk);
+        log.info("Tracing enabled: exporter={}, sampler={}, ratio={}", exporter, sampler, ratio);
+        return sdk;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (sdk != null) {
+            // Flush span còn trong queue trước khi tắt
+            sdk.getSdkTracerProvider().shutdown().join(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private Sampler sampler() {
+        return switch (sampler) {
+            case "always_on" -> Sampler.alwaysOn();
+            case "always_off" -> Sampler.alwaysOff();
+            case "ratio" -> Sampler.traceIdRatioBased(ratio);
+            case "parent_ratio" -> Sampler.parentBased(Sampler.traceIdRatioBased(ratio));
+            default -> throw new IllegalStateException("Unknown app.tracing.sampler: " + sampler);
+        };
+    }
+
+    private SpanExporter exporter() {
+        return switch (exporter) {
+            case "otlp" -> OtlpGrpcSpanExporter.builder()
+                    .setEndpoint(otlpEndpoint)
+                    .build();
+            case "file" -> OtlpStdoutSpanExporter.builder()
+                    .setOutput(openTraceFile())
+                    .build();
+            case "none" -> new NoopSpanExporter();
+            default -> throw new IllegalStateException("Unknown app.tracing.exporter: " + exporter);
+        };
+    }
+
+    private OutputStream openTraceFile() {
+        try {
+            Path path = Path.of(filePath);
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            return new FileOutputStream(path.toFile(), true);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot open trace file " + filePath, e);
+        }
+    }
+
+    // ============================================
+    // Span counter + exporter rỗng
+    // ============================================
+
+    /**
+     * Đếm span được ghi (đã qua sampler) → tracing_spans_total trên /metrics
+     */
+    public static class SpanCounter implements SpanProcessor, MetricsSource {
+
+        private final LongAdder server = new LongAdder();
+        private final LongAdder client = new LongAdder();
+        private final LongAdder internal = new LongAdder();
+
+        @Override
+        public void onStart(Context parentContext, ReadWriteSpan span) {
+        }
+
+        @Override
+        public boolean isStartRequired() {
+            return false;
+        }
+
+        @Override
+        public void onEnd(ReadableSpan span) {
+            switch (span.getKind()) {
+                case SERVER -> server.increment();
+                case CLIENT -> client.increment();
+                default -> internal.increment();
+            }
+        }
+
+        @Override
+        public boolean isEndRequired() {
+            return true;
+        }
+
+        @Override
+        public void collect(PrometheusWriter writer) {
+            writer.counter("tracing_spans_total", "Sampled spans ended (recorded for export)");
+            writer.sample("tracing_spans_total", server.sum(), "kind", "server");
+            writer.sample("tracing_spans_total", client.sum(), "kind", "client");
+            writer.sample("tracing_spans_total", internal.sum(), "kind", "internal");
+        }
+    }
+
+    /**
+     * Exporter bỏ span: đo chi phí tạo / sample span, không tính chi phí export
+     */
+    private static final class NoopSpanExporter implements SpanExporter {
+
+        @Override
+        public CompletableResultCode export(Collection<SpanData> spans) {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return CompletableResultCode.ofSuccess();
+        }
+    }
+}
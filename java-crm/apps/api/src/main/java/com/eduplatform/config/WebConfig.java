@@ -1,6 +1,11 @@
 package com.eduplatform.config;
 
 import com.eduplatform.auth.rbac.handler.JwtAuthHandler;
+import com.eduplatform.common.jfr.JfrAdminHandler;
+import com.eduplatform.common.logging.AccessLogHandler;
+import com.eduplatform.common.metrics.EventLoopLagMonitor;
+import com.eduplatform.common.metrics.MetricsHandler;
+import com.eduplatform.common.tracing.TracingHandler;
 import com.eduplatform.common.vertx.routing.VertxRoutingBinder;
 import io.vertx.core.Vertx;
 import io.vertx.ext.web.Router;
@@ -8,6 +13,7 @@ import io.vertx.ext.web.handler.BodyHandler;
 import io.vertx.ext.web.handler.CorsHandler;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -27,6 +33,20 @@ public class WebConfig {
 
     private final JwtAuthHandler jwtAuthHandler;
     private final VertxRoutingBinder vertxRoutingBinder;
+    private final MetricsHandler metricsHandler;
+    private final EventLoopLagMonitor eventLoopLagMonitor;
+    private final JfrAdminHandler jfrAdminHandler;
+    private final TracingHandler tracingHandler;
+    private final AccessLogHandler accessLogHandler;
+
+    @Value("${app.metrics.enabled:true}")
+    private boolean metricsEnabled;
+
+    @Value("${app.jfr.admin.enabled:false}")
+    private boolean jfrAdminEnabled;
+
+    @Value("${app.access-log.enabled:true}")
+    private boolean accessLogEnabled;
 
     @Bean
     public Vertx vertx() {
@@ -37,18 +57,39 @@ public class WebConfig {
     public Router mainRouter(Vertx vertx) {
         Router router = Router.router(vertx);
 
+        // Server span (W3C traceparent từ gateway) - đầu tiên để bao cả JWT / body
+        router.route().handler(tracingHandler);
+
+        // Access log (ring buffer → thread writer riêng), sau tracing để có trace id
+        if (accessLogEnabled) {
+            router.route().handler(accessLogHandler);
+        }
+
         // Body handler for JSON parsing
-        router.route().handler(BodyHandler.create());
+        // Route nhận ReadStream (VD: import CSV) tự đọc body: pause tới khi handler gắn vào
+        BodyHandler bodyHandler = BodyHandler.create();
+        router.route().handler(ctx -> {
+            if (vertxRoutingBinder.isStreamingRequest(ctx)) {
+                ctx.request().pause();
+                ctx.next();
+            } else {
+                bodyHandler.handle(ctx);
+            }
+        });
 
         // CORS handler
         Set<String> allowedHeaders = new HashSet<>();
         allowedHeaders.add("Authorization");
         allowedHeaders.add("Content-Type");
         allowedHeaders.add("Accept");
+        allowedHeaders.add(VertxRoutingBinder.IDEMPOTENCY_HEADER);
+        allowedHeaders.add("traceparent");
+        allowedHeaders.add("tracestate");
 
         router.route().handler(CorsHandler.create()
                 .addOrigin("*")
                 .allowedHeaders(allowedHeaders)
+                .exposedHeader(TracingHandler.TRACE_ID_HEADER)
                 .allowedMethod(io.vertx.core.http.HttpMethod.GET)
                 .allowedMethod(io.vertx.core.http.HttpMethod.POST)
                 .allowedMethod(io.vertx.core.http.HttpMethod.PUT)
@@ -82,6 +123,26 @@ public class WebConfig {
                         .end("{\"status\":\"UP\"}")
         );
 
+        // Prometheus scrape (ngoài /api → không qua JWT, cùng port public → bắt buộc token)
+        // Không có token → không mount (metrics lộ route, query shape, tải của hệ thống)
+        if (metricsEnabled && !metricsHandler.hasToken()) {
+            log.warn("app.metrics.enabled=true but app.metrics.token is blank - /metrics not mounted");
+        } else if (metricsEnabled) {
+            router.get("/metrics").handler(metricsHandler);
+            eventLoopLagMonitor.start(vertx);
+        }
+
+        // JFR recording start / dump / stop (ngoài /api như /metrics, token qua X-Admin-Token)
+        // Không có token → không mount (dump chứa heap / stack / SQL của mọi request)
+        if (jfrAdminEnabled && !jfrAdminHandler.hasToken()) {
+            log.warn("app.jfr.admin.enabled=true but app.jfr.admin.token is blank - /admin/jfr not mounted");
+        } else if (jfrAdminEnabled) {
+            router.get("/admin/jfr").handler(jfrAdminHandler::status);
+            router.post("/admin/jfr/start").handler(jfrAdminHandler::start);
+            router.post("/admin/jfr/dump").handler(jfrAdminHandler::dump);
+            router.post("/admin/jfr/stop").handler(jfrAdminHandler::stop);
+        }
+
         return router;
     }
 }
@@ -0,0 +1,8 @@
+-- =============================================
+-- V10: XOÁ IDEMPOTENCY KEY CỦA REQUEST KHÔNG ĐĂNG NHẬP
+-- Idempotency-Key giờ chỉ bật trên route @VertxIdempotent cần đăng nhập.
+-- Key "anonymous:*" là response của route public (login / refresh / register),
+-- có thể chứa access / refresh token dạng plaintext → xoá.
+-- =============================================
+
+DELETE FROM idempotency_keys WHERE idempotency_key LIKE 'anonymous:%';
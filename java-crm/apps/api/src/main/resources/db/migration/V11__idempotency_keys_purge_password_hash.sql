@@ -0,0 +1,7 @@
+-- =============================================
+-- V11: XOÁ IDEMPOTENCY KEY CÓ PASSWORD HASH
+-- User.passwordHash giờ @JsonIgnore. Response đã lưu trước đó của
+-- POST / PUT /api/v1/users có thể chứa bcrypt hash → xoá.
+-- =============================================
+
+DELETE FROM idempotency_keys WHERE response_body LIKE '%"passwordHash"%';
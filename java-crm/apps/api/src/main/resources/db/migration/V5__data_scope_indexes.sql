@@ -0,0 +1,7 @@
+-- =============================================
+-- V5: DATA SCOPE INDEXES
+-- Row-level scope (OWN / DEPARTMENT) filter theo created_by:
+--   created_by = ?  hoặc  created_by = ANY(?::uuid[])
+-- =============================================
+
+CREATE INDEX IF NOT EXISTS idx_users_created_by ON users(created_by);
@@ -0,0 +1,35 @@
+-- =============================================
+-- V6: USER SEARCH (pg_trgm + unaccent)
+-- Search users trước đây: lower(col) LIKE '%term%' trên 5 cột → seq scan
+-- (cả list lẫn count). Gom về 1 cột search_text đã chuẩn hóa + GIN trigram.
+-- Java chuẩn hóa query giống hệt: SearchTextUtils.normalize()
+-- =============================================
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE EXTENSION IF NOT EXISTS unaccent;
+
+-- unaccent() là STABLE nên không dùng được trong generated column / index.
+-- Wrapper IMMUTABLE với dictionary cố định (bỏ dấu tiếng Việt, đ → d).
+CREATE OR REPLACE FUNCTION f_unaccent(text)
+    RETURNS text
+    LANGUAGE sql IMMUTABLE PARALLEL SAFE STRICT
+AS $$
+    SELECT public.unaccent('public.unaccent'::regdictionary, $1)
+$$;
+
+ALTER TABLE users
+    ADD COLUMN IF NOT EXISTS search_text TEXT
+        GENERATED ALWAYS AS (
+            lower(f_unaccent(
+                coalesce(username, '') || ' ' ||
+                coalesce(email, '') || ' ' ||
+                coalesce(first_name, '') || ' ' ||
+                coalesce(last_name, '') || ' ' ||
+                coalesce(phone, '')
+            ))
+        ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_users_search_text_trgm
+    ON users USING gin (search_text gin_trgm_ops);
+
+ANALYZE users;
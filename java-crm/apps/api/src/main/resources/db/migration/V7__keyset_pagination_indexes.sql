@@ -0,0 +1,9 @@
+-- =============================================
+-- V7: KEYSET PAGINATION INDEXES
+-- List dùng ORDER BY (sort_field, id) + WHERE (sort_field, id) < (?, ?)
+-- → cần index composite để seek thay vì sort toàn bảng.
+-- username / email đã UNIQUE nên (col, id) không cần index riêng.
+-- =============================================
+
+CREATE INDEX IF NOT EXISTS idx_users_created_at_id ON users(created_at, id);
+CREATE INDEX IF NOT EXISTS idx_roles_created_at_id ON roles(created_at, id);
@@ -0,0 +1,17 @@
+-- =============================================
+-- V8: IDEMPOTENCY KEYS
+-- Response đầu tiên của POST / PUT có header Idempotency-Key (PostgresIdempotencyStore).
+-- Key = userId + ":" + Idempotency-Key, fingerprint = method + path + CRC32C body.
+-- response_status NULL = request gốc đang chạy.
+-- =============================================
+
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    idempotency_key VARCHAR(320) PRIMARY KEY,
+    fingerprint VARCHAR(512) NOT NULL,
+    response_status INTEGER,
+    response_body TEXT,
+    expires_at TIMESTAMP NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_expires_at ON idempotency_keys(expires_at);
@@ -0,0 +1,13 @@
+-- =============================================
+-- V9: created_at NOT NULL cho users / roles
+-- Keyset cursor (V7) dùng (created_at, id) làm khóa → không được NULL.
+-- Row cũ thiếu created_at lấy updated_at, không có thì thời điểm migrate.
+-- =============================================
+
+UPDATE users SET created_at = COALESCE(updated_at, CURRENT_TIMESTAMP) WHERE created_at IS NULL;
+ALTER TABLE users ALTER COLUMN created_at SET DEFAULT CURRENT_TIMESTAMP;
+ALTER TABLE users ALTER COLUMN created_at SET NOT NULL;
+
+UPDATE roles SET created_at = COALESCE(updated_at, CURRENT_TIMESTAMP) WHERE created_at IS NULL;
+ALTER TABLE roles ALTER COLUMN created_at SET DEFAULT CURRENT_TIMESTAMP;
+ALTER TABLE roles ALTER COLUMN created_at SET NOT NULL;
@@ -2,6 +2,7 @@ package com.eduplatform.identity.entity;
 
 import com.eduplatform.entity.base.BaseEntity;
 import com.eduplatform.entity.enums.UserStatus;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -23,6 +24,8 @@ import java.util.UUID;
 public class User extends BaseEntity {
     private String username;
     private String email;
+    // Không bao giờ serialize: response, ResponseCache, idempotency_keys đều đi qua Jackson
+    @JsonIgnore
     private String passwordHash;
     private String firstName;
     private String lastName;
@@ -0,0 +1,135 @@
+package com.eduplatform.identity.importer;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * UserImportJob - Trạng thái + tiến độ của một lần import
+ * 
+ * Giữ trong registry của UserImportServiceImpl để client poll
+ * GET /api/v1/users/import/:importId trong lúc upload đang chạy.
+ * 
+ * Lỗi từng dòng giữ tối đa MAX_ERRORS (file lớn lỗi hàng loạt không làm phình heap / response poll),
+ * phần còn lại chỉ được đếm trong failed.
+ * actorId: người chạy import - chỉ người đó xem được tiến độ.
+ */
+public final class UserImportJob {
+
+    public enum Status { RUNNING, COMPLETED, FAILED }
+
+    public static final int MAX_ERRORS = 200;
+
+    private final String id;
+    private final UUID actorId;
+    private final Instant startedAt = Instant.now();
+
+    private Status status = Status.RUNNING;
+    private Instant finishedAt;
+    private String message;
+
+    private long processed;
+    private long inserted;
+    private long failed;
+    private final List<RowError> errors = new ArrayList<>();
+
+    public UserImportJob(String id, UUID actorId) {
+        this.id = id;
+        this.actorId = actorId;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public boolean isOwnedBy(UUID userId) {
+        return actorId != null && actorId.equals(userId);
+    }
+
+    public synchronized Status getStatus() {
+        return status;
+    }
+
+    public synchronized boolean isFinished() {
+        return status != Status.RUNNING;
+    }
+
+    // ============================================
+    // Cập nhật tiến độ
+    // ============================================
+
+    /**
+     * Dòng bị loại ngay khi parse (không vào batch)
+     */
+    public synchronized void rowRejected(long line, String error) {
+        processed++;
+        failed++;
+        addError(line, error);
+    }
+
+    /**
+     * Kết quả một batch đã commit - dòng không được insert đều là dòng lỗi
+     * (rowErrors có thể đã bị cắt ở MAX_ERRORS)
+     */
+    public synchronized void batchCompleted(int rows, int insertedRows, List<RowError> rowErrors) {
+        processed += rows;
+        inserted += insertedRows;
+        failed += rows - insertedRows;
+        for (RowError error : rowErrors) {
+            addError(error.line(), error.message());
+        }
+    }
+
+    public synchronized void complete() {
+        if (status == Status.RUNNING) {
+            status = Status.COMPLETED;
+            finishedAt = Instant.now();
+        }
+    }
+
+    public synchronized void fail(String reason) {
+        if (status == Status.RUNNING) {
+            status = Status.FAILED;
+            message = reason;
+            finishedAt = Instant.now();
+        }
+    }
+
+    private void addError(long line, String error) {
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(new RowError(line, error));
+        }
+    }
+
+    /**
+     * Snapshot bất biến để serialize (không giữ lock khi Jackson đọc)
+     */
+    public synchronized Progress snapshot() {
+        return new Progress(id, status, startedAt, finishedAt, message,
+                processed, inserted, failed, List.copyOf(errors));
+    }
+
+    // ============================================
+    // DTO
+    // ============================================
+
+    public record RowError(long line, String message) {}
+
+    public record Progress(
+            String importId,
+            Status status,
+            Instant startedAt,
+            Instant finishedAt,
+            String message,
+            long processed,
+            long inserted,
+            long failed,
+            List<RowError> errors
+    ) {}
+
+    /**
+     * Kết quả ghi một batch (từ UserImportRepository), errors tối đa MAX_ERRORS dòng đầu
+     */
+    public record BatchResult(int inserted, List<RowError> errors) {}
+}
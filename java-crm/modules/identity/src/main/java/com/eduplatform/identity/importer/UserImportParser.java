@@ -0,0 +1,218 @@
+package com.eduplatform.identity.importer;
+
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.JsonObject;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * UserImportParser - Parse từng dòng file import thành UserImportRow
+ * 
+ * - csv:    dòng đầu là header, mỗi dòng 1 record (không hỗ trợ xuống dòng trong ô)
+ * - ndjson: mỗi dòng 1 JSON object
+ * 
+ * Cột / key (không phân biệt hoa thường, chấp nhận snake_case):
+ * username, email, password, firstName, lastName, phone, roles, studentCode, dateOfBirth, gender
+ * 
+ * Dòng lỗi → IllegalArgumentException (message trả về client kèm số dòng).
+ * Một instance cho một request (giữ header của CSV).
+ */
+public final class UserImportParser {
+
+    public enum Format { CSV, NDJSON }
+
+    private static final int MAX_FIELD_LENGTH = 255;
+
+    private final Format format;
+    private String[] header;
+
+    private UserImportParser(Format format) {
+        this.format = format;
+    }
+
+    public static UserImportParser of(String format) {
+        if (format == null || format.isBlank() || format.equalsIgnoreCase("csv")) {
+            return new UserImportParser(Format.CSV);
+        }
+        if (format.equalsIgnoreCase("ndjson") || format.equalsIgnoreCase("jsonl")) {
+            return new UserImportParser(Format.NDJSON);
+        }
+        throw new IllegalArgumentException("Format không hỗ trợ: " + format + " (csv | ndjson)");
+    }
+
+    /**
+     * @return row, null nếu là header / dòng trống
+     */
+    public UserImportRow parse(String line, long lineNo) {
+        if (line.isBlank()) {
+            return null;
+        }
+        Map<String, String> values = format == Format.CSV ? parseCsv(line) : parseJson(line);
+        return values == null ? null : toRow(values, lineNo);
+    }
+
+    // ============================================
+    // CSV
+    // ============================================
+
+    private Map<String, String> parseCsv(String line) {
+        List<String> cells = splitCsv(line);
+        if (header == null) {
+            header = cells.stream().map(UserImportParser::normalizeKey).toArray(String[]::new);
+            return null;
+        }
+        if (cells.size() > header.length) {
+            throw new IllegalArgumentException("Số cột (" + cells.size() + ") nhiều hơn header (" + header.length + ")");
+        }
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < cells.size(); i++) {
+            values.put(header[i], cells.get(i));
+        }
+        return values;
+    }
+
+    /**
+     * Tách 1 dòng CSV (RFC 4180: ô trong dấu nháy kép, "" là dấu nháy)
+     */
+    static List<String> splitCsv(String line) {
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        cell.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    cell.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                cells.add(cell.toString());
+                cell.setLength(0);
+            } else {
+                cell.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Thiếu dấu nháy đóng");
+        }
+        cells.add(cell.toString());
+        return cells;
+    }
+
+    // ============================================
+    // NDJSON
+    // ============================================
+
+    private Map<String, String> parseJson(String line) {
+        JsonObject json;
+        try {
+            json = new JsonObject(line);
+        } catch (DecodeException e) {
+            throw new IllegalArgumentException("JSON không hợp lệ");
+        }
+        Map<String, String> values = new HashMap<>();
+        for (Map.Entry<String, Object> entry : json) {
+            Object value = entry.getValue();
+            if (value instanceof Iterable<?> list) {
+                // "roles": ["STUDENT", "TEACHER"]
+                StringBuilder joined = new StringBuilder();
+                for (Object item : list) {
+                    if (!joined.isEmpty()) joined.append('|');
+                    joined.append(item);
+                }
+                value = joined.toString();
+            }
+            values.put(normalizeKey(entry.getKey()), value != null ? value.toString() : null);
+        }
+        return values;
+    }
+
+    // ============================================
+    // Validate
+    // ============================================
+
+    private static UserImportRow toRow(Map<String, String> values, long lineNo) {
+        UserImportRow row = new UserImportRow(lineNo);
+
+        row.setUsername(required(values, "username", "Username"));
+        String email = required(values, "email", "Email");
+        if (email.indexOf('@') <= 0) {
+            throw new IllegalArgumentException("Email không hợp lệ: " + email);
+        }
+        row.setEmail(email);
+        row.setPassword(optional(values, "password"));
+        row.setFirstName(optional(values, "firstname"));
+        row.setLastName(optional(values, "lastname"));
+        row.setPhone(optional(values, "phone"));
+        row.setRoleCodes(normalizeRoles(optional(values, "roles")));
+        row.setStudentCode(optional(values, "studentcode"));
+
+        String dateOfBirth = optional(values, "dateofbirth");
+        if (dateOfBirth != null) {
+            try {
+                row.setDateOfBirth(LocalDate.parse(dateOfBirth));
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("dateOfBirth không hợp lệ (yyyy-MM-dd): " + dateOfBirth);
+            }
+        }
+
+        String gender = optional(values, "gender");
+        row.setGender(gender != null ? gender.toUpperCase(Locale.ROOT) : null);
+        return row;
+    }
+
+    private static String required(Map<String, String> values, String key, String label) {
+        String value = optional(values, key);
+        if (value == null) {
+            throw new IllegalArgumentException(label + " không được để trống");
+        }
+        return value;
+    }
+
+    private static String optional(Map<String, String> values, String key) {
+        String value = values.get(key);
+        if (value == null) {
+            return null;
+        }
+        value = value.trim();
+        if (value.isEmpty()) {
+            return null;
+        }
+        if (value.length() > MAX_FIELD_LENGTH) {
+            throw new IllegalArgumentException(key + " vượt quá " + MAX_FIELD_LENGTH + " ký tự");
+        }
+        return value;
+    }
+
+    private static String normalizeRoles(String roles) {
+        if (roles == null) {
+            return null;
+        }
+        StringBuilder normalized = new StringBuilder();
+        for (String code : roles.split("[|;]")) {
+            String trimmed = code.trim().toUpperCase(Locale.ROOT);
+            if (trimmed.isEmpty()) continue;
+            if (!normalized.isEmpty()) normalized.append('|');
+            normalized.append(trimmed);
+        }
+        return normalized.isEmpty() ? null : normalized.toString();
+    }
+
+    private static String normalizeKey(String key) {
+        return key.trim().replace("_", "").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,184 @@
+package com.eduplatform.identity.importer;
+
+import com.eduplatform.common.constant.ErrorCode;
+import com.eduplatform.common.exception.AppException;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.core.SingleEmitter;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.parsetools.RecordParser;
+import io.vertx.core.streams.ReadStream;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * UserImportPipeline - Đọc body upload theo dòng, gom batch, ghi từng batch có backpressure
+ * 
+ * Flow:
+ *   body (ReadStream, chưa buffer) → RecordParser("\n") → UserImportParser → batch (N rows)
+ *   → writer(batch) [hash + COPY trên worker pool] → ghi nhận tiến độ → đọc tiếp
+ * 
+ * Trong lúc một batch đang ghi, stream bị pause → TCP backpressure về client,
+ * bộ nhớ chỉ giữ tối đa 1 batch đang ghi + 1 batch đang gom, bất kể file lớn cỡ nào.
+ * 
+ * Các handler chạy trên event loop, callback của writer chạy trên worker thread
+ * → state được bảo vệ bằng synchronized (pause/resume của request là thread-safe).
+ */
+@Slf4j
+public final class UserImportPipeline {
+
+    /**
+     * Giới hạn độ dài 1 dòng - chặn file không có newline làm đầy heap
+     */
+    private static final int MAX_LINE_BYTES = 64 * 1024;
+
+    private final ReadStream<Buffer> body;
+    private final UserImportParser parser;
+    private final UserImportJob job;
+    private final int batchSize;
+    private final Function<List<UserImportRow>, Single<UserImportJob.BatchResult>> writer;
+
+    private RecordParser lines;
+    private SingleEmitter<UserImportJob.Progress> emitter;
+
+    private List<UserImportRow> batch;
+    private long lineNo;
+    private boolean ended;
+    private boolean inFlight;
+
+    public UserImportPipeline(ReadStream<Buffer> body,
+                              UserImportParser parser,
+                              UserImportJob job,
+                              int batchSize,
+                              Function<List<UserImportRow>, Single<UserImportJob.BatchResult>> writer) {
+        this.body = body;
+        this.parser = parser;
+        this.job = job;
+        this.batchSize = batchSize;
+        this.writer = writer;
+        this.batch = new ArrayList<>(batchSize);
+    }
+
+    /**
+     * Chạy pipeline - Single complete khi đọc hết body và batch cuối đã commit
+     */
+    public Single<UserImportJob.Progress> run() {
+        return Single.create(e -> {
+            synchronized (this) {
+                emitter = e;
+                lines = RecordParser.newDelimited("\n", body);
+                lines.maxRecordSize(MAX_LINE_BYTES);
+                lines.exceptionHandler(this::onStreamError);
+                lines.endHandler(v -> onEnd());
+                lines.handler(this::onLine);
+            }
+            // Request được pause ở WebConfig (route streaming) cho tới khi pipeline sẵn sàng
+            lines.resume();
+        });
+    }
+
+    // ============================================
+    // Stream handlers (event loop)
+    // ============================================
+
+    private synchronized void onLine(Buffer buffer) {
+        if (job.isFinished()) {
+            return;
+        }
+        lineNo++;
+
+        String line = buffer.toString();
+        if (line.endsWith("\r")) {
+            line = line.substring(0, line.length() - 1);
+        }
+
+        try {
+            UserImportRow row = parser.parse(line, lineNo);
+            if (row != null) {
+                batch.add(row);
+            }
+        } catch (IllegalArgumentException e) {
+            job.rowRejected(lineNo, e.getMessage());
+        }
+
+        if (batch.size() >= batchSize) {
+            flush();
+        }
+    }
+
+    private synchronized void onEnd() {
+        ended = true;
+        flush();
+    }
+
+    private synchronized void onStreamError(Throwable error) {
+        // maxRecordSize vượt → IllegalStateException; client ngắt kết nối → IOException
+        String reason = error instanceof IllegalStateException
+                ? "Dòng " + (lineNo + 1) + " vượt quá " + MAX_LINE_BYTES + " bytes"
+                : "Upload bị gián đoạn: " + error.getMessage();
+        fail(new AppException(ErrorCode.BAD_REQUEST, reason));
+    }
+
+    // ============================================
+    // Batch
+    // ============================================
+
+    /**
+     * Gửi batch hiện tại đi ghi (tối đa 1 batch in-flight)
+     */
+    private void flush() {
+        if (inFlight || job.isFinished()) {
+            return;
+        }
+        if (batch.isEmpty()) {
+            if (ended) {
+                job.complete();
+                emitter.onSuccess(job.snapshot());
+            }
+            return;
+        }
+
+        List<UserImportRow> rows = batch;
+        batch = new ArrayList<>(batchSize);
+        inFlight = true;
+        if (!ended) {
+            lines.pause();
+        }
+
+        writer.apply(rows).subscribe(
+                result -> onBatchWritten(rows.size(), result),
+                this::onBatchFailed
+        );
+    }
+
+    private synchronized void onBatchWritten(int rows, UserImportJob.BatchResult result) {
+        inFlight = false;
+        job.batchCompleted(rows, result.inserted(), result.errors());
+
+        if (ended || batch.size() >= batchSize) {
+            flush();
+        }
+        if (!ended && !inFlight) {
+            lines.resume();
+        }
+    }
+
+    private synchronized void onBatchFailed(Throwable error) {
+        inFlight = false;
+        log.error("User import {} failed at line ~{}", job.getId(), lineNo, error);
+        fail(error);
+    }
+
+    private void fail(Throwable error) {
+        if (job.isFinished()) {
+            return;
+        }
+        job.fail(error.getMessage());
+        batch = new ArrayList<>(0);
+        // Đọc bỏ phần còn lại của body (onLine bỏ qua khi job đã kết thúc)
+        lines.resume();
+        emitter.onError(error);
+    }
+}
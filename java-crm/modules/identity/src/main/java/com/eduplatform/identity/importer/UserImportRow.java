@@ -0,0 +1,36 @@
+package com.eduplatform.identity.importer;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * UserImportRow - Một dòng của file import (CSV / NDJSON) đã parse + validate
+ * 
+ * password chỉ giữ tới khi hash xong (hash trên CPU pool), sau đó bị xóa.
+ * roleCodes: mã role phân cách bằng '|' (VD: "STUDENT|TEACHER").
+ * studentCode có giá trị → tạo student_profiles.
+ */
+@Getter
+@Setter
+public class UserImportRow {
+
+    private final long lineNo;
+
+    private String username;
+    private String email;
+    private String password;
+    private String passwordHash;
+    private String firstName;
+    private String lastName;
+    private String phone;
+    private String roleCodes;
+    private String studentCode;
+    private LocalDate dateOfBirth;
+    private String gender;
+
+    public UserImportRow(long lineNo) {
+        this.lineNo = lineNo;
+    }
+}
@@ -0,0 +1,88 @@
+package com.eduplatform.identity.repository;
+
+import com.eduplatform.common.db.BatchLoader;
+import com.eduplatform.identity.entity.User;
+import com.eduplatform.infra.jooq.tx.JooqTransactions;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * IdentityBatchLoaders - Lookup theo userId được gom giữa các request đồng thời
+ *
+ * Dùng cho hot path đọc (build SecurityUser, permission check): N request cùng lúc
+ * → 1 query {@code WHERE id = ANY(?)} thay vì N query.
+ *
+ * Trong transaction (JooqTransactions.isActive()) tự gọi thẳng repository: batch chạy
+ * trên connection khác, không thấy dữ liệu chưa commit của chính transaction đó.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IdentityBatchLoaders {
+
+    private final UserRepository userRepository;
+    private final RoleRepository roleRepository;
+    private final IdentityCaches caches;
+
+    @Value("${app.identity.batch-loader.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.identity.batch-loader.window-micros:200}")
+    private long windowMicros = 200;
+
+    @Value("${app.identity.batch-loader.max-batch-size:128}")
+    private int maxBatchSize = 128;
+
+    private BatchLoader<UUID, User> users;
+    private BatchLoader<UUID, List<String>> roleNames;
+    private BatchLoader<UUID, List<UUID>> roleIds;
+
+    @PostConstruct
+    public void init() {
+        Duration window = Duration.ofNanos(windowMicros * 1_000);
+        users = BatchLoader.create("users.byId", window, maxBatchSize, userRepository::getUsersByIds);
+        roleNames = BatchLoader.create("roles.namesByUserId", window, maxBatchSize, roleRepository::getRoleNamesByUserIds);
+        roleIds = BatchLoader.create("roles.idsByUserId", window, maxBatchSize, userRepository::getRoleIdsByUserIds);
+        log.info("IdentityBatchLoaders: enabled={}, window={}µs, maxBatchSize={}", enabled, windowMicros, maxBatchSize);
+    }
+
+    /**
+     * = UserRepository.getUserById, cache miss được gom batch
+     */
+    public User user(UUID userId) {
+        return batching() ? caches.user(userId, () -> users.load(userId)) : userRepository.getUserById(userId);
+    }
+
+    /**
+     * = RoleRepository.getRoleNamesByUserId, gom batch
+     */
+    public List<String> roleNames(UUID userId) {
+        if (!batching()) {
+            return roleRepository.getRoleNamesByUserId(userId);
+        }
+        List<String> names = roleNames.load(userId);
+        return names != null ? names : List.of();
+    }
+
+    /**
+     * = UserRepository.getRoleIds, gom batch
+     */
+    public List<UUID> roleIds(UUID userId) {
+        if (!batching()) {
+            return userRepository.getRoleIds(userId);
+        }
+        List<UUID> ids = roleIds.load(userId);
+        return ids != null ? ids : List.of();
+    }
+
+    private boolean batching() {
+        return enabled && !JooqTransactions.isActive();
+    }
+}
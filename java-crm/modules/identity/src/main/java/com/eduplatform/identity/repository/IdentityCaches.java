@@ -0,0 +1,179 @@
+package com.eduplatform.identity.repository;
+
+import com.eduplatform.common.cache.EntityCache;
+import com.eduplatform.common.vertx.security.ResolvedPermissions;
+import com.eduplatform.identity.entity.Role;
+import com.eduplatform.identity.entity.User;
+import com.eduplatform.infra.jooq.tx.JooqTransactions;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * IdentityCaches - Các region EntityCache của module identity
+ *
+ * - users.byId:      User theo id
+ * - users.idByLogin: username/email → id (resolve rồi đọc users.byId, kiểm tra lại khi dùng)
+ * - roles.byName:    Role theo name
+ * - roles.all:       danh sách tất cả roles
+ * - permissions.byUser: permissions đã index của user (AuthorizationStage check trên event loop)
+ *
+ * Đọc trong transaction (JooqTransactions) → bypass cache: không nạp dữ liệu chưa commit.
+ * Mutator gọi evict*(): invalidate ngay + lần nữa sau khi transaction kết thúc.
+ */
+@Slf4j
+@Component
+public class IdentityCaches {
+
+    private static final String ALL = "all";
+
+    @Value("${app.identity.cache.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.identity.cache.users.max-size:10000}")
+    private int userMaxSize = 10_000;
+
+    @Value("${app.identity.cache.users.ttl-seconds:300}")
+    private long userTtlSeconds = 300;
+
+    @Value("${app.identity.cache.roles.max-size:1000}")
+    private int roleMaxSize = 1_000;
+
+    @Value("${app.identity.cache.roles.ttl-seconds:600}")
+    private long roleTtlSeconds = 600;
+
+    @Value("${app.identity.cache.permissions.ttl-seconds:60}")
+    private long permissionTtlSeconds = 60;
+
+    private EntityCache<UUID, User> users;
+    private EntityCache<String, UUID> userIdsByLogin;
+    private EntityCache<String, Role> rolesByName;
+    private EntityCache<String, List<Role>> allRoles;
+    private EntityCache<UUID, ResolvedPermissions> permissions;
+
+    @PostConstruct
+    public void init() {
+        Duration userTtl = Duration.ofSeconds(userTtlSeconds);
+        Duration roleTtl = Duration.ofSeconds(roleTtlSeconds);
+        users = EntityCache.create("users.byId", userMaxSize, userTtl);
+        userIdsByLogin = EntityCache.create("users.idByLogin", userMaxSize, userTtl);
+        rolesByName = EntityCache.create("roles.byName", roleMaxSize, roleTtl);
+        allRoles = EntityCache.create("roles.all", 1, roleTtl);
+        permissions = EntityCache.create("permissions.byUser", userMaxSize, Duration.ofSeconds(permissionTtlSeconds));
+        log.info("IdentityCaches: enabled={}, users={}/{}s, roles={}/{}s, permissions={}s",
+                enabled, userMaxSize, userTtlSeconds, roleMaxSize, roleTtlSeconds, permissionTtlSeconds);
+    }
+
+    // ============================================
+    // Read-through
+    // ============================================
+
+    public User user(UUID id, Supplier<User> loader) {
+        return read(users, id, loader);
+    }
+
+    /**
+     * User đang có trong cache (không load) - cho path reactive
+     */
+    public User cachedUser(UUID id) {
+        return usable() ? users.getIfPresent(id) : null;
+    }
+
+    public UUID userIdByLogin(String login, Supplier<UUID> loader) {
+        return read(userIdsByLogin, login, loader);
+    }
+
+    public Role roleByName(String name, Supplier<Role> loader) {
+        return read(rolesByName, name, loader);
+    }
+
+    public List<Role> allRoles(Supplier<List<Role>> loader) {
+        return read(allRoles, ALL, () -> List.copyOf(loader.get()));
+    }
+
+    public ResolvedPermissions permissions(UUID userId, Supplier<ResolvedPermissions> loader) {
+        return read(permissions, userId, loader);
+    }
+
+    /**
+     * Permissions đang có trong cache (không load) - gọi trên event loop
+     */
+    public ResolvedPermissions cachedPermissions(UUID userId) {
+        return usable() ? permissions.getIfPresent(userId) : null;
+    }
+
+    /**
+     * Hit / miss của permissions.byUser - cache AuthorizationStage dùng
+     */
+    public EntityCache.Stats permissionStats() {
+        return permissions.stats();
+    }
+
+    private <K, V> V read(EntityCache<K, V> cache, K key, Supplier<V> loader) {
+        return usable() ? cache.get(key, loader) : loader.get();
+    }
+
+    private boolean usable() {
+        return enabled && !JooqTransactions.isActive();
+    }
+
+    // ============================================
+    // Invalidation
+    // ============================================
+
+    public void evictUser(UUID id) {
+        users.invalidate(id);
+        JooqTransactions.afterCompletion(() -> users.invalidate(id));
+    }
+
+    /**
+     * Login mapping tự sửa khi đọc (kiểm tra username/email), chỉ cần evict khi biết login cũ
+     */
+    public void evictLogin(String login) {
+        userIdsByLogin.invalidate(login);
+        JooqTransactions.afterCompletion(() -> userIdsByLogin.invalidate(login));
+    }
+
+    /**
+     * Ghi hàng loạt (import) - bỏ toàn bộ region users
+     */
+    public void evictAllUsers() {
+        users.invalidateAll();
+        userIdsByLogin.invalidateAll();
+        JooqTransactions.afterCompletion(() -> {
+            users.invalidateAll();
+            userIdsByLogin.invalidateAll();
+        });
+    }
+
+    /**
+     * Roles của user thay đổi
+     */
+    public void evictPermissions(UUID userId) {
+        permissions.invalidate(userId);
+        JooqTransactions.afterCompletion(() -> permissions.invalidate(userId));
+    }
+
+    /**
+     * Permissions của role / role bị xóa - không biết user nào bị ảnh hưởng
+     */
+    public void evictAllPermissions() {
+        permissions.invalidateAll();
+        JooqTransactions.afterCompletion(permissions::invalidateAll);
+    }
+
+    public void evictRoles() {
+        Runnable evict = () -> {
+            rolesByName.invalidateAll();
+            allRoles.invalidateAll();
+        };
+        evict.run();
+        JooqTransactions.afterCompletion(evict);
+    }
+}
@@ -1,9 +1,13 @@
 package com.eduplatform.identity.repository;
 
+import com.eduplatform.infra.jooq.condition.ArrayConditions;
+import com.eduplatform.infra.jooq.reactive.ReactiveJooqExecutor;
+import io.reactivex.rxjava3.core.Single;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.jooq.Condition;
 import org.jooq.DSLContext;
+import org.jooq.InsertValuesStep2;
 import org.jooq.impl.DSL;
 import org.springframework.stereotype.Repository;
 
@@ -24,6 +28,8 @@ import static org.apache.commons.lang3.StringUtils.isNotEmpty;
 public class PermissionRepository {
 
     private final DSLContext dsl;
+    private final ReactiveJooqExecutor reactive;
+    private final IdentityCaches caches;
 
     /**
      * Build condition cho search permissions
@@ -32,7 +38,7 @@ public class PermissionRepository {
         Condition condition = DSL.trueCondition();
 
         if (roleIds != null && !roleIds.isEmpty()) {
-            condition = condition.and(ROLE_PERMISSIONS.ROLE_ID.in(roleIds));
+            condition = condition.and(ArrayConditions.in(ROLE_PERMISSIONS.ROLE_ID, roleIds));
         }
 
         if (isNotEmpty(resource)) {
@@ -93,7 +99,7 @@ public class PermissionRepository {
         var result = dsl.select(PERMISSIONS.RESOURCE, PERMISSIONS.ACTION)
                 .from(ROLE_PERMISSIONS)
                 .join(PERMISSIONS).on(ROLE_PERMISSIONS.PERMISSION_ID.eq(PERMISSIONS.ID))
-                .where(ROLE_PERMISSIONS.ROLE_ID.in(roleIds))
+                .where(ArrayConditions.in(ROLE_PERMISSIONS.ROLE_ID, roleIds))
                 .fetch();
 
         Map<String, List<String>> matrix = new HashMap<>();
@@ -131,6 +137,30 @@ public class PermissionRepository {
         return matrix;
     }
 
+    /**
+     * Lấy permission matrix theo userId (non-blocking, Vert.x PG client)
+     */
+    public Single<Map<String, List<String>>> getPermissionMatrixByUserIdAsync(UUID userId) {
+        if (userId == null) {
+            return Single.just(new HashMap<>());
+        }
+
+        return reactive.fetch(dsl.select(PERMISSIONS.RESOURCE, PERMISSIONS.ACTION)
+                        .from(USER_ROLES)
+                        .join(ROLE_PERMISSIONS).on(USER_ROLES.ROLE_ID.eq(ROLE_PERMISSIONS.ROLE_ID))
+                        .join(PERMISSIONS).on(ROLE_PERMISSIONS.PERMISSION_ID.eq(PERMISSIONS.ID))
+                        .where(USER_ROLES.USER_ID.eq(userId)))
+                .map(result -> {
+                    Map<String, List<String>> matrix = new HashMap<>();
+                    for (var record : result) {
+                        String resource = record.get(PERMISSIONS.RESOURCE);
+                        String action = record.get(PERMISSIONS.ACTION);
+                        matrix.computeIfAbsent(resource, k -> new ArrayList<>()).add(action);
+                    }
+                    return matrix;
+                });
+    }
+
     /**
      * Lấy tất cả permissions của một role
      */
@@ -193,6 +223,7 @@ public class PermissionRepository {
                 .set(ROLE_PERMISSIONS.PERMISSION_ID, permissionId)
                 .onDuplicateKeyIgnore()
                 .execute();
+        caches.evictAllPermissions();
     }
 
     /**
@@ -201,31 +232,45 @@ public class PermissionRepository {
     public boolean removePermission(UUID roleId, UUID permissionId) {
         if (roleId == null || permissionId == null) return false;
 
-        return dsl.deleteFrom(ROLE_PERMISSIONS)
+        boolean removed = dsl.deleteFrom(ROLE_PERMISSIONS)
                 .where(ROLE_PERMISSIONS.ROLE_ID.eq(roleId))
                 .and(ROLE_PERMISSIONS.PERMISSION_ID.eq(permissionId))
                 .execute() > 0;
+        caches.evictAllPermissions();
+        return removed;
     }
 
     /**
-     * Thay thế tất cả permissions của role
+     * Gán nhiều permissions cho role - 1 multi-row INSERT, bỏ qua permission đã gán
+     */
+    public int insertPermissions(UUID roleId, Collection<UUID> permissionIds) {
+        if (roleId == null || permissionIds == null || permissionIds.isEmpty()) return 0;
+
+        InsertValuesStep2<?, UUID, UUID> insert = dsl.insertInto(ROLE_PERMISSIONS,
+                ROLE_PERMISSIONS.ROLE_ID, ROLE_PERMISSIONS.PERMISSION_ID);
+        for (UUID permId : permissionIds) {
+            insert = insert.values(roleId, permId);
+        }
+        int inserted = insert.onConflictDoNothing().execute();
+        caches.evictAllPermissions();
+        return inserted;
+    }
+
+    /**
+     * Thay thế tất cả permissions của role - 2 statements trong 1 transaction:
+     * xóa permissions không còn trong danh sách + multi-row INSERT permissions mới
      */
     public void replacePermissions(UUID roleId, List<UUID> permissionIds) {
         if (roleId == null) return;
 
-        // Xóa permissions cũ
-        dsl.deleteFrom(ROLE_PERMISSIONS)
-                .where(ROLE_PERMISSIONS.ROLE_ID.eq(roleId))
-                .execute();
+        dsl.transaction(() -> {
+            dsl.deleteFrom(ROLE_PERMISSIONS)
+                    .where(ROLE_PERMISSIONS.ROLE_ID.eq(roleId))
+                    .and(ArrayConditions.notIn(ROLE_PERMISSIONS.PERMISSION_ID, permissionIds))
+                    .execute();
 
-        // Thêm permissions mới
-        if (permissionIds != null && !permissionIds.isEmpty()) {
-            for (UUID permId : permissionIds) {
-                dsl.insertInto(ROLE_PERMISSIONS)
-                        .set(ROLE_PERMISSIONS.ROLE_ID, roleId)
-                        .set(ROLE_PERMISSIONS.PERMISSION_ID, permId)
-                        .execute();
-            }
-        }
+            insertPermissions(roleId, permissionIds);
+        });
+        caches.evictAllPermissions();
     }
 }
@@ -1,6 +1,7 @@
 package com.eduplatform.identity.repository;
 
 import com.eduplatform.identity.entity.Role;
+import com.eduplatform.infra.jooq.condition.ArrayConditions;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
@@ -12,7 +13,9 @@ import org.jooq.impl.DSL;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static com.eduplatform.jooq.generated.Tables.*;
@@ -28,6 +31,7 @@ import static org.apache.commons.lang3.StringUtils.isNotEmpty;
 public class RoleRepository {
 
     private final DSLContext dsl;
+    private final IdentityCaches caches;
 
     /**
      * Danh sách fields của Role
@@ -99,12 +103,12 @@ public class RoleRepository {
     public Role getRoleByName(String name) {
         if (StringUtils.isBlank(name)) return null;
 
-        return dsl.select(getRoleFields())
+        return caches.roleByName(name, () -> dsl.select(getRoleFields())
                 .from(ROLES)
                 .where(ROLES.NAME.eq(name))
                 .fetchOptional()
                 .map(this::mapToRole)
-                .orElse(null);
+                .orElse(null));
     }
 
     /**
@@ -134,6 +138,20 @@ public class RoleRepository {
                 .fetch(ROLES.NAME);
     }
 
+    /**
+     * Role names của nhiều users - 1 query, 1 array bind (BatchLoader dùng)
+     * User không có role → không có trong map
+     */
+    public Map<UUID, List<String>> getRoleNamesByUserIds(Collection<UUID> userIds) {
+        if (userIds == null || userIds.isEmpty()) return Map.of();
+
+        return dsl.select(USER_ROLES.USER_ID, ROLES.NAME)
+                .from(USER_ROLES)
+                .join(ROLES).on(USER_ROLES.ROLE_ID.eq(ROLES.ID))
+                .where(ArrayConditions.in(USER_ROLES.USER_ID, userIds))
+                .fetchGroups(USER_ROLES.USER_ID, ROLES.NAME);
+    }
+
     /**
      * Kiểm tra user có role không
      */
@@ -178,14 +196,14 @@ public class RoleRepository {
     }
 
     /**
-     * Lấy tất cả roles (không phân trang)
+     * Lấy tất cả roles (không phân trang) - cache, list trả về là immutable
      */
     public List<Role> findAllRoles() {
-        return dsl.select(getRoleFields())
+        return caches.allRoles(() -> dsl.select(getRoleFields())
                 .from(ROLES)
                 .orderBy(ROLES.NAME)
                 .fetch()
-                .map(this::mapToRole);
+                .map(this::mapToRole));
     }
 
     // ==================== MUTATION METHODS ====================
@@ -204,6 +222,7 @@ public class RoleRepository {
                 .set(ROLES.CREATED_AT, now)
                 .set(ROLES.UPDATED_AT, now)
                 .execute();
+        caches.evictRoles();
 
         role.setId(roleId);
         role.setCreatedAt(now);
@@ -223,6 +242,7 @@ public class RoleRepository {
                 .set(ROLES.UPDATED_AT, now)
                 .where(ROLES.ID.eq(role.getId()))
                 .execute();
+        caches.evictRoles();
 
         role.setUpdatedAt(now);
         return role;
@@ -245,9 +265,12 @@ public class RoleRepository {
                 .execute();
 
         // Xóa role
-        return dsl.deleteFrom(ROLES)
+        boolean deleted = dsl.deleteFrom(ROLES)
                 .where(ROLES.ID.eq(roleId))
                 .execute() > 0;
+        caches.evictRoles();
+        caches.evictAllPermissions();
+        return deleted;
     }
 
     /**
@@ -0,0 +1,323 @@
+package com.eduplatform.identity.repository;
+
+import com.eduplatform.identity.importer.UserImportJob;
+import com.eduplatform.identity.importer.UserImportRow;
+import com.eduplatform.infra.jooq.condition.ArrayConditions;
+import com.eduplatform.infra.jooq.tx.JooqTransactions;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.DSLContext;
+import org.jooq.impl.DSL;
+import org.jooq.impl.SQLDataType;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.core.BaseConnection;
+import org.springframework.stereotype.Repository;
+
+import java.io.StringReader;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static com.eduplatform.jooq.generated.Tables.USERS;
+
+/**
+ * UserImportRepository - Ghi batch import users bằng COPY + set-based SQL
+ * 
+ * Mỗi batch (1 transaction):
+ * 1. COPY rows vào temp table user_import_stage (ON COMMIT DELETE ROWS, tái dùng theo connection)
+ * 2. Đánh dấu dòng lỗi bằng UPDATE trên stage (trùng trong file, username / email đã tồn tại,
+ *    thiếu password, role không tồn tại / actor không được gán, student_code đã có)
+ * 3. INSERT ... SELECT ... ON CONFLICT DO NOTHING vào users - user tạo đồng thời → dòng lỗi
+ * 4. INSERT user_roles theo roles.code cho user vừa tạo
+ * 5. INSERT student_profiles (nếu schema có bảng student_profiles với user_id UUID)
+ * 
+ * Import chỉ tạo user mới (quyền USER:ADD): không sửa email / profile / roles của user đã có
+ * → không dùng được để chiếm tài khoản (đổi email) hay tự nâng quyền.
+ * Role chỉ gán được nếu actor đang có role đó (SUPER_ADMIN gán được mọi role).
+ * 
+ * → Số round-trip cố định mỗi batch, không phụ thuộc số dòng.
+ * Dòng lỗi không chặn các dòng khác trong batch.
+ */
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class UserImportRepository {
+
+    private static final String STAGE_COLUMNS =
+            "line_no, username, email, password_hash, first_name, last_name, phone, " +
+            "role_codes, student_code, date_of_birth, gender";
+
+    private final DSLContext dsl;
+    private final JooqTransactions transactions;
+    private final IdentityCaches caches;
+
+    private volatile Boolean studentProfilesSupported;
+
+    /**
+     * Usernames đã tồn tại trong batch (1 query, 1 array bind)
+     * → service không tốn bcrypt cho dòng chắc chắn bị từ chối
+     */
+    public Set<String> findExistingUsernames(Collection<String> usernames) {
+        if (usernames.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(dsl.select(USERS.USERNAME)
+                .from(USERS)
+                .where(ArrayConditions.in(USERS.USERNAME, usernames))
+                .fetch(USERS.USERNAME));
+    }
+
+    /**
+     * student_profiles có trong schema và user_id kiểu UUID (khớp users.id)?
+     * Kết quả cache lại - schema không đổi khi app đang chạy.
+     */
+    public boolean supportsStudentProfiles() {
+        Boolean supported = studentProfilesSupported;
+        if (supported == null) {
+            String userIdType = dsl.fetchValue(
+                    "SELECT format_type(a.atttypid, a.atttypmod) FROM pg_attribute a " +
+                    "WHERE a.attrelid = to_regclass('public.student_profiles') AND a.attname = 'user_id'",
+                    String.class);
+            supported = "uuid".equals(userIdType);
+            if (!supported) {
+                log.info("student_profiles not importable (user_id type: {}), skipping profile stage", userIdType);
+            }
+            studentProfilesSupported = supported;
+        }
+        return supported;
+    }
+
+    /**
+     * Ghi 1 batch - trả về số user được tạo + lỗi từng dòng
+     */
+    public UserImportJob.BatchResult importBatch(List<UserImportRow> rows, UUID actorId) {
+        boolean withProfiles = supportsStudentProfiles();
+
+        return transactions.inTransaction(() -> {
+            createStage();
+            copyToStage(rows);
+            markInvalidRows(withProfiles, actorId);
+
+            int inserted = insertUsers(actorId);
+            insertUserRoles();
+            if (withProfiles) {
+                insertStudentProfiles();
+            }
+            caches.evictAllUsers();
+            caches.evictAllPermissions();
+
+            List<UserImportJob.RowError> errors = dsl.fetch(
+                            "SELECT line_no, error FROM user_import_stage WHERE error IS NOT NULL ORDER BY line_no LIMIT {0}",
+                            DSL.inline(UserImportJob.MAX_ERRORS))
+                    .map(r -> new UserImportJob.RowError(r.get(0, Long.class), r.get(1, String.class)));
+
+            return new UserImportJob.BatchResult(inserted, errors);
+        });
+    }
+
+    // ============================================
+    // Stage
+    // ============================================
+
+    private void createStage() {
+        dsl.execute("""
+                CREATE TEMP TABLE IF NOT EXISTS user_import_stage (
+                    line_no BIGINT NOT NULL,
+                    username TEXT NOT NULL,
+                    email TEXT NOT NULL,
+                    password_hash TEXT,
+                    first_name TEXT,
+                    last_name TEXT,
+                    phone TEXT,
+                    role_codes TEXT,
+                    student_code TEXT,
+                    date_of_birth DATE,
+                    gender TEXT,
+                    error TEXT
+                ) ON COMMIT DELETE ROWS""");
+    }
+
+    /**
+     * COPY FROM STDIN (CSV) trên connection của transaction hiện tại
+     */
+    private void copyToStage(List<UserImportRow> rows) {
+        StringBuilder csv = new StringBuilder(rows.size() * 160);
+        for (UserImportRow row : rows) {
+            csv.append(row.getLineNo()).append(',');
+            appendCsv(csv, row.getUsername()).append(',');
+            appendCsv(csv, row.getEmail()).append(',');
+            appendCsv(csv, row.getPasswordHash()).append(',');
+            appendCsv(csv, row.getFirstName()).append(',');
+            appendCsv(csv, row.getLastName()).append(',');
+            appendCsv(csv, row.getPhone()).append(',');
+            appendCsv(csv, row.getRoleCodes()).append(',');
+            appendCsv(csv, row.getStudentCode()).append(',');
+            appendCsv(csv, row.getDateOfBirth() != null ? row.getDateOfBirth().toString() : null).append(',');
+            appendCsv(csv, row.getGender()).append('\n');
+        }
+
+        dsl.connection(conn -> {
+            CopyManager copy = new CopyManager(conn.unwrap(BaseConnection.class));
+            copy.copyIn("COPY user_import_stage (" + STAGE_COLUMNS + ") FROM STDIN WITH (FORMAT csv)",
+                    new StringReader(csv.toString()));
+        });
+    }
+
+    /**
+     * NULL → ô trống không quote, giá trị → luôn quote ("" cho dấu nháy)
+     */
+    private static StringBuilder appendCsv(StringBuilder csv, String value) {
+        if (value == null) {
+            return csv;
+        }
+        csv.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                csv.append('"');
+            }
+            csv.append(c);
+        }
+        return csv.append('"');
+    }
+
+    // ============================================
+    // Validate (set-based, chỉ dòng chưa có lỗi)
+    // ============================================
+
+    private void markInvalidRows(boolean withProfiles, UUID actorId) {
+        // Trùng username / email / student_code với dòng trước đó trong cùng batch
+        dsl.execute("""
+                UPDATE user_import_stage s
+                SET error = 'Trùng username/email/studentCode với dòng ' || d.first_line
+                FROM (
+                    SELECT line_no,
+                           LEAST(min(line_no) OVER (PARTITION BY username),
+                                 min(line_no) OVER (PARTITION BY email),
+                                 CASE WHEN student_code IS NOT NULL
+                                      THEN min(line_no) OVER (PARTITION BY student_code) END) AS first_line
+                    FROM user_import_stage
+                ) d
+                WHERE s.line_no = d.line_no AND d.first_line < d.line_no""");
+
+        // Độ dài theo schema của users / student_profiles
+        dsl.execute("""
+                UPDATE user_import_stage
+                SET error = CASE
+                        WHEN length(phone) > 50 THEN 'Phone vượt quá 50 ký tự'
+                        WHEN length(student_code) > 20 THEN 'studentCode vượt quá 20 ký tự'
+                        ELSE 'Gender vượt quá 10 ký tự' END
+                WHERE error IS NULL
+                  AND (length(phone) > 50 OR length(student_code) > 20 OR length(gender) > 10)""");
+
+        // Import chỉ tạo user mới
+        dsl.execute("""
+                UPDATE user_import_stage s
+                SET error = 'Username đã tồn tại (import chỉ tạo user mới)'
+                FROM users u
+                WHERE s.error IS NULL AND u.username = s.username""");
+
+        dsl.execute("""
+                UPDATE user_import_stage s
+                SET error = 'Email đã được dùng bởi user khác'
+                FROM users u
+                WHERE s.error IS NULL AND u.email = s.email""");
+
+        dsl.execute("""
+                UPDATE user_import_stage s
+                SET error = 'Password không được để trống'
+                WHERE s.error IS NULL AND s.password_hash IS NULL""");
+
+        dsl.execute("""
+                UPDATE user_import_stage s
+                SET error = 'Role không tồn tại: ' || x.codes
+                FROM (
+                    SELECT st.line_no, string_agg(c.code, ',') AS codes
+                    FROM user_import_stage st
+                    CROSS JOIN LATERAL unnest(string_to_array(st.role_codes, '|')) AS c(code)
+                    WHERE NOT EXISTS (SELECT 1 FROM roles r WHERE r.code = c.code)
+                    GROUP BY st.line_no
+                ) x
+                WHERE s.error IS NULL AND s.line_no = x.line_no""");
+
+        // Chỉ gán role actor đang có (đọc user_roles trong transaction, không theo token) - chặn tự nâng quyền
+        dsl.execute("""
+                UPDATE user_import_stage s
+                SET error = 'Không có quyền gán role: ' || x.codes
+                FROM (
+                    SELECT st.line_no, string_agg(c.code, ',') AS codes
+                    FROM user_import_stage st
+                    CROSS JOIN LATERAL unnest(string_to_array(st.role_codes, '|')) AS c(code)
+                    WHERE NOT EXISTS (SELECT 1 FROM user_roles ur JOIN roles r ON r.id = ur.role_id
+                                      WHERE ur.user_id = {0} AND r.code IN (c.code, 'SUPER_ADMIN'))
+                    GROUP BY st.line_no
+                ) x
+                WHERE s.error IS NULL AND s.line_no = x.line_no""", DSL.val(actorId, SQLDataType.UUID));
+
+        if (withProfiles) {
+            dsl.execute("""
+                    UPDATE user_import_stage s
+                    SET error = 'studentCode đã thuộc user khác'
+                    FROM student_profiles p
+                    WHERE s.error IS NULL AND p.student_code = s.student_code""");
+        }
+    }
+
+    // ============================================
+    // Insert
+    // ============================================
+
+    /**
+     * INSERT user mới - username / email bị tạo đồng thời sau bước validate → dòng lỗi,
+     * không cập nhật user đã có
+     * 
+     * @return số user được tạo
+     */
+    private int insertUsers(UUID actorId) {
+        return dsl.fetchOne("""
+                WITH inserted AS (
+                    INSERT INTO users (username, email, password_hash, first_name, last_name, phone,
+                                       status, created_by, updated_by)
+                    SELECT username, email, password_hash, first_name, last_name, phone,
+                           'ACTIVE', {0}, {0}
+                    FROM user_import_stage
+                    WHERE error IS NULL
+                    ORDER BY line_no
+                    ON CONFLICT DO NOTHING
+                    RETURNING username
+                ), conflicted AS (
+                    UPDATE user_import_stage s
+                    SET error = 'Username / email đã tồn tại (import chỉ tạo user mới)'
+                    WHERE s.error IS NULL
+                      AND s.username NOT IN (SELECT username FROM inserted)
+                )
+                SELECT count(*)::int FROM inserted""", DSL.val(actorId, SQLDataType.UUID)).get(0, Integer.class);
+    }
+
+    /**
+     * Gán roles cho user vừa tạo (dòng hợp lệ = user mới)
+     */
+    private void insertUserRoles() {
+        dsl.execute("""
+                INSERT INTO user_roles (user_id, role_id)
+                SELECT u.id, r.id
+                FROM user_import_stage s
+                JOIN users u ON u.username = s.username
+                CROSS JOIN LATERAL unnest(string_to_array(s.role_codes, '|')) AS c(code)
+                JOIN roles r ON r.code = c.code
+                WHERE s.error IS NULL
+                ON CONFLICT DO NOTHING""");
+    }
+
+    private void insertStudentProfiles() {
+        dsl.execute("""
+                INSERT INTO student_profiles (user_id, student_code, date_of_birth, gender, phone)
+                SELECT u.id, s.student_code, s.date_of_birth, s.gender, s.phone
+                FROM user_import_stage s
+                JOIN users u ON u.username = s.username
+                WHERE s.error IS NULL AND s.student_code IS NOT NULL
+                ON CONFLICT DO NOTHING""");
+    }
+}
@@ -1,19 +1,40 @@
 package com.eduplatform.identity.repository;
 
+import com.eduplatform.common.db.DbRouting;
+import com.eduplatform.common.domain.DataScopeFilter;
+import com.eduplatform.common.vertx.model.Pageable;
 import com.eduplatform.identity.entity.User;
+import com.eduplatform.infra.jooq.condition.ArrayConditions;
+import com.eduplatform.infra.jooq.condition.DataScopeConditionProvider;
+import com.eduplatform.infra.jooq.condition.TrigramSearchConditionProvider;
+import com.eduplatform.infra.jooq.paging.CountEstimator;
+import com.eduplatform.infra.jooq.paging.CursorStream;
+import com.eduplatform.infra.jooq.paging.PageQuery;
+import com.eduplatform.infra.jooq.reactive.ReactiveJooqExecutor;
+import io.reactivex.rxjava3.core.Maybe;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.jooq.Condition;
 import org.jooq.DSLContext;
 import org.jooq.Field;
+import org.jooq.InsertValuesStep3;
 import org.jooq.Record;
+import org.jooq.SortField;
 import org.jooq.impl.DSL;
+import org.jooq.impl.SQLDataType;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static com.eduplatform.jooq.generated.Tables.*;
 import static java.util.Arrays.asList;
@@ -29,6 +50,33 @@ import static org.apache.commons.lang3.StringUtils.isNotEmpty;
 public class UserRepository {
 
     private final DSLContext dsl;
+    private final ReactiveJooqExecutor reactive;
+    private final IdentityCaches caches;
+
+    /**
+     * Cột search_text (V6, generated + GIN trigram) - lower, đã bỏ dấu
+     */
+    private static final Field<String> USERS_SEARCH_TEXT =
+            DSL.field(USERS.getQualifiedName().append("search_text"), SQLDataType.VARCHAR);
+
+    /**
+     * Whitelist sort field cho list users (keyset dùng index (field, id))
+     */
+    private static final Map<String, Field<?>> SORT_FIELDS = Map.of(
+            "createdAt", USERS.CREATED_AT,
+            "username", USERS.USERNAME,
+            "email", USERS.EMAIL
+    );
+
+    /**
+     * Chế độ search: trigram (search_text + pg_trgm) | like (lower(col) LIKE, cho DB chưa chạy V6)
+     */
+    @Value("${app.identity.user-search-mode:trigram}")
+    private String searchMode = "trigram";
+
+    private boolean useTrigramSearch() {
+        return !"like".equalsIgnoreCase(searchMode);
+    }
 
     /**
      * Danh sách fields cơ bản của User
@@ -53,12 +101,15 @@ public class UserRepository {
     /**
      * Build condition cho search/filter
      */
-    private Condition getWhereCondition(List<UUID> userIds, String query, String status) {
+    private Condition getWhereCondition(List<UUID> userIds, String query, String status, DataScopeFilter scope) {
         Condition condition = DSL.trueCondition();
 
+        // Data scope (ALL / DEPARTMENT / OWN) - filter trong SQL
+        condition = condition.and(DataScopeConditionProvider.of(scope, USERS.CREATED_BY));
+
         // Filter by user IDs
         if (userIds != null && !userIds.isEmpty()) {
-            condition = condition.and(USERS.ID.in(userIds));
+            condition = condition.and(ArrayConditions.in(USERS.ID, userIds));
         }
 
         // Filter by status
@@ -66,8 +117,11 @@ public class UserRepository {
             condition = condition.and(USERS.STATUS.eq(status));
         }
 
-        // Search by username, email, name
-        if (isNotEmpty(query)) {
+        // Search by username, email, name, phone
+        if (isNotEmpty(query) && useTrigramSearch()) {
+            // Không phân biệt dấu, dùng GIN trigram index trên search_text
+            condition = condition.and(TrigramSearchConditionProvider.matches(USERS_SEARCH_TEXT, query));
+        } else if (isNotEmpty(query)) {
             String searchTerm = "%" + query.trim().toLowerCase() + "%";
             condition = condition.and(
                     DSL.lower(USERS.USERNAME).like(searchTerm)
@@ -81,6 +135,19 @@ public class UserRepository {
         return condition;
     }
 
+    /**
+     * Sắp xếp: khi có query thì kết quả khớp tốt nhất lên đầu
+     */
+    private List<SortField<?>> getOrderBy(String query) {
+        if (isNotEmpty(query) && useTrigramSearch()) {
+            return asList(
+                    TrigramSearchConditionProvider.rank(USERS_SEARCH_TEXT, query).desc(),
+                    USERS.CREATED_AT.desc()
+            );
+        }
+        return List.of(USERS.CREATED_AT.desc());
+    }
+
     /**
      * Map Record to User entity
      */
@@ -118,11 +185,15 @@ public class UserRepository {
     // ==================== QUERY METHODS ====================
 
     /**
-     * Tìm user theo ID
+     * Tìm user theo ID (qua IdentityCaches, ngoài transaction)
      */
     public User getUserById(UUID id) {
         if (id == null) return null;
         
+        return caches.user(id, () -> fetchUserById(id));
+    }
+
+    private User fetchUserById(UUID id) {
         return dsl.select(getUserFields())
                 .from(USERS)
                 .where(USERS.ID.eq(id))
@@ -131,6 +202,21 @@ public class UserRepository {
                 .orElse(null);
     }
 
+    /**
+     * Tìm nhiều users theo ID - 1 query, 1 array bind (BatchLoader dùng)
+     */
+    public Map<UUID, User> getUsersByIds(Collection<UUID> ids) {
+        if (ids == null || ids.isEmpty()) return Map.of();
+
+        return dsl.select(getUserFields())
+                .from(USERS)
+                .where(ArrayConditions.in(USERS.ID, ids))
+                .fetch()
+                .stream()
+                .map(this::mapToUser)
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+    }
+
     /**
      * Tìm user theo username
      */
@@ -163,10 +249,42 @@ public class UserRepository {
 
     /**
      * Tìm user theo username hoặc email (dùng cho login)
+     * Cache login → id; row user (status, password hash) luôn đọc từ primary, không qua cache
+     * (users.byId có thể được nạp từ replica đang lag). Mapping cũ (đổi username/email, đã xóa) tự bị bỏ.
      */
     public User getUserByUsernameOrEmail(String identity) {
         if (StringUtils.isBlank(identity)) return null;
         
+        return DbRouting.primary(() -> {
+            UUID id = caches.userIdByLogin(identity, () -> dsl.select(USERS.ID)
+                    .from(USERS)
+                    .where(USERS.USERNAME.eq(identity)
+                            .or(USERS.EMAIL.eq(identity)))
+                    .limit(1)
+                    .fetchOptional(USERS.ID)
+                    .orElse(null));
+            if (id == null) return null;
+            
+            User user = fetchUserById(id);
+            if (user != null && (identity.equals(user.getUsername()) || identity.equals(user.getEmail()))) {
+                return user;
+            }
+            
+            caches.evictLogin(identity);
+            return fetchUserByUsernameOrEmail(identity);
+        });
+    }
+
+    /**
+     * User theo ID từ primary, không qua cache - cho kiểm tra bảo mật (đổi password)
+     */
+    public User getUserByIdFromPrimary(UUID id) {
+        if (id == null) return null;
+        
+        return DbRouting.primary(() -> fetchUserById(id));
+    }
+
+    private User fetchUserByUsernameOrEmail(String identity) {
         return dsl.select(getUserFields())
                 .from(USERS)
                 .where(USERS.USERNAME.eq(identity)
@@ -221,28 +339,79 @@ public class UserRepository {
                 .fetch(USER_ROLES.ROLE_ID);
     }
 
+    /**
+     * Role IDs của nhiều users - 1 query, 1 array bind (BatchLoader dùng)
+     * User không có role → không có trong map
+     */
+    public Map<UUID, List<UUID>> getRoleIdsByUserIds(Collection<UUID> userIds) {
+        if (userIds == null || userIds.isEmpty()) return Map.of();
+
+        return dsl.select(USER_ROLES.USER_ID, USER_ROLES.ROLE_ID)
+                .from(USER_ROLES)
+                .where(ArrayConditions.in(USER_ROLES.USER_ID, userIds))
+                .fetchGroups(USER_ROLES.USER_ID, USER_ROLES.ROLE_ID);
+    }
+
     /**
      * Tìm kiếm users với phân trang
      */
     public List<User> findUsersByCriteria(List<UUID> userIds, String query, String status,
                                           int offset, int limit) {
-        Condition condition = getWhereCondition(userIds, query, status);
+        return findUsersByCriteria(userIds, query, status, DataScopeFilter.all(), offset, limit);
+    }
+
+    /**
+     * Tìm kiếm users với phân trang, giới hạn theo data scope
+     */
+    public List<User> findUsersByCriteria(List<UUID> userIds, String query, String status,
+                                          DataScopeFilter scope, int offset, int limit) {
+        Condition condition = getWhereCondition(userIds, query, status, scope);
         
         return dsl.select(getUserFields())
                 .from(USERS)
                 .where(condition)
-                .orderBy(USERS.CREATED_AT.desc())
+                .orderBy(getOrderBy(query))
                 .offset(offset)
                 .limit(limit)
                 .fetch()
                 .map(this::mapToUser);
     }
 
+    /**
+     * Tìm kiếm users theo Pageable (offset hoặc keyset, sort theo whitelist)
+     * Keyset mode set nextCursor vào pageable.
+     */
+    public List<User> findUsersByCriteria(List<UUID> userIds, String query, String status,
+                                          DataScopeFilter scope, Pageable pageable) {
+        // Ranking theo độ khớp chỉ dùng cho offset mode khi client không chọn sort
+        if (!pageable.isKeyset() && pageable.getSort() == null && isNotEmpty(query)) {
+            return findUsersByCriteria(userIds, query, status, scope, pageable.getOffset(), pageable.getSize());
+        }
+
+        PageQuery page = PageQuery.of(pageable, SORT_FIELDS, "createdAt", USERS.ID);
+        Condition condition = getWhereCondition(userIds, query, status, scope).and(page.seekCondition());
+
+        return page.fetch(dsl.select(getUserFields())
+                .from(USERS)
+                .where(condition)
+                .orderBy(page.orderBy())
+                .offset(page.offset())
+                .limit(page.limit())
+                .fetch(), this::mapToUser);
+    }
+
     /**
      * Đếm số users theo criteria
      */
     public long countUsersByCriteria(List<UUID> userIds, String query, String status) {
-        Condition condition = getWhereCondition(userIds, query, status);
+        return countUsersByCriteria(userIds, query, status, DataScopeFilter.all());
+    }
+
+    /**
+     * Đếm số users theo criteria, giới hạn theo data scope
+     */
+    public long countUsersByCriteria(List<UUID> userIds, String query, String status, DataScopeFilter scope) {
+        Condition condition = getWhereCondition(userIds, query, status, scope);
         
         return dsl.selectCount()
                 .from(USERS)
@@ -250,6 +419,77 @@ public class UserRepository {
                 .fetchOne(0, Long.class);
     }
 
+    /**
+     * Đếm users - không filter và bảng lớn (>= 10k theo reltuples) trả số ước lượng
+     * và đánh dấu pageable.totalEstimated, tránh COUNT(*) quét toàn bảng; có filter → COUNT(*)
+     */
+    public long countUsersByCriteria(List<UUID> userIds, String query, String status, DataScopeFilter scope,
+                                     Pageable pageable) {
+        Condition condition = getWhereCondition(userIds, query, status, scope);
+        boolean unfiltered = (userIds == null || userIds.isEmpty()) && !isNotEmpty(query) && !isNotEmpty(status)
+                && (scope == null || scope.isUnrestricted());
+
+        return CountEstimator.count(dsl, USERS, condition, unfiltered, pageable,
+                CountEstimator.DEFAULT_EXACT_THRESHOLD);
+    }
+
+    /**
+     * Duyệt users theo criteria bằng cursor (export) - không giữ toàn bộ kết quả trong memory
+     *
+     * @return số users đã duyệt
+     */
+    public long streamUsersByCriteria(String query, String status, DataScopeFilter scope,
+                                      Consumer<? super User> sink) {
+        Condition condition = getWhereCondition(null, query, status, scope);
+
+        return CursorStream.forEach(dsl,
+                dsl.select(getUserFields())
+                        .from(USERS)
+                        .where(condition)
+                        .orderBy(USERS.CREATED_AT.desc(), USERS.ID),
+                CursorStream.DEFAULT_FETCH_SIZE,
+                record -> sink.accept(mapToUser(record)));
+    }
+
+    // ==================== REACTIVE QUERY METHODS ====================
+    // Cùng query jOOQ, chạy trên Vert.x PG client - không chiếm worker thread
+
+    /**
+     * Tìm user theo ID (non-blocking)
+     */
+    public Maybe<User> getUserByIdAsync(UUID id) {
+        if (id == null) return Maybe.empty();
+
+        User cached = caches.cachedUser(id);
+        if (cached != null) return Maybe.just(cached);
+
+        return reactive.fetchOptional(
+                dsl.select(getUserFields())
+                        .from(USERS)
+                        .where(USERS.ID.eq(id)),
+                this::mapToUser);
+    }
+
+    /**
+     * Version của user (updatedAt) cho ETag - cache hit không chạm DB,
+     * miss chỉ đọc 1 cột thay vì cả row
+     */
+    public Maybe<LocalDateTime> getUserVersionAsync(UUID id) {
+        if (id == null) return Maybe.empty();
+
+        User cached = caches.cachedUser(id);
+        if (cached != null) {
+            return Maybe.fromOptional(Optional.ofNullable(
+                    cached.getUpdatedAt() != null ? cached.getUpdatedAt() : cached.getCreatedAt()));
+        }
+
+        return reactive.fetchOptional(
+                dsl.select(DSL.coalesce(USERS.UPDATED_AT, USERS.CREATED_AT))
+                        .from(USERS)
+                        .where(USERS.ID.eq(id)),
+                record -> record.get(0, LocalDateTime.class));
+    }
+
     // ==================== MUTATION METHODS ====================
 
     /**
@@ -273,6 +513,8 @@ public class UserRepository {
                 .set(USERS.CREATED_BY, user.getCreatedBy())
                 .set(USERS.UPDATED_BY, user.getUpdatedBy())
                 .execute();
+        caches.evictLogin(user.getUsername());
+        caches.evictLogin(user.getEmail());
         
         user.setId(userId);
         user.setCreatedAt(now);
@@ -280,6 +522,46 @@ public class UserRepository {
         return user;
     }
 
+    /**
+     * Tạo user nếu chưa trùng username/email - 1 statement (ON CONFLICT DO NOTHING RETURNING)
+     * Thay cho existsByUsername + existsByEmail + insertUser (3 round-trips).
+     * 
+     * @return user đã tạo, null nếu trùng (gọi existsByUsername để biết trùng gì)
+     */
+    public User insertUserIfAbsent(User user) {
+        LocalDateTime now = LocalDateTime.now();
+        UUID userId = user.getId() != null ? user.getId() : UUID.randomUUID();
+        
+        UUID inserted = dsl.insertInto(USERS)
+                .set(USERS.ID, userId)
+                .set(USERS.USERNAME, user.getUsername())
+                .set(USERS.EMAIL, user.getEmail())
+                .set(USERS.PASSWORD_HASH, user.getPasswordHash())
+                .set(USERS.FIRST_NAME, user.getFirstName())
+                .set(USERS.LAST_NAME, user.getLastName())
+                .set(USERS.PHONE, user.getPhone())
+                .set(USERS.STATUS, user.getStatus() != null ? user.getStatus().name() : "ACTIVE")
+                .set(USERS.CREATED_AT, now)
+                .set(USERS.UPDATED_AT, now)
+                .set(USERS.CREATED_BY, user.getCreatedBy())
+                .set(USERS.UPDATED_BY, user.getUpdatedBy())
+                .onConflictDoNothing()
+                .returningResult(USERS.ID)
+                .fetchOptional(USERS.ID)
+                .orElse(null);
+        
+        if (inserted == null) {
+            return null;
+        }
+        caches.evictLogin(user.getUsername());
+        caches.evictLogin(user.getEmail());
+        
+        user.setId(inserted);
+        user.setCreatedAt(now);
+        user.setUpdatedAt(now);
+        return user;
+    }
+
     /**
      * Cập nhật user
      */
@@ -297,6 +579,7 @@ public class UserRepository {
                 .set(USERS.UPDATED_BY, user.getUpdatedBy())
                 .where(USERS.ID.eq(user.getId()))
                 .execute();
+        caches.evictUser(user.getId());
         
         user.setUpdatedAt(now);
         return user;
@@ -308,11 +591,13 @@ public class UserRepository {
     public boolean updatePassword(UUID userId, String passwordHash) {
         if (userId == null) return false;
         
-        return dsl.update(USERS)
+        boolean updated = dsl.update(USERS)
                 .set(USERS.PASSWORD_HASH, passwordHash)
                 .set(USERS.UPDATED_AT, LocalDateTime.now())
                 .where(USERS.ID.eq(userId))
                 .execute() > 0;
+        caches.evictUser(userId);
+        return updated;
     }
 
     /**
@@ -321,11 +606,13 @@ public class UserRepository {
     public boolean updateStatus(UUID userId, String status) {
         if (userId == null) return false;
         
-        return dsl.update(USERS)
+        boolean updated = dsl.update(USERS)
                 .set(USERS.STATUS, status)
                 .set(USERS.UPDATED_AT, LocalDateTime.now())
                 .where(USERS.ID.eq(userId))
                 .execute() > 0;
+        caches.evictUser(userId);
+        return updated;
     }
 
     /**
@@ -334,15 +621,19 @@ public class UserRepository {
     public boolean deleteUser(UUID userId) {
         if (userId == null) return false;
         
-        // Xóa role mappings trước
-        dsl.deleteFrom(USER_ROLES)
-                .where(USER_ROLES.USER_ID.eq(userId))
-                .execute();
-        
-        // Xóa user
-        return dsl.deleteFrom(USERS)
-                .where(USERS.ID.eq(userId))
-                .execute() > 0;
+        boolean deleted = dsl.transactionResult(() -> {
+            // Xóa role mappings trước
+            dsl.deleteFrom(USER_ROLES)
+                    .where(USER_ROLES.USER_ID.eq(userId))
+                    .execute();
+            
+            // Xóa user
+            return dsl.deleteFrom(USERS)
+                    .where(USERS.ID.eq(userId))
+                    .execute() > 0;
+        });
+        caches.evictUser(userId);
+        return deleted;
     }
 
     // ==================== ROLE ASSIGNMENT ====================
@@ -359,6 +650,7 @@ public class UserRepository {
                 .set(USER_ROLES.CREATED_AT, LocalDateTime.now())
                 .onDuplicateKeyIgnore()
                 .execute();
+        caches.evictPermissions(userId);
     }
 
     /**
@@ -367,33 +659,47 @@ public class UserRepository {
     public boolean removeRole(UUID userId, UUID roleId) {
         if (userId == null || roleId == null) return false;
         
-        return dsl.deleteFrom(USER_ROLES)
+        boolean removed = dsl.deleteFrom(USER_ROLES)
                 .where(USER_ROLES.USER_ID.eq(userId))
                 .and(USER_ROLES.ROLE_ID.eq(roleId))
                 .execute() > 0;
+        caches.evictPermissions(userId);
+        return removed;
+    }
+
+    /**
+     * Gán nhiều roles - 1 multi-row INSERT, bỏ qua role đã gán
+     */
+    public int insertRoles(UUID userId, Collection<UUID> roleIds) {
+        if (userId == null || roleIds == null || roleIds.isEmpty()) return 0;
+        
+        LocalDateTime now = LocalDateTime.now();
+        InsertValuesStep3<?, UUID, UUID, LocalDateTime> insert = dsl.insertInto(USER_ROLES,
+                USER_ROLES.USER_ID, USER_ROLES.ROLE_ID, USER_ROLES.CREATED_AT);
+        for (UUID roleId : roleIds) {
+            insert = insert.values(userId, roleId, now);
+        }
+        int inserted = insert.onConflictDoNothing().execute();
+        caches.evictPermissions(userId);
+        return inserted;
     }
 
     /**
-     * Thay thế tất cả roles của user
+     * Thay thế tất cả roles của user - 2 statements trong 1 transaction:
+     * xóa roles không còn trong danh sách + multi-row INSERT roles mới
+     * (role giữ nguyên không bị xóa/insert lại, created_at được giữ)
      */
     public void replaceRoles(UUID userId, List<UUID> roleIds) {
         if (userId == null) return;
         
-        // Xóa roles cũ
-        dsl.deleteFrom(USER_ROLES)
-                .where(USER_ROLES.USER_ID.eq(userId))
-                .execute();
-        
-        // Thêm roles mới
-        if (roleIds != null && !roleIds.isEmpty()) {
-            LocalDateTime now = LocalDateTime.now();
-            for (UUID roleId : roleIds) {
-                dsl.insertInto(USER_ROLES)
-                        .set(USER_ROLES.USER_ID, userId)
-                        .set(USER_ROLES.ROLE_ID, roleId)
-                        .set(USER_ROLES.CREATED_AT, now)
-                        .execute();
-            }
-        }
+        dsl.transaction(() -> {
+            dsl.deleteFrom(USER_ROLES)
+                    .where(USER_ROLES.USER_ID.eq(userId))
+                    .and(ArrayConditions.notIn(USER_ROLES.ROLE_ID, roleIds))
+                    .execute();
+            
+            insertRoles(userId, roleIds);
+        });
+        caches.evictPermissions(userId);
     }
 }
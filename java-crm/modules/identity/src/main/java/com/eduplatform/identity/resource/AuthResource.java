@@ -16,6 +16,9 @@ import org.springframework.http.ResponseEntity;
 
 /**
  * AuthResource - Authentication endpoints (public, không cần permission)
+ * 
+ * Mọi endpoint dùng query() (primary): register / logout ghi DB, login / refresh
+ * đọc status + password hash không được lệch theo replica.
  */
 @Slf4j
 @VertxRestController
@@ -45,6 +48,7 @@ public class AuthResource extends BaseResource {
      * POST /api/v1/auth/register
      */
     @VertxPost("/api/v1/auth/register")
+    @VertxCacheEvict(resource = "USER")
     public Single<ResponseEntity<ApiResponse<AuthResponse>>> register(
             @VertxRequestBody RegisterRequest request
     ) {
@@ -2,30 +2,43 @@ package com.eduplatform.identity.resource;
 
 import com.eduplatform.auth.rbac.model.SecurityUser;
 import com.eduplatform.common.constant.Action;
+import com.eduplatform.common.db.DbRouting;
+import com.eduplatform.common.domain.DataScopeFilter;
 import com.eduplatform.common.response.ApiResponse;
 import com.eduplatform.common.vertx.annotation.*;
+import com.eduplatform.common.vertx.export.ExportColumn;
+import com.eduplatform.common.vertx.export.ExportFormat;
 import com.eduplatform.common.vertx.model.Page;
 import com.eduplatform.common.vertx.model.Pageable;
 import com.eduplatform.common.vertx.model.VertxPrincipal;
 import com.eduplatform.common.vertx.resource.BaseResource;
+import com.eduplatform.common.vertx.resource.CountStrategy;
 import com.eduplatform.identity.dto.request.CreateUserRequest;
 import com.eduplatform.identity.dto.request.StatusUpdateRequest;
 import com.eduplatform.identity.dto.request.UpdateUserRequest;
 import com.eduplatform.identity.entity.User;
+import com.eduplatform.identity.importer.UserImportJob;
+import com.eduplatform.identity.service.UserImportService;
 import com.eduplatform.identity.service.UserService;
+import io.reactivex.rxjava3.core.Completable;
 import io.reactivex.rxjava3.core.Single;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.JsonObject;
+import io.vertx.core.streams.ReadStream;
+import io.vertx.ext.web.RoutingContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.UUID;
 
 /**
  * UserResource - User management endpoints
  * 
  * Pattern:
- * - READ: dùng query() hoặc page() - không cần principal
+ * - READ: dùng readQuery() hoặc page() - không cần principal, chạy trên replica
  * - WRITE: dùng execute() - cần principal để audit
  */
 @Slf4j
@@ -34,8 +47,24 @@ import java.util.UUID;
 public class UserResource extends BaseResource {
 
     private static final String RESOURCE = "USER";
+    private static final Duration COUNT_CACHE_TTL = Duration.ofSeconds(30);
+
+    /**
+     * Cột export users (không bao giờ xuất passwordHash)
+     */
+    private static final List<ExportColumn<User>> EXPORT_COLUMNS = List.of(
+            ExportColumn.of("id", User::getId),
+            ExportColumn.of("username", User::getUsername),
+            ExportColumn.of("email", User::getEmail),
+            ExportColumn.of("firstName", User::getFirstName),
+            ExportColumn.of("lastName", User::getLastName),
+            ExportColumn.of("phone", User::getPhone),
+            ExportColumn.of("status", User::getStatus),
+            ExportColumn.of("createdAt", User::getCreatedAt)
+    );
     
     private final UserService userService;
+    private final UserImportService userImportService;
 
     // ========== READ Operations ==========
 
@@ -49,28 +78,73 @@ public class UserResource extends BaseResource {
 
     /**
      * GET /api/v1/users - Danh sách users
+     * ?page=&size= (offset) hoặc ?cursor=&size= (keyset), sort: createdAt | username | email
      */
     @VertxGet("/api/v1/users")
-    @RequirePermission(resource = RESOURCE, action = Action.VIEW)
+    @VertxCacheable(ttl = 30)
+    @VertxCoalesce
+    @RequirePermission(resource = RESOURCE, action = Action.VIEW, dataScope = true)
     public Single<ResponseEntity<ApiResponse<Page<User>>>> getUsers(
             Pageable pageable,
+            DataScopeFilter scope,
             @VertxRequestParam(value = "query", required = false) String query,
             @VertxRequestParam(value = "status", required = false) String status
     ) {
+        // Count: cache 30s theo filter, bảng lớn dùng số ước lượng; chạy song song với list
+        String countKey = UserService.COUNT_CACHE_PREFIX + query + ":" + status + ":" + scope.cacheKey();
         return page(
-                () -> userService.getUsers(query, status, pageable.getPage(), pageable.getSize()),
-                () -> userService.countUsers(query, status),
-                pageable
+                () -> userService.getUsers(query, status, scope, pageable),
+                cachedCount(countKey, COUNT_CACHE_TTL, pageable,
+                        () -> userService.countUsers(query, status, scope, pageable)),
+                pageable,
+                CountStrategy.PARALLEL
         );
     }
 
+    /**
+     * GET /api/v1/users/export?format=csv|ndjson - Export users theo filter (stream, không giới hạn số dòng)
+     */
+    @VertxGet("/api/v1/users/export")
+    @VertxTimeout(0)
+    @RequirePermission(resource = RESOURCE, action = Action.EXPORT, dataScope = true)
+    public Completable exportUsers(
+            RoutingContext ctx,
+            DataScopeFilter scope,
+            @VertxRequestParam(value = "format", defaultValue = "csv") String format,
+            @VertxRequestParam(value = "query", required = false) String query,
+            @VertxRequestParam(value = "status", required = false) String status
+    ) {
+        return stream(ctx, ExportFormat.of(format), "users", EXPORT_COLUMNS,
+                sink -> userService.exportUsers(query, status, scope, sink));
+    }
+
+    /**
+     * GET /api/v1/users/import/:importId - Tiến độ import (poll trong lúc upload), chỉ của chính mình
+     */
+    @VertxGet("/api/v1/users/import/:importId")
+    @RequirePermission(resource = RESOURCE, action = Action.ADD)
+    public Single<ResponseEntity<ApiResponse<UserImportJob.Progress>>> getImport(
+            VertxPrincipal principal,
+            @VertxPathVariable("importId") String importId
+    ) {
+        return this.<SecurityUser>getUser(principal)
+                .map(user -> userImportService.getImport(importId, user))
+                .map(this::ok);
+    }
+
     /**
      * GET /api/v1/users/:id - Chi tiết user
      */
     @VertxGet("/api/v1/users/:id")
     @RequirePermission(resource = RESOURCE, action = Action.VIEW)
-    public Single<ResponseEntity<ApiResponse<User>>> getUserById(@VertxPathVariable("id") UUID userId) {
-        return query(() -> userService.getUserById(userId));
+    public Single<ResponseEntity<ApiResponse<User>>> getUserById(
+            RoutingContext ctx,
+            @VertxPathVariable("id") UUID userId
+    ) {
+        // Non-blocking: query chạy trên Vert.x PG client, không hop sang worker pool
+        // ETag theo updatedAt: If-None-Match khớp → 304, không load row / serialize
+        return versioned(ctx, userService.getUserVersion(userId),
+                () -> userService.getUserByIdAsync(userId), UserService::versionOf);
     }
 
     // ========== WRITE Operations ==========
@@ -79,6 +153,8 @@ public class UserResource extends BaseResource {
      * POST /api/v1/users - Tạo user
      */
     @VertxPost("/api/v1/users")
+    @VertxIdempotent
+    @VertxCacheEvict(resource = RESOURCE)
     @RequirePermission(resource = RESOURCE, action = Action.ADD)
     public Single<ResponseEntity<ApiResponse<User>>> createUser(
             VertxPrincipal principal,
@@ -94,6 +170,8 @@ public class UserResource extends BaseResource {
      * PUT /api/v1/users/:id - Cập nhật user
      */
     @VertxPut("/api/v1/users/:id")
+    @VertxIdempotent
+    @VertxCacheEvict(resource = RESOURCE)
     @RequirePermission(resource = RESOURCE, action = Action.UPDATE)
     public Single<ResponseEntity<ApiResponse<User>>> updateUser(
             VertxPrincipal principal,
@@ -110,6 +188,7 @@ public class UserResource extends BaseResource {
      * DELETE /api/v1/users/:id - Xóa user
      */
     @VertxDelete("/api/v1/users/:id")
+    @VertxCacheEvict(resource = RESOURCE)
     @RequirePermission(resource = RESOURCE, action = Action.DELETE)
     public Single<ResponseEntity<ApiResponse<Boolean>>> deleteUser(
             VertxPrincipal principal,
@@ -122,6 +201,8 @@ public class UserResource extends BaseResource {
      * PUT /api/v1/users/:id/status - Đổi trạng thái
      */
     @VertxPut("/api/v1/users/:id/status")
+    @VertxIdempotent
+    @VertxCacheEvict(resource = RESOURCE)
     @RequirePermission(resource = RESOURCE, action = Action.UPDATE)
     public Single<ResponseEntity<ApiResponse<User>>> updateUserStatus(
             VertxPrincipal principal,
@@ -133,5 +214,25 @@ public class UserResource extends BaseResource {
             return userService.updateUser(userId, body, user);
         });
     }
-}
 
+    /**
+     * POST /api/v1/users/import?format=csv|ndjson&importId= - Import users hàng loạt
+     * Chỉ tạo user mới: username / email đã tồn tại, role actor không có → dòng lỗi.
+     * Body được stream (không qua BodyHandler), response trả về khi đọc + ghi xong toàn bộ file.
+     */
+    @VertxPost("/api/v1/users/import")
+    @VertxCacheEvict(resource = RESOURCE)
+    @VertxTimeout(0)
+    @RequirePermission(resource = RESOURCE, action = Action.ADD)
+    public Single<ResponseEntity<ApiResponse<UserImportJob.Progress>>> importUsers(
+            VertxPrincipal principal,
+            ReadStream<Buffer> body,
+            @VertxRequestParam(value = "format", defaultValue = "csv") String format,
+            @VertxRequestParam(value = "importId", required = false) String importId
+    ) {
+        return this.<SecurityUser>getUser(principal)
+                .flatMap(user -> userImportService.importUsers(importId, body, format, user)
+                        .doOnSuccess(progress -> DbRouting.markWrite(user.getId())))
+                .map(this::ok);
+    }
+}
@@ -6,8 +6,8 @@ import com.eduplatform.common.constant.ErrorCode;
 import com.eduplatform.common.exception.AppException;
 import com.eduplatform.entity.enums.UserStatus;
 import com.eduplatform.identity.entity.User;
+import com.eduplatform.identity.repository.IdentityBatchLoaders;
 import com.eduplatform.identity.repository.PermissionRepository;
-import com.eduplatform.identity.repository.RoleRepository;
 import com.eduplatform.identity.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -27,7 +27,7 @@ import java.util.UUID;
 public class AuthServiceImpl implements AuthService {
 
     private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
+    private final IdentityBatchLoaders loaders;
     private final PermissionRepository permissionRepository;
     private final TokenService tokenService;
 
@@ -106,7 +106,7 @@ public class AuthServiceImpl implements AuthService {
 
     @Override
     public boolean changePassword(UUID userId, String oldPassword, String newPassword) {
-        User user = userRepository.getUserById(userId);
+        User user = userRepository.getUserByIdFromPrimary(userId);
         
         if (user == null) {
             throw new AppException(ErrorCode.USER_NOT_FOUND);
@@ -125,7 +125,7 @@ public class AuthServiceImpl implements AuthService {
      */
     private SecurityUser buildSecurityUser(User user) {
         List<UUID> roleIds = userRepository.getRoleIds(user.getId());
-        List<String> roleNames = roleRepository.getRoleNamesByUserId(user.getId());
+        List<String> roleNames = loaders.roleNames(user.getId());
         Map<String, List<String>> permissions = permissionRepository.getPermissionMatrixByUserId(user.getId());
         
         return SecurityUser.builder()
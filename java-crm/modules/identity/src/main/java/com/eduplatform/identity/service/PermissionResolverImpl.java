@@ -0,0 +1,48 @@
+package com.eduplatform.identity.service;
+
+import com.eduplatform.common.db.DbRouting;
+import com.eduplatform.common.vertx.model.VertxPrincipal;
+import com.eduplatform.common.vertx.security.PermissionResolver;
+import com.eduplatform.common.vertx.security.ResolvedPermissions;
+import com.eduplatform.identity.repository.IdentityCaches;
+import com.eduplatform.identity.repository.PermissionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+/**
+ * PermissionResolverImpl - Load permissions cho principal khi AuthorizationStage cần
+ * 
+ * Kết quả (ResolvedPermissions đã index) cache theo userId trong IdentityCaches
+ * (permissions.byUser, TTL ngắn, evict khi roles của user / permissions của role thay đổi)
+ * → request sau của user check trên event loop, DB chỉ khi cache miss.
+ * 
+ * Không sửa principal / SecurityUser ở đây (chạy trên worker):
+ * AuthorizationStage gắn kết quả vào principal trên context của request.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PermissionResolverImpl implements PermissionResolver {
+
+    private final PermissionRepository permissionRepository;
+    private final IdentityCaches caches;
+
+    @Override
+    public ResolvedPermissions resolvePermissions(VertxPrincipal principal) {
+        UUID userId = principal.getUserId();
+        return caches.permissions(userId, () -> {
+            ResolvedPermissions resolved = ResolvedPermissions.fromMatrix(
+                    DbRouting.readOnly(userId, () -> permissionRepository.getPermissionMatrixByUserId(userId)));
+            log.debug("Resolved {} permissions for user {}", resolved.permissions().size(), userId);
+            return resolved;
+        });
+    }
+
+    @Override
+    public ResolvedPermissions cachedPermissions(VertxPrincipal principal) {
+        return caches.cachedPermissions(principal.getUserId());
+    }
+}
@@ -2,95 +2,118 @@ package com.eduplatform.identity.service;
 
 import com.eduplatform.auth.rbac.model.SecurityUser;
 import com.eduplatform.auth.rbac.service.PermissionService;
+import com.eduplatform.common.cache.EntityCache;
 import com.eduplatform.common.constant.ErrorCode;
+import com.eduplatform.common.db.DbRouting;
 import com.eduplatform.common.exception.AppException;
+import com.eduplatform.common.jfr.PermissionCheckEvent;
+import com.eduplatform.common.metrics.MetricsSource;
+import com.eduplatform.common.metrics.PrometheusWriter;
+import com.eduplatform.common.vertx.security.ResolvedPermissions;
 import com.eduplatform.identity.entity.User;
+import com.eduplatform.identity.repository.IdentityBatchLoaders;
+import com.eduplatform.identity.repository.IdentityCaches;
 import com.eduplatform.identity.repository.PermissionRepository;
-import com.eduplatform.identity.repository.RoleRepository;
-import com.eduplatform.identity.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * PermissionServiceImpl - Synchronous style với caching
+ * 
+ * Dùng chung cache permissions.byUser (IdentityCaches) với AuthorizationStage / PermissionResolverImpl:
+ * TTL ngắn, evict khi roles / permissions thay đổi, không có cache riêng bị lệch.
+ * Lookup quyền là read-only → DbRouting.readOnly (read replica nếu có).
+ * User + role IDs + role names lấy qua IdentityBatchLoaders: request đồng thời gom thành 1 query.
+ * Hit / miss của permissions.byUser được export qua /metrics (permission_cache_requests_total).
+ * Mỗi checkPermission ghi PermissionCheckEvent (JFR) khi recording bật event.
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class PermissionServiceImpl implements PermissionService {
+public class PermissionServiceImpl implements PermissionService, MetricsSource {
 
     private final PermissionRepository permissionRepository;
-    private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
-
-    // Simple in-memory cache (production: use Redis)
-    private final Map<String, Object> cache = new ConcurrentHashMap<>();
+    private final IdentityBatchLoaders loaders;
+    private final IdentityCaches caches;
 
     @Override
     public SecurityUser checkPermission(UUID userId, String resource, String action) {
-        String cacheKey = buildCacheKey(userId, resource, action);
+        PermissionCheckEvent event = new PermissionCheckEvent();
+        event.begin();
+        boolean[] loaded = {false};
+        ResolvedPermissions permissions = caches.permissions(userId, () -> {
+            loaded[0] = true;
+            return load(userId);
+        });
+        boolean cached = !loaded[0];
+        boolean granted = permissions.index().allows(resource, action);
+        event.commit(userId, resource, action, cached, granted);
         
-        // Check cache first
-        Boolean cached = (Boolean) cache.get(cacheKey);
-        if (Boolean.TRUE.equals(cached)) {
-            return buildSecurityUser(userId);
-        }
-
-        boolean hasPermission = hasPermission(userId, resource, action);
-        
-        if (!hasPermission) {
+        if (!granted) {
             throw new AppException(ErrorCode.FORBIDDEN,
                     String.format("Không có quyền %s trên %s", action, resource));
         }
-        
-        // Cache result
-        cache.put(cacheKey, true);
-        
         return buildSecurityUser(userId);
     }
 
     @Override
     public boolean hasPermission(UUID userId, String resource, String action) {
-        return permissionRepository.hasPermission(userId, resource, action);
+        return resolve(userId).index().allows(resource, action);
     }
 
     @Override
     public Map<String, List<String>> getUserPermissions(UUID userId) {
-        String cacheKey = "user:perms:" + userId;
-        
-        @SuppressWarnings("unchecked")
-        Map<String, List<String>> cached = (Map<String, List<String>>) cache.get(cacheKey);
-        if (cached != null) {
-            return cached;
+        Map<String, List<String>> matrix = new HashMap<>();
+        for (String permission : resolve(userId).permissions()) {
+            int separator = permission.indexOf(':');
+            matrix.computeIfAbsent(permission.substring(0, separator), r -> new ArrayList<>())
+                    .add(permission.substring(separator + 1));
         }
-
-        Map<String, List<String>> result = permissionRepository.getPermissionMatrixByUserId(userId);
-        
-        // Cache
-        cache.put(cacheKey, result);
-        return result;
+        return matrix;
     }
 
     @Override
     public void invalidateUserPermissions(UUID userId) {
-        cache.keySet().removeIf(key -> key.startsWith("perm:" + userId + ":"));
-        cache.remove("user:perms:" + userId);
+        caches.evictPermissions(userId);
+    }
+
+    @Override
+    public void collect(PrometheusWriter writer) {
+        EntityCache.Stats stats = caches.permissionStats();
+        writer.counter("permission_cache_requests_total", "Permission cache (permissions.byUser) lookups by result");
+        writer.sample("permission_cache_requests_total", stats.hits(), "cache", "authorization", "result", "hit");
+        writer.sample("permission_cache_requests_total", stats.misses(), "cache", "authorization", "result", "miss");
+        writer.gauge("permission_cache_entries", "Entries in permission cache (permissions.byUser)");
+        writer.sample("permission_cache_entries", stats.size());
+    }
+
+    /**
+     * Cùng loader với PermissionResolverImpl → 1 entry / user cho cả 2 path
+     */
+    private ResolvedPermissions resolve(UUID userId) {
+        return caches.permissions(userId, () -> load(userId));
+    }
+
+    private ResolvedPermissions load(UUID userId) {
+        return ResolvedPermissions.fromMatrix(
+                DbRouting.readOnly(userId, () -> permissionRepository.getPermissionMatrixByUserId(userId)));
     }
 
     private SecurityUser buildSecurityUser(UUID userId) {
-        User user = userRepository.getUserById(userId);
+        User user = loaders.user(userId);
         if (user == null) {
             throw new AppException(ErrorCode.USER_NOT_FOUND);
         }
         
-        List<UUID> roleIds = userRepository.getRoleIds(userId);
-        List<String> roleNames = roleRepository.getRoleNamesByUserId(userId);
+        List<UUID> roleIds = loaders.roleIds(userId);
+        List<String> roleNames = loaders.roleNames(userId);
         Map<String, List<String>> permissions = getUserPermissions(userId);
         
         return SecurityUser.builder()
@@ -104,8 +127,4 @@ public class PermissionServiceImpl implements PermissionService {
                 .permissions(permissions)
                 .build();
     }
-
-    private String buildCacheKey(UUID userId, String resource, String action) {
-        return String.format("perm:%s:%s:%s", userId, resource, action);
-    }
 }
@@ -0,0 +1,27 @@
+package com.eduplatform.identity.service;
+
+import com.eduplatform.auth.rbac.model.SecurityUser;
+import com.eduplatform.identity.importer.UserImportJob;
+import io.reactivex.rxjava3.core.Single;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.streams.ReadStream;
+
+/**
+ * UserImportService - Import users / student profiles hàng loạt từ file upload
+ */
+public interface UserImportService {
+
+    /**
+     * Import từ body đang stream (csv | ndjson)
+     * Single complete khi đọc hết file; tiến độ xem qua getImport(importId) trong lúc chạy.
+     *
+     * @param importId id do client đặt (để poll), null → tự sinh
+     */
+    Single<UserImportJob.Progress> importUsers(String importId, ReadStream<Buffer> body,
+                                               String format, SecurityUser currentUser);
+
+    /**
+     * Tiến độ của một lần import (đang chạy hoặc vừa xong) - chỉ người chạy import xem được
+     */
+    UserImportJob.Progress getImport(String importId, SecurityUser currentUser);
+}
@@ -0,0 +1,143 @@
+package com.eduplatform.identity.service;
+
+import com.eduplatform.auth.rbac.model.SecurityUser;
+import com.eduplatform.common.cache.CountCache;
+import com.eduplatform.common.constant.ErrorCode;
+import com.eduplatform.common.exception.AppException;
+import com.eduplatform.common.vertx.execution.WorkerPoolManager;
+import com.eduplatform.identity.importer.UserImportJob;
+import com.eduplatform.identity.importer.UserImportParser;
+import com.eduplatform.identity.importer.UserImportPipeline;
+import com.eduplatform.identity.importer.UserImportRow;
+import com.eduplatform.identity.repository.UserImportRepository;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Single;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.streams.ReadStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.mindrot.jbcrypt.BCrypt;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * UserImportServiceImpl - Pipeline import: stream → parse → hash (CPU pool) → COPY (DB pool)
+ * 
+ * Mỗi batch:
+ * 1. DB pool: lấy usernames đã tồn tại (1 query)
+ * 2. CPU pool: bcrypt password của user mới, song song tối đa hash-concurrency
+ *    (username đã tồn tại sẽ thành dòng lỗi → không tốn bcrypt)
+ * 3. DB pool: UserImportRepository.importBatch (COPY + insert, 1 transaction)
+ * 
+ * Import chỉ tạo user mới - sửa user đã có đi qua PUT /users/:id (USER:UPDATE + data scope).
+ * 
+ * Registry giữ MAX_JOBS lần import gần nhất để poll tiến độ, key theo actor + importId
+ * (importId do client đặt không đụng / lộ import của user khác).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserImportServiceImpl implements UserImportService {
+
+    private static final int MAX_JOBS = 100;
+
+    private final UserImportRepository importRepository;
+    private final CountCache countCache;
+
+    @Value("${app.identity.import.batch-size:1000}")
+    private int batchSize = 1000;
+
+    @Value("${app.identity.import.hash-concurrency:4}")
+    private int hashConcurrency = 4;
+
+    private final Map<String, UserImportJob> jobs = new LinkedHashMap<>(16, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, UserImportJob> eldest) {
+            return size() > MAX_JOBS;
+        }
+    };
+
+    @Override
+    public Single<UserImportJob.Progress> importUsers(String importId, ReadStream<Buffer> body,
+                                                      String format, SecurityUser currentUser) {
+        UserImportParser parser;
+        try {
+            parser = UserImportParser.of(format);
+        } catch (IllegalArgumentException e) {
+            return Single.error(new AppException(ErrorCode.VALIDATION_ERROR, e.getMessage()));
+        }
+
+        String id = importId != null && !importId.isBlank() ? importId : UUID.randomUUID().toString();
+        UUID actorId = currentUser != null ? currentUser.getId() : null;
+        UserImportJob job = new UserImportJob(id, actorId);
+        synchronized (jobs) {
+            UserImportJob running = jobs.get(jobKey(actorId, id));
+            if (running != null && !running.isFinished()) {
+                return Single.error(new AppException(ErrorCode.DUPLICATE_ENTRY, "Import " + id + " đang chạy"));
+            }
+            jobs.put(jobKey(actorId, id), job);
+        }
+
+        log.info("User import {} started (format={}, batchSize={})", id, format, batchSize);
+
+        return new UserImportPipeline(body, parser, job, batchSize, rows -> writeBatch(rows, actorId))
+                .run()
+                .doOnSuccess(progress -> log.info("User import {} completed: processed={}, inserted={}, failed={}",
+                        id, progress.processed(), progress.inserted(), progress.failed()))
+                .doFinally(() -> countCache.invalidatePrefix(UserService.COUNT_CACHE_PREFIX));
+    }
+
+    @Override
+    public UserImportJob.Progress getImport(String importId, SecurityUser currentUser) {
+        UUID actorId = currentUser != null ? currentUser.getId() : null;
+        UserImportJob job;
+        synchronized (jobs) {
+            job = jobs.get(jobKey(actorId, importId));
+        }
+        if (job == null || !job.isOwnedBy(actorId)) {
+            throw new AppException(ErrorCode.NOT_FOUND, "Không tìm thấy import: " + importId);
+        }
+        return job.snapshot();
+    }
+
+    private static String jobKey(UUID actorId, String importId) {
+        return actorId + ":" + importId;
+    }
+
+    // ============================================
+    // Batch writer
+    // ============================================
+
+    private Single<UserImportJob.BatchResult> writeBatch(List<UserImportRow> rows, UUID actorId) {
+        return WorkerPoolManager.executeOnDbPool(() ->
+                        importRepository.findExistingUsernames(rows.stream().map(UserImportRow::getUsername).toList()))
+                .flatMap(existing -> hashPasswords(rows, existing))
+                .flatMap(hashed -> WorkerPoolManager.executeOnDbPool(() -> importRepository.importBatch(rows, actorId)));
+    }
+
+    /**
+     * Hash password cho user mới trên CPU pool; username đã tồn tại bị từ chối ở importBatch nên bỏ qua
+     */
+    private Single<Long> hashPasswords(List<UserImportRow> rows, Set<String> existing) {
+        return Flowable.fromIterable(rows)
+                .filter(row -> {
+                    if (existing.contains(row.getUsername())) {
+                        row.setPassword(null);
+                        return false;
+                    }
+                    return row.getPassword() != null;
+                })
+                .flatMapSingle(row -> WorkerPoolManager.executeOnCpuPool(() -> {
+                    row.setPasswordHash(BCrypt.hashpw(row.getPassword(), BCrypt.gensalt(12)));
+                    row.setPassword(null);
+                    return row;
+                }), false, hashConcurrency)
+                .count();
+    }
+}
@@ -1,33 +1,89 @@
 package com.eduplatform.identity.service;
 
 import com.eduplatform.auth.rbac.model.SecurityUser;
+import com.eduplatform.common.domain.DataScopeFilter;
+import com.eduplatform.common.vertx.model.Pageable;
 import com.eduplatform.identity.entity.User;
+import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.core.Single;
 import io.vertx.core.json.JsonObject;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 /**
  * UserService - Service cho User operations
  * Synchronous style, không dùng RxJava
+ * (trừ các method *Async đọc qua Vert.x PG client, không cần worker thread)
  */
 public interface UserService {
 
+    /**
+     * Prefix key của CountCache cho list users - invalidate khi create/update/delete
+     */
+    String COUNT_CACHE_PREFIX = "users:count:";
+
     /**
      * Lấy danh sách users với pagination
      */
     List<User> getUsers(String query, String status, int page, int size);
 
+    /**
+     * Lấy danh sách users với pagination, giới hạn theo data scope
+     */
+    List<User> getUsers(String query, String status, DataScopeFilter scope, int page, int size);
+
+    /**
+     * Lấy danh sách users theo Pageable (offset hoặc keyset cursor, sort whitelist)
+     */
+    List<User> getUsers(String query, String status, DataScopeFilter scope, Pageable pageable);
+
     /**
      * Đếm tổng users
      */
     long countUsers(String query, String status);
 
+    /**
+     * Đếm tổng users, giới hạn theo data scope
+     */
+    long countUsers(String query, String status, DataScopeFilter scope);
+
+    /**
+     * Đếm tổng users - bảng lớn trả số ước lượng (set pageable.totalEstimated)
+     */
+    long countUsers(String query, String status, DataScopeFilter scope, Pageable pageable);
+
+    /**
+     * Export users theo criteria - đẩy từng user vào sink (chạy trên DB worker, sink có thể block)
+     *
+     * @return số users đã export
+     */
+    long exportUsers(String query, String status, DataScopeFilter scope, Consumer<? super User> sink);
+
     /**
      * Lấy user theo ID
      */
     User getUserById(UUID id);
 
+    /**
+     * Lấy user theo ID - non-blocking (Vert.x PG client), error USER_NOT_FOUND nếu không có
+     */
+    Single<User> getUserByIdAsync(UUID id);
+
+    /**
+     * Version của user (updatedAt) cho ETag - rỗng nếu không tồn tại
+     */
+    Maybe<LocalDateTime> getUserVersion(UUID id);
+
+    /**
+     * Version của user đã load (cùng giá trị với getUserVersion): updatedAt, chưa update thì createdAt
+     */
+    static LocalDateTime versionOf(User user) {
+        return user.getUpdatedAt() != null ? user.getUpdatedAt() : user.getCreatedAt();
+    }
+
     /**
      * Tạo user mới
      */
@@ -1,22 +1,37 @@
 package com.eduplatform.identity.service;
 
 import com.eduplatform.auth.rbac.model.SecurityUser;
+import com.eduplatform.common.cache.CountCache;
 import com.eduplatform.common.constant.ErrorCode;
+import com.eduplatform.common.domain.DataScopeFilter;
 import com.eduplatform.common.exception.AppException;
+import com.eduplatform.common.vertx.model.Pageable;
 import com.eduplatform.entity.enums.UserStatus;
 import com.eduplatform.identity.entity.User;
 import com.eduplatform.identity.repository.UserRepository;
+import com.eduplatform.infra.jooq.tx.ConstraintViolations;
+import com.eduplatform.infra.jooq.tx.JooqTransactions;
+import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.core.Single;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.jooq.exception.DataAccessException;
 import org.mindrot.jbcrypt.BCrypt;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 /**
  * UserServiceImpl - Synchronous style, không dùng RxJava
+ * 
+ * Write path: mỗi create/update chạy trong 1 transaction (JooqTransactions),
+ * trùng username/email do DB phát hiện (ON CONFLICT / unique violation),
+ * roles ghi bằng 1 multi-row INSERT → commit 1 lần.
  */
 @Slf4j
 @Service
@@ -24,16 +39,43 @@ import java.util.UUID;
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
+    private final JooqTransactions transactions;
+    private final CountCache countCache;
 
     @Override
     public List<User> getUsers(String query, String status, int page, int size) {
+        return getUsers(query, status, DataScopeFilter.all(), page, size);
+    }
+
+    @Override
+    public List<User> getUsers(String query, String status, DataScopeFilter scope, int page, int size) {
         int offset = page * size;
-        return userRepository.findUsersByCriteria(null, query, status, offset, size);
+        return userRepository.findUsersByCriteria(null, query, status, scope, offset, size);
+    }
+
+    @Override
+    public List<User> getUsers(String query, String status, DataScopeFilter scope, Pageable pageable) {
+        return userRepository.findUsersByCriteria(null, query, status, scope, pageable);
     }
 
     @Override
     public long countUsers(String query, String status) {
-        return userRepository.countUsersByCriteria(null, query, status);
+        return countUsers(query, status, DataScopeFilter.all());
+    }
+
+    @Override
+    public long countUsers(String query, String status, DataScopeFilter scope) {
+        return userRepository.countUsersByCriteria(null, query, status, scope);
+    }
+
+    @Override
+    public long countUsers(String query, String status, DataScopeFilter scope, Pageable pageable) {
+        return userRepository.countUsersByCriteria(null, query, status, scope, pageable);
+    }
+
+    @Override
+    public long exportUsers(String query, String status, DataScopeFilter scope, Consumer<? super User> sink) {
+        return userRepository.streamUsersByCriteria(query, status, scope, sink);
     }
 
     @Override
@@ -45,6 +87,17 @@ public class UserServiceImpl implements UserService {
         return user;
     }
 
+    @Override
+    public Single<User> getUserByIdAsync(UUID id) {
+        return userRepository.getUserByIdAsync(id)
+                .switchIfEmpty(Single.error(() -> new AppException(ErrorCode.USER_NOT_FOUND)));
+    }
+
+    @Override
+    public Maybe<LocalDateTime> getUserVersion(UUID id) {
+        return userRepository.getUserVersionAsync(id);
+    }
+
     @Override
     public User createUser(JsonObject data, SecurityUser currentUser) {
         String username = data.getString("username");
@@ -62,15 +115,9 @@ public class UserServiceImpl implements UserService {
             throw new AppException(ErrorCode.VALIDATION_ERROR, "Password không được để trống");
         }
 
-        // Check duplicates
-        if (userRepository.existsByUsername(username, null)) {
-            throw new AppException(ErrorCode.DUPLICATE_ENTRY, "Username đã tồn tại");
-        }
-        if (userRepository.existsByEmail(email, null)) {
-            throw new AppException(ErrorCode.DUPLICATE_ENTRY, "Email đã tồn tại");
-        }
+        List<UUID> roleIds = parseRoleIds(data.getJsonArray("roleIds"));
 
-        // Create user
+        // Hash trước, ngoài transaction (bcrypt chậm, không giữ connection)
         User user = User.builder()
                 .username(username)
                 .email(email)
@@ -86,41 +133,65 @@ public class UserServiceImpl implements UserService {
             user.setUpdatedBy(currentUser.getId());
         }
 
-        User created = userRepository.insertUser(user);
-
-        // Assign roles if provided
-        var roleIds = data.getJsonArray("roleIds");
-        if (roleIds != null && !roleIds.isEmpty()) {
-            for (Object roleId : roleIds) {
-                userRepository.assignRole(created.getId(), UUID.fromString(roleId.toString()));
+        // INSERT ... ON CONFLICT DO NOTHING RETURNING + multi-row INSERT roles, 1 commit
+        User created = transactions.inTransaction(() -> {
+            User inserted = userRepository.insertUserIfAbsent(user);
+            if (inserted == null) {
+                // Chỉ tốn thêm 1 query khi trùng, để báo đúng field
+                throw userRepository.existsByUsername(username, null)
+                        ? new AppException(ErrorCode.DUPLICATE_ENTRY, "Username đã tồn tại")
+                        : new AppException(ErrorCode.DUPLICATE_ENTRY, "Email đã tồn tại");
             }
-        }
+            userRepository.insertRoles(inserted.getId(), roleIds);
+            return inserted;
+        });
+        countCache.invalidatePrefix(COUNT_CACHE_PREFIX);
 
         return created;
     }
 
     @Override
     public User updateUser(UUID id, JsonObject data, SecurityUser currentUser) {
-        User existing = userRepository.getUserById(id);
-        if (existing == null) {
-            throw new AppException(ErrorCode.USER_NOT_FOUND);
-        }
+        // Parse + hash trước, ngoài transaction
+        JsonArray roleIdsJson = data.getJsonArray("roleIds");
+        List<UUID> roleIds = roleIdsJson != null ? parseRoleIds(roleIdsJson) : null;
+        String newPassword = data.getString("password");
+        String newPasswordHash = newPassword != null && !newPassword.isBlank()
+                ? BCrypt.hashpw(newPassword, BCrypt.gensalt(12))
+                : null;
 
-        // Check username duplicate
-        String newUsername = data.getString("username");
-        if (newUsername != null && !newUsername.equals(existing.getUsername())) {
-            if (userRepository.existsByUsername(newUsername, id)) {
-                throw new AppException(ErrorCode.DUPLICATE_ENTRY, "Username đã tồn tại");
+        User updated = transactions.inTransaction(() -> {
+            User existing = userRepository.getUserById(id);
+            if (existing == null) {
+                throw new AppException(ErrorCode.USER_NOT_FOUND);
+            }
+            applyChanges(existing, data, newPasswordHash, currentUser);
+
+            // Trùng username/email → unique violation từ UPDATE (không SELECT exists trước)
+            try {
+                userRepository.updateUser(existing);
+            } catch (DataAccessException e) {
+                throw duplicateEntry(e);
             }
+
+            if (roleIds != null) {
+                userRepository.replaceRoles(id, roleIds);
+            }
+            return existing;
+        });
+        countCache.invalidatePrefix(COUNT_CACHE_PREFIX);
+
+        return updated;
+    }
+
+    private void applyChanges(User existing, JsonObject data, String newPasswordHash, SecurityUser currentUser) {
+        String newUsername = data.getString("username");
+        if (newUsername != null) {
             existing.setUsername(newUsername);
         }
 
-        // Check email duplicate
         String newEmail = data.getString("email");
-        if (newEmail != null && !newEmail.equals(existing.getEmail())) {
-            if (userRepository.existsByEmail(newEmail, id)) {
-                throw new AppException(ErrorCode.DUPLICATE_ENTRY, "Email đã tồn tại");
-            }
+        if (newEmail != null) {
             existing.setEmail(newEmail);
         }
 
@@ -138,28 +209,36 @@ public class UserServiceImpl implements UserService {
             existing.setStatus(UserStatus.valueOf(data.getString("status")));
         }
 
-        // Update password if provided
-        String newPassword = data.getString("password");
-        if (newPassword != null && !newPassword.isBlank()) {
-            existing.setPasswordHash(BCrypt.hashpw(newPassword, BCrypt.gensalt(12)));
+        if (newPasswordHash != null) {
+            existing.setPasswordHash(newPasswordHash);
         }
 
         if (currentUser != null) {
             existing.setUpdatedBy(currentUser.getId());
         }
+    }
 
-        User updated = userRepository.updateUser(existing);
-
-        // Update roles if provided
-        var roleIds = data.getJsonArray("roleIds");
-        if (roleIds != null) {
-            List<UUID> roleIdList = roleIds.stream()
-                    .map(r -> UUID.fromString(r.toString()))
-                    .toList();
-            userRepository.replaceRoles(id, roleIdList);
+    /**
+     * Unique violation → DUPLICATE_ENTRY theo constraint (users_username_key / users_email_key)
+     */
+    private RuntimeException duplicateEntry(DataAccessException e) {
+        String constraint = ConstraintViolations.uniqueConstraint(e);
+        if (constraint == null) {
+            return e;
         }
+        return constraint.contains("email")
+                ? new AppException(ErrorCode.DUPLICATE_ENTRY, "Email đã tồn tại")
+                : new AppException(ErrorCode.DUPLICATE_ENTRY, "Username đã tồn tại");
+    }
 
-        return updated;
+    private static List<UUID> parseRoleIds(JsonArray roleIds) {
+        if (roleIds == null || roleIds.isEmpty()) {
+            return List.of();
+        }
+        return roleIds.stream()
+                .map(r -> UUID.fromString(r.toString()))
+                .distinct()
+                .toList();
     }
 
     @Override
@@ -174,6 +253,8 @@ public class UserServiceImpl implements UserService {
             throw new AppException(ErrorCode.BAD_REQUEST, "Không thể xóa chính mình");
         }
 
-        return userRepository.deleteUser(id);
+        boolean deleted = userRepository.deleteUser(id);
+        countCache.invalidatePrefix(COUNT_CACHE_PREFIX);
+        return deleted;
     }
 }
@@ -1,17 +1,35 @@
 package com.eduplatform.auth.rbac.handler;
 
 import com.eduplatform.auth.rbac.model.SecurityUser;
-import com.eduplatform.auth.rbac.model.VertxPrincipal;
 import com.eduplatform.auth.rbac.service.TokenService;
 import com.eduplatform.auth.rbac.util.SecurityUtils;
 import com.eduplatform.common.constant.ErrorCode;
+import com.eduplatform.common.jfr.JwtVerificationEvent;
+import com.eduplatform.common.logging.AccessLog;
+import com.eduplatform.common.metrics.LatencyHistogram;
+import com.eduplatform.common.metrics.MetricsSource;
+import com.eduplatform.common.metrics.PrometheusWriter;
+import com.eduplatform.common.response.ErrorBodies;
+import com.eduplatform.common.tracing.Tracing;
+import com.eduplatform.common.vertx.model.VertxPrincipal;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
 import io.reactivex.rxjava3.core.Single;
 import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.ext.web.RoutingContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  * JwtAuthHandler - Vert.x 5 Handler để xác thực JWT token
  * Cải tiến:
@@ -19,14 +37,30 @@ import org.springframework.stereotype.Component;
  * - Support cả access token và refresh token validation
  * - Better error handling với specific error codes
  * - Thread-safe với RxJava3 Schedulers
+ * - Principal dùng chung model của common (VertxRoutingBinder / BaseResource đọc trực tiếp)
+ * - Metrics: thời gian verify token (validate + build principal) và kết quả
+ * - JFR: JwtVerificationEvent cho mỗi token (chỉ khi recording bật event)
+ * - Tracing: span jwt.verify con của server span (TracingHandler)
+ * - Body lỗi encode sẵn theo ErrorCode (ErrorBodies): làn sóng token hết hạn không format JSON
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
-public class JwtAuthHandler implements Handler<RoutingContext> {
+public class JwtAuthHandler implements Handler<RoutingContext>, MetricsSource {
+
+    private static final AttributeKey<String> RESULT = AttributeKey.stringKey("jwt.result");
 
     private final TokenService tokenService;
 
+    @Autowired(required = false)
+    private AccessLog accessLog;
+
+    private final LatencyHistogram verification = new LatencyHistogram();
+    private final LongAdder valid = new LongAdder();
+    private final LongAdder invalid = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
     @Override
     public void handle(RoutingContext context) {
         String authHeader = context.request().getHeader("Authorization");
@@ -43,6 +77,17 @@ public class JwtAuthHandler implements Handler<RoutingContext> {
     }
 
     private void validateAndExtract(String token, RoutingContext context) {
+        long startedAt = System.nanoTime();
+        JwtVerificationEvent event = JwtVerificationEvent.start();
+        // Span con của server span; current lúc subscribe → hop sang computation scheduler giữ parent
+        Context parent = Tracing.context(context);
+        Span span = Tracing.tracer().spanBuilder("jwt.verify").setParent(parent).startSpan();
+        try (Scope ignored = parent.with(span).makeCurrent()) {
+            verify(token, context, startedAt, event, span);
+        }
+    }
+
+    private void verify(String token, RoutingContext context, long startedAt, JwtVerificationEvent event, Span span) {
         tokenService.validate(token)
                 .flatMap(isValid -> {
                     if (!isValid) {
@@ -58,42 +103,96 @@ public class JwtAuthHandler implements Handler<RoutingContext> {
                 })
                 .subscribe(
                         principal -> {
+                            verification.record(System.nanoTime() - startedAt);
+                            valid.increment();
+                            if (event != null) {
+                                event.commit("valid", principal.getUserId());
+                            }
+                            span.setAttribute(RESULT, "valid");
+                            span.end();
                             SecurityUtils.setPrincipal(context, principal);
                             context.next();
                         },
-                        error -> handleError(context, error)
+                        error -> {
+                            verification.record(System.nanoTime() - startedAt);
+                            String result = handleError(context, error);
+                            if (event != null) {
+                                event.commit(result, null);
+                            }
+                            span.setAttribute(RESULT, result);
+                            if ("error".equals(result)) {
+                                span.recordException(error);
+                                span.setStatus(StatusCode.ERROR);
+                            }
+                            span.end();
+                        }
                 );
     }
 
     private Single<VertxPrincipal> buildPrincipal(String token) {
         return tokenService.getSecurityUser(token)
-                .map(securityUser -> VertxPrincipal.builder()
-                        .userId(securityUser.getId())
-                        .username(securityUser.getUsername())
-                        .token(token)
-                        .securityUser(securityUser)
-                        .build());
+                .map(securityUser -> {
+                    VertxPrincipal principal = new VertxPrincipal(
+                            securityUser.getId(), securityUser.getUsername(), securityUser.getEmail());
+                    principal.setSecurityUser(securityUser);
+                    if (securityUser.getRoleCodes() != null) {
+                        principal.setRoles(new HashSet<>(securityUser.getRoleCodes()));
+                    }
+                    // Token không mang permissions → để AuthorizationStage resolve khi cần
+                    if (securityUser.getPermissions() != null) {
+                        principal.setPermissions(toPermissionStrings(securityUser));
+                    }
+                    return principal;
+                });
     }
 
-    private void handleError(RoutingContext context, Throwable error) {
+    private static Set<String> toPermissionStrings(SecurityUser securityUser) {
+        Set<String> permissions = new HashSet<>();
+        securityUser.getPermissions().forEach((resource, actions) -> {
+            if (actions != null) {
+                actions.forEach(action -> permissions.add(resource + ":" + action));
+            }
+        });
+        return permissions;
+    }
+
+    /**
+     * @return kết quả verify (label của metrics / JFR event)
+     */
+    private String handleError(RoutingContext context, Throwable error) {
         if (error instanceof TokenException tokenEx) {
+            boolean isExpired = tokenEx.getErrorCode() == ErrorCode.TOKEN_EXPIRED;
+            (isExpired ? expired : invalid).increment();
             log.debug("Token validation failed: {}", tokenEx.getErrorCode().getMessage());
             sendError(context, tokenEx.getErrorCode());
+            return isExpired ? "expired" : "invalid";
+        }
+        failed.increment();
+        if (accessLog != null) {
+            accessLog.error(context, error, 500);
         } else {
             log.error("Unexpected error during token validation", error);
-            sendError(context, ErrorCode.TOKEN_INVALID);
         }
+        sendError(context, ErrorCode.TOKEN_INVALID);
+        return "error";
     }
 
     private void sendError(RoutingContext context, ErrorCode errorCode) {
         context.response()
                 .setStatusCode(errorCode.getHttpStatus())
                 .putHeader("Content-Type", "application/json")
-                .end(String.format("""
-                        {"code":%d,"message":"%s","timestamp":"%s"}""",
-                        errorCode.getCode(), 
-                        errorCode.getMessage(),
-                        java.time.Instant.now().toString()));
+                .end(Buffer.buffer(ErrorBodies.of(errorCode)));
+    }
+
+    @Override
+    public void collect(PrometheusWriter writer) {
+        writer.histogram("jwt_verification_seconds", "JWT validation + principal build time");
+        writer.histogramSample("jwt_verification_seconds", verification.snapshot());
+        writer.counter("jwt_verifications_total", "JWT verifications by result");
+        writer.sample("jwt_verifications_total", valid.sum(), "result", "valid");
+        writer.sample("jwt_verifications_total", invalid.sum(), "result", "invalid");
+        writer.sample("jwt_verifications_total", expired.sum(), "result", "expired");
+        writer.sample("jwt_verifications_total", failed.sum(), "result", "error");
     }
 
     /**
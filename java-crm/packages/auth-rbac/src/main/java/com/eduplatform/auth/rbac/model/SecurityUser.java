@@ -1,10 +1,16 @@
 package com.eduplatform.auth.rbac.model;
 
 import com.eduplatform.common.domain.DataScope;
-import lombok.AllArgsConstructor;
+import com.eduplatform.common.domain.DataScopeFilter;
+import com.eduplatform.common.vertx.security.PermissionSet;
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 
 import java.io.Serial;
 import java.io.Serializable;
@@ -23,10 +29,8 @@ import java.util.UUID;
  * - Uses UUID for IDs
  */
 @Data
-@Builder
 @NoArgsConstructor
-@AllArgsConstructor
-public class SecurityUser implements Serializable {
+public class SecurityUser implements Serializable, DataScopeFilter.Source {
     
     @Serial
     private static final long serialVersionUID = 2L;
@@ -48,25 +52,61 @@ public class SecurityUser implements Serializable {
     private DataScope dataScope;
     private UUID departmentId;
     private List<UUID> subordinateIds;
+    
+    // Index của permissions + roleCodes, build lazy một lần (không serialize)
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private transient volatile PermissionSet permissionSet;
+
+    /**
+     * Builder / constructor không nhận permissionSet - index luôn build từ permissions + roleCodes
+     */
+    @Builder
+    public SecurityUser(UUID id, String username, String email, String name, String avatar,
+                        List<UUID> roleIds, List<String> roleCodes, Map<String, List<String>> permissions,
+                        DataScope dataScope, UUID departmentId, List<UUID> subordinateIds) {
+        this.id = id;
+        this.username = username;
+        this.email = email;
+        this.name = name;
+        this.avatar = avatar;
+        this.roleIds = roleIds;
+        this.roleCodes = roleCodes;
+        this.permissions = permissions;
+        this.dataScope = dataScope;
+        this.departmentId = departmentId;
+        this.subordinateIds = subordinateIds;
+    }
+
+    public void setPermissions(Map<String, List<String>> permissions) {
+        this.permissions = permissions;
+        this.permissionSet = null;
+    }
+
+    public void setRoleCodes(List<String> roleCodes) {
+        this.roleCodes = roleCodes;
+        this.permissionSet = null;
+    }
+
+    /**
+     * PermissionSet đã index - O(1) lookup, không allocate mỗi lần check
+     */
+    public PermissionSet permissionSet() {
+        PermissionSet set = permissionSet;
+        if (set == null) {
+            set = PermissionSet.fromMatrix(permissions, isSuperAdmin());
+            permissionSet = set;
+        }
+        return set;
+    }
 
     /**
      * Check xem user có permission không (support wildcard)
      */
     public boolean hasPermission(String resource, String action) {
-        if (isSuperAdmin()) {
-            return true;
-        }
-        if (permissions == null || permissions.isEmpty()) {
-            return false;
-        }
-        
-        List<String> actions = permissions.get(resource);
-        if (actions == null) {
-            // Check wildcard resource
-            actions = permissions.get("*");
-        }
-        
-        return actions != null && (actions.contains(action) || actions.contains("*"));
+        return permissionSet().allows(resource, action);
     }
 
     /**
@@ -138,6 +178,17 @@ public class SecurityUser implements Serializable {
                (roleCodes.contains("SUPER_ADMIN") || roleCodes.contains("ADMIN"));
     }
 
+    /**
+     * Phạm vi dữ liệu để đẩy xuống SQL (super admin / chưa set = không giới hạn)
+     */
+    @Override
+    public DataScopeFilter dataScopeFilter() {
+        if (isSuperAdmin()) {
+            return DataScopeFilter.all();
+        }
+        return DataScopeFilter.of(dataScope, id, departmentId, subordinateIds);
+    }
+
     /**
      * Check if user can access specific department's data
      */
@@ -10,7 +10,11 @@ import java.util.UUID;
 
 /**
  * VertxPrincipal - Principal cho Vert.x context
+ *
+ * @deprecated JwtAuthHandler đặt {@link com.eduplatform.common.vertx.model.VertxPrincipal}
+ * vào context (key "principal"), dùng model đó thay thế.
  */
+@Deprecated(since = "2.1")
 @Data
 @Builder
 @NoArgsConstructor
@@ -0,0 +1,97 @@
+package com.eduplatform.auth.rbac.security;
+
+import com.eduplatform.auth.rbac.annotation.CheckPermission;
+import com.eduplatform.auth.rbac.annotation.RequireAuth;
+import com.eduplatform.auth.rbac.annotation.RequirePermission;
+import com.eduplatform.common.vertx.security.AuthorizationRule;
+import com.eduplatform.common.vertx.security.AuthorizationRuleProvider;
+import com.eduplatform.common.vertx.security.AuthorizationRules;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * RbacAuthorizationRuleProvider - Compile annotation của auth-rbac thành AuthorizationRule
+ * 
+ * Hỗ trợ:
+ * - @RequireAuth (method hoặc class) → chỉ cần đăng nhập
+ * - @RequirePermission (auth-rbac)    → RESOURCE:ACTION
+ * - @CheckPermission (deprecated)     → resource suy ra từ uri ("/user/" → "USER")
+ * 
+ * Nhiều annotation trên cùng method được AND với nhau.
+ * Super admin luôn pass qua PermissionSet ("*:*"), nên skipForSuperAdmin = false
+ * không còn tác dụng.
+ */
+@Component
+@SuppressWarnings("removal")
+public class RbacAuthorizationRuleProvider implements AuthorizationRuleProvider {
+
+    @Override
+    public AuthorizationRule compile(Method method) {
+        List<AuthorizationRule> rules = new ArrayList<>(2);
+
+        if (method.isAnnotationPresent(RequireAuth.class)
+                || method.getDeclaringClass().isAnnotationPresent(RequireAuth.class)) {
+            rules.add(AuthorizationRules.authenticated());
+        }
+
+        RequirePermission requirePermission = method.getAnnotation(RequirePermission.class);
+        if (requirePermission != null) {
+            rules.add(AuthorizationRules.permission(
+                    requirePermission.resource(),
+                    requirePermission.action().getCode(),
+                    requirePermission.dataScope()));
+        }
+
+        AuthorizationRule checkPermission = compileCheckPermission(method);
+        if (checkPermission != null) {
+            rules.add(checkPermission);
+        }
+
+        return rules.isEmpty() ? null : AuthorizationRules.allOf(rules);
+    }
+
+    private AuthorizationRule compileCheckPermission(Method method) {
+        CheckPermission annotation = method.getAnnotation(CheckPermission.class);
+        CheckPermission classAnnotation = method.getDeclaringClass().getAnnotation(CheckPermission.class);
+        if (annotation == null) {
+            annotation = classAnnotation;
+        }
+        if (annotation == null) {
+            return null;
+        }
+
+        String uri = annotation.uri();
+        if (uri.isEmpty() && classAnnotation != null) {
+            uri = classAnnotation.uri();
+        }
+
+        String resource = resourceFromUri(uri);
+        if (resource == null) {
+            // Không suy ra được resource → chỉ yêu cầu đăng nhập
+            return annotation.requireAuth() ? AuthorizationRules.authenticated() : null;
+        }
+        return AuthorizationRules.permission(resource, annotation.action().toUpperCase(Locale.ROOT), false);
+    }
+
+    /**
+     * "/user/" → "USER", "/student-class" → "STUDENT_CLASS"
+     */
+    static String resourceFromUri(String uri) {
+        if (uri == null) {
+            return null;
+        }
+        String trimmed = uri.replaceAll("^/+|/+$", "");
+        if (trimmed.isEmpty()) {
+            return null;
+        }
+        int lastSlash = trimmed.lastIndexOf('/');
+        if (lastSlash >= 0) {
+            trimmed = trimmed.substring(lastSlash + 1);
+        }
+        return trimmed.replace('-', '_').toUpperCase(Locale.ROOT);
+    }
+}
@@ -1,7 +1,7 @@
 package com.eduplatform.auth.rbac.util;
 
 import com.eduplatform.auth.rbac.model.SecurityUser;
-import com.eduplatform.auth.rbac.model.VertxPrincipal;
+import com.eduplatform.common.vertx.model.VertxPrincipal;
 import io.vertx.ext.web.RoutingContext;
 
 import java.util.Optional;
@@ -79,8 +79,8 @@ public final class SecurityUtils {
     public static void setPrincipal(RoutingContext context, VertxPrincipal principal) {
         context.put(KEY_PRINCIPAL, principal);
         // Cũng set SecurityUser nếu có trong principal
-        if (principal != null && principal.getSecurityUser() != null) {
-            setSecurityUser(context, principal.getSecurityUser());
+        if (principal != null && principal.getSecurityUser() instanceof SecurityUser securityUser) {
+            setSecurityUser(context, securityUser);
         }
     }
 
@@ -0,0 +1,91 @@
+package com.eduplatform.common.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * CountCache - Cache ngắn hạn cho total count của list có phân trang
+ * 
+ * Người dùng lật trang / đổi sort không đổi filter → total giữ nguyên,
+ * không cần COUNT(*) lại. Key phải chứa đủ filter (gồm data scope).
+ * 
+ * - TTL ngắn (vài chục giây): total có thể lệch nhẹ, chấp nhận cho list
+ * - Bounded: quá maxEntries thì dọn entry hết hạn, vẫn đầy thì clear
+ * - invalidatePrefix() khi có create/delete để total cập nhật ngay
+ * 
+ * Spring bean (inject vào service / resource cần invalidate), không phải static singleton.
+ * 
+ * Usage:
+ * <pre>
+ * long total = countCache.get("users:" + filterKey, Duration.ofSeconds(30), () -> repo.count(...));
+ * countCache.invalidatePrefix("users:");
+ * </pre>
+ */
+@Component
+public class CountCache {
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxEntries;
+
+    public CountCache(@Value("${app.cache.count.max-entries:10000}") int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Lấy count từ cache, miss/hết hạn thì gọi loader
+     */
+    public long get(String key, Duration ttl, Callable<Long> loader) throws Exception {
+        return getEntry(key, ttl, () -> new Entry(loader.call(), false, 0)).value();
+    }
+
+    /**
+     * Như get() nhưng giữ cả cờ estimated của giá trị
+     */
+    public Entry getEntry(String key, Duration ttl, Callable<Entry> loader) throws Exception {
+        long now = System.nanoTime();
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiresAt() - now > 0) {
+            return entry;
+        }
+
+        Entry loaded = loader.call();
+        Entry stored = new Entry(loaded.value(), loaded.estimated(), now + ttl.toNanos());
+        if (entries.size() >= maxEntries) {
+            evictExpired(now);
+        }
+        entries.put(key, stored);
+        return stored;
+    }
+
+    public void invalidate(String key) {
+        entries.remove(key);
+    }
+
+    public void invalidatePrefix(String prefix) {
+        entries.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void evictExpired(long now) {
+        entries.values().removeIf(entry -> entry.expiresAt() - now <= 0);
+        if (entries.size() >= maxEntries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Giá trị count + có phải số ước lượng không
+     */
+    public record Entry(long value, boolean estimated, long expiresAt) {
+        public static Entry of(long value, boolean estimated) {
+            return new Entry(value, estimated, 0);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.eduplatform.common.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * EntityCache - Read-through cache theo region cho entity ít thay đổi (user, role, dữ liệu tham chiếu)
+ *
+ * - Bounded: quá maxSize thì dọn entry hết hạn, vẫn đầy thì bỏ bớt ~10% entry bất kỳ
+ * - TTL: giới hạn độ cũ tối đa kể cả khi bỏ lỡ invalidate (VD: sửa trực tiếp trong DB)
+ * - Theo từng key: load bắt đầu trước invalidate(key) thì kết quả không được ghi vào cache
+ *   (không ghi đè giá trị mới bằng giá trị cũ); invalidate key khác không ảnh hưởng load đang chạy
+ * - Stampede: nhiều thread cùng miss 1 key → chỉ 1 thread load, các thread khác chờ kết quả
+ * - Không cache null (không có negative cache)
+ *
+ * Value trong cache dùng chung giữa các request → caller không được sửa object lấy ra.
+ *
+ * Usage:
+ * <pre>
+ * EntityCache&lt;UUID, User&gt; users = EntityCache.create("users.byId", 10_000, Duration.ofMinutes(5));
+ * User user = users.get(id, () -> repository.fetchUser(id));
+ * users.invalidate(id);
+ * </pre>
+ */
+public final class EntityCache<K, V> {
+
+    private static final List<EntityCache<?, ?>> REGISTRY = new CopyOnWriteArrayList<>();
+
+    private final String region;
+    private final int maxSize;
+    private final long ttlNanos;
+
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    // Load đang chạy theo key - invalidate gỡ entry → load đó không được ghi kết quả
+    private final ConcurrentHashMap<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+
+    // ============================================
+    // Metrics
+    // ============================================
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder coalescedLoads = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    private EntityCache(String region, int maxSize, Duration ttl) {
+        this.region = region;
+        this.maxSize = Math.max(1, maxSize);
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    public static <K, V> EntityCache<K, V> create(String region, int maxSize, Duration ttl) {
+        EntityCache<K, V> cache = new EntityCache<>(region, maxSize, ttl);
+        REGISTRY.add(cache);
+        return cache;
+    }
+
+    /**
+     * Các region đã tạo (cho metrics / admin endpoint)
+     */
+    public static List<EntityCache<?, ?>> registered() {
+        return List.copyOf(REGISTRY);
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    /**
+     * Lấy từ cache, miss/hết hạn thì load (1 loader cho mỗi key tại một thời điểm)
+     */
+    public V get(K key, Supplier<V> loader) {
+        if (key == null) {
+            return null;
+        }
+
+        V cached = getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = loading.putIfAbsent(key, mine);
+        if (inFlight != null) {
+            coalescedLoads.increment();
+            return await(inFlight);
+        }
+
+        try {
+            loads.increment();
+            V value = loader.get();
+            if (value != null) {
+                // Ghi dưới lock của key trong loading: invalidate(key) gỡ loading trước rồi mới xóa entries
+                loading.computeIfPresent(key, (k, current) -> {
+                    if (current == mine) {
+                        store(k, value);
+                    }
+                    return current;
+                });
+            }
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            // Cả Error: future không complete = thread đang chờ cùng key treo vĩnh viễn
+            loadFailures.increment();
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, mine);
+        }
+    }
+
+    /**
+     * Chỉ đọc cache, không load (VD: path reactive không muốn block)
+     */
+    public V getIfPresent(K key) {
+        if (key == null) {
+            return null;
+        }
+        Entry<V> entry = entries.get(key);
+        if (entry != null && entry.expiresAt - System.nanoTime() > 0) {
+            hits.increment();
+            return entry.value;
+        }
+        if (entry != null) {
+            entries.remove(key, entry);
+        }
+        misses.increment();
+        return null;
+    }
+
+    public void invalidate(K key) {
+        if (key == null) {
+            return;
+        }
+        invalidations.increment();
+        // Gỡ load đang chạy trước: load đó không ghi được nữa, reader sau không join vào
+        loading.remove(key);
+        entries.remove(key);
+    }
+
+    public void invalidateAll() {
+        invalidations.increment();
+        loading.clear();
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void store(K key, V value) {
+        long now = System.nanoTime();
+        if (entries.size() >= maxSize) {
+            evict(now);
+        }
+        entries.put(key, new Entry<>(value, now + ttlNanos));
+    }
+
+    private void evict(long now) {
+        int before = entries.size();
+        entries.values().removeIf(entry -> entry.expiresAt - now <= 0);
+
+        int target = maxSize - Math.max(1, maxSize / 10);
+        Iterator<K> keys = entries.keySet().iterator();
+        while (entries.size() > target && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+        evictions.add(Math.max(0, before - entries.size()));
+    }
+
+    private static <V> V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    // ============================================
+    // Stats
+    // ============================================
+
+    public Stats stats() {
+        return new Stats(region, entries.size(), hits.sum(), misses.sum(), loads.sum(),
+                loadFailures.sum(), coalescedLoads.sum(), evictions.sum(), invalidations.sum());
+    }
+
+    public record Stats(
+            String region,
+            int size,
+            long hits,
+            long misses,
+            long loads,
+            long loadFailures,
+            long coalescedLoads,
+            long evictions,
+            long invalidations
+    ) {
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+    }
+
+    private record Entry<V>(V value, long expiresAt) {}
+}
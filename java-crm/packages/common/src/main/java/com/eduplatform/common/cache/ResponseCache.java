@@ -0,0 +1,246 @@
+package com.eduplatform.common.cache;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ResponseCache - Cache body JSON đã serialize của route GET (@VertxCacheable)
+ *
+ * - Bounded theo tổng bytes (maxBytes), bỏ entry ít dùng nhất (LRU) khi đầy;
+ *   body lớn hơn 1/8 maxBytes không cache (1 response không đẩy cả cache ra ngoài)
+ * - offHeap: body nằm trong direct ByteBuffer → cache lớn không làm tăng heap / GC pause
+ * - Tag (RBAC resource của route, VD: "USER"): invalidateTag() tăng generation của tag
+ *   → entry gắn tag hết hiệu lực ngay, load đang chạy (ticket cũ) không được ghi vào cache
+ * - Hit chỉ là lookup trong memory → VertxRoutingBinder trả thẳng trên event loop
+ *
+ * Cache theo instance: các instance khác chỉ thấy thay đổi khi TTL hết → TTL ngắn.
+ *
+ * Usage:
+ * <pre>
+ * ResponseCache.Hit hit = cache.get(key);
+ * ResponseCache.Ticket ticket = cache.ticket(key, Set.of("USER"), Duration.ofSeconds(30));  // miss
+ * cache.put(ticket, jsonBytes, etag);
+ * cache.invalidateTag("USER");
+ * </pre>
+ */
+public final class ResponseCache {
+
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    private final boolean offHeap;
+
+    // Access-order → LRU; mọi truy cập qua lock của map (critical section ngắn)
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final ConcurrentHashMap<String, AtomicLong> generations = new ConcurrentHashMap<>();
+    private long bytes;
+
+    // ============================================
+    // Metrics
+    // ============================================
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public ResponseCache(long maxBytes, boolean offHeap) {
+        this.maxBytes = Math.max(1, maxBytes);
+        this.maxEntryBytes = Math.max(1, this.maxBytes / 8);
+        this.offHeap = offHeap;
+    }
+
+    /**
+     * Body còn hạn và chưa bị invalidate, null nếu miss
+     */
+    public Hit get(String key) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null && (entry.expiresAt - System.nanoTime() <= 0 || isStale(entry))) {
+                remove(key);
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return new Hit(entry.body(), entry.etag);
+    }
+
+    /**
+     * Bắt đầu load khi miss: snapshot generation của các tag
+     */
+    public Ticket ticket(String key, Collection<String> tags, Duration ttl) {
+        String[] tagArray = tags.toArray(String[]::new);
+        long[] snapshot = new long[tagArray.length];
+        for (int i = 0; i < tagArray.length; i++) {
+            snapshot[i] = generation(tagArray[i]).get();
+        }
+        return new Ticket(key, tagArray, snapshot, ttl.toNanos());
+    }
+
+    /**
+     * Lưu body - bỏ qua nếu tag bị invalidate sau khi ticket được tạo
+     */
+    public void put(Ticket ticket, byte[] body, String etag) {
+        if (body.length > maxEntryBytes) {
+            rejected.increment();
+            return;
+        }
+
+        Entry entry = new Entry(offHeap ? copyOffHeap(body) : null, offHeap ? null : body, etag,
+                System.nanoTime() + ticket.ttlNanos, ticket.tags, ticket.generations);
+        synchronized (entries) {
+            if (isStale(entry)) {
+                return;
+            }
+            remove(ticket.key);
+            entries.put(ticket.key, entry);
+            bytes += entry.size();
+            evictOverflow();
+        }
+        stores.increment();
+    }
+
+    /**
+     * Invalidate mọi entry gắn tag (write route @VertxCacheEvict)
+     */
+    public void invalidateTag(String tag) {
+        generation(tag).incrementAndGet();
+        invalidations.increment();
+        synchronized (entries) {
+            Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+            while (it.hasNext()) {
+                Entry entry = it.next().getValue();
+                if (entry.hasTag(tag)) {
+                    bytes -= entry.size();
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        generations.values().forEach(AtomicLong::incrementAndGet);
+        invalidations.increment();
+        synchronized (entries) {
+            entries.clear();
+            bytes = 0;
+        }
+    }
+
+    private AtomicLong generation(String tag) {
+        return generations.computeIfAbsent(tag, t -> new AtomicLong());
+    }
+
+    private boolean isStale(Entry entry) {
+        for (int i = 0; i < entry.tags.length; i++) {
+            if (generation(entry.tags[i]).get() != entry.generations[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void remove(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            bytes -= removed.size();
+        }
+    }
+
+    private void evictOverflow() {
+        Iterator<Entry> it = entries.values().iterator();
+        while (bytes > maxBytes && it.hasNext()) {
+            bytes -= it.next().size();
+            it.remove();
+            evictions.increment();
+        }
+    }
+
+    private static ByteBuffer copyOffHeap(byte[] body) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(body.length);
+        buffer.put(body).flip();
+        return buffer.asReadOnlyBuffer();
+    }
+
+    // ============================================
+    // Stats
+    // ============================================
+
+    public Stats stats() {
+        int size;
+        long used;
+        synchronized (entries) {
+            size = entries.size();
+            used = bytes;
+        }
+        return new Stats(size, used, maxBytes, offHeap, hits.sum(), misses.sum(), stores.sum(),
+                rejected.sum(), evictions.sum(), invalidations.sum());
+    }
+
+    public record Stats(
+            int size,
+            long bytes,
+            long maxBytes,
+            boolean offHeap,
+            long hits,
+            long misses,
+            long stores,
+            long rejected,
+            long evictions,
+            long invalidations
+    ) {
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+    }
+
+    /**
+     * Body + ETag đã cache (caller không được sửa body)
+     */
+    public record Hit(byte[] body, String etag) {}
+
+    /**
+     * Key + generation của tag lúc bắt đầu load
+     */
+    public record Ticket(String key, String[] tags, long[] generations, long ttlNanos) {}
+
+    private record Entry(ByteBuffer offHeapBody, byte[] heapBody, String etag, long expiresAt,
+                         String[] tags, long[] generations) {
+
+        byte[] body() {
+            if (heapBody != null) {
+                return heapBody;
+            }
+            byte[] copy = new byte[offHeapBody.remaining()];
+            offHeapBody.duplicate().get(copy);
+            return copy;
+        }
+
+        long size() {
+            return heapBody != null ? heapBody.length : offHeapBody.capacity();
+        }
+
+        boolean hasTag(String tag) {
+            for (String t : tags) {
+                if (t.equals(tag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
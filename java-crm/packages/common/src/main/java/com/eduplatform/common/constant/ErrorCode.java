@@ -38,12 +38,15 @@ public enum ErrorCode {
     CONFLICT(4009, "Conflict", 409),
     DUPLICATE_EMAIL(4010, "Email already exists", 409),
     DUPLICATE_USERNAME(4011, "Username already exists", 409),
+    IDEMPOTENCY_IN_PROGRESS(4012, "A request with this Idempotency-Key is still in progress", 409),
+    IDEMPOTENCY_KEY_MISMATCH(4013, "Idempotency-Key was reused with a different request", 422),
     
     // Server errors
     INTERNAL_ERROR(5001, "Internal server error", 500),
     INTERNAL_SERVER_ERROR(5001, "Internal server error", 500),
     DATABASE_ERROR(5002, "Database error", 500),
-    SERVICE_UNAVAILABLE(5003, "Service unavailable", 503);
+    SERVICE_UNAVAILABLE(5003, "Service unavailable", 503),
+    GATEWAY_TIMEOUT(5004, "Request timed out", 504);
 
     private final int code;
     private final String message;
@@ -0,0 +1,131 @@
+package com.eduplatform.common.context;
+
+import com.eduplatform.common.constant.ErrorCode;
+import com.eduplatform.common.exception.AppException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deadline - Hạn chót của 1 request, đi theo RequestContext sang worker thread
+ *
+ * - Hết hạn (timer của VertxRoutingBinder) hoặc client ngắt kết nối → cancel():
+ *   chạy các hook đã đăng ký (VD: Statement.cancel() của query đang chạy)
+ * - check(): task bắt đầu sau khi đã hết hạn / bị cancel → ném GATEWAY_TIMEOUT,
+ *   không lấy connection, không chạy SQL cho client đã bỏ đi
+ * - remainingNanos(): để set query timeout của JDBC statement
+ *
+ * Hook chạy trên thread gọi cancel() (event loop) → hook không được block.
+ */
+@Slf4j
+public final class Deadline {
+
+    /**
+     * Không giới hạn thời gian (vẫn cancel được khi client ngắt kết nối)
+     */
+    private static final long NO_LIMIT = Long.MAX_VALUE;
+
+    private final long expiresAtNanos;
+    private final List<Runnable> hooks = new ArrayList<>();
+    private volatile String cancelReason;
+
+    private Deadline(long expiresAtNanos) {
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+    public static Deadline after(Duration timeout) {
+        return new Deadline(System.nanoTime() + timeout.toNanos());
+    }
+
+    public static Deadline unlimited() {
+        return new Deadline(NO_LIMIT);
+    }
+
+    /**
+     * Deadline của request đang bind trên thread hiện tại (null nếu ngoài request)
+     */
+    public static Deadline current() {
+        RequestContext context = RequestContext.current();
+        return context != null ? context.getDeadline() : null;
+    }
+
+    public boolean hasLimit() {
+        return expiresAtNanos != NO_LIMIT;
+    }
+
+    public long remainingNanos() {
+        return hasLimit() ? expiresAtNanos - System.nanoTime() : Long.MAX_VALUE;
+    }
+
+    public boolean isExpired() {
+        return cancelReason != null || (hasLimit() && remainingNanos() <= 0);
+    }
+
+    public String getCancelReason() {
+        return cancelReason;
+    }
+
+    /**
+     * Ném GATEWAY_TIMEOUT nếu request đã hết hạn / bị cancel
+     */
+    public void check() {
+        if (isExpired()) {
+            throw new AppException(ErrorCode.GATEWAY_TIMEOUT,
+                    cancelReason != null ? cancelReason : "Request deadline exceeded");
+        }
+    }
+
+    /**
+     * Đăng ký hook chạy khi cancel - đã cancel thì chạy ngay.
+     * Gọi close() của Registration khi công việc kết thúc để bỏ hook.
+     */
+    public Registration onCancel(Runnable hook) {
+        synchronized (hooks) {
+            if (cancelReason == null) {
+                hooks.add(hook);
+                return () -> {
+                    synchronized (hooks) {
+                        hooks.remove(hook);
+                    }
+                };
+            }
+        }
+        run(hook);
+        return () -> {};
+    }
+
+    /**
+     * Cancel công việc còn lại của request (chỉ lần gọi đầu có tác dụng)
+     */
+    public void cancel(String reason) {
+        List<Runnable> pending;
+        synchronized (hooks) {
+            if (cancelReason != null) {
+                return;
+            }
+            cancelReason = reason;
+            pending = new ArrayList<>(hooks);
+            hooks.clear();
+        }
+        pending.forEach(Deadline::run);
+    }
+
+    private static void run(Runnable hook) {
+        try {
+            hook.run();
+        } catch (RuntimeException e) {
+            log.debug("Deadline cancel hook failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Bỏ đăng ký hook (dùng với try-with-resources)
+     */
+    @FunctionalInterface
+    public interface Registration extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
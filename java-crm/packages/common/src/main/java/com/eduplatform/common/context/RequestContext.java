@@ -0,0 +1,108 @@
+package com.eduplatform.common.context;
+
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+
+import java.util.UUID;
+import java.util.concurrent.Callable;
+
+/**
+ * RequestContext - Thông tin của request hiện tại, gắn theo thread
+ * 
+ * VertxRoutingBinder bind context trong lúc gọi method của controller
+ * (trên event loop). Code cần chạy ở thread khác (DB pool, Schedulers.io)
+ * capture lúc build chain bằng {@link #propagate(Callable)} → callable
+ * chạy trên worker vẫn thấy đúng context của request (kể cả Deadline:
+ * jOOQ set query timeout + cancel statement theo deadline của request).
+ * 
+ * OpenTelemetry Context (span hiện tại lúc tạo RequestContext) cũng đi theo:
+ * propagate() makeCurrent() trên worker → span của jOOQ / worker là con của span request.
+ * 
+ * Usage:
+ * <pre>
+ * RequestContext context = RequestContext.current();   // null nếu ngoài request
+ * Single.fromCallable(RequestContext.propagate(() -> service.list()))
+ *       .subscribeOn(Schedulers.io());
+ * </pre>
+ */
+public final class RequestContext {
+
+    private static final ThreadLocal<RequestContext> CURRENT = new ThreadLocal<>();
+
+    private final UUID userId;
+    private final String path;
+    private final long startNanos;
+    private final Deadline deadline;
+    private final Context traceContext;
+
+    public RequestContext(UUID userId, String path) {
+        this(userId, path, Deadline.unlimited());
+    }
+
+    public RequestContext(UUID userId, String path, Deadline deadline) {
+        this.userId = userId;
+        this.path = path;
+        this.startNanos = System.nanoTime();
+        this.deadline = deadline != null ? deadline : Deadline.unlimited();
+        this.traceContext = Context.current();
+    }
+
+    public static RequestContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Bind context vào thread hiện tại, trả về context trước đó để restore
+     */
+    public static RequestContext bind(RequestContext context) {
+        RequestContext previous = CURRENT.get();
+        if (context == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(context);
+        }
+        return previous;
+    }
+
+    /**
+     * Capture context hiện tại, bind lại khi callable chạy (ở bất kỳ thread nào)
+     * Request đã hết hạn / client đã ngắt kết nối → không chạy, ném GATEWAY_TIMEOUT
+     */
+    public static <T> Callable<T> propagate(Callable<T> callable) {
+        RequestContext captured = CURRENT.get();
+        if (captured == null) {
+            // Ngoài controller (VD: authorization trước khi invoke) vẫn giữ span hiện tại
+            Context trace = Context.current();
+            return trace == Context.root() ? callable : trace.wrap(callable);
+        }
+        return () -> {
+            captured.deadline.check();
+            RequestContext previous = bind(captured);
+            try (Scope ignored = captured.traceContext.makeCurrent()) {
+                return callable.call();
+            } finally {
+                bind(previous);
+            }
+        };
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    public Deadline getDeadline() {
+        return deadline;
+    }
+
+    public Context getTraceContext() {
+        return traceContext;
+    }
+}
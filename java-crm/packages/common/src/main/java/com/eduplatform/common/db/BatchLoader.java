@@ -0,0 +1,269 @@
+package com.eduplatform.common.db;
+
+import com.eduplatform.common.context.RequestContext;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * BatchLoader - Gom lookup theo key của nhiều request đồng thời thành 1 query (DataLoader-style)
+ *
+ * Nhiều worker thread cùng gọi load(id) trong cùng khoảng vài trăm micro giây
+ * → 1 query {@code WHERE id = ANY(?)}, kết quả chia lại cho từng caller.
+ *
+ * Cơ chế (không cần thread riêng, query chạy trên chính worker thread của caller):
+ * - Caller đầu tiên của batch là leader: chờ tối đa window rồi đóng batch và chạy query
+ * - Caller sau: đăng ký key vào batch đang mở (trùng key → dùng chung future), chờ kết quả
+ * - Batch đủ maxBatchSize → caller làm đầy batch chạy query ngay, không chờ window
+ * - Chỉ có 1 caller đang load → leader không chờ (không cộng latency khi tải thấp)
+ *
+ * Batch tách riêng theo DbRouting.isReadOnly() của caller → query chạy đúng primary/replica.
+ * KHÔNG dùng bên trong transaction: query của leader chạy trên connection của thread leader.
+ *
+ * Usage:
+ * <pre>
+ * BatchLoader&lt;UUID, User&gt; users = BatchLoader.create("users", Duration.ofNanos(200_000), 128,
+ *         ids -> userRepository.getUsersByIds(ids));
+ * User user = users.load(userId);
+ * </pre>
+ */
+@Slf4j
+public final class BatchLoader<K, V> {
+
+    /**
+     * Upper bound (inclusive) của các bucket histogram batch size, bucket cuối: lớn hơn
+     */
+    private static final int[] SIZE_BUCKETS = {1, 2, 4, 8, 16, 32, 64, 128};
+
+    private static final List<BatchLoader<?, ?>> REGISTRY = new CopyOnWriteArrayList<>();
+
+    private final String name;
+    private final Function<Set<K>, Map<K, V>> batchFunction;
+    private final long windowNanos;
+    private final int maxBatchSize;
+
+    // Batch đang mở: [0] primary, [1] read-only - guarded by this
+    @SuppressWarnings("unchecked")
+    private final Batch<K, V>[] open = new Batch[2];
+
+    private final AtomicInteger activeCallers = new AtomicInteger();
+
+    // ============================================
+    // Metrics
+    // ============================================
+
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder dedupHits = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder batchedKeys = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final AtomicLong largestBatch = new AtomicLong();
+    private final AtomicLongArray sizeHistogram = new AtomicLongArray(SIZE_BUCKETS.length + 1);
+
+    private BatchLoader(String name, Duration window, int maxBatchSize, Function<Set<K>, Map<K, V>> batchFunction) {
+        this.name = name;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.batchFunction = batchFunction;
+    }
+
+    /**
+     * @param batchFunction nhận tập key (không trùng), trả map key → value (key không có → null)
+     */
+    public static <K, V> BatchLoader<K, V> create(String name, Duration window, int maxBatchSize,
+                                                  Function<Set<K>, Map<K, V>> batchFunction) {
+        BatchLoader<K, V> loader = new BatchLoader<>(name, window, maxBatchSize, batchFunction);
+        REGISTRY.add(loader);
+        return loader;
+    }
+
+    /**
+     * Các loader đã tạo (cho metrics / admin endpoint)
+     */
+    public static List<BatchLoader<?, ?>> registered() {
+        return List.copyOf(REGISTRY);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Load 1 key - block caller tới khi batch chứa key chạy xong
+     * Exception / Error của batch query được ném lại cho mọi caller trong batch.
+     */
+    public V load(K key) {
+        if (key == null) {
+            return null;
+        }
+        loads.increment();
+
+        int slot = DbRouting.isReadOnly() ? 1 : 0;
+        Batch<K, V> batch;
+        CompletableFuture<V> future;
+        boolean leader = false;
+        boolean full = false;
+
+        activeCallers.incrementAndGet();
+        try {
+            synchronized (this) {
+                batch = open[slot];
+                if (batch == null) {
+                    batch = new Batch<>();
+                    open[slot] = batch;
+                    leader = true;
+                }
+
+                future = batch.futures.get(key);
+                if (future != null) {
+                    dedupHits.increment();
+                } else {
+                    future = new CompletableFuture<>();
+                    batch.futures.put(key, future);
+                }
+
+                if (batch.futures.size() >= maxBatchSize) {
+                    open[slot] = null;
+                    full = true;
+                }
+            }
+
+            if (full) {
+                dispatch(batch);
+            } else if (leader) {
+                // Có caller khác đang load → chờ gom thêm key, tối đa window
+                if (windowNanos > 0 && activeCallers.get() > 1) {
+                    LockSupport.parkNanos(windowNanos);
+                }
+                boolean stillOpen;
+                synchronized (this) {
+                    stillOpen = open[slot] == batch;
+                    if (stillOpen) {
+                        open[slot] = null;
+                    }
+                }
+                // Batch đã bị caller khác dispatch (đầy) → chỉ chờ kết quả
+                if (stillOpen) {
+                    dispatch(batch);
+                }
+            }
+
+            return await(future);
+        } finally {
+            activeCallers.decrementAndGet();
+        }
+    }
+
+    private void dispatch(Batch<K, V> batch) {
+        Map<K, CompletableFuture<V>> futures = batch.futures;
+        recordBatch(futures.size());
+
+        // Batch phục vụ nhiều request → không chạy theo deadline của request leader
+        // (leader hết hạn / client ngắt kết nối không được hủy query của các request khác)
+        RequestContext previous = RequestContext.bind(null);
+        try {
+            Map<K, V> result = batchFunction.apply(futures.keySet());
+            for (Map.Entry<K, CompletableFuture<V>> entry : futures.entrySet()) {
+                entry.getValue().complete(result != null ? result.get(entry.getKey()) : null);
+            }
+        } catch (Throwable e) {
+            // Cả Error (OOM, StackOverflow...) - future không complete = mọi caller trong batch treo vĩnh viễn
+            failures.increment();
+            for (CompletableFuture<V> future : futures.values()) {
+                future.completeExceptionally(e);
+            }
+        } finally {
+            RequestContext.bind(previous);
+        }
+    }
+
+    private static <V> V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private void recordBatch(int size) {
+        batches.increment();
+        batchedKeys.add(size);
+        largestBatch.accumulateAndGet(size, Math::max);
+
+        int bucket = SIZE_BUCKETS.length;
+        for (int i = 0; i < SIZE_BUCKETS.length; i++) {
+            if (size <= SIZE_BUCKETS[i]) {
+                bucket = i;
+                break;
+            }
+        }
+        sizeHistogram.incrementAndGet(bucket);
+
+        if (log.isTraceEnabled()) {
+            log.trace("BatchLoader[{}] dispatch {} keys", name, size);
+        }
+    }
+
+    // ============================================
+    // Stats
+    // ============================================
+
+    public Stats stats() {
+        List<Long> histogram = new ArrayList<>(sizeHistogram.length());
+        for (int i = 0; i < sizeHistogram.length(); i++) {
+            histogram.add(sizeHistogram.get(i));
+        }
+        return new Stats(name, loads.sum(), dedupHits.sum(), batches.sum(), batchedKeys.sum(),
+                failures.sum(), largestBatch.get(), histogram);
+    }
+
+    /**
+     * Snapshot metrics
+     * sizeHistogram[i]: số batch có size ≤ bucketBounds()[i] (phần tử cuối: lớn hơn bound cuối)
+     */
+    public record Stats(
+            String name,
+            long loads,
+            long dedupHits,
+            long batches,
+            long batchedKeys,
+            long failures,
+            long largestBatch,
+            List<Long> sizeHistogram
+    ) {
+        /**
+         * Số key trung bình mỗi query (1.0 = không gom được gì)
+         */
+        public double averageBatchSize() {
+            return batches == 0 ? 0 : (double) batchedKeys / batches;
+        }
+    }
+
+    public static int[] bucketBounds() {
+        return SIZE_BUCKETS.clone();
+    }
+
+    private static final class Batch<K, V> {
+        private final Map<K, CompletableFuture<V>> futures = new LinkedHashMap<>();
+    }
+}
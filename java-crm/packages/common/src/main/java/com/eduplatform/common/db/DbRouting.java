@@ -0,0 +1,141 @@
+package com.eduplatform.common.db;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * DbRouting - Đánh dấu công việc read-only để route sang read replica
+ * 
+ * Routing thực hiện ở tầng connection (ReadReplicaConnectionProvider trong
+ * infra-jooq): khi thread đang ở trong {@link #readOnly(Callable)} thì
+ * connection lấy từ replica, còn lại luôn là primary.
+ * 
+ * Read-your-writes: sau khi user ghi ({@link #markWrite(UUID)}), các read
+ * của user đó trong stickyWindow vẫn đi primary để không đọc phải dữ liệu
+ * replica chưa kịp replay. Tracking theo từng instance (in-memory).
+ * 
+ * BaseResource dùng sẵn: readQuery()/page() → read-only, query() → primary, execute()/run() → markWrite.
+ * <pre>
+ * List&lt;Role&gt; roles = DbRouting.readOnly(() -> roleRepository.findAll());
+ * </pre>
+ */
+public final class DbRouting {
+
+    private static final ThreadLocal<Boolean> READ_ONLY = new ThreadLocal<>();
+    private static final ConcurrentHashMap<UUID, Long> LAST_WRITES = new ConcurrentHashMap<>();
+    private static final int MAX_TRACKED_WRITERS = 100_000;
+
+    private static volatile long stickyWindowNanos = Duration.ofSeconds(5).toNanos();
+
+    private DbRouting() {}
+
+    /**
+     * Chạy callable với connection read-only (replica nếu có)
+     */
+    public static <T> T readOnly(Callable<T> callable) throws Exception {
+        Boolean previous = enter();
+        try {
+            return callable.call();
+        } finally {
+            exit(previous);
+        }
+    }
+
+    /**
+     * Read-only cho code không ném checked exception (repository/service),
+     * user vừa ghi thì giữ primary
+     * <pre>
+     * return DbRouting.readOnly(userId, () -> permissionRepository.getPermissionMatrixByUserId(userId));
+     * </pre>
+     */
+    public static <T> T readOnly(UUID userId, Supplier<T> supplier) {
+        if (recentlyWrote(userId)) {
+            return supplier.get();
+        }
+        Boolean previous = enter();
+        try {
+            return supplier.get();
+        } finally {
+            exit(previous);
+        }
+    }
+
+    /**
+     * Bọc callable thành read-only, trừ khi user vừa ghi (read-your-writes → primary)
+     */
+    public static <T> Callable<T> readOnlyFor(UUID userId, Callable<T> callable) {
+        if (recentlyWrote(userId)) {
+            return callable;
+        }
+        return () -> readOnly(callable);
+    }
+
+    /**
+     * Bắt buộc primary kể cả khi đang trong readOnly() - đọc dữ liệu bảo mật
+     * (status, password hash) không được lệch theo replica
+     */
+    public static <T> T primary(Supplier<T> supplier) {
+        Boolean previous = READ_ONLY.get();
+        READ_ONLY.remove();
+        try {
+            return supplier.get();
+        } finally {
+            exit(previous);
+        }
+    }
+
+    public static boolean isReadOnly() {
+        return READ_ONLY.get() == Boolean.TRUE;
+    }
+
+    private static Boolean enter() {
+        Boolean previous = READ_ONLY.get();
+        READ_ONLY.set(Boolean.TRUE);
+        return previous;
+    }
+
+    private static void exit(Boolean previous) {
+        if (previous == null) {
+            READ_ONLY.remove();
+        } else {
+            READ_ONLY.set(previous);
+        }
+    }
+
+    // ============================================
+    // Read-your-writes
+    // ============================================
+
+    public static void markWrite(UUID userId) {
+        if (userId == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (LAST_WRITES.size() >= MAX_TRACKED_WRITERS) {
+            LAST_WRITES.values().removeIf(at -> now - at > stickyWindowNanos);
+        }
+        LAST_WRITES.put(userId, now);
+    }
+
+    public static boolean recentlyWrote(UUID userId) {
+        if (userId == null) {
+            return false;
+        }
+        Long at = LAST_WRITES.get(userId);
+        if (at == null) {
+            return false;
+        }
+        if (System.nanoTime() - at > stickyWindowNanos) {
+            LAST_WRITES.remove(userId, at);
+            return false;
+        }
+        return true;
+    }
+
+    public static void setStickyWindow(Duration window) {
+        stickyWindowNanos = window.toNanos();
+    }
+}
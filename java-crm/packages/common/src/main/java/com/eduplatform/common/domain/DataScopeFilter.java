@@ -0,0 +1,112 @@
+package com.eduplatform.common.domain;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * DataScopeFilter - Phạm vi dữ liệu của user cho một request
+ *
+ * Được VertxRoutingBinder resolve từ principal khi route khai báo
+ * {@code @RequirePermission(dataScope = true)}, sau đó truyền xuống
+ * service/repository để build điều kiện SQL (không filter trong Java).
+ *
+ * - ALL: không giới hạn
+ * - DEPARTMENT: dữ liệu của phòng ban / cấp dưới
+ * - OWN: chỉ dữ liệu do mình tạo
+ */
+public final class DataScopeFilter {
+
+    private static final DataScopeFilter UNRESTRICTED =
+            new DataScopeFilter(DataScope.ALL, null, null, Collections.emptySet());
+
+    private final DataScope scope;
+    private final UUID userId;
+    private final UUID departmentId;
+    private final Set<UUID> subordinateIds;
+
+    private DataScopeFilter(DataScope scope, UUID userId, UUID departmentId, Set<UUID> subordinateIds) {
+        this.scope = scope;
+        this.userId = userId;
+        this.departmentId = departmentId;
+        this.subordinateIds = subordinateIds;
+    }
+
+    /**
+     * Không giới hạn phạm vi (super admin, route không yêu cầu data scope)
+     */
+    public static DataScopeFilter all() {
+        return UNRESTRICTED;
+    }
+
+    public static DataScopeFilter of(DataScope scope, UUID userId, UUID departmentId, List<UUID> subordinateIds) {
+        if (scope == null || scope == DataScope.ALL) {
+            return UNRESTRICTED;
+        }
+        Set<UUID> subordinates = subordinateIds == null || subordinateIds.isEmpty()
+                ? Collections.emptySet()
+                : Collections.unmodifiableSet(new LinkedHashSet<>(subordinateIds));
+        return new DataScopeFilter(scope, userId, departmentId, subordinates);
+    }
+
+    public DataScope getScope() {
+        return scope;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public UUID getDepartmentId() {
+        return departmentId;
+    }
+
+    public Set<UUID> getSubordinateIds() {
+        return subordinateIds;
+    }
+
+    public boolean isUnrestricted() {
+        return scope == DataScope.ALL;
+    }
+
+    /**
+     * Owner IDs được phép xem: bản thân + cấp dưới
+     */
+    public Set<UUID> getVisibleOwnerIds() {
+        if (userId == null) {
+            return subordinateIds;
+        }
+        if (subordinateIds.isEmpty()) {
+            return Set.of(userId);
+        }
+        Set<UUID> ids = new LinkedHashSet<>(subordinateIds.size() + 1);
+        ids.add(userId);
+        ids.addAll(subordinateIds);
+        return ids;
+    }
+
+    /**
+     * Key ổn định cho cache theo filter (VD: count cache)
+     */
+    public String cacheKey() {
+        if (isUnrestricted()) {
+            return "ALL";
+        }
+        return scope + ":" + userId + ":" + departmentId + ":" + subordinateIds.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "DataScopeFilter{scope=" + scope + ", userId=" + userId +
+               ", departmentId=" + departmentId + ", subordinates=" + subordinateIds.size() + "}";
+    }
+
+    /**
+     * Đối tượng có thể cung cấp DataScopeFilter (VD: SecurityUser)
+     */
+    public interface Source {
+        DataScopeFilter dataScopeFilter();
+    }
+}
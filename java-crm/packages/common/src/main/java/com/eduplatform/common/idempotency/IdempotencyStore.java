@@ -0,0 +1,58 @@
+package com.eduplatform.common.idempotency;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Single;
+
+import java.time.Duration;
+
+/**
+ * IdempotencyStore - Lưu response đầu tiên của request POST / PUT theo Idempotency-Key
+ *
+ * Vòng đời 1 key:
+ * - claim(): giữ key (chưa có hoặc đã hết hạn) trong lease ngắn → ACQUIRED, request chạy controller;
+ *   key đang được request khác giữ → IN_PROGRESS; đã có response → COMPLETED (replay);
+ *   cùng key nhưng khác request (method / path / body) → MISMATCH.
+ *   Instance chết giữa chừng → key tự mở lại khi hết lease (không bị khoá đến hết TTL)
+ * - complete(): lưu status + body (response < 500), gia hạn đến hết TTL
+ * - release(): bỏ key (response 5xx / lỗi / client ngắt) → retry được chạy lại
+ *
+ * Implementations:
+ * - InMemoryIdempotencyStore: bounded theo số key, theo instance
+ * - PostgresIdempotencyStore (infra-jooq): dùng chung giữa các instance
+ *
+ * Mọi method non-blocking (gọi từ event loop).
+ */
+public interface IdempotencyStore {
+
+    Single<Claim> claim(String key, String fingerprint, Duration lease);
+
+    Completable complete(String key, StoredResponse response, Duration ttl);
+
+    Completable release(String key);
+
+    /**
+     * Kết quả claim - response chỉ có khi COMPLETED
+     */
+    record Claim(ClaimStatus status, StoredResponse response) {
+
+        public static final Claim ACQUIRED = new Claim(ClaimStatus.ACQUIRED, null);
+        public static final Claim IN_PROGRESS = new Claim(ClaimStatus.IN_PROGRESS, null);
+        public static final Claim MISMATCH = new Claim(ClaimStatus.MISMATCH, null);
+
+        public static Claim completed(StoredResponse response) {
+            return new Claim(ClaimStatus.COMPLETED, response);
+        }
+    }
+
+    enum ClaimStatus {
+        ACQUIRED,
+        IN_PROGRESS,
+        COMPLETED,
+        MISMATCH
+    }
+
+    /**
+     * Response đã lưu - body là JSON (rỗng với 204)
+     */
+    record StoredResponse(int status, byte[] body) {}
+}
@@ -0,0 +1,82 @@
+package com.eduplatform.common.idempotency;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Single;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * InMemoryIdempotencyStore - IdempotencyStore trong memory của instance
+ *
+ * - Bounded: quá maxEntries → bỏ key cũ nhất (insertion order), key đang IN_PROGRESS được giữ
+ * - Key hết hạn (lease của request đang chạy / TTL của response) bị thay khi claim lại
+ * - Retry đi qua instance khác không thấy key → dùng PostgresIdempotencyStore khi chạy nhiều instance
+ */
+public final class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private final int maxEntries;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256);
+
+    public InMemoryIdempotencyStore(int maxEntries) {
+        this.maxEntries = Math.max(1, maxEntries);
+    }
+
+    @Override
+    public Single<Claim> claim(String key, String fingerprint, Duration lease) {
+        long now = System.nanoTime();
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAt - now > 0) {
+                if (!entry.fingerprint.equals(fingerprint)) {
+                    return Single.just(Claim.MISMATCH);
+                }
+                return Single.just(entry.response != null ? Claim.completed(entry.response) : Claim.IN_PROGRESS);
+            }
+            entries.remove(key);
+            entries.put(key, new Entry(fingerprint, null, now + lease.toNanos()));
+            evictOverflow(now);
+        }
+        return Single.just(Claim.ACQUIRED);
+    }
+
+    @Override
+    public Completable complete(String key, StoredResponse response, Duration ttl) {
+        return Completable.fromRunnable(() -> {
+            synchronized (entries) {
+                Entry entry = entries.get(key);
+                if (entry != null) {
+                    entries.put(key, new Entry(entry.fingerprint, response, System.nanoTime() + ttl.toNanos()));
+                }
+            }
+        });
+    }
+
+    @Override
+    public Completable release(String key) {
+        return Completable.fromRunnable(() -> {
+            synchronized (entries) {
+                entries.remove(key);
+            }
+        });
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private void evictOverflow(long now) {
+        Iterator<Entry> it = entries.values().iterator();
+        while (entries.size() > maxEntries && it.hasNext()) {
+            Entry entry = it.next();
+            if (entry.response != null || entry.expiresAt - now <= 0) {
+                it.remove();
+            }
+        }
+    }
+
+    private record Entry(String fingerprint, StoredResponse response, long expiresAt) {}
+}
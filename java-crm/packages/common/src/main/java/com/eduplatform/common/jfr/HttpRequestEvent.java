@@ -0,0 +1,64 @@
+package com.eduplatform.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * HttpRequestEvent - 1 request qua VertxRoutingBinder (từ lúc vào handler tới khi response kết thúc)
+ *
+ * Begin trong handleRequest, commit ở end handler của response → duration gồm cả
+ * authorization, worker pool, DB và ghi response. Client ngắt kết nối → status 499.
+ */
+@Name("com.eduplatform.HttpRequest")
+@Label("HTTP Request")
+@Category({"EduPlatform", "HTTP"})
+@Description("Request handled by a @VertxRestController route")
+@StackTrace(false)
+public class HttpRequestEvent extends Event {
+
+    @Label("Method")
+    public String method;
+
+    @Label("Route")
+    @Description("Route pattern, e.g. /api/v1/users/:id")
+    public String route;
+
+    @Label("Handler")
+    @Description("Controller.method")
+    public String handler;
+
+    @Label("Status")
+    public int status;
+
+    @Label("User Id")
+    public String userId;
+
+    /**
+     * Event đã begin(), null nếu không recording nào bật event này
+     * (request không giữ thêm object nào khi JFR tắt)
+     */
+    public static HttpRequestEvent start(String method, String route, String handler) {
+        HttpRequestEvent event = new HttpRequestEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        event.method = method;
+        event.route = route;
+        event.handler = handler;
+        return event;
+    }
+
+    public void commit(int status, Object userId) {
+        end();
+        if (shouldCommit()) {
+            this.status = status;
+            this.userId = userId != null ? userId.toString() : null;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.eduplatform.common.jfr;
+
+import com.eduplatform.common.constant.ErrorCode;
+import com.eduplatform.common.exception.AppException;
+import com.eduplatform.common.vertx.execution.WorkerPoolManager;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+
+/**
+ * JfrAdminHandler - Endpoint quản trị JFR (WebConfig mount khi app.jfr.admin.enabled)
+ *
+ * - GET  /admin/jfr        → trạng thái recording
+ * - POST /admin/jfr/start  → bắt đầu recording (?maxAgeMinutes=&amp;maxSizeMb=)
+ * - POST /admin/jfr/dump   → dump ra file .jfr (trả file, bản gốc giữ lại trong app.jfr.dump-dir)
+ * - POST /admin/jfr/stop   → dump lần cuối + dừng recording
+ *
+ * Ngoài /api (không qua JWT) như /metrics: chỉ expose trong mạng nội bộ.
+ * Bắt buộc header X-Admin-Token khớp app.jfr.admin.token; token rỗng → WebConfig không mount,
+ * handler cũng từ chối mọi request.
+ * Dump / start chạy trên IO pool (ghi file, parse .jfc).
+ */
+@Slf4j
+@Component
+public class JfrAdminHandler {
+
+    public static final String TOKEN_HEADER = "X-Admin-Token";
+
+    private final JfrRecordingService recordings;
+
+    @Value("${app.jfr.admin.token:}")
+    private String adminToken = "";
+
+    public JfrAdminHandler(JfrRecordingService recordings) {
+        this.recordings = recordings;
+    }
+
+    /**
+     * Đã cấu hình app.jfr.admin.token (WebConfig chỉ mount khi true)
+     */
+    public boolean hasToken() {
+        return adminToken != null && !adminToken.isBlank();
+    }
+
+    public void status(RoutingContext ctx) {
+        if (authorized(ctx)) {
+            writeStatus(ctx, recordings.status());
+        }
+    }
+
+    public void start(RoutingContext ctx) {
+        if (!authorized(ctx)) {
+            return;
+        }
+        Duration maxAge;
+        long maxSize;
+        try {
+            String maxAgeMinutes = ctx.request().getParam("maxAgeMinutes");
+            String maxSizeMb = ctx.request().getParam("maxSizeMb");
+            maxAge = maxAgeMinutes != null ? Duration.ofMinutes(Long.parseLong(maxAgeMinutes)) : null;
+            maxSize = maxSizeMb != null ? Long.parseLong(maxSizeMb) * 1024 * 1024 : 0;
+        } catch (NumberFormatException e) {
+            writeError(ctx, new AppException(ErrorCode.BAD_REQUEST, "maxAgeMinutes / maxSizeMb must be numbers"));
+            return;
+        }
+        WorkerPoolManager.executeOnIoPool(() -> recordings.start(maxAge, maxSize))
+                .subscribe(status -> writeStatus(ctx, status), error -> writeError(ctx, error));
+    }
+
+    public void dump(RoutingContext ctx) {
+        if (authorized(ctx)) {
+            WorkerPoolManager.executeOnIoPool(recordings::dump)
+                    .subscribe(file -> sendRecording(ctx, file), error -> writeError(ctx, error));
+        }
+    }
+
+    public void stop(RoutingContext ctx) {
+        if (authorized(ctx)) {
+            WorkerPoolManager.executeOnIoPool(recordings::stop)
+                    .subscribe(file -> sendRecording(ctx, file), error -> writeError(ctx, error));
+        }
+    }
+
+    // ============================================
+    // Helpers
+    // ============================================
+
+    private boolean authorized(RoutingContext ctx) {
+        String provided = ctx.request().getHeader(TOKEN_HEADER);
+        if (hasToken() && provided != null && MessageDigest.isEqual(
+                provided.getBytes(StandardCharsets.UTF_8), adminToken.getBytes(StandardCharsets.UTF_8))) {
+            return true;
+        }
+        writeError(ctx, new AppException(ErrorCode.UNAUTHORIZED));
+        return false;
+    }
+
+    private void sendRecording(RoutingContext ctx, Path file) {
+        ctx.response()
+                .putHeader("Content-Type", "application/octet-stream")
+                .putHeader("Content-Disposition", "attachment; filename=\"" + file.getFileName() + "\"")
+                .putHeader("Cache-Control", "no-store")
+                .sendFile(file.toString());
+    }
+
+    private void writeStatus(RoutingContext ctx, JfrRecordingService.Status status) {
+        JsonObject data = new JsonObject()
+                .put("running", status.running())
+                .put("startTime", status.startTime() != null ? status.startTime().toString() : null)
+                .put("maxAgeSeconds", status.maxAgeSeconds())
+                .put("maxSizeBytes", status.maxSizeBytes())
+                .put("sizeBytes", status.sizeBytes())
+                .put("recordings", status.recordings());
+        write(ctx, 200, new JsonObject().put("code", 200).put("message", "Success").put("data", data));
+    }
+
+    private void writeError(RoutingContext ctx, Throwable error) {
+        ErrorCode code = error instanceof AppException appEx ? appEx.getErrorCode() : ErrorCode.INTERNAL_ERROR;
+        if (!(error instanceof AppException)) {
+            log.error("JFR admin request failed", error);
+        }
+        write(ctx, code.getHttpStatus(), new JsonObject()
+                .put("code", code.getCode())
+                .put("message", error.getMessage() != null ? error.getMessage() : code.getMessage()));
+    }
+
+    private static void write(RoutingContext ctx, int status, JsonObject body) {
+        if (ctx.response().ended()) {
+            return;
+        }
+        ctx.response()
+                .setStatusCode(status)
+                .putHeader("Content-Type", "application/json")
+                .putHeader("Cache-Control", "no-store")
+                .end(body.encode());
+    }
+}
@@ -0,0 +1,180 @@
+package com.eduplatform.common.jfr;
+
+import com.eduplatform.common.constant.ErrorCode;
+import com.eduplatform.common.exception.AppException;
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JfrRecordingService - Điều khiển JFR recording lúc runtime (JfrAdminHandler gọi)
+ *
+ * - start(): 1 recording "eduplatform" (ring buffer theo maxAge / maxSize), settings = profile
+ *   "default" của JDK + profile của app (jfr/eduplatform.jfc: bật event com.eduplatform.*)
+ * - dump(): ghi recording đang chạy ra file; không có thì snapshot mọi recording của JVM
+ *   (VD: bật sẵn bằng -XX:StartFlightRecording)
+ * - stop(): dump lần cuối rồi đóng recording
+ *
+ * Ghi file → gọi từ worker thread, không gọi trên event loop.
+ */
+@Slf4j
+@Component
+public class JfrRecordingService {
+
+    public static final String RECORDING_NAME = "eduplatform";
+
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")
+            .withZone(ZoneOffset.UTC);
+
+    @Value("${app.jfr.settings:jfr/eduplatform.jfc}")
+    private String settingsResource = "jfr/eduplatform.jfc";
+
+    @Value("${app.jfr.dump-dir:${java.io.tmpdir}}")
+    private String dumpDir = System.getProperty("java.io.tmpdir");
+
+    @Value("${app.jfr.max-age-minutes:30}")
+    private long defaultMaxAgeMinutes = 30;
+
+    @Value("${app.jfr.max-size-mb:256}")
+    private long defaultMaxSizeMb = 256;
+
+    private Recording recording;
+
+    /**
+     * @param maxAge  null = app.jfr.max-age-minutes
+     * @param maxSize bytes, <= 0 = app.jfr.max-size-mb
+     */
+    public synchronized Status start(Duration maxAge, long maxSize) {
+        if (isRunning()) {
+            throw new AppException(ErrorCode.CONFLICT, "JFR recording is already running");
+        }
+        Recording started = new Recording(settings());
+        started.setName(RECORDING_NAME);
+        started.setToDisk(true);
+        started.setMaxAge(maxAge != null ? maxAge : Duration.ofMinutes(defaultMaxAgeMinutes));
+        started.setMaxSize(maxSize > 0 ? maxSize : defaultMaxSizeMb * 1024 * 1024);
+        started.start();
+        recording = started;
+        log.info("JFR recording started (maxAge {}, maxSize {} bytes)", started.getMaxAge(), started.getMaxSize());
+        return status();
+    }
+
+    public synchronized Path dump() {
+        Path file = dumpFile();
+        try {
+            if (isRunning()) {
+                recording.dump(file);
+            } else {
+                dumpSnapshot(file);
+            }
+        } catch (IOException e) {
+            throw new AppException(ErrorCode.INTERNAL_ERROR, "JFR dump failed: " + e.getMessage());
+        }
+        log.info("JFR recording dumped to {}", file);
+        return file;
+    }
+
+    public synchronized Path stop() {
+        if (!isRunning()) {
+            throw new AppException(ErrorCode.BAD_REQUEST, "No JFR recording is running");
+        }
+        Path file = dump();
+        recording.close();
+        recording = null;
+        return file;
+    }
+
+    public synchronized Status status() {
+        List<String> recordings = FlightRecorder.isInitialized()
+                ? FlightRecorder.getFlightRecorder().getRecordings().stream()
+                        .map(r -> r.getName() + " (" + r.getState() + ")")
+                        .toList()
+                : List.of();
+        if (!isRunning()) {
+            return new Status(false, null, 0, 0, 0, recordings);
+        }
+        return new Status(true, recording.getStartTime(), recording.getMaxAge().toSeconds(),
+                recording.getMaxSize(), recording.getSize(), recordings);
+    }
+
+    // ============================================
+    // Helpers
+    // ============================================
+
+    private boolean isRunning() {
+        return recording != null && recording.getState() == RecordingState.RUNNING;
+    }
+
+    /**
+     * Profile "default" của JDK, ghi đè bằng profile của app (event của app + threshold)
+     */
+    private Map<String, String> settings() {
+        try {
+            Map<String, String> settings = new HashMap<>(Configuration.getConfiguration("default").getSettings());
+            InputStream stream = Thread.currentThread().getContextClassLoader().getResourceAsStream(settingsResource);
+            if (stream == null) {
+                log.warn("JFR settings {} not found, using JDK default profile", settingsResource);
+                return settings;
+            }
+            try (Reader reader = new InputStreamReader(stream, StandardCharsets.UTF_8)) {
+                settings.putAll(Configuration.create(reader).getSettings());
+            }
+            return settings;
+        } catch (IOException | ParseException e) {
+            throw new AppException(ErrorCode.INTERNAL_ERROR, "Cannot load JFR settings: " + e.getMessage());
+        }
+    }
+
+    private void dumpSnapshot(Path file) throws IOException {
+        if (!FlightRecorder.isInitialized() || FlightRecorder.getFlightRecorder().getRecordings().isEmpty()) {
+            throw new AppException(ErrorCode.BAD_REQUEST, "No JFR recording to dump, start one first");
+        }
+        try (Recording snapshot = FlightRecorder.getFlightRecorder().takeSnapshot()) {
+            if (snapshot.getSize() == 0) {
+                throw new AppException(ErrorCode.BAD_REQUEST, "JFR recordings contain no data yet");
+            }
+            snapshot.dump(file);
+        }
+    }
+
+    private Path dumpFile() {
+        try {
+            Path dir = Files.createDirectories(Path.of(dumpDir));
+            return dir.resolve(RECORDING_NAME + "-" + FILE_TIME.format(Instant.now()) + ".jfr");
+        } catch (IOException e) {
+            throw new AppException(ErrorCode.INTERNAL_ERROR, "Cannot create JFR dump directory: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Trạng thái recording của app + mọi recording đang có trong JVM
+     */
+    public record Status(
+            boolean running,
+            Instant startTime,
+            long maxAgeSeconds,
+            long maxSizeBytes,
+            long sizeBytes,
+            List<String> recordings
+    ) {}
+}
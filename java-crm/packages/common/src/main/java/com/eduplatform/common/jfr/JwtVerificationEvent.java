@@ -0,0 +1,47 @@
+package com.eduplatform.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JwtVerificationEvent - Validate JWT + build principal (JwtAuthHandler)
+ */
+@Name("com.eduplatform.JwtVerification")
+@Label("JWT Verification")
+@Category({"EduPlatform", "Security"})
+@Description("JWT validation and principal construction")
+@StackTrace(false)
+public class JwtVerificationEvent extends Event {
+
+    @Label("Result")
+    @Description("valid | invalid | expired | error")
+    public String result;
+
+    @Label("User Id")
+    public String userId;
+
+    /**
+     * Event đã begin(), null nếu event đang tắt
+     */
+    public static JwtVerificationEvent start() {
+        JwtVerificationEvent event = new JwtVerificationEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    public void commit(String result, Object userId) {
+        end();
+        if (shouldCommit()) {
+            this.result = result;
+            this.userId = userId != null ? userId.toString() : null;
+            commit();
+        }
+    }
+}
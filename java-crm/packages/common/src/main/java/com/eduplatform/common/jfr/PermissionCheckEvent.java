@@ -0,0 +1,76 @@
+package com.eduplatform.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * PermissionCheckEvent - 1 lần check quyền của user
+ *
+ * - AuthorizationStage: mỗi route cần phân quyền, rule = mô tả rule (VD: "USER:VIEW"),
+ *   cacheHit = quyết định trong memory (principal / permissions.byUser), false = resolve qua DB pool
+ * - PermissionService.checkPermission: resource + action
+ *
+ * start() trả null khi recording không bật event → hot path không allocate.
+ */
+@Name("com.eduplatform.PermissionCheck")
+@Label("Permission Check")
+@Category({"EduPlatform", "Security"})
+@Description("RBAC permission check (cache or database)")
+public class PermissionCheckEvent extends Event {
+
+    @Label("User Id")
+    public String userId;
+
+    @Label("Rule")
+    public String rule;
+
+    @Label("Resource")
+    public String resource;
+
+    @Label("Action")
+    public String action;
+
+    @Label("Cache Hit")
+    public boolean cacheHit;
+
+    @Label("Granted")
+    public boolean granted;
+
+    /**
+     * null khi event không bật
+     */
+    public static PermissionCheckEvent start() {
+        PermissionCheckEvent event = new PermissionCheckEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    public void commit(Object userId, String rule, boolean cacheHit, boolean granted) {
+        end();
+        if (shouldCommit()) {
+            this.userId = userId != null ? userId.toString() : null;
+            this.rule = rule;
+            this.cacheHit = cacheHit;
+            this.granted = granted;
+            commit();
+        }
+    }
+
+    public void commit(Object userId, String resource, String action, boolean cacheHit, boolean granted) {
+        end();
+        if (shouldCommit()) {
+            this.userId = userId != null ? userId.toString() : null;
+            this.resource = resource;
+            this.action = action;
+            this.cacheHit = cacheHit;
+            this.granted = granted;
+            commit();
+        }
+    }
+}
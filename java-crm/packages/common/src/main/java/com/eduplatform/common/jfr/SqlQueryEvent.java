@@ -0,0 +1,33 @@
+package com.eduplatform.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * SqlQueryEvent - 1 lần execute jOOQ qua JDBC (execute + fetch)
+ *
+ * fingerprint: SQL đã chuẩn hoá (không có bind values) → gom theo shape trong JMC.
+ * Stack trace (bật trong eduplatform.jfc) chỉ ra repository / service gọi query.
+ */
+@Name("com.eduplatform.SqlQuery")
+@Label("SQL Query")
+@Category({"EduPlatform", "Database"})
+@Description("jOOQ query executed over JDBC")
+public class SqlQueryEvent extends Event {
+
+    @Label("Fingerprint")
+    public String fingerprint;
+
+    @Label("Path")
+    @Description("Request path that issued the query (null outside a request)")
+    public String path;
+
+    @Label("Rows")
+    public long rows;
+
+    @Label("Failed")
+    public boolean failed;
+}
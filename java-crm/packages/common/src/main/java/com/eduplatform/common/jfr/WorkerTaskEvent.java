@@ -0,0 +1,72 @@
+package com.eduplatform.common.jfr;
+
+import com.eduplatform.common.context.RequestContext;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+import java.util.concurrent.Callable;
+
+/**
+ * WorkerTaskEvent - 1 task blocking trên worker pool (WorkerPoolManager / VertxExecution)
+ *
+ * Duration = thời gian chạy trên worker thread, queueWait = từ lúc submit tới lúc có thread.
+ * queueWait cao + duration thấp → pool thiếu thread; ngược lại → task chậm (DB, IO).
+ */
+@Name("com.eduplatform.WorkerTask")
+@Label("Worker Task")
+@Category({"EduPlatform", "Worker Pool"})
+@Description("Blocking task executed on a Vert.x worker pool")
+@StackTrace(false)
+public class WorkerTaskEvent extends Event {
+
+    @Label("Pool")
+    public String pool;
+
+    @Label("Path")
+    @Description("Request path that submitted the task (null outside a request)")
+    public String path;
+
+    @Label("Queue Wait")
+    @Timespan(Timespan.NANOSECONDS)
+    public long queueWait;
+
+    @Label("Failed")
+    public boolean failed;
+
+    /**
+     * Gọi lúc submit task: event tắt → trả nguyên task (không wrap, không đo)
+     */
+    public static <T> Callable<T> timed(String pool, Callable<T> task) {
+        if (!new WorkerTaskEvent().isEnabled()) {
+            return task;
+        }
+        long submittedAt = System.nanoTime();
+        RequestContext context = RequestContext.current();
+        String path = context != null ? context.getPath() : null;
+        return () -> {
+            WorkerTaskEvent event = new WorkerTaskEvent();
+            long queueWait = System.nanoTime() - submittedAt;
+            event.begin();
+            boolean failed = true;
+            try {
+                T result = task.call();
+                failed = false;
+                return result;
+            } finally {
+                event.end();
+                if (event.shouldCommit()) {
+                    event.pool = pool;
+                    event.path = path;
+                    event.queueWait = queueWait;
+                    event.failed = failed;
+                    event.commit();
+                }
+            }
+        };
+    }
+}
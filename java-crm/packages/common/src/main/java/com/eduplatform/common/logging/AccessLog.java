@@ -0,0 +1,329 @@
+package com.eduplatform.common.logging;
+
+import com.eduplatform.common.exception.AppException;
+import com.eduplatform.common.metrics.MetricsSource;
+import com.eduplatform.common.metrics.PrometheusWriter;
+import com.eduplatform.common.tracing.Tracing;
+import com.eduplatform.common.vertx.model.VertxPrincipal;
+import io.opentelemetry.api.trace.SpanContext;
+import io.vertx.ext.web.RoutingContext;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * AccessLog - Access log + log lỗi của request, ghi bất đồng bộ qua ring buffer
+ *
+ * - Event loop chỉ copy vài field (reference, số) vào slot có sẵn của ring buffer (CAS, không lock,
+ *   không format chuỗi); thread "access-log-writer" format JSON + gọi SLF4J
+ * - Ring đầy (writer không theo kịp) → bỏ entry và đếm (access_log_dropped_total),
+ *   không bao giờ block event loop
+ * - Access line (logger "access", INFO, 1 dòng JSON): method, path, route, status, latency,
+ *   user, bytes, trace id, class của lỗi (nếu có)
+ * - Lỗi (VertxRoutingBinder.handleError): sample theo loại lỗi (ErrorSampler), stack trace
+ *   giới hạn theo phút và chỉ cho 5xx; 5xx → ERROR, 4xx → WARN
+ *
+ * Usage:
+ * <pre>
+ * accessLog.access(ctx, startNanos);          // end handler của response (AccessLogHandler)
+ * accessLog.error(ctx, cause, statusCode);    // error path của route
+ * </pre>
+ */
+@Slf4j
+@Component
+public class AccessLog implements MetricsSource {
+
+    /**
+     * Route pattern của request (VertxRoutingBinder set khi match controller)
+     */
+    public static final String KEY_ROUTE = "accessLog.route";
+
+    /**
+     * Lỗi đã xử lý của request → class hiện trong access line
+     */
+    public static final String KEY_ERROR = "accessLog.error";
+
+    private static final Logger ACCESS = LoggerFactory.getLogger("access");
+
+    private static final int MAX_BATCH = 256;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private static final int KIND_ACCESS = 0;
+    private static final int KIND_ERROR = 1;
+
+    @Value("${app.access-log.capacity:16384}")
+    private int capacity = 16_384;
+
+    @Value("${app.access-log.errors.per-second:5}")
+    private int errorsPerSecond = 5;
+
+    @Value("${app.access-log.errors.stack-traces-per-minute:1}")
+    private int stackTracesPerMinute = 1;
+
+    private Slot[] slots;
+    private int mask;
+    private ErrorSampler sampler;
+
+    // Producer: claim bằng CAS trên head; consumer (1 thread) tăng tail sau khi đọc xong slot
+    private final AtomicLong head = new AtomicLong();
+    private volatile long tail;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    @PostConstruct
+    public void start() {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        slots = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot();
+        }
+        mask = size - 1;
+        sampler = new ErrorSampler(errorsPerSecond, stackTracesPerMinute);
+
+        running = true;
+        writer = new Thread(this::drain, "access-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            LockSupport.unpark(writer);
+            writer.join(TimeUnit.SECONDS.toMillis(2));
+        }
+    }
+
+    // ============================================
+    // Producer (event loop / bất kỳ thread nào)
+    // ============================================
+
+    /**
+     * Ghi access line của request đã kết thúc
+     */
+    public void access(RoutingContext ctx, long startNanos, int status) {
+        long seq = claim();
+        if (seq < 0) {
+            return;
+        }
+        Slot slot = fill(seq, KIND_ACCESS, ctx, status);
+        slot.latencyNanos = System.nanoTime() - startNanos;
+        slot.bytes = ctx.response().bytesWritten();
+        slot.error = ctx.get(KEY_ERROR);
+        publish(slot, seq);
+    }
+
+    /**
+     * Log lỗi của request (đã sample theo loại lỗi) + đánh dấu lỗi cho access line
+     */
+    public void error(RoutingContext ctx, Throwable cause, int status) {
+        ctx.put(KEY_ERROR, cause);
+        Object key = cause instanceof AppException appEx ? appEx.getErrorCode() : cause.getClass();
+        ErrorSampler.Decision decision = sampler.sample(key, status >= 500);
+        if (decision == null) {
+            return;
+        }
+        long seq = claim();
+        if (seq < 0) {
+            return;
+        }
+        Slot slot = fill(seq, KIND_ERROR, ctx, status);
+        slot.error = cause;
+        slot.stackTrace = decision.stackTrace();
+        slot.suppressed = decision.suppressed();
+        publish(slot, seq);
+    }
+
+    private long claim() {
+        long seq;
+        do {
+            seq = head.get();
+            if (seq - tail >= slots.length) {
+                dropped.increment();
+                return -1;
+            }
+        } while (!head.compareAndSet(seq, seq + 1));
+        return seq;
+    }
+
+    private Slot fill(long seq, int kind, RoutingContext ctx, int status) {
+        Slot slot = slots[(int) (seq & mask)];
+        slot.kind = kind;
+        slot.epochMillis = System.currentTimeMillis();
+        slot.method = ctx.request().method().name();
+        slot.path = ctx.request().path();
+        slot.route = ctx.get(KEY_ROUTE);
+        slot.status = status;
+        VertxPrincipal principal = ctx.get("principal");
+        slot.userId = principal != null ? principal.getUserId() : null;
+        SpanContext span = Tracing.serverSpan(ctx).getSpanContext();
+        slot.traceId = span.isValid() ? span.getTraceId() : null;
+        return slot;
+    }
+
+    private static void publish(Slot slot, long seq) {
+        slot.sequence = seq;
+    }
+
+    // ============================================
+    // Consumer (thread access-log-writer)
+    // ============================================
+
+    private void drain() {
+        StringBuilder line = new StringBuilder(256);
+        while (true) {
+            int batch = 0;
+            Slot slot;
+            while (batch < MAX_BATCH && (slot = slots[(int) (tail & mask)]).sequence == tail) {
+                try {
+                    write(slot, line);
+                } catch (RuntimeException e) {
+                    log.debug("Access log write failed: {}", e.getMessage());
+                }
+                slot.clear();
+                tail = tail + 1;
+                batch++;
+            }
+            if (batch == 0) {
+                if (!running) {
+                    return;
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    private void write(Slot slot, StringBuilder line) {
+        if (slot.kind == KIND_ERROR) {
+            writeError(slot);
+            return;
+        }
+        if (!ACCESS.isInfoEnabled()) {
+            return;
+        }
+        line.setLength(0);
+        line.append("{\"ts\":\"").append(Instant.ofEpochMilli(slot.epochMillis)).append('"');
+        appendField(line, "method", slot.method);
+        appendField(line, "path", slot.path);
+        appendField(line, "route", slot.route);
+        line.append(",\"status\":").append(slot.status);
+        appendMillis(line, slot.latencyNanos);
+        line.append(",\"bytes\":").append(slot.bytes);
+        appendField(line, "user", slot.userId);
+        appendField(line, "trace", slot.traceId);
+        appendField(line, "error", slot.error != null ? slot.error.getClass().getSimpleName() : null);
+        line.append('}');
+        ACCESS.info(line.toString());
+        written.increment();
+    }
+
+    private void writeError(Slot slot) {
+        String route = slot.route != null ? slot.route : slot.path;
+        String suppressed = slot.suppressed > 0 ? " (+" + slot.suppressed + " similar suppressed)" : "";
+        Throwable cause = slot.error;
+        if (slot.status >= 500) {
+            if (slot.stackTrace) {
+                log.error("Request error {} {} -> {} trace={}: {}{}", slot.method, route, slot.status,
+                        slot.traceId, cause.getMessage(), suppressed, cause);
+            } else {
+                log.error("Request error {} {} -> {} trace={}: {}: {}{}", slot.method, route, slot.status,
+                        slot.traceId, cause.getClass().getSimpleName(), cause.getMessage(), suppressed);
+            }
+        } else {
+            log.warn("Request error {} {} -> {}: {}{}", slot.method, route, slot.status,
+                    cause.getMessage(), suppressed);
+        }
+    }
+
+    /**
+     * Latency dạng "latency_ms":12.345 (3 chữ số thập phân, không qua double / String.format)
+     */
+    private static void appendMillis(StringBuilder line, long nanos) {
+        long micros = Math.max(0, nanos) / 1_000;
+        long fraction = micros % 1_000;
+        line.append(",\"latency_ms\":").append(micros / 1_000).append('.');
+        if (fraction < 100) {
+            line.append(fraction < 10 ? "00" : "0");
+        }
+        line.append(fraction);
+    }
+
+    private static void appendField(StringBuilder line, String name, Object value) {
+        if (value == null) {
+            return;
+        }
+        line.append(",\"").append(name).append("\":\"");
+        String text = value.toString();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                line.append('\\').append(c);
+            } else if (c < 0x20) {
+                line.append(' ');
+            } else {
+                line.append(c);
+            }
+        }
+        line.append('"');
+    }
+
+    // ============================================
+    // Metrics
+    // ============================================
+
+    @Override
+    public void collect(PrometheusWriter writer) {
+        writer.counter("access_log_lines_total", "Access log lines written by the background writer");
+        writer.sample("access_log_lines_total", written.sum());
+        writer.counter("access_log_dropped_total", "Access / error log entries dropped because the ring buffer was full");
+        writer.sample("access_log_dropped_total", dropped.sum());
+        writer.counter("access_log_errors_suppressed_total", "Request error log lines skipped by per-error sampling");
+        writer.sample("access_log_errors_suppressed_total", sampler.suppressedTotal());
+        writer.gauge("access_log_queue_depth", "Entries waiting for the access log writer");
+        writer.sample("access_log_queue_depth", Math.max(0, head.get() - tail));
+    }
+
+    /**
+     * 1 entry của ring buffer - tạo sẵn, dùng lại; sequence = seq khi producer đã ghi xong
+     */
+    private static final class Slot {
+        private volatile long sequence = -1;
+        private int kind;
+        private long epochMillis;
+        private String method;
+        private String path;
+        private String route;
+        private int status;
+        private long latencyNanos;
+        private long bytes;
+        private Object userId;
+        private String traceId;
+        private Throwable error;
+        private boolean stackTrace;
+        private long suppressed;
+
+        private void clear() {
+            method = null;
+            path = null;
+            route = null;
+            userId = null;
+            traceId = null;
+            error = null;
+        }
+    }
+}
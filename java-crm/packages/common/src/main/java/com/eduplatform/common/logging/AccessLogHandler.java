@@ -0,0 +1,31 @@
+package com.eduplatform.common.logging;
+
+import io.vertx.core.Handler;
+import io.vertx.ext.web.RoutingContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * AccessLogHandler - Ghi access line cho mỗi request (mount ngay sau TracingHandler)
+ *
+ * - End handler của response: status (client ngắt kết nối → 499), latency, bytes đã gửi
+ * - Principal / route / trace id đọc lại từ RoutingContext lúc kết thúc
+ *   (JwtAuthHandler, VertxRoutingBinder set trong lúc xử lý)
+ * - Chỉ enqueue vào ring buffer của AccessLog, format + I/O chạy trên thread riêng
+ */
+@Component
+public class AccessLogHandler implements Handler<RoutingContext> {
+
+    private final AccessLog accessLog;
+
+    public AccessLogHandler(AccessLog accessLog) {
+        this.accessLog = accessLog;
+    }
+
+    @Override
+    public void handle(RoutingContext ctx) {
+        long startNanos = System.nanoTime();
+        ctx.addEndHandler(ar -> accessLog.access(ctx, startNanos,
+                ar.succeeded() ? ctx.response().getStatusCode() : 499));
+        ctx.next();
+    }
+}
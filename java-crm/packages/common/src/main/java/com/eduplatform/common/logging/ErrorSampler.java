@@ -0,0 +1,79 @@
+package com.eduplatform.common.logging;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ErrorSampler - Giới hạn số dòng log lỗi theo loại lỗi (ErrorCode của AppException, hoặc class)
+ *
+ * - Mỗi loại tối đa perSecond dòng / giây, phần còn lại chỉ đếm (suppressed)
+ *   → dòng log kế tiếp của loại đó mang số lần đã bị bỏ
+ * - Stack trace: tối đa stacksPerMinute / phút / loại, chỉ cho lỗi 5xx
+ *
+ * Key là ErrorCode (enum) hoặc Class → lookup không allocate.
+ * Cửa sổ đếm bằng CAS, chấp nhận lệch nhỏ khi nhiều thread cùng reset cửa sổ.
+ */
+final class ErrorSampler {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+    private final int perSecond;
+    private final int stacksPerMinute;
+    private final ConcurrentHashMap<Object, Bucket> buckets = new ConcurrentHashMap<>();
+    private final LongAdder suppressedTotal = new LongAdder();
+
+    ErrorSampler(int perSecond, int stacksPerMinute) {
+        this.perSecond = perSecond;
+        this.stacksPerMinute = stacksPerMinute;
+    }
+
+    /**
+     * @return null nếu bỏ qua dòng log này, ngược lại quyết định (kèm stack trace hay không)
+     */
+    Decision sample(Object key, boolean serverError) {
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(key, k -> new Bucket());
+        }
+        long now = System.nanoTime();
+        if (!bucket.lines.tryAcquire(now, SECOND, perSecond)) {
+            bucket.suppressed.incrementAndGet();
+            suppressedTotal.increment();
+            return null;
+        }
+        boolean stack = serverError && bucket.stacks.tryAcquire(now, MINUTE, stacksPerMinute);
+        return new Decision(stack, bucket.suppressed.getAndSet(0));
+    }
+
+    long suppressedTotal() {
+        return suppressedTotal.sum();
+    }
+
+    /**
+     * @param suppressed số dòng cùng loại bị bỏ kể từ dòng log trước
+     */
+    record Decision(boolean stackTrace, long suppressed) {}
+
+    private static final class Bucket {
+        private final Window lines = new Window();
+        private final Window stacks = new Window();
+        private final AtomicLong suppressed = new AtomicLong();
+    }
+
+    private static final class Window {
+        private final AtomicLong startedAt = new AtomicLong(System.nanoTime());
+        private final AtomicInteger count = new AtomicInteger();
+
+        boolean tryAcquire(long now, long length, int limit) {
+            long start = startedAt.get();
+            if (now - start >= length && startedAt.compareAndSet(start, now)) {
+                count.set(0);
+            }
+            return count.incrementAndGet() <= limit;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.eduplatform.common.metrics;
+
+import com.eduplatform.common.cache.EntityCache;
+import com.eduplatform.common.db.BatchLoader;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * CacheMetrics - EntityCache (read-through cache) và BatchLoader đã đăng ký
+ */
+@Component
+public class CacheMetrics implements MetricsSource {
+
+    @Override
+    public void collect(PrometheusWriter writer) {
+        List<EntityCache.Stats> caches = EntityCache.registered().stream().map(EntityCache::stats).toList();
+
+        writer.gauge("entity_cache_size", "Entries in entity cache");
+        caches.forEach(s -> writer.sample("entity_cache_size", s.size(), "region", s.region()));
+        writer.counter("entity_cache_requests_total", "Entity cache lookups by result");
+        for (EntityCache.Stats s : caches) {
+            writer.sample("entity_cache_requests_total", s.hits(), "region", s.region(), "result", "hit");
+            writer.sample("entity_cache_requests_total", s.misses(), "region", s.region(), "result", "miss");
+        }
+        writer.counter("entity_cache_loads_total", "Loader calls (coalesced = waited for another load)");
+        for (EntityCache.Stats s : caches) {
+            writer.sample("entity_cache_loads_total", s.loads(), "region", s.region(), "result", "loaded");
+            writer.sample("entity_cache_loads_total", s.loadFailures(), "region", s.region(), "result", "failed");
+            writer.sample("entity_cache_loads_total", s.coalescedLoads(), "region", s.region(), "result", "coalesced");
+        }
+        writer.counter("entity_cache_evictions_total", "Evicted / invalidated entries");
+        for (EntityCache.Stats s : caches) {
+            writer.sample("entity_cache_evictions_total", s.evictions(), "region", s.region(), "cause", "size");
+            writer.sample("entity_cache_evictions_total", s.invalidations(), "region", s.region(), "cause", "invalidate");
+        }
+
+        List<BatchLoader.Stats> loaders = BatchLoader.registered().stream().map(BatchLoader::stats).toList();
+        writer.counter("batch_loader_loads_total", "Keys requested through batch loader");
+        for (BatchLoader.Stats s : loaders) {
+            writer.sample("batch_loader_loads_total", s.loads(), "loader", s.name(), "result", "batched");
+            writer.sample("batch_loader_loads_total", s.dedupHits(), "loader", s.name(), "result", "dedup");
+        }
+        writer.counter("batch_loader_batches_total", "Queries issued by batch loader");
+        loaders.forEach(s -> writer.sample("batch_loader_batches_total", s.batches(), "loader", s.name()));
+        writer.counter("batch_loader_batched_keys_total", "Keys loaded by batch queries");
+        loaders.forEach(s -> writer.sample("batch_loader_batched_keys_total", s.batchedKeys(), "loader", s.name()));
+        writer.counter("batch_loader_failures_total", "Failed batch queries");
+        loaders.forEach(s -> writer.sample("batch_loader_failures_total", s.failures(), "loader", s.name()));
+    }
+}
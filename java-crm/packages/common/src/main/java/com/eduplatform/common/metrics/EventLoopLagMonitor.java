@@ -0,0 +1,72 @@
+package com.eduplatform.common.metrics;
+
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * EventLoopLagMonitor - Độ trễ của event loop (timer chạy muộn bao lâu so với hẹn)
+ *
+ * Mỗi event loop 1 timer tự hẹn lại sau intervalMs; lag = thời điểm chạy thực tế - thời điểm hẹn.
+ * Lag cao = có code block event loop (query JDBC, bcrypt, JSON lớn...) → mọi request trên loop đó chờ.
+ *
+ * Context tạo từ thread ngoài Vert.x được gán event loop lần lượt (round-robin)
+ * → tạo đủ eventLoops context để phủ toàn bộ loop.
+ */
+@Slf4j
+@Component
+public class EventLoopLagMonitor implements MetricsSource {
+
+    @Value("${app.metrics.event-loop-lag.interval-ms:500}")
+    private long intervalMs = 500;
+
+    private final LatencyHistogram lag = new LatencyHistogram();
+    private volatile AtomicLongArray lastLagNanos = new AtomicLongArray(0);
+
+    /**
+     * Gọi 1 lần sau khi tạo Vertx (từ thread ngoài event loop)
+     */
+    public void start(Vertx vertx) {
+        start(vertx, VertxOptions.DEFAULT_EVENT_LOOP_POOL_SIZE);
+    }
+
+    public void start(Vertx vertx, int eventLoops) {
+        if (lastLagNanos.length() > 0) {
+            return;
+        }
+        lastLagNanos = new AtomicLongArray(eventLoops);
+        for (int i = 0; i < eventLoops; i++) {
+            int loop = i;
+            Context context = vertx.getOrCreateContext();
+            context.runOnContext(v -> schedule(vertx, loop));
+        }
+        log.info("Event loop lag monitor started ({} loops, every {} ms)", eventLoops, intervalMs);
+    }
+
+    private void schedule(Vertx vertx, int loop) {
+        long expectedAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(intervalMs);
+        vertx.setTimer(intervalMs, id -> {
+            long lagNanos = Math.max(0, System.nanoTime() - expectedAt);
+            lag.record(lagNanos);
+            lastLagNanos.set(loop, lagNanos);
+            schedule(vertx, loop);
+        });
+    }
+
+    @Override
+    public void collect(PrometheusWriter writer) {
+        AtomicLongArray last = lastLagNanos;
+        writer.gauge("vertx_event_loop_lag_seconds", "Latest timer lag per event loop");
+        for (int i = 0; i < last.length(); i++) {
+            writer.sample("vertx_event_loop_lag_seconds", last.get(i) / 1e9, "loop", Integer.toString(i));
+        }
+        writer.histogram("vertx_event_loop_lag_distribution_seconds", "Timer lag of all event loops");
+        writer.histogramSample("vertx_event_loop_lag_distribution_seconds", lag.snapshot());
+    }
+}
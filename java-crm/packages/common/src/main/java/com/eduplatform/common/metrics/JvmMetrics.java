@@ -0,0 +1,71 @@
+package com.eduplatform.common.metrics;
+
+import org.springframework.stereotype.Component;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+
+/**
+ * JvmMetrics - Memory (heap / non-heap / pool / direct buffer), GC, threads
+ *
+ * Đọc từ MXBean khi scrape, không có chi phí trên hot path.
+ * Direct buffer = off-heap (ResponseCache off-heap, Netty buffers).
+ */
+@Component
+public class JvmMetrics implements MetricsSource {
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final List<MemoryPoolMXBean> memoryPools = ManagementFactory.getMemoryPoolMXBeans();
+    private final List<BufferPoolMXBean> bufferPools = ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class);
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    @Override
+    public void collect(PrometheusWriter writer) {
+        MemoryUsage heap = memory.getHeapMemoryUsage();
+        MemoryUsage nonHeap = memory.getNonHeapMemoryUsage();
+
+        writer.gauge("jvm_memory_used_bytes", "Used memory by area");
+        writer.sample("jvm_memory_used_bytes", heap.getUsed(), "area", "heap");
+        writer.sample("jvm_memory_used_bytes", nonHeap.getUsed(), "area", "nonheap");
+        writer.gauge("jvm_memory_committed_bytes", "Committed memory by area");
+        writer.sample("jvm_memory_committed_bytes", heap.getCommitted(), "area", "heap");
+        writer.sample("jvm_memory_committed_bytes", nonHeap.getCommitted(), "area", "nonheap");
+        writer.gauge("jvm_memory_max_bytes", "Max memory by area (-1 = undefined)");
+        writer.sample("jvm_memory_max_bytes", heap.getMax(), "area", "heap");
+        writer.sample("jvm_memory_max_bytes", nonHeap.getMax(), "area", "nonheap");
+
+        writer.gauge("jvm_memory_pool_used_bytes", "Used memory by pool");
+        for (MemoryPoolMXBean pool : memoryPools) {
+            writer.sample("jvm_memory_pool_used_bytes", pool.getUsage().getUsed(), "pool", pool.getName());
+        }
+
+        writer.gauge("jvm_buffer_pool_used_bytes", "Used bytes of direct / mapped buffer pools");
+        for (BufferPoolMXBean pool : bufferPools) {
+            writer.sample("jvm_buffer_pool_used_bytes", pool.getMemoryUsed(), "pool", pool.getName());
+        }
+
+        writer.counter("jvm_gc_collections_total", "GC collections by collector");
+        for (GarbageCollectorMXBean gc : collectors) {
+            writer.sample("jvm_gc_collections_total", Math.max(0, gc.getCollectionCount()), "gc", gc.getName());
+        }
+        writer.counter("jvm_gc_collection_seconds_total", "GC time by collector");
+        for (GarbageCollectorMXBean gc : collectors) {
+            writer.sample("jvm_gc_collection_seconds_total", Math.max(0, gc.getCollectionTime()) / 1000.0,
+                    "gc", gc.getName());
+        }
+
+        writer.gauge("jvm_threads_live", "Live threads (platform)");
+        writer.sample("jvm_threads_live", threads.getThreadCount());
+        writer.gauge("jvm_threads_daemon", "Daemon threads");
+        writer.sample("jvm_threads_daemon", threads.getDaemonThreadCount());
+        writer.gauge("jvm_threads_peak", "Peak live threads");
+        writer.sample("jvm_threads_peak", threads.getPeakThreadCount());
+    }
+}
@@ -0,0 +1,57 @@
+package com.eduplatform.common.metrics;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LatencyHistogram - Độ trễ ghi bằng HdrHistogram Recorder (wait-free phía ghi)
+ *
+ * - record(): hot path, không lock, không allocate (micro giây, 2 chữ số có nghĩa, tối đa 1 giờ)
+ * - snapshot(): khi scrape - gộp interval histogram vào histogram tích luỹ rồi đếm
+ *   theo BUCKETS_SECONDS → Prometheus histogram cộng dồn (histogram_quantile() phía server)
+ * - Tạo sẵn lúc khởi động / bind route, không tạo theo request
+ */
+public final class LatencyHistogram {
+
+    /**
+     * Bucket (giây) dùng chung cho mọi latency histogram
+     */
+    static final double[] BUCKETS_SECONDS = {
+            0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30
+    };
+
+    private static final long HIGHEST_MICROS = TimeUnit.HOURS.toMicros(1);
+
+    private final Recorder recorder = new Recorder(HIGHEST_MICROS, 2);
+    private final Histogram accumulated = new Histogram(HIGHEST_MICROS, 2);
+    private final LongAdder sumNanos = new LongAdder();
+    private Histogram interval;
+
+    public void record(long nanos) {
+        recorder.recordValue(Math.min(Math.max(nanos / 1_000, 1), HIGHEST_MICROS));
+        sumNanos.add(nanos);
+    }
+
+    public synchronized Snapshot snapshot() {
+        interval = recorder.getIntervalHistogram(interval);
+        accumulated.add(interval);
+
+        long[] buckets = new long[BUCKETS_SECONDS.length];
+        for (int i = 0; i < buckets.length; i++) {
+            long boundMicros = (long) (BUCKETS_SECONDS[i] * 1_000_000);
+            buckets[i] = accumulated.getCountBetweenValues(0, boundMicros);
+        }
+        long count = accumulated.getTotalCount();
+        return new Snapshot(buckets, count, sumNanos.sum() / 1e9,
+                count == 0 ? 0 : accumulated.getValueAtPercentile(99) / 1e6,
+                count == 0 ? 0 : accumulated.getMaxValue() / 1e6);
+    }
+
+    /**
+     * buckets[i]: số lần ≤ BUCKETS_SECONDS[i] (cộng dồn từ khi khởi động)
+     */
+    public record Snapshot(long[] buckets, long count, double sumSeconds, double p99Seconds, double maxSeconds) {}
+}
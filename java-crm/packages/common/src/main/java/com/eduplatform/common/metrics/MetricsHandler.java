@@ -0,0 +1,84 @@
+package com.eduplatform.common.metrics;
+
+import com.eduplatform.common.constant.ErrorCode;
+import com.eduplatform.common.jfr.JfrAdminHandler;
+import com.eduplatform.common.response.ErrorBodies;
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.ext.web.RoutingContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+
+/**
+ * MetricsHandler - GET /metrics (Prometheus text format) từ mọi MetricsSource bean
+ *
+ * Chỉ đọc counter / snapshot histogram → chạy thẳng trên event loop.
+ * Source lỗi không làm hỏng cả trang (bị bỏ qua + log).
+ *
+ * Cùng port với API public → bắt buộc token (app.metrics.token, mặc định = token của /admin/jfr)
+ * qua X-Admin-Token hoặc Authorization: Bearer (authorization.credentials của Prometheus).
+ * Token rỗng → WebConfig không mount, handler cũng từ chối mọi request.
+ */
+@Slf4j
+@Component
+public class MetricsHandler implements Handler<RoutingContext> {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final List<MetricsSource> sources;
+
+    @Value("${app.metrics.token:}")
+    private String token = "";
+
+    public MetricsHandler(List<MetricsSource> sources) {
+        this.sources = sources;
+    }
+
+    /**
+     * Đã cấu hình app.metrics.token (WebConfig chỉ mount khi true)
+     */
+    public boolean hasToken() {
+        return token != null && !token.isBlank();
+    }
+
+    @Override
+    public void handle(RoutingContext ctx) {
+        if (!authorized(ctx)) {
+            ctx.response()
+                    .setStatusCode(ErrorCode.UNAUTHORIZED.getHttpStatus())
+                    .putHeader("Content-Type", "application/json")
+                    .putHeader("Cache-Control", "no-store")
+                    .end(Buffer.buffer(ErrorBodies.of(ErrorCode.UNAUTHORIZED)));
+            return;
+        }
+        PrometheusWriter writer = new PrometheusWriter();
+        for (MetricsSource source : sources) {
+            try {
+                source.collect(writer);
+            } catch (RuntimeException e) {
+                log.warn("Metrics source {} failed: {}", source.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+        ctx.response()
+                .putHeader("Content-Type", PrometheusWriter.CONTENT_TYPE)
+                .putHeader("Cache-Control", "no-store")
+                .end(writer.toString());
+    }
+
+    private boolean authorized(RoutingContext ctx) {
+        String provided = ctx.request().getHeader(JfrAdminHandler.TOKEN_HEADER);
+        if (provided == null) {
+            String authorization = ctx.request().getHeader("Authorization");
+            if (authorization != null && authorization.startsWith(BEARER_PREFIX)) {
+                provided = authorization.substring(BEARER_PREFIX.length());
+            }
+        }
+        return hasToken() && provided != null && MessageDigest.isEqual(
+                provided.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8));
+    }
+}
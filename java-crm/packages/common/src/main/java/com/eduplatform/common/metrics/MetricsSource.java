@@ -0,0 +1,13 @@
+package com.eduplatform.common.metrics;
+
+/**
+ * MetricsSource - Bean cung cấp metrics cho /metrics (MetricsHandler)
+ *
+ * Meter (LongAdder, LatencyHistogram...) được tạo sẵn khi khởi động / bind route,
+ * hot path chỉ tăng counter. collect() chỉ chạy khi scrape: đọc counter và ghi
+ * ra PrometheusWriter, mỗi family ghi liền một khối (HELP / TYPE một lần).
+ */
+public interface MetricsSource {
+
+    void collect(PrometheusWriter writer);
+}
@@ -0,0 +1,128 @@
+package com.eduplatform.common.metrics;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * PrometheusWriter - Ghi metrics theo Prometheus text exposition format (0.0.4)
+ *
+ * Usage:
+ * <pre>
+ * writer.counter("http_server_requests_total", "Requests theo route");
+ * writer.sample("http_server_requests_total", 42, "controller", "UserResource", "method", "getUsers");
+ * </pre>
+ *
+ * Labels truyền theo cặp (name, value). Family khai báo lại (VD: nhiều source cùng
+ * family) chỉ ghi HELP / TYPE lần đầu.
+ */
+public final class PrometheusWriter {
+
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final StringBuilder out = new StringBuilder(32 * 1024);
+    private final Set<String> declared = new HashSet<>();
+
+    public PrometheusWriter counter(String name, String help) {
+        return declare(name, help, "counter");
+    }
+
+    public PrometheusWriter gauge(String name, String help) {
+        return declare(name, help, "gauge");
+    }
+
+    public PrometheusWriter histogram(String name, String help) {
+        return declare(name, help, "histogram");
+    }
+
+    public PrometheusWriter sample(String name, long value, String... labels) {
+        appendName(name, labels, null, null);
+        out.append(' ').append(value).append('\n');
+        return this;
+    }
+
+    public PrometheusWriter sample(String name, double value, String... labels) {
+        appendName(name, labels, null, null);
+        out.append(' ').append(format(value)).append('\n');
+        return this;
+    }
+
+    /**
+     * _bucket{le=...} (cộng dồn) + _bucket{le="+Inf"} + _sum + _count
+     */
+    public PrometheusWriter histogramSample(String name, LatencyHistogram.Snapshot snapshot, String... labels) {
+        double[] bounds = LatencyHistogram.BUCKETS_SECONDS;
+        for (int i = 0; i < bounds.length; i++) {
+            appendName(name + "_bucket", labels, "le", format(bounds[i]));
+            out.append(' ').append(snapshot.buckets()[i]).append('\n');
+        }
+        appendName(name + "_bucket", labels, "le", "+Inf");
+        out.append(' ').append(snapshot.count()).append('\n');
+        appendName(name + "_sum", labels, null, null);
+        out.append(' ').append(format(snapshot.sumSeconds())).append('\n');
+        appendName(name + "_count", labels, null, null);
+        out.append(' ').append(snapshot.count()).append('\n');
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return out.toString();
+    }
+
+    private PrometheusWriter declare(String name, String help, String type) {
+        if (declared.add(name)) {
+            out.append("# HELP ").append(name).append(' ').append(help.replace("\\", "\\\\").replace("\n", "\\n"))
+                    .append('\n')
+                    .append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        }
+        return this;
+    }
+
+    private void appendName(String name, String[] labels, String extraName, String extraValue) {
+        out.append(name);
+        if (labels.length == 0 && extraName == null) {
+            return;
+        }
+        out.append('{');
+        boolean first = true;
+        for (int i = 0; i + 1 < labels.length; i += 2) {
+            first = appendLabel(labels[i], labels[i + 1], first);
+        }
+        if (extraName != null) {
+            appendLabel(extraName, extraValue, first);
+        }
+        out.append('}');
+    }
+
+    private boolean appendLabel(String name, String value, boolean first) {
+        if (!first) {
+            out.append(',');
+        }
+        out.append(name).append("=\"");
+        String v = value != null ? value : "";
+        for (int i = 0; i < v.length(); i++) {
+            char c = v.charAt(i);
+            switch (c) {
+                case '\\' -> out.append("\\\\");
+                case '"' -> out.append("\\\"");
+                case '\n' -> out.append("\\n");
+                default -> out.append(c);
+            }
+        }
+        out.append('"');
+        return false;
+    }
+
+    private static String format(double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        }
+        if (Double.isInfinite(value)) {
+            return value > 0 ? "+Inf" : "-Inf";
+        }
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+}
@@ -0,0 +1,55 @@
+package com.eduplatform.common.response;
+
+import com.eduplatform.common.constant.ErrorCode;
+import com.eduplatform.common.exception.AppException;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * ErrorBodies - JSON lỗi encode sẵn cho mọi ErrorCode (message mặc định)
+ *
+ * Cùng format với ApiResponse.error(code, message) qua Jackson (NON_NULL):
+ * {"code":1002,"message":"Token expired"}
+ *
+ * Error path (VD: làn sóng token hết hạn) không serialize gì: lấy byte[] dùng chung.
+ * Caller không được sửa mảng trả về.
+ */
+public final class ErrorBodies {
+
+    private static final byte[][] BODIES = new byte[ErrorCode.values().length][];
+
+    static {
+        for (ErrorCode code : ErrorCode.values()) {
+            BODIES[code.ordinal()] = encode(code.getCode(), code.getMessage());
+        }
+    }
+
+    private ErrorBodies() {
+    }
+
+    public static byte[] of(ErrorCode code) {
+        return BODIES[code.ordinal()];
+    }
+
+    /**
+     * Body encode sẵn nếu exception dùng message mặc định của ErrorCode, ngược lại null
+     */
+    public static byte[] of(AppException exception) {
+        return exception.getCustomMessage() == null ? of(exception.getErrorCode()) : null;
+    }
+
+    /**
+     * Encode 1 body lỗi (message tuỳ biến) - cùng format với body encode sẵn
+     */
+    public static byte[] encode(int code, String message) {
+        StringBuilder json = new StringBuilder(48 + (message != null ? message.length() : 0))
+                .append("{\"code\":").append(code);
+        if (message != null) {
+            json.append(",\"message\":\"");
+            JsonStringEncoder.getInstance().quoteAsString(message, json);
+            json.append('"');
+        }
+        return json.append('}').toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,110 @@
+package com.eduplatform.common.tracing;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.context.propagation.TextMapPropagator;
+import io.reactivex.rxjava3.plugins.RxJavaPlugins;
+import io.vertx.ext.web.RoutingContext;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Tracing - Điểm truy cập OpenTelemetry dùng chung (tracer, propagator, context của request)
+ *
+ * Mặc định no-op: chưa install() (app.tracing.enabled=false) → span không được tạo,
+ * không có hook nào được cài, chi phí chỉ là vài lời gọi no-op.
+ *
+ * Context đi theo request qua các hop:
+ * - Event loop: TracingHandler start server span, lưu Context vào RoutingContext (context(ctx))
+ * - Worker (VertxExecution / WorkerPoolManager / BaseResource.readOnly): RequestContext capture
+ *   Context.current() lúc tạo và makeCurrent() trong propagate()
+ * - RxJava scheduler (Schedulers.io / computation): schedule handler wrap Runnable bằng Context
+ *   lúc schedule → subscribeOn / observeOn giữ parent span
+ * - jOOQ: TracingExecuteListener tạo span CLIENT con của Context hiện tại trên worker
+ */
+@Slf4j
+public final class Tracing {
+
+    public static final String INSTRUMENTATION = "com.eduplatform";
+
+    /**
+     * Key của server span Context trong RoutingContext
+     */
+    public static final String KEY_CONTEXT = "tracing.context";
+
+    private static volatile OpenTelemetry openTelemetry = OpenTelemetry.noop();
+    private static volatile Tracer tracer = openTelemetry.getTracer(INSTRUMENTATION);
+    private static volatile boolean enabled;
+
+    private Tracing() {
+    }
+
+    /**
+     * Gọi 1 lần lúc khởi động (TracingConfig) với SDK đã cấu hình exporter / sampler
+     */
+    public static synchronized void install(OpenTelemetry sdk) {
+        openTelemetry = sdk;
+        tracer = sdk.getTracer(INSTRUMENTATION);
+        if (!enabled) {
+            enabled = true;
+            // Giữ Context khi RxJava chuyển thread (subscribeOn / observeOn / delay...)
+            RxJavaPlugins.setScheduleHandler(runnable -> Context.current().wrap(runnable));
+        }
+        log.info("Tracing installed");
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static Tracer tracer() {
+        return tracer;
+    }
+
+    public static TextMapPropagator propagator() {
+        return openTelemetry.getPropagators().getTextMapPropagator();
+    }
+
+    /**
+     * Chạy callable trong span INTERNAL (parent = Context hiện tại lúc chạy).
+     * Dùng bên trong RequestContext.propagate() → span của worker là con của span request,
+     * query jOOQ trong callable là con của span worker. Tracing tắt → trả nguyên callable.
+     */
+    public static <T> Callable<T> inSpan(String name, Callable<T> callable) {
+        if (!enabled) {
+            return callable;
+        }
+        return () -> {
+            Span span = tracer.spanBuilder(name).startSpan();
+            try (Scope ignored = span.makeCurrent()) {
+                return callable.call();
+            } catch (Exception e) {
+                span.recordException(e);
+                span.setStatus(StatusCode.ERROR);
+                throw e;
+            } finally {
+                span.end();
+            }
+        };
+    }
+
+    /**
+     * Context của server span gắn với request, chưa có thì Context hiện tại của thread
+     */
+    public static Context context(RoutingContext ctx) {
+        Context context = ctx.get(KEY_CONTEXT);
+        return context != null ? context : Context.current();
+    }
+
+    /**
+     * Server span của request (Span.getInvalid() nếu tracing tắt)
+     */
+    public static Span serverSpan(RoutingContext ctx) {
+        return Span.fromContext(context(ctx));
+    }
+}
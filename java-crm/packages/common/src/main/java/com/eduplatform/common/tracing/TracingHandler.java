@@ -0,0 +1,93 @@
+package com.eduplatform.common.tracing;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.context.propagation.TextMapGetter;
+import io.vertx.core.Handler;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.ext.web.RoutingContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * TracingHandler - Server span cho mỗi request (handler đầu tiên của router)
+ *
+ * - Đọc W3C traceparent / tracestate (kraken gateway forward hoặc tự sinh) → span con của trace đó
+ * - Context lưu trong RoutingContext (Tracing.KEY_CONTEXT): JwtAuthHandler, VertxRoutingBinder
+ *   đọc lại ở các bước async sau (không dựa vào ThreadLocal của event loop)
+ * - VertxRoutingBinder đổi tên span theo route pattern (VD: GET /api/v1/users/:id)
+ * - Response có header X-Trace-Id → tra trace từ log / client
+ * - Kết thúc ở end handler của response: status code, 5xx / client ngắt kết nối → ERROR
+ */
+@Component
+public class TracingHandler implements Handler<RoutingContext> {
+
+    public static final String TRACE_ID_HEADER = "X-Trace-Id";
+
+    static final AttributeKey<String> HTTP_METHOD = AttributeKey.stringKey("http.request.method");
+    static final AttributeKey<String> HTTP_ROUTE = AttributeKey.stringKey("http.route");
+    static final AttributeKey<String> URL_PATH = AttributeKey.stringKey("url.path");
+    static final AttributeKey<Long> HTTP_STATUS = AttributeKey.longKey("http.response.status_code");
+
+    private static final TextMapGetter<HttpServerRequest> GETTER = new TextMapGetter<>() {
+        @Override
+        public Iterable<String> keys(HttpServerRequest request) {
+            return request.headers().names();
+        }
+
+        @Override
+        public String get(HttpServerRequest request, String key) {
+            return request == null ? null : request.getHeader(key);
+        }
+    };
+
+    @Override
+    public void handle(RoutingContext ctx) {
+        if (!Tracing.isEnabled()) {
+            ctx.next();
+            return;
+        }
+
+        HttpServerRequest request = ctx.request();
+        Context parent = Tracing.propagator().extract(Context.root(), request, GETTER);
+        String method = request.method().name();
+        Span span = Tracing.tracer().spanBuilder(method)
+                .setParent(parent)
+                .setSpanKind(SpanKind.SERVER)
+                .setAttribute(HTTP_METHOD, method)
+                .setAttribute(URL_PATH, request.path())
+                .startSpan();
+        Context context = parent.with(span);
+        ctx.put(Tracing.KEY_CONTEXT, context);
+        if (span.getSpanContext().isValid()) {
+            ctx.response().putHeader(TRACE_ID_HEADER, span.getSpanContext().getTraceId());
+        }
+
+        ctx.addEndHandler(ar -> {
+            int status = ar.succeeded() ? ctx.response().getStatusCode() : 499;
+            span.setAttribute(HTTP_STATUS, (long) status);
+            if (status >= 500 || !ar.succeeded()) {
+                span.setStatus(StatusCode.ERROR);
+            }
+            span.end();
+        });
+
+        try (Scope ignored = context.makeCurrent()) {
+            ctx.next();
+        }
+    }
+
+    /**
+     * Đặt tên span theo route pattern (gọi khi đã match route của controller)
+     */
+    public static void nameRoute(RoutingContext ctx, String method, String route) {
+        Span span = Tracing.serverSpan(ctx);
+        if (span.isRecording()) {
+            span.updateName(method + " " + route);
+            span.setAttribute(HTTP_ROUTE, route);
+        }
+    }
+}
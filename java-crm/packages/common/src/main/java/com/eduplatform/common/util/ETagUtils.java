@@ -0,0 +1,52 @@
+package com.eduplatform.common.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32C;
+
+/**
+ * ETagUtils - Weak ETag cho response GET + so khớp If-None-Match
+ *
+ * - weak(body): W/"&lt;length&gt;-&lt;crc32c&gt;" từ body đã serialize (CRC32C có intrinsic, ~GB/s)
+ * - weakVersion(version): W/"v-&lt;crc32c&gt;" từ version của entity (VD: updatedAt)
+ *   → quyết định 304 trước khi load / serialize entity
+ * - matches(): so sánh weak theo RFC 9110 (bỏ W/), hỗ trợ danh sách và "*"
+ */
+public final class ETagUtils {
+
+    private ETagUtils() {
+    }
+
+    public static String weak(byte[] body) {
+        CRC32C crc = new CRC32C();
+        crc.update(body, 0, body.length);
+        return "W/\"" + Integer.toHexString(body.length) + "-" + Long.toHexString(crc.getValue()) + "\"";
+    }
+
+    public static String weakVersion(Object version) {
+        byte[] bytes = String.valueOf(version).getBytes(StandardCharsets.UTF_8);
+        CRC32C crc = new CRC32C();
+        crc.update(bytes, 0, bytes.length);
+        return "W/\"v-" + Long.toHexString(crc.getValue()) + "\"";
+    }
+
+    /**
+     * If-None-Match có chứa etag (weak comparison)
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank() || etag == null) {
+            return false;
+        }
+        String target = opaque(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*") || opaque(value).equals(target)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaque(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+}
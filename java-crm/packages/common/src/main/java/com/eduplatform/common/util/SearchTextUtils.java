@@ -0,0 +1,71 @@
+package com.eduplatform.common.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * SearchTextUtils - Chuẩn hóa chuỗi tìm kiếm (bỏ dấu tiếng Việt)
+ * 
+ * Phải khớp với cột search_text trong DB: lower(f_unaccent(...)),
+ * để "Nguyễn Văn Đức" và "nguyen van duc" tìm ra cùng kết quả.
+ */
+public final class SearchTextUtils {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private SearchTextUtils() {
+    }
+
+    /**
+     * Bỏ dấu + lowercase + gộp khoảng trắng. "  Trần  Thị Ánh " → "tran thi anh"
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return null;
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        String stripped = COMBINING_MARKS.matcher(decomposed).replaceAll("")
+                .replace('đ', 'd')
+                .replace('Đ', 'D');
+        return WHITESPACE.matcher(stripped.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Tách query thành các từ đã chuẩn hóa (bỏ từ rỗng)
+     */
+    public static List<String> tokenize(String text) {
+        String normalized = normalize(text);
+        if (normalized == null || normalized.isEmpty()) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : normalized.split(" ")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Escape ký tự đặc biệt của LIKE (%, _, \)
+     */
+    public static String escapeLike(String text) {
+        if (text == null) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder(text.length() + 4);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '%' || c == '_' || c == '\\') {
+                sb.append('\\');
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+}
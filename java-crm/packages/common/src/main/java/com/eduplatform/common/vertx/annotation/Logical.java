@@ -0,0 +1,16 @@
+package com.eduplatform.common.vertx.annotation;
+
+/**
+ * Logical - Cách kết hợp nhiều permission trên cùng một route
+ */
+public enum Logical {
+    /**
+     * Phải có tất cả permission
+     */
+    AND,
+
+    /**
+     * Chỉ cần một trong các permission
+     */
+    OR
+}
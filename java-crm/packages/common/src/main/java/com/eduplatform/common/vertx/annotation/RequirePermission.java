@@ -3,6 +3,7 @@ package com.eduplatform.common.vertx.annotation;
 import com.eduplatform.common.constant.Action;
 
 import java.lang.annotation.ElementType;
+import java.lang.annotation.Repeatable;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
@@ -10,7 +11,11 @@ import java.lang.annotation.Target;
 /**
  * RequirePermission - Annotation để declare permission metadata
  * 
- * Sử dụng kết hợp với PermissionInterceptor để tự động check quyền
+ * VertxRoutingBinder compile annotation thành AuthorizationStage lúc bind route
+ * (không đọc lại annotation mỗi request).
+ * 
+ * Có thể lặp lại nhiều lần trên một method (mặc định AND),
+ * dùng {@link RequirePermissions} để chọn OR.
  * 
  * Usage:
  * <pre>
@@ -22,8 +27,13 @@ import java.lang.annotation.Target;
  *     return getAuthenticatedUser(principal)
  *         .flatMap(user -> ...);
  * }
+ * 
+ * // Cần cả 2 quyền (AND)
+ * @RequirePermission(resource = "USER", action = Action.UPDATE)
+ * @RequirePermission(resource = "ROLE", action = Action.VIEW)
  * </pre>
  */
+@Repeatable(RequirePermissions.class)
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.METHOD)
 public @interface RequirePermission {
@@ -0,0 +1,30 @@
+package com.eduplatform.common.vertx.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * RequirePermissions - Container cho nhiều @RequirePermission với AND/OR
+ * 
+ * Usage:
+ * <pre>
+ * @VertxGet("/api/v1/reports")
+ * @RequirePermissions(logical = Logical.OR, value = {
+ *     @RequirePermission(resource = "REPORT", action = Action.VIEW),
+ *     @RequirePermission(resource = "REPORT", action = Action.EXPORT)
+ * })
+ * </pre>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface RequirePermissions {
+
+    RequirePermission[] value();
+
+    /**
+     * Cách kết hợp các permission (default: AND)
+     */
+    Logical logical() default Logical.AND;
+}
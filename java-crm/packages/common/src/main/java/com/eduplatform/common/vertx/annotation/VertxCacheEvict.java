@@ -0,0 +1,18 @@
+package com.eduplatform.common.vertx.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Write route xoá response cache (@VertxCacheable) gắn các RBAC resource này
+ * 
+ * Invalidate trước khi header response được gửi → client nhận response ghi xong
+ * rồi GET lại luôn thấy dữ liệu mới.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface VertxCacheEvict {
+    String[] resource();
+}
@@ -0,0 +1,64 @@
+package com.eduplatform.common.vertx.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Cache body JSON của route GET (ResponseCache) - hit trả thẳng trên event loop
+ * 
+ * Key = path (gồm path variables) + query params + phạm vi principal (scope).
+ * Tag = resource của @RequirePermission + tags() → write route có
+ * @VertxCacheEvict(resource = ...) cùng tag xoá entry ngay.
+ * Chỉ cache response 200, phân quyền vẫn chạy trước khi đọc cache.
+ * 
+ * Usage:
+ * <pre>
+ * &#64;VertxGet("/api/v1/users")
+ * &#64;VertxCacheable(ttl = 30)
+ * &#64;RequirePermission(resource = "USER", action = Action.VIEW, dataScope = true)
+ * </pre>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface VertxCacheable {
+
+    /**
+     * TTL (giây) - giới hạn độ cũ giữa các instance (invalidate chỉ trong instance)
+     */
+    long ttl() default 30;
+
+    /**
+     * Query params tạo key (rỗng = toàn bộ query string)
+     */
+    String[] key() default {};
+
+    CacheScope scope() default CacheScope.AUTO;
+
+    /**
+     * Tag thêm ngoài resource của @RequirePermission
+     */
+    String[] tags() default {};
+
+    enum CacheScope {
+        /**
+         * Method nhận VertxPrincipal → USER, route dataScope → DATA_SCOPE,
+         * route cần đăng nhập → USER, route public → SHARED
+         */
+        AUTO,
+        /**
+         * Dùng chung cho mọi user (đã qua phân quyền) - route cần đăng nhập phải khai báo tường minh
+         */
+        SHARED,
+        /**
+         * Theo DataScopeFilter.cacheKey() (user cùng phạm vi dữ liệu dùng chung),
+         * chỉ dùng được với @RequirePermission(dataScope = true)
+         */
+        DATA_SCOPE,
+        /**
+         * Theo userId
+         */
+        USER
+    }
+}
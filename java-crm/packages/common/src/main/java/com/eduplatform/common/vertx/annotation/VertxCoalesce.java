@@ -0,0 +1,37 @@
+package com.eduplatform.common.vertx.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Gộp các request GET giống nhau đang chạy đồng thời (single-flight)
+ * 
+ * Request đầu tiên (leader) gọi controller, request trùng key đến trong lúc đó
+ * chờ và nhận cùng body JSON / lỗi → 1 query thay vì hàng trăm khi cache client hết hạn cùng lúc.
+ * Key = path (gồm path variables) + query params + phạm vi principal (giống @VertxCacheable).
+ * Leader hết deadline / client ngắt kết nối → các request đang chờ tự gọi controller.
+ * 
+ * Usage:
+ * <pre>
+ * &#64;VertxGet("/api/v1/majors")
+ * &#64;VertxCoalesce
+ * &#64;RequirePermission(resource = "MAJOR", action = Action.VIEW)
+ * </pre>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface VertxCoalesce {
+
+    /**
+     * Query params tạo key (rỗng = toàn bộ query string)
+     */
+    String[] key() default {};
+
+    /**
+     * Phạm vi được nhận chung body của leader. AUTO fail closed như @VertxCacheable:
+     * route cần đăng nhập → USER (hoặc DATA_SCOPE với dataScope = true), chỉ route public → SHARED
+     */
+    VertxCacheable.CacheScope scope() default VertxCacheable.CacheScope.AUTO;
+}
@@ -0,0 +1,27 @@
+package com.eduplatform.common.vertx.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Bật Idempotency-Key cho route POST / PUT (IdempotencyStore)
+ * 
+ * Request có header Idempotency-Key: response đầu tiên được lưu, retry cùng key nhận lại
+ * response đó, request trùng đang chạy chờ kết quả. Key theo userId của principal.
+ * Chỉ dùng trên route cần phân quyền (fail khi bind nếu route public):
+ * response được lưu nguyên văn → không gắn lên route trả token / credential (login, refresh).
+ * Route nhận body dạng stream không hỗ trợ (không fingerprint được body).
+ * 
+ * Usage:
+ * <pre>
+ * &#64;VertxPost("/api/v1/users")
+ * &#64;VertxIdempotent
+ * &#64;RequirePermission(resource = "USER", action = Action.ADD)
+ * </pre>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface VertxIdempotent {
+}
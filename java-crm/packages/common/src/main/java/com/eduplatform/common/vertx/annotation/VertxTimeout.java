@@ -0,0 +1,19 @@
+package com.eduplatform.common.vertx.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Deadline riêng cho route (ms) thay cho app.request.timeout.default-ms
+ * 
+ * Hết hạn → 504, cancel task worker chưa chạy + JDBC statement đang chạy.
+ * 0 = không giới hạn (export / import stream), vẫn cancel khi client ngắt kết nối.
+ * Header X-Request-Timeout chỉ rút ngắn được deadline, không kéo dài.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface VertxTimeout {
+    long value();
+}
@@ -2,8 +2,9 @@ package com.eduplatform.common.vertx.exception;
 
 import com.eduplatform.common.constant.ErrorCode;
 import com.eduplatform.common.exception.AppException;
-import com.eduplatform.common.response.ApiResponse;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.eduplatform.common.logging.AccessLog;
+import com.eduplatform.common.response.ErrorBodies;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.ext.web.RoutingContext;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,13 +15,14 @@ import org.springframework.stereotype.Component;
  * 
  * Sử dụng instanceof để xác định loại exception thay vì string matching.
  * Tận dụng AppException và ErrorCode để ánh xạ trực tiếp sang HTTP status.
+ * Log qua AccessLog (sample theo loại lỗi, ghi bất đồng bộ), body lỗi từ ErrorBodies.
  */
 @Slf4j
 @Component
 public class ExceptionResolver {
 
     @Autowired(required = false)
-    private ObjectMapper objectMapper;
+    private AccessLog accessLog;
 
     /**
      * Resolve exception và gửi response
@@ -28,15 +30,19 @@ public class ExceptionResolver {
     public void resolve(RoutingContext ctx, Throwable throwable) {
         // Unwrap nếu là wrapper exception
         Throwable cause = unwrap(throwable);
-        
-        log.error("Request error: {} - {}", ctx.request().uri(), cause.getMessage());
-        
-        if (log.isDebugEnabled()) {
-            log.debug("Stack trace:", cause);
-        }
 
         ExceptionInfo info = extractExceptionInfo(cause);
-        sendErrorResponse(ctx, info.statusCode, info.errorCode, info.message);
+        if (accessLog != null) {
+            accessLog.error(ctx, cause, info.statusCode);
+        } else {
+            log.error("Request error: {} - {}", ctx.request().uri(), cause.getMessage());
+        }
+
+        byte[] body = cause instanceof AppException appEx ? ErrorBodies.of(appEx) : null;
+        if (body == null) {
+            body = ErrorBodies.encode(info.errorCode, info.message);
+        }
+        sendErrorResponse(ctx, info.statusCode, body);
     }
 
     /**
@@ -107,36 +113,13 @@ public class ExceptionResolver {
                 throwable.getMessage() != null ? throwable.getMessage() : "Internal server error");
     }
 
-    protected void sendErrorResponse(RoutingContext ctx, int statusCode, int errorCode, String message) {
-        ApiResponse<?> response = ApiResponse.error(errorCode, message);
-        
-        try {
-            String json = objectMapper != null 
-                ? objectMapper.writeValueAsString(response)
-                : String.format("{\"code\":%d,\"message\":\"%s\"}", errorCode, escapeJson(message));
-            
-            ctx.response()
-                .setStatusCode(statusCode)
-                .putHeader("Content-Type", "application/json")
-                .end(json);
-        } catch (Exception e) {
-            log.error("Failed to send error response", e);
-            ctx.response()
-                .setStatusCode(500)
-                .putHeader("Content-Type", "application/json")
-                .end("{\"code\":5001,\"message\":\"Internal Server Error\"}");
-        }
+    protected void sendErrorResponse(RoutingContext ctx, int statusCode, byte[] body) {
+        ctx.response()
+            .setStatusCode(statusCode)
+            .putHeader("Content-Type", "application/json")
+            .end(Buffer.buffer(body));
     }
-    
-    private String escapeJson(String text) {
-        if (text == null) return "";
-        return text.replace("\\", "\\\\")
-                   .replace("\"", "\\\"")
-                   .replace("\n", "\\n")
-                   .replace("\r", "\\r")
-                   .replace("\t", "\\t");
-    }
-    
+
     /**
      * Helper record to hold exception info
      */
@@ -1,5 +1,8 @@
 package com.eduplatform.common.vertx.execution;
 
+import com.eduplatform.common.context.RequestContext;
+import com.eduplatform.common.jfr.WorkerTaskEvent;
+import com.eduplatform.common.tracing.Tracing;
 import com.eduplatform.common.vertx.VertxWrapper;
 import io.reactivex.rxjava3.core.Completable;
 import io.reactivex.rxjava3.core.Maybe;
@@ -10,6 +13,7 @@ import org.slf4j.LoggerFactory;
 
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.Callable;
 
 /**
  * VertxExecution - Helper để chạy blocking code trên Vert.x worker thread
@@ -22,6 +26,9 @@ import java.util.Objects;
  * - Worker pool: Dùng cho blocking operations
  * - executeBlocking(ordered=true): Đảm bảo thứ tự giữa các blocking calls
  * - executeBlocking(ordered=false): Performance tốt hơn cho independent operations
+ * - RequestContext (deadline) được mang sang worker: request đã hết hạn → task không chạy
+ * - JFR: WorkerTaskEvent (queue wait + thời gian chạy) khi recording bật event
+ * - Tracing: span của task là con của span request (Tracing.inSpan trong propagate)
  * 
  * Usage:
  * <pre>
@@ -45,6 +52,11 @@ public class VertxExecution {
     
     private static final Logger log = LoggerFactory.getLogger(VertxExecution.class);
 
+    /**
+     * Tên pool trên WorkerTaskEvent / span (worker pool mặc định của Vert.x)
+     */
+    private static final String WORKER_POOL = "vert.x-worker";
+
     /**
      * Execute blocking code on worker thread (ordered)
      * 
@@ -55,10 +67,14 @@ public class VertxExecution {
      * @return Single with result (throws if null)
      */
     public static <T> Single<T> blocking(SupplierThrowable<T> supplier) {
+        Callable<T> task = RequestContext.propagate(Tracing.inSpan(WORKER_POOL, supplier::get));
         return Single.create(emitter -> {
+            Callable<T> timed = WorkerTaskEvent.timed(WORKER_POOL, task);
             VertxWrapper.vertx().executeBlocking(() -> {
                 try {
-                    return supplier.get();
+                    return timed.call();
+                } catch (RuntimeException e) {
+                    throw e;
                 } catch (Exception e) {
                     throw new RuntimeException(e);
                 }
@@ -88,10 +104,14 @@ public class VertxExecution {
      * @return Single with result
      */
     public static <T> Single<T> blockingAsync(SupplierThrowable<T> supplier) {
+        Callable<T> task = RequestContext.propagate(Tracing.inSpan(WORKER_POOL, supplier::get));
         return Single.create(emitter -> {
+            Callable<T> timed = WorkerTaskEvent.timed(WORKER_POOL, task);
             VertxWrapper.vertx().executeBlocking(() -> {
                 try {
-                    return supplier.get();
+                    return timed.call();
+                } catch (RuntimeException e) {
+                    throw e;
                 } catch (Exception e) {
                     throw new RuntimeException(e);
                 }
@@ -120,10 +140,14 @@ public class VertxExecution {
      * @return Maybe with result (empty if null)
      */
     public static <T> Maybe<T> blockingMaybe(SupplierThrowable<T> supplier) {
+        Callable<T> task = RequestContext.propagate(Tracing.inSpan(WORKER_POOL, supplier::get));
         return Maybe.create(emitter -> {
+            Callable<T> timed = WorkerTaskEvent.timed(WORKER_POOL, task);
             VertxWrapper.vertx().executeBlocking(() -> {
                 try {
-                    return supplier.get();
+                    return timed.call();
+                } catch (RuntimeException e) {
+                    throw e;
                 } catch (Exception e) {
                     throw new RuntimeException(e);
                 }
@@ -1,5 +1,13 @@
 package com.eduplatform.common.vertx.execution;
 
+import com.eduplatform.common.constant.ErrorCode;
+import com.eduplatform.common.context.RequestContext;
+import com.eduplatform.common.exception.AppException;
+import com.eduplatform.common.jfr.WorkerTaskEvent;
+import com.eduplatform.common.metrics.LatencyHistogram;
+import com.eduplatform.common.metrics.MetricsSource;
+import com.eduplatform.common.metrics.PrometheusWriter;
+import com.eduplatform.common.tracing.Tracing;
 import io.vertx.core.Vertx;
 import io.vertx.core.WorkerExecutor;
 import lombok.extern.slf4j.Slf4j;
@@ -8,8 +16,11 @@ import org.springframework.stereotype.Component;
 
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * WorkerPoolManager - Quản lý các Worker Pool riêng biệt
@@ -18,10 +29,16 @@ import java.util.concurrent.TimeUnit;
  * - DB Pool: Cho các truy vấn database (JDBC/jOOQ)
  * - IO Pool: Cho các I/O operations (file, external API)
  * - CPU Pool: Cho các tính toán nặng
+ * - Export Pool: Cho export stream (giữ connection suốt thời gian export) - ít thread,
+ *   hàng đợi giới hạn: vượt quá → 503 thay vì chờ, export không chiếm DB pool
  * 
  * Việc tách biệt giúp tránh tình trạng một nhóm tác vụ chậm
  * làm nghẽn toàn bộ hệ thống.
  * 
+ * Metrics (/metrics): số task đang chạy / đang chờ, thời gian chờ trong queue
+ * → active ≈ size và queue wait tăng = pool bão hoà.
+ * Từng task: WorkerTaskEvent (JFR) khi recording bật event, span (tên = pool) khi bật tracing.
+ * 
  * Usage:
  * <pre>
  * // Dùng DB pool cho queries
@@ -33,15 +50,17 @@ import java.util.concurrent.TimeUnit;
  */
 @Slf4j
 @Component
-public class WorkerPoolManager {
+public class WorkerPoolManager implements MetricsSource {
     
     public static final String DB_POOL = "db-pool";
     public static final String IO_POOL = "io-pool";
     public static final String CPU_POOL = "cpu-pool";
+    public static final String EXPORT_POOL = "export-pool";
     
     private static WorkerPoolManager INSTANCE;
     
     private final ConcurrentHashMap<String, WorkerExecutor> pools = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, PoolStats> poolStats = new ConcurrentHashMap<>();
     
     private Vertx vertx;
     
@@ -55,14 +74,23 @@ public class WorkerPoolManager {
     @Value("${vertx.worker.cpu-pool-size:2}")
     private int cpuPoolSize;
     
+    @Value("${vertx.worker.export-pool-size:2}")
+    private int exportPoolSize;
+    
+    @Value("${vertx.worker.export-max-queued:4}")
+    private int exportMaxQueued;
+    
+    @Value("${vertx.worker.export-max-execute-time:600}")
+    private long exportMaxExecuteTimeSeconds;
+    
     @Value("${vertx.worker.max-execute-time:30}")
     private long maxExecuteTimeSeconds;
     
     @PostConstruct
     public void init() {
         INSTANCE = this;
-        log.info("WorkerPoolManager initialized with pools: DB={}, IO={}, CPU={}", 
-                dbPoolSize, ioPoolSize, cpuPoolSize);
+        log.info("WorkerPoolManager initialized with pools: DB={}, IO={}, CPU={}, EXPORT={}", 
+                dbPoolSize, ioPoolSize, cpuPoolSize, exportPoolSize);
     }
     
     /**
@@ -98,8 +126,22 @@ public class WorkerPoolManager {
                 TimeUnit.SECONDS
         ));
         
-        log.info("Created worker pools: DB({}), IO({}), CPU({})", 
-                dbPoolSize, ioPoolSize, cpuPoolSize);
+        // Export pool - export stream chạy lâu (cả file), tách khỏi DB pool
+        // để vài export lớn không làm request thường chờ worker
+        pools.put(EXPORT_POOL, vertx.createSharedWorkerExecutor(
+                EXPORT_POOL,
+                exportPoolSize,
+                exportMaxExecuteTimeSeconds,
+                TimeUnit.SECONDS
+        ));
+        
+        poolStats.put(DB_POOL, new PoolStats(dbPoolSize, 0));
+        poolStats.put(IO_POOL, new PoolStats(ioPoolSize, 0));
+        poolStats.put(CPU_POOL, new PoolStats(cpuPoolSize, 0));
+        poolStats.put(EXPORT_POOL, new PoolStats(exportPoolSize, exportMaxQueued));
+        
+        log.info("Created worker pools: DB({}), IO({}), CPU({}), EXPORT({}, max queued {})", 
+                dbPoolSize, ioPoolSize, cpuPoolSize, exportPoolSize, exportMaxQueued);
     }
     
     @PreDestroy
@@ -166,6 +208,13 @@ public class WorkerPoolManager {
         return executeOn(CPU_POOL, supplier);
     }
     
+    /**
+     * Execute on export pool - export stream (hàng đợi đầy → SERVICE_UNAVAILABLE)
+     */
+    public static <T> io.reactivex.rxjava3.core.Single<T> executeOnExportPool(SupplierThrowable<T> supplier) {
+        return executeOn(EXPORT_POOL, supplier);
+    }
+    
     /**
      * Execute on specified pool
      */
@@ -176,13 +225,31 @@ public class WorkerPoolManager {
         }
         
         WorkerExecutor executor = INSTANCE.pools.get(poolName);
+        PoolStats stats = INSTANCE.poolStats.get(poolName);
+        // Mang RequestContext (deadline) sang worker: task tới lượt chạy khi request
+        // đã hết hạn / client đã ngắt kết nối → bỏ qua, không chiếm connection
+        Callable<T> task = RequestContext.propagate(Tracing.inSpan(poolName, supplier::get));
         
         return io.reactivex.rxjava3.core.Single.create(emitter -> {
+            if (stats.maxQueued > 0 && stats.queued.get() >= stats.maxQueued) {
+                stats.rejected.increment();
+                emitter.onError(new AppException(ErrorCode.SERVICE_UNAVAILABLE,
+                        "Worker pool " + poolName + " đang quá tải, thử lại sau"));
+                return;
+            }
+            long submittedAt = System.nanoTime();
+            Callable<T> timed = WorkerTaskEvent.timed(poolName, task);
+            stats.queued.incrementAndGet();
             executor.executeBlocking(() -> {
+                stats.started(submittedAt);
                 try {
-                    return supplier.get();
+                    return timed.call();
+                } catch (RuntimeException e) {
+                    throw e;
                 } catch (Exception e) {
                     throw new RuntimeException(e);
+                } finally {
+                    stats.finished();
                 }
             }, false)  // unordered for better performance
             .onComplete(ar -> {
@@ -199,4 +266,57 @@ public class WorkerPoolManager {
             });
         });
     }
+    
+    // ============================================
+    // Metrics
+    // ============================================
+    
+    @Override
+    public void collect(PrometheusWriter writer) {
+        writer.gauge("worker_pool_size", "Max threads of worker pool");
+        poolStats.forEach((name, stats) -> writer.sample("worker_pool_size", stats.size, "pool", name));
+        writer.gauge("worker_pool_active", "Tasks running on worker pool");
+        poolStats.forEach((name, stats) -> writer.sample("worker_pool_active", stats.active.get(), "pool", name));
+        writer.gauge("worker_pool_queued", "Tasks waiting for a worker thread");
+        poolStats.forEach((name, stats) -> writer.sample("worker_pool_queued", stats.queued.get(), "pool", name));
+        writer.gauge("worker_pool_utilization", "active / size (1 = saturated)");
+        poolStats.forEach((name, stats) -> writer.sample("worker_pool_utilization",
+                (double) stats.active.get() / Math.max(1, stats.size), "pool", name));
+        writer.counter("worker_pool_tasks_total", "Tasks completed on worker pool");
+        poolStats.forEach((name, stats) -> writer.sample("worker_pool_tasks_total", stats.completed.sum(), "pool", name));
+        writer.counter("worker_pool_rejected_total", "Tasks rejected because the pool queue was full");
+        poolStats.forEach((name, stats) -> writer.sample("worker_pool_rejected_total", stats.rejected.sum(), "pool", name));
+        writer.histogram("worker_pool_queue_wait_seconds", "Time from submit until a worker thread picks the task");
+        poolStats.forEach((name, stats) -> writer.histogramSample("worker_pool_queue_wait_seconds",
+                stats.queueWait.snapshot(), "pool", name));
+    }
+    
+    /**
+     * Bộ đếm của 1 pool (chỉ AtomicInteger / LongAdder / Recorder - không lock)
+     */
+    private static final class PoolStats {
+        private final int size;
+        private final int maxQueued;  // 0 = không giới hạn
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicInteger active = new AtomicInteger();
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LatencyHistogram queueWait = new LatencyHistogram();
+        
+        private PoolStats(int size, int maxQueued) {
+            this.size = size;
+            this.maxQueued = maxQueued;
+        }
+        
+        private void started(long submittedAt) {
+            queued.decrementAndGet();
+            active.incrementAndGet();
+            queueWait.record(System.nanoTime() - submittedAt);
+        }
+        
+        private void finished() {
+            active.decrementAndGet();
+            completed.increment();
+        }
+    }
 }
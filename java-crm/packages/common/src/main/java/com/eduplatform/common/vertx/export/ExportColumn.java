@@ -0,0 +1,18 @@
+package com.eduplatform.common.vertx.export;
+
+import java.util.function.Function;
+
+/**
+ * ExportColumn - Một cột của file export: tên (header CSV / key NDJSON) + cách lấy giá trị
+ * <pre>
+ * List&lt;ExportColumn&lt;User&gt;&gt; columns = List.of(
+ *         ExportColumn.of("id", User::getId),
+ *         ExportColumn.of("username", User::getUsername));
+ * </pre>
+ */
+public record ExportColumn<T>(String name, Function<? super T, ?> value) {
+
+    public static <T> ExportColumn<T> of(String name, Function<? super T, ?> value) {
+        return new ExportColumn<>(name, value);
+    }
+}
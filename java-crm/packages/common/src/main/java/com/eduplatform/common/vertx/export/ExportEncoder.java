@@ -0,0 +1,125 @@
+package com.eduplatform.common.vertx.export;
+
+import com.eduplatform.common.vertx.jackson.JsonMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.vertx.core.buffer.Buffer;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * ExportEncoder - Encode từng row (CSV / NDJSON) vào chunk ~32KB rồi đẩy qua ResponseStreamWriter
+ *
+ * Chỉ giữ 1 chunk đang gom trong memory. CSV: có header, quote theo RFC 4180,
+ * ô bắt đầu bằng = + - @ được thêm ' (chặn formula injection khi mở bằng Excel).
+ */
+public final class ExportEncoder<T> implements Consumer<T> {
+
+    private static final int CHUNK_BYTES = 32 * 1024;
+
+    private final ExportFormat format;
+    private final List<ExportColumn<T>> columns;
+    private final ResponseStreamWriter writer;
+
+    private Buffer chunk = Buffer.buffer(CHUNK_BYTES + 1024);
+    private final StringBuilder line = new StringBuilder(256);
+    private long rows;
+
+    public ExportEncoder(ExportFormat format, List<ExportColumn<T>> columns, ResponseStreamWriter writer) {
+        this.format = format;
+        this.columns = columns;
+        this.writer = writer;
+        if (format == ExportFormat.CSV) {
+            writeHeader();
+        }
+    }
+
+    @Override
+    public void accept(T row) {
+        if (format == ExportFormat.CSV) {
+            line.setLength(0);
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) line.append(',');
+                appendCsv(columns.get(i).value().apply(row));
+            }
+            chunk.appendString(line.append('\n').toString());
+        } else {
+            Map<String, Object> json = new LinkedHashMap<>(columns.size() * 2);
+            for (ExportColumn<T> column : columns) {
+                json.put(column.name(), column.value().apply(row));
+            }
+            try {
+                chunk.appendBytes(JsonMapper.objectMapper().writeValueAsBytes(json)).appendByte((byte) '\n');
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Không encode được row " + rows, e);
+            }
+        }
+
+        rows++;
+        if (chunk.length() >= CHUNK_BYTES) {
+            flush();
+        }
+    }
+
+    /**
+     * Đẩy phần còn lại - gọi sau khi hết rows
+     * @return số rows đã ghi
+     */
+    public long finish() {
+        flush();
+        return rows;
+    }
+
+    private void flush() {
+        if (chunk.length() == 0) {
+            return;
+        }
+        Buffer full = chunk;
+        chunk = Buffer.buffer(CHUNK_BYTES + 1024);
+        writer.write(full);
+    }
+
+    private void writeHeader() {
+        line.setLength(0);
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) line.append(',');
+            appendCsv(columns.get(i).name());
+        }
+        chunk.appendString(line.append('\n').toString());
+    }
+
+    private void appendCsv(Object value) {
+        if (value == null) {
+            return;
+        }
+        String text = value.toString();
+        if (text.isEmpty()) {
+            return;
+        }
+
+        char first = text.charAt(0);
+        boolean formula = first == '=' || first == '+' || first == '-' || first == '@';
+        boolean quote = formula;
+        for (int i = 0; i < text.length() && !quote; i++) {
+            char c = text.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            line.append(text);
+            return;
+        }
+
+        line.append('"');
+        if (formula && !(value instanceof Number)) {
+            line.append('\'');
+        }
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') line.append('"');
+            line.append(c);
+        }
+        line.append('"');
+    }
+}
@@ -0,0 +1,42 @@
+package com.eduplatform.common.vertx.export;
+
+import com.eduplatform.common.constant.ErrorCode;
+import com.eduplatform.common.exception.AppException;
+
+/**
+ * ExportFormat - Định dạng file export dạng stream
+ */
+public enum ExportFormat {
+
+    CSV("text/csv; charset=utf-8", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Parse từ query param (?format=csv|ndjson), mặc định CSV
+     */
+    public static ExportFormat of(String value) {
+        if (value == null || value.isBlank() || value.equalsIgnoreCase("csv")) {
+            return CSV;
+        }
+        if (value.equalsIgnoreCase("ndjson") || value.equalsIgnoreCase("jsonl")) {
+            return NDJSON;
+        }
+        throw new AppException(ErrorCode.VALIDATION_ERROR, "Format không hỗ trợ: " + value + " (csv | ndjson)");
+    }
+}
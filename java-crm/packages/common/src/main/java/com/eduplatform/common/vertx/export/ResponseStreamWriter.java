@@ -0,0 +1,136 @@
+package com.eduplatform.common.vertx.export;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.vertx.core.Context;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.ext.web.RoutingContext;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * ResponseStreamWriter - Ghi chunk từ worker thread ra HttpServerResponse (chunked) có backpressure
+ *
+ * write() được gọi trên worker thread, việc ghi thật chạy trên context (event loop) của request.
+ * Write queue đầy (client đọc chậm) → write() block worker tới khi drainHandler báo,
+ * nên tại mỗi thời điểm chỉ có 1 chunk chờ ngoài write queue của Vert.x → heap không tăng theo số rows.
+ *
+ * Client ngắt kết nối hoặc không đọc quá STALL_TIMEOUT → write() ném ExportAbortedException.
+ */
+public final class ResponseStreamWriter {
+
+    private static final long STALL_TIMEOUT_SECONDS = 60;
+
+    private final Context context;
+    private final HttpServerResponse response;
+    private final ExportFormat format;
+    private final String filename;
+
+    private volatile CompletableFuture<Void> pending;
+    private volatile boolean closed;
+    private boolean headersSent;
+    private volatile long bytesWritten;
+
+    /**
+     * Tạo trên event loop (trong resource method)
+     */
+    public ResponseStreamWriter(RoutingContext ctx, ExportFormat format, String filename) {
+        this.context = ctx.vertx().getOrCreateContext();
+        this.response = ctx.response();
+        this.format = format;
+        this.filename = filename;
+
+        response.closeHandler(v -> {
+            closed = true;
+            CompletableFuture<Void> waiting = pending;
+            if (waiting != null) {
+                waiting.completeExceptionally(new ExportAbortedException("Client đã ngắt kết nối"));
+            }
+        });
+    }
+
+    /**
+     * Ghi 1 chunk - block worker thread tới khi response nhận thêm được
+     */
+    public void write(Buffer chunk) {
+        if (closed) {
+            throw new ExportAbortedException("Client đã ngắt kết nối");
+        }
+
+        CompletableFuture<Void> ready = new CompletableFuture<>();
+        pending = ready;
+        context.runOnContext(v -> {
+            if (closed) {
+                ready.completeExceptionally(new ExportAbortedException("Client đã ngắt kết nối"));
+                return;
+            }
+            sendHeaders();
+            response.write(chunk);
+            bytesWritten += chunk.length();
+            if (response.writeQueueFull()) {
+                response.drainHandler(d -> ready.complete(null));
+            } else {
+                ready.complete(null);
+            }
+        });
+        await(ready);
+    }
+
+    /**
+     * Kết thúc response (gửi chunk cuối), complete trên event loop
+     */
+    public Completable end() {
+        return Completable.create(emitter -> context.runOnContext(v -> {
+            if (!closed && !response.ended()) {
+                sendHeaders();
+                response.end();
+            }
+            emitter.onComplete();
+        }));
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    private void sendHeaders() {
+        if (headersSent) {
+            return;
+        }
+        headersSent = true;
+        response.setStatusCode(200)
+                .setChunked(true)
+                .putHeader(HttpHeaders.CONTENT_TYPE, format.getContentType())
+                .putHeader("Content-Disposition",
+                        "attachment; filename=\"" + filename + "." + format.getExtension() + "\"")
+                .putHeader("Cache-Control", "no-store");
+    }
+
+    private static void await(CompletableFuture<Void> ready) {
+        try {
+            ready.get(STALL_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            throw new ExportAbortedException("Client không đọc dữ liệu quá " + STALL_TIMEOUT_SECONDS + "s");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof ExportAbortedException aborted
+                    ? aborted
+                    : new ExportAbortedException(e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExportAbortedException("Export bị interrupt");
+        }
+    }
+
+    /**
+     * Export dừng giữa chừng do phía client (không phải lỗi server)
+     */
+    public static class ExportAbortedException extends RuntimeException {
+        public ExportAbortedException(String message) {
+            super(message, null, false, false);
+        }
+    }
+}
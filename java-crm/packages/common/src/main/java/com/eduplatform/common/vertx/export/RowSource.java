@@ -0,0 +1,18 @@
+package com.eduplatform.common.vertx.export;
+
+import java.util.function.Consumer;
+
+/**
+ * RowSource - Nguồn rows cho export, đẩy từng row vào sink (không gom List)
+ *
+ * Chạy trên DB worker thread; sink có thể block khi response chưa kịp gửi (backpressure)
+ * và ném exception khi client ngắt kết nối → cursor đóng, query dừng.
+ * <pre>
+ * RowSource&lt;User&gt; rows = sink -> userService.exportUsers(query, status, scope, sink);
+ * </pre>
+ */
+@FunctionalInterface
+public interface RowSource<T> {
+
+    void forEach(Consumer<? super T> sink) throws Exception;
+}
@@ -0,0 +1,73 @@
+package com.eduplatform.common.vertx.model;
+
+import com.eduplatform.common.constant.ErrorCode;
+import com.eduplatform.common.exception.AppException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Cursor - Vị trí của keyset pagination (dòng cuối của trang trước)
+ * 
+ * Client chỉ thấy chuỗi opaque (base64url), không phụ thuộc format bên trong.
+ * Lưu cả sort/direction để reject cursor dùng với sort khác.
+ */
+public final class Cursor {
+
+    private static final char SEPARATOR = '\u0000';
+
+    private final String sort;
+    private final boolean descending;
+    private final String value;
+    private final String id;
+
+    public Cursor(String sort, boolean descending, String value, String id) {
+        this.sort = sort;
+        this.descending = descending;
+        this.value = value;
+        this.id = id;
+    }
+
+    public String getSort() {
+        return sort;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    /**
+     * Giá trị cột sort của dòng cuối (dạng String)
+     */
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * ID của dòng cuối (tie-breaker)
+     */
+    public String getId() {
+        return id;
+    }
+
+    public String encode() {
+        String raw = sort + SEPARATOR + (descending ? "d" : "a") + SEPARATOR + value + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode cursor từ request - cursor sai format → 400
+     */
+    public static Cursor decode(String encoded) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+            String[] parts = raw.split(String.valueOf(SEPARATOR), -1);
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Invalid cursor parts");
+            }
+            return new Cursor(parts[0], "d".equals(parts[1]), parts[2], parts[3]);
+        } catch (IllegalArgumentException e) {
+            throw new AppException(ErrorCode.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+}
@@ -4,6 +4,7 @@ import java.util.List;
 
 /**
  * Page model cho pagination response
+ * Keyset mode: nextCursor != null nghĩa là còn trang sau
  */
 public class Page<T> {
     
@@ -45,6 +46,20 @@ public class Page<T> {
         return pageable != null ? pageable.getTotal() : 0;
     }
 
+    /**
+     * true nếu total là số ước lượng (bảng lớn, không COUNT(*) chính xác)
+     */
+    public boolean isTotalEstimated() {
+        return pageable != null && pageable.isTotalEstimated();
+    }
+
+    /**
+     * Cursor cho trang tiếp theo (null nếu hết dữ liệu hoặc offset mode)
+     */
+    public String getNextCursor() {
+        return pageable != null ? pageable.getNextCursor() : null;
+    }
+
     public int getTotalPages() {
         if (pageable == null || pageable.getSize() == 0) return 0;
         return (int) Math.ceil((double) pageable.getTotal() / pageable.getSize());
@@ -5,14 +5,30 @@ import java.util.Map;
 
 /**
  * Pageable model cho pagination
+ * 
+ * 2 chế độ:
+ * - OFFSET (mặc định): ?page=2&size=20 - có total, nhảy trang tùy ý
+ * - KEYSET: ?cursor=&size=20 (cursor rỗng = trang đầu), trang sau dùng
+ *   nextCursor của response. Không chậm dần ở trang sâu.
  */
 public class Pageable {
     
     private int page = 0;
     private int size = 20;
     private long total = 0;
+    
+    // total là số ước lượng (planner estimate), không phải COUNT(*) chính xác
+    private boolean totalEstimated;
+    
+    // total đã được set (bởi count query)
+    private boolean totalResolved;
     private String sort;
     private String order = "asc";
+    
+    // Keyset pagination: cursor (opaque) của request, nextCursor cho response
+    private boolean keyset;
+    private String cursor;
+    private String nextCursor;
 
     public Pageable() {}
 
@@ -43,6 +59,19 @@ public class Pageable {
 
     public void setTotal(long total) {
         this.total = total;
+        this.totalResolved = true;
+    }
+    
+    public boolean isTotalResolved() {
+        return totalResolved;
+    }
+    
+    public boolean isTotalEstimated() {
+        return totalEstimated;
+    }
+    
+    public void setTotalEstimated(boolean totalEstimated) {
+        this.totalEstimated = totalEstimated;
     }
 
     public String getSort() {
@@ -64,12 +93,53 @@ public class Pageable {
     public int getOffset() {
         return page * size;
     }
+    
+    public boolean isDescending() {
+        return "desc".equalsIgnoreCase(order);
+    }
+    
+    /**
+     * Keyset mode khi request có param cursor (kể cả rỗng)
+     */
+    public boolean isKeyset() {
+        return keyset;
+    }
+    
+    public void setKeyset(boolean keyset) {
+        this.keyset = keyset;
+    }
+    
+    public String getCursor() {
+        return cursor;
+    }
+    
+    /**
+     * Set cursor → bật keyset mode. Cursor rỗng = trang đầu.
+     */
+    public void setCursor(String cursor) {
+        this.keyset = true;
+        this.cursor = cursor != null && !cursor.isEmpty() ? cursor : null;
+    }
+    
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
 
     public Map<String, Object> toMap() {
         Map<String, Object> map = new HashMap<>();
         map.put("page", page);
         map.put("size", size);
         map.put("total", total);
+        if (totalEstimated) {
+            map.put("totalEstimated", true);
+        }
+        if (keyset) {
+            map.put("nextCursor", nextCursor);
+        }
         return map;
     }
 }
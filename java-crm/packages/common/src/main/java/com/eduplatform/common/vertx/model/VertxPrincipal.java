@@ -1,5 +1,9 @@
 package com.eduplatform.common.vertx.model;
 
+import com.eduplatform.common.vertx.security.PermissionSet;
+import com.eduplatform.common.vertx.security.ResolvedPermissions;
+
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.UUID;
@@ -10,6 +14,11 @@ import java.util.UUID;
  */
 public class VertxPrincipal {
     
+    /**
+     * Role có toàn quyền (tương đương "*:*")
+     */
+    public static final String ROLE_SUPER_ADMIN = "SUPER_ADMIN";
+    
     private UUID userId;
     private String username;
     private String email;
@@ -22,6 +31,12 @@ public class VertxPrincipal {
     // Permissions: format "RESOURCE:ACTION" như "CONTACT:VIEW", "USER:UPDATE"
     private Set<String> permissions = new HashSet<>();
     
+    // Index của permissions - build lazy một lần, reset khi permissions thay đổi
+    private volatile PermissionSet permissionSet;
+    
+    // true khi permissions đã được load đầy đủ (từ token hoặc PermissionResolver)
+    private volatile boolean permissionsLoaded;
+    
     // Roles
     private Set<String> roles = new HashSet<>();
 
@@ -82,32 +97,78 @@ public class VertxPrincipal {
         this.remoteHost = remoteHost;
     }
     
+    /**
+     * Read-only view - thay đổi qua setPermissions() / addPermission() để index được reset
+     */
     public Set<String> getPermissions() {
-        return permissions;
+        return Collections.unmodifiableSet(permissions);
     }
     
     public void setPermissions(Set<String> permissions) {
-        this.permissions = permissions != null ? permissions : new HashSet<>();
+        this.permissions = permissions != null ? new HashSet<>(permissions) : new HashSet<>();
+        this.permissionSet = null;
+        this.permissionsLoaded = permissions != null;
+    }
+    
+    /**
+     * Gắn permissions đã resolve (immutable, dùng chung giữa request) - không copy, không build lại index
+     */
+    public void applyPermissions(ResolvedPermissions resolved) {
+        this.permissions = resolved.permissions();
+        this.permissionSet = roles.contains(ROLE_SUPER_ADMIN) ? null : resolved.index();
+        this.permissionsLoaded = true;
+    }
+    
+    /**
+     * Permissions đã load chưa - nếu chưa, AuthorizationStage sẽ resolve qua DB pool
+     */
+    public boolean isPermissionsLoaded() {
+        return permissionsLoaded || roles.contains(ROLE_SUPER_ADMIN);
     }
     
     public void addPermission(String permission) {
-        this.permissions.add(permission);
+        // Copy-on-write: permissions có thể là Set immutable của ResolvedPermissions
+        Set<String> updated = new HashSet<>(this.permissions);
+        updated.add(permission);
+        this.permissions = updated;
+        this.permissionSet = null;
     }
     
     public boolean hasPermission(String permission) {
         return this.permissions.contains(permission) || this.permissions.contains("*:*");
     }
     
+    /**
+     * Check quyền với wildcard (RESOURCE:*, *:ACTION, *:*) - không allocate
+     */
+    public boolean hasPermission(String resource, String action) {
+        return getPermissionSet().allows(resource, action);
+    }
+    
+    /**
+     * PermissionSet đã index, build một lần cho principal
+     */
+    public PermissionSet getPermissionSet() {
+        PermissionSet set = permissionSet;
+        if (set == null) {
+            set = roles.contains(ROLE_SUPER_ADMIN) ? PermissionSet.all() : PermissionSet.fromStrings(permissions);
+            permissionSet = set;
+        }
+        return set;
+    }
+    
     public Set<String> getRoles() {
-        return roles;
+        return Collections.unmodifiableSet(roles);
     }
     
     public void setRoles(Set<String> roles) {
-        this.roles = roles != null ? roles : new HashSet<>();
+        this.roles = roles != null ? new HashSet<>(roles) : new HashSet<>();
+        this.permissionSet = null;
     }
     
     public void addRole(String role) {
         this.roles.add(role);
+        this.permissionSet = null;
     }
     
     public boolean hasRole(String role) {
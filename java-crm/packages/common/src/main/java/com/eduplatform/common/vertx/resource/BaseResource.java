@@ -1,20 +1,38 @@
 package com.eduplatform.common.vertx.resource;
 
+import com.eduplatform.common.cache.CountCache;
 import com.eduplatform.common.constant.ErrorCode;
+import com.eduplatform.common.context.RequestContext;
+import com.eduplatform.common.db.DbRouting;
 import com.eduplatform.common.exception.AppException;
 import com.eduplatform.common.response.ApiResponse;
+import com.eduplatform.common.util.ETagUtils;
+import com.eduplatform.common.vertx.execution.WorkerPoolManager;
+import com.eduplatform.common.vertx.export.ExportColumn;
+import com.eduplatform.common.vertx.export.ExportEncoder;
+import com.eduplatform.common.vertx.export.ExportFormat;
+import com.eduplatform.common.vertx.export.ResponseStreamWriter;
+import com.eduplatform.common.vertx.export.RowSource;
 import com.eduplatform.common.vertx.model.Page;
 import com.eduplatform.common.vertx.model.Pageable;
 import com.eduplatform.common.vertx.model.VertxPrincipal;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Maybe;
 import io.reactivex.rxjava3.core.Single;
 import io.reactivex.rxjava3.schedulers.Schedulers;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.ext.web.RoutingContext;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.Callable;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * BaseResource - Base class cho tất cả @VertxRestController
@@ -37,11 +55,11 @@ import java.util.function.Function;
  *                     pageable);
  *     }
  *     
- *     // Chi tiết
+ *     // Chi tiết (thuần đọc → replica)
  *     @VertxGet("/api/v1/categories/:id")
  *     @RequirePermission(resource = "CATEGORY", action = Action.VIEW)
  *     public Single&lt;Response&lt;Category&gt;&gt; getById(@VertxPathVariable("id") UUID id) {
- *         return query(() -> service.getById(id));
+ *         return readQuery(() -> service.getById(id));
  *     }
  *     
  *     // ========== WRITE (cần principal để audit) ==========
@@ -79,25 +97,47 @@ import java.util.function.Function;
 @Slf4j
 public abstract class BaseResource {
 
+    @Autowired
+    private CountCache countCache;
+
     // ============================================
     // READ Operations (không cần user)
+    // query() chạy trên primary (dùng được cho flow có ghi: login, register, refresh...)
+    // readQuery()/page() chạy read-only → read replica nếu có cấu hình
+    // (trừ user vừa ghi trong sticky window → primary)
     // ============================================
     
     /**
-     * Query đơn giản - dùng cho GET by id, GET list không phân trang
+     * Gọi service không cần principal, trên primary - flow public có thể ghi
+     * (register, login ghi last login, refresh / logout ghi token...)
      * <pre>
-     * return query(() -> service.getById(id));
-     * return query(() -> service.getAll());
+     * return query(() -> authService.register(...));
      * </pre>
      */
     protected <T> Single<ResponseEntity<ApiResponse<T>>> query(Callable<T> dbCall) {
-        return Single.fromCallable(dbCall)
+        return Single.fromCallable(RequestContext.propagate(dbCall))
                 .subscribeOn(Schedulers.io())
                 .map(this::ok);
     }
     
     /**
-     * Query có phân trang
+     * Query thuần đọc - dùng cho GET by id, GET list không phân trang
+     * Chạy read-only → replica: callable có INSERT / UPDATE sẽ lỗi (read-only transaction).
+     * <pre>
+     * return readQuery(() -> service.getById(id));
+     * return readQuery(() -> service.getAll());
+     * </pre>
+     */
+    protected <T> Single<ResponseEntity<ApiResponse<T>>> readQuery(Callable<T> dbCall) {
+        return Single.fromCallable(readOnly(dbCall))
+                .subscribeOn(Schedulers.io())
+                .map(this::ok);
+    }
+    
+    /**
+     * Query có phân trang - hỗ trợ cả offset (?page=) và keyset (?cursor=)
+     * Repository set nextCursor vào pageable khi ở keyset mode.
+     * List rồi count tuần tự (CountStrategy.SEQUENTIAL) - route muốn song song chọn PARALLEL.
      * <pre>
      * return page(() -> service.list(pageable), () -> service.count(), pageable);
      * </pre>
@@ -107,18 +147,161 @@ public abstract class BaseResource {
             Callable<Long> countCall,
             Pageable pageable
     ) {
-        return Single.fromCallable(() -> {
+        return page(listCall, countCall, pageable, CountStrategy.SEQUENTIAL);
+    }
+    
+    /**
+     * Query có phân trang với CountStrategy chọn theo route
+     * <pre>
+     * return page(() -> service.list(pageable), () -> service.count(), pageable, CountStrategy.PARALLEL);
+     * </pre>
+     */
+    protected <T> Single<ResponseEntity<ApiResponse<Page<T>>>> page(
+            Callable<List<T>> listCall,
+            Callable<Long> countCall,
+            Pageable pageable,
+            CountStrategy strategy
+    ) {
+        if (strategy == CountStrategy.PARALLEL) {
+            return Single.zip(
+                            WorkerPoolManager.executeOnDbPool(readOnly(listCall)::call),
+                            WorkerPoolManager.executeOnDbPool(readOnly(countCall)::call),
+                            (items, total) -> {
+                                pageable.setTotal(total);
+                                return new Page<>(pageable, items);
+                            })
+                    .map(this::ok);
+        }
+        
+        return Single.fromCallable(readOnly(() -> {
                     List<T> items = listCall.call();
                     long total = countCall.call();
                     pageable.setTotal(total);
                     return new Page<>(pageable, items);
-                })
+                }))
                 .subscribeOn(Schedulers.io())
                 .map(this::ok);
     }
+    
+    /**
+     * Query phân trang không có count query riêng (VD: list lớn dùng keyset ?cursor=):
+     * client dựa vào nextCursor, total = -1 trừ khi listCall đã set total
+     * <pre>
+     * return page(() -> service.list(pageable), pageable);
+     * </pre>
+     */
+    protected <T> Single<ResponseEntity<ApiResponse<Page<T>>>> page(
+            Callable<List<T>> listCall,
+            Pageable pageable
+    ) {
+        Callable<Page<T>> pageCall = readOnly(() -> {
+            List<T> items = listCall.call();
+            if (!pageable.isTotalResolved()) {
+                pageable.setTotal(-1);
+            }
+            return new Page<>(pageable, items);
+        });
+        return WorkerPoolManager.executeOnDbPool(pageCall::call)
+                .map(this::ok);
+    }
+    
+    /**
+     * Bọc count query bằng CountCache (TTL ngắn, key theo filter)
+     * Giữ cả cờ totalEstimated khi cache hit.
+     * <pre>
+     * return page(() -> service.list(pageable),
+     *             cachedCount("users:" + filterKey, Duration.ofSeconds(30), pageable, () -> service.count()),
+     *             pageable);
+     * </pre>
+     */
+    protected Callable<Long> cachedCount(String key, Duration ttl, Pageable pageable, Callable<Long> countCall) {
+        return () -> {
+            CountCache.Entry entry = countCache.getEntry(key, ttl,
+                    () -> CountCache.Entry.of(countCall.call(), pageable.isTotalEstimated()));
+            pageable.setTotalEstimated(entry.estimated());
+            return entry.value();
+        };
+    }
+
+    /**
+     * GET có ETag theo version của entity (VD: updatedAt): If-None-Match khớp → 304
+     * ngay sau version lookup, không load / serialize entity.
+     * ETag của response 200 tính từ entity đã load (không lệch nếu entity đổi giữa 2 bước).
+     * Version rỗng (không tìm thấy) → chạy loader bình thường (loader tự trả 404).
+     * <pre>
+     * return versioned(ctx, userService.getUserVersion(id),
+     *         () -> userService.getUserByIdAsync(id), User::getUpdatedAt);
+     * </pre>
+     */
+    protected <T> Single<ResponseEntity<ApiResponse<T>>> versioned(
+            RoutingContext ctx,
+            Maybe<?> version,
+            Supplier<Single<T>> loader,
+            Function<? super T, ?> versionOf
+    ) {
+        String ifNoneMatch = ctx.request().getHeader(HttpHeaders.IF_NONE_MATCH);
+        Single<ResponseEntity<ApiResponse<T>>> load = Single.defer(loader::get)
+                .map(data -> ResponseEntity.ok()
+                        .eTag(ETagUtils.weakVersion(versionOf.apply(data)))
+                        .body(ApiResponse.success(data)));
+        if (ifNoneMatch == null) {
+            return load;
+        }
+
+        return version
+                .filter(v -> ETagUtils.matches(ifNoneMatch, ETagUtils.weakVersion(v)))
+                .map(v -> ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(ETagUtils.weakVersion(v))
+                        .<ApiResponse<T>>build())
+                .switchIfEmpty(load);
+    }
+
+    /**
+     * Export dạng stream (CSV / NDJSON) - rows đi thẳng từ DB cursor ra response chunked
+     * Heap không phụ thuộc số rows: 1 chunk đang gom + write queue của Vert.x (backpressure).
+     * Chạy read-only trên export pool (ít thread, hàng đợi giới hạn → 503 khi quá tải),
+     * không chiếm thread của DB pool; lỗi giữa chừng → connection bị reset (file không trọn vẹn).
+     * <pre>
+     * return stream(ctx, ExportFormat.of(format), "users", COLUMNS,
+     *         sink -> userService.exportUsers(query, status, scope, sink));
+     * </pre>
+     */
+    protected <T> Completable stream(
+            RoutingContext ctx,
+            ExportFormat format,
+            String filename,
+            List<ExportColumn<T>> columns,
+            RowSource<T> source
+    ) {
+        ResponseStreamWriter writer = new ResponseStreamWriter(ctx, format, filename);
+        Callable<Long> export = readOnly(() -> {
+            ExportEncoder<T> encoder = new ExportEncoder<>(format, columns, writer);
+            source.forEach(encoder);
+            return encoder.finish();
+        });
+
+        long start = System.nanoTime();
+        return WorkerPoolManager.executeOnExportPool(export::call)
+                .flatMapCompletable(rows -> writer.end()
+                        .doOnComplete(() -> log.info("Export {}.{}: {} rows, {} bytes in {}ms",
+                                filename, format.getExtension(), rows, writer.getBytesWritten(),
+                                (System.nanoTime() - start) / 1_000_000)));
+    }
+
+    /**
+     * Đánh dấu DB call là read-only (replica) + mang RequestContext (deadline, span hiện tại) sang worker thread
+     * Dùng khi resource tự build chain thay vì gọi readQuery()/page().
+     */
+    protected <T> Callable<T> readOnly(Callable<T> dbCall) {
+        RequestContext context = RequestContext.current();
+        UUID userId = context != null ? context.getUserId() : null;
+        return RequestContext.propagate(DbRouting.readOnlyFor(userId, dbCall));
+    }
 
     // ============================================
     // WRITE Operations (cần user để audit)
+    // Luôn chạy trên primary, đánh dấu user vừa ghi (read-your-writes)
+    // Mang RequestContext (deadline, span) sang Schedulers.io như readOnly()
     // ============================================
     
     /**
@@ -132,9 +315,16 @@ public abstract class BaseResource {
             VertxPrincipal principal,
             Function<U, T> action
     ) {
+        // Bọc ngay lúc controller gọi (RequestContext đang bind), chạy sau khi getUser hợp lệ
+        Callable<T> write = RequestContext.propagate(() -> {
+            try {
+                return action.apply((U) principal.getSecurityUser());
+            } finally {
+                DbRouting.markWrite(principal.getUserId());
+            }
+        });
         return getUser(principal)
-                .flatMap(user -> Single.fromCallable(() -> action.apply((U) user))
-                        .subscribeOn(Schedulers.io()))
+                .flatMap(user -> Single.fromCallable(write).subscribeOn(Schedulers.io()))
                 .map(this::ok);
     }
     
@@ -149,11 +339,16 @@ public abstract class BaseResource {
             VertxPrincipal principal,
             java.util.function.Consumer<U> action
     ) {
+        Callable<Boolean> write = RequestContext.propagate(() -> {
+            try {
+                action.accept((U) principal.getSecurityUser());
+            } finally {
+                DbRouting.markWrite(principal.getUserId());
+            }
+            return true;
+        });
         return getUser(principal)
-                .flatMap(user -> Single.fromCallable(() -> {
-                    action.accept((U) user);
-                    return true;
-                }).subscribeOn(Schedulers.io()))
+                .flatMap(user -> Single.fromCallable(write).subscribeOn(Schedulers.io()))
                 .map(this::ok);
     }
 
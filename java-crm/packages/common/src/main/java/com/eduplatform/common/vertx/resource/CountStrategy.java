@@ -0,0 +1,17 @@
+package com.eduplatform.common.vertx.resource;
+
+/**
+ * CountStrategy - Cách BaseResource.page() chạy list và count
+ */
+public enum CountStrategy {
+    /**
+     * List rồi count, tuần tự trên cùng một thread (mặc định)
+     */
+    SEQUENTIAL,
+
+    /**
+     * List và count song song trên DB pool - latency = max(list, count),
+     * đổi lại mỗi request giữ 2 connection
+     */
+    PARALLEL
+}
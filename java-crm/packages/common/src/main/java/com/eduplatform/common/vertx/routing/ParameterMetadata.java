@@ -1,8 +1,10 @@
 package com.eduplatform.common.vertx.routing;
 
+import com.eduplatform.common.domain.DataScopeFilter;
 import com.eduplatform.common.vertx.annotation.*;
 import com.eduplatform.common.vertx.model.Pageable;
 import com.eduplatform.common.vertx.model.VertxPrincipal;
+import io.vertx.core.streams.ReadStream;
 import io.vertx.ext.web.RoutingContext;
 import lombok.Builder;
 import lombok.Getter;
@@ -21,7 +23,9 @@ public class ParameterMetadata {
         ROUTING_CONTEXT,
         PRINCIPAL,
         PAGEABLE,
+        DATA_SCOPE,
         REQUEST_BODY,
+        REQUEST_STREAM,  // ReadStream<Buffer> - body không buffer (import file lớn)
         REQUEST_PARAM,
         PATH_VARIABLE,
         QUERY_PARAM  // Default fallback
@@ -58,6 +62,11 @@ public class ParameterMetadata {
             return builder.parameterType(ParameterType.ROUTING_CONTEXT).build();
         }
         
+        // ReadStream<Buffer> - route nhận body dạng stream, BodyHandler bỏ qua
+        if (type == ReadStream.class) {
+            return builder.parameterType(ParameterType.REQUEST_STREAM).build();
+        }
+        
         // VertxPrincipal
         if (type == VertxPrincipal.class) {
             return builder.parameterType(ParameterType.PRINCIPAL).build();
@@ -68,6 +77,11 @@ public class ParameterMetadata {
             return builder.parameterType(ParameterType.PAGEABLE).build();
         }
         
+        // DataScopeFilter (resolve từ principal khi route có dataScope = true)
+        if (type == DataScopeFilter.class) {
+            return builder.parameterType(ParameterType.DATA_SCOPE).build();
+        }
+        
         // @VertxRequestBody
         VertxRequestBody requestBody = parameter.getAnnotation(VertxRequestBody.class);
         if (requestBody != null) {
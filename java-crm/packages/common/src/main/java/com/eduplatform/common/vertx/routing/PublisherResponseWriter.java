@@ -0,0 +1,172 @@
+package com.eduplatform.common.vertx.routing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.FlowableSubscriber;
+import io.vertx.core.Context;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.ext.web.RoutingContext;
+import org.reactivestreams.Subscription;
+
+import java.util.function.Consumer;
+
+/**
+ * PublisherResponseWriter - Ghi Flowable ra response chunked (JSON array hoặc NDJSON) có backpressure
+ *
+ * - request(n) theo write queue của response: queue đầy → ngừng request, drainHandler → request tiếp
+ *   → producer (VD: query DB) chậm lại theo tốc độ client đọc, heap không tăng theo số phần tử
+ * - Accept: application/x-ndjson → mỗi phần tử 1 dòng; mặc định JSON array ("[", ",", "]")
+ * - Encode JSON trên thread phát phần tử, chỉ write chạy trên context (event loop) của request
+ * - Client ngắt kết nối → cancel subscription (dừng producer upstream)
+ * - Lỗi trước phần tử đầu tiên → onError trả JSON lỗi như route thường;
+ *   lỗi khi đã gửi header → VertxRoutingBinder.handleError reset connection
+ */
+final class PublisherResponseWriter implements FlowableSubscriber<Object> {
+
+    static final String NDJSON = "application/x-ndjson";
+
+    /**
+     * Số phần tử request mỗi lần (write queue còn chỗ thì request batch tiếp)
+     */
+    private static final int BATCH = 64;
+
+    private final HttpServerResponse response;
+    private final Context context;
+    private final ObjectMapper objectMapper;
+    private final boolean ndjson;
+    private final Consumer<Throwable> onError;
+
+    private volatile Subscription subscription;
+    private volatile boolean cancelled;
+
+    // Chỉ truy cập trên context của request
+    private long outstanding;
+    private boolean started;
+    private boolean first = true;
+
+    private PublisherResponseWriter(RoutingContext ctx, ObjectMapper objectMapper, Consumer<Throwable> onError) {
+        this.response = ctx.response();
+        this.context = ctx.vertx().getOrCreateContext();
+        this.objectMapper = objectMapper;
+        this.onError = onError;
+        String accept = ctx.request().getHeader(HttpHeaders.ACCEPT);
+        this.ndjson = accept != null && accept.contains(NDJSON);
+    }
+
+    /**
+     * Subscribe và stream toàn bộ flowable ra response
+     */
+    static void write(RoutingContext ctx, Flowable<?> flowable, ObjectMapper objectMapper,
+                      Consumer<Throwable> onError) {
+        flowable.subscribe(new PublisherResponseWriter(ctx, objectMapper, onError));
+    }
+
+    @Override
+    public void onSubscribe(Subscription s) {
+        this.subscription = s;
+        context.runOnContext(v -> {
+            response.closeHandler(closed -> cancel());
+            requestMore();
+        });
+    }
+
+    @Override
+    public void onNext(Object item) {
+        if (cancelled) {
+            return;
+        }
+        Buffer encoded;
+        try {
+            encoded = Buffer.buffer(objectMapper.writeValueAsBytes(item));
+        } catch (Exception e) {
+            cancel();
+            context.runOnContext(v -> onError.accept(e));
+            return;
+        }
+        context.runOnContext(v -> writeItem(encoded));
+    }
+
+    @Override
+    public void onError(Throwable error) {
+        context.runOnContext(v -> {
+            if (!cancelled) {
+                onError.accept(error);
+            }
+        });
+    }
+
+    @Override
+    public void onComplete() {
+        context.runOnContext(v -> {
+            if (cancelled) {
+                return;
+            }
+            start();
+            if (ndjson) {
+                response.end();
+            } else {
+                response.end(first ? "[]" : "]");
+            }
+        });
+    }
+
+    private void writeItem(Buffer encoded) {
+        if (cancelled) {
+            return;
+        }
+        start();
+
+        Buffer chunk = Buffer.buffer(encoded.length() + 2);
+        if (ndjson) {
+            chunk.appendBuffer(encoded).appendByte((byte) '\n');
+        } else {
+            chunk.appendString(first ? "[" : ",").appendBuffer(encoded);
+        }
+        first = false;
+        response.write(chunk);
+
+        if (--outstanding > 0) {
+            return;
+        }
+        if (response.writeQueueFull()) {
+            response.drainHandler(drained -> {
+                response.drainHandler(null);
+                requestMore();
+            });
+        } else {
+            requestMore();
+        }
+    }
+
+    private void requestMore() {
+        if (cancelled) {
+            return;
+        }
+        outstanding = BATCH;
+        subscription.request(BATCH);
+    }
+
+    private void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+        response.setStatusCode(200)
+                .setChunked(true)
+                .putHeader(HttpHeaders.CONTENT_TYPE, ndjson ? NDJSON : "application/json")
+                .putHeader("Cache-Control", "no-store");
+    }
+
+    private void cancel() {
+        if (cancelled) {
+            return;
+        }
+        cancelled = true;
+        Subscription s = subscription;
+        if (s != null) {
+            s.cancel();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.eduplatform.common.vertx.routing;
+
+import io.vertx.core.MultiMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * RequestCoalescer - Single-flight cho route @VertxCoalesce
+ *
+ * - join(key): chưa có flight → tạo flight, caller là leader (gọi controller);
+ *   đã có → đăng ký waiter, nhận Outcome của leader
+ * - complete(): bỏ flight khỏi map trước rồi mới báo waiter → request đến sau
+ *   bắt đầu flight mới (không nhận kết quả cũ)
+ * - Outcome null = leader không có kết quả dùng chung (hết deadline, client ngắt kết nối)
+ *
+ * Waiter được gọi trên thread complete() → VertxRoutingBinder chuyển về context của từng request.
+ */
+final class RequestCoalescer {
+
+    private final ConcurrentHashMap<String, Flight> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * @return Flight nếu caller là leader, null nếu đã đăng ký waiter vào flight đang chạy
+     */
+    Flight join(String key, Consumer<Outcome> waiter) {
+        while (true) {
+            Flight created = new Flight(key);
+            Flight existing = inFlight.putIfAbsent(key, created);
+            if (existing == null) {
+                return created;
+            }
+            if (existing.await(waiter)) {
+                return null;
+            }
+            // Flight vừa complete giữa putIfAbsent và await → thử lại
+        }
+    }
+
+    /**
+     * Báo kết quả của leader (null = waiter tự gọi controller)
+     */
+    void complete(Flight flight, Outcome outcome) {
+        inFlight.remove(flight.key, flight);
+        for (Consumer<Outcome> waiter : flight.finish()) {
+            waiter.accept(outcome);
+        }
+    }
+
+    int inFlight() {
+        return inFlight.size();
+    }
+
+    /**
+     * Body JSON (kèm ETag + header route đã set trên ResponseEntity) hoặc lỗi của leader.
+     * headers chỉ đọc sau khi complete() (null = không có header route)
+     */
+    record Outcome(int status, byte[] body, String etag, MultiMap headers, Throwable error) {
+
+        static Outcome body(int status, byte[] body, String etag) {
+            return body(status, body, etag, null);
+        }
+
+        static Outcome body(int status, byte[] body, String etag, MultiMap headers) {
+            return new Outcome(status, body, etag, headers, null);
+        }
+
+        static Outcome failure(Throwable error) {
+            return new Outcome(0, null, null, null, error);
+        }
+    }
+
+    static final class Flight {
+
+        private final String key;
+        private final List<Consumer<Outcome>> waiters = new ArrayList<>(4);
+        private boolean finished;
+
+        private Flight(String key) {
+            this.key = key;
+        }
+
+        private synchronized boolean await(Consumer<Outcome> waiter) {
+            if (finished) {
+                return false;
+            }
+            waiters.add(waiter);
+            return true;
+        }
+
+        private synchronized List<Consumer<Outcome>> finish() {
+            finished = true;
+            return waiters;
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.eduplatform.common.vertx.routing;
 
 import com.eduplatform.common.constant.Action;
+import com.eduplatform.common.metrics.LatencyHistogram;
 import com.eduplatform.common.vertx.annotation.*;
+import com.eduplatform.common.vertx.security.AuthorizationStage;
 import io.vertx.core.http.HttpMethod;
 import lombok.Builder;
 import lombok.Getter;
@@ -10,7 +12,12 @@ import org.springframework.core.annotation.AnnotatedElementUtils;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
 
 /**
  * RouteMetadata - Cached metadata cho một route
@@ -33,11 +40,19 @@ public class RouteMetadata {
     private final String methodName;
     
     // Permission info (null if no permission required)
+    // Với nhiều @RequirePermission: resource/action của annotation đầu tiên
     private final String resource;
     private final Action action;
+    
+    // Key precompute để check quyền không phải nối chuỗi mỗi request
+    private final String actionCode;
+    private final String requiredPermission;
     private final boolean requireDataScope;
     private final boolean requiresAuth;
     
+    // Phân quyền đã compile (mọi annotation, AND/OR) - không bao giờ null
+    private final AuthorizationStage authorization;
+    
     // Return type info
     private final Class<?> returnType;
     private final boolean isReactive;  // Single, Maybe, Completable
@@ -46,6 +61,44 @@ public class RouteMetadata {
     // Parameters (cached)
     private final List<ParameterMetadata> parameters;
     
+    // Có parameter ReadStream<Buffer> → body đọc dạng stream, không qua BodyHandler
+    private final boolean streamingBody;
+    
+    // @VertxTimeout (ms): -1 = dùng default, 0 = không giới hạn
+    private final long timeoutMillis;
+    
+    // @VertxCacheable: cacheTtlMillis = 0 → không cache
+    private final long cacheTtlMillis;
+    private final String[] cacheKeyParams;
+    private final VertxCacheable.CacheScope cacheScope;
+    private final Set<String> cacheTags;
+    
+    // @VertxCacheEvict: tag bị invalidate khi route ghi chạy xong
+    private final Set<String> evictTags;
+    
+    // @VertxCoalesce: request GET trùng key đang chạy chờ kết quả của request đầu tiên
+    private final boolean coalesce;
+    private final String[] coalesceKeyParams;
+    private final VertxCacheable.CacheScope coalesceScope;
+    
+    // @VertxIdempotent (POST / PUT cần đăng nhập) nhận Idempotency-Key: response đầu tiên được lưu và replay
+    private final boolean idempotent;
+    
+    // Metrics deadline: hết hạn (504) / client ngắt kết nối trước khi response xong
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder clientAborts = new LongAdder();
+    
+    // Metrics coalescing: request nhận kết quả của leader thay vì gọi controller
+    private final LongAdder coalesced = new LongAdder();
+    
+    // Metrics idempotency: request trùng Idempotency-Key được trả response đã lưu
+    private final LongAdder idempotentReplays = new LongAdder();
+    
+    // Metrics request (/metrics): latency + số response theo status code - tạo sẵn lúc bind,
+    // hot path chỉ ghi Recorder / AtomicLongArray (không lock, không allocate)
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final AtomicLongArray statusCounts = new AtomicLongArray(600);
+    
     /**
      * Kiểm tra xem method có phải reactive hay không
      * Reactive types: Single, Maybe, Completable, Flowable, Observable
@@ -58,7 +111,9 @@ public class RouteMetadata {
                typeName.startsWith("io.reactivex.rxjava2.") ||
                typeName.equals("reactor.core.publisher.Mono") ||
                typeName.equals("reactor.core.publisher.Flux") ||
+               typeName.equals("org.reactivestreams.Publisher") ||
                typeName.equals("java.util.concurrent.CompletableFuture") ||
+               typeName.equals("java.util.concurrent.CompletionStage") ||
                typeName.equals("io.vertx.core.Future");
     }
     
@@ -66,6 +121,14 @@ public class RouteMetadata {
      * Build metadata từ controller và method
      */
     public static RouteMetadata from(Object controller, Method method, String basePath) {
+        return from(controller, method, basePath, m -> AuthorizationStage.compile(m, List.of(), null));
+    }
+    
+    /**
+     * Build metadata với authorization compiler (VertxRoutingBinder truyền providers + resolver)
+     */
+    public static RouteMetadata from(Object controller, Method method, String basePath,
+                                     Function<Method, AuthorizationStage> authorizationCompiler) {
         VertxRequestMapping requestMapping = AnnotatedElementUtils.getMergedAnnotation(method, VertxRequestMapping.class);
         if (requestMapping == null) {
             return null;
@@ -75,19 +138,22 @@ public class RouteMetadata {
         HttpMethod httpMethod = requestMapping.method().getVertxMethod();
         
         // Permission info
-        RequirePermission requirePermission = method.getAnnotation(RequirePermission.class);
+        RequirePermission[] requirePermissions = method.getAnnotationsByType(RequirePermission.class);
         String resource = null;
         Action action = null;
-        boolean requireDataScope = false;
-        boolean requiresAuth = false;
+        String actionCode = null;
         
-        if (requirePermission != null) {
-            resource = requirePermission.resource();
-            action = requirePermission.action();
-            requireDataScope = requirePermission.dataScope();
-            requiresAuth = true;
+        if (requirePermissions.length > 0) {
+            resource = requirePermissions[0].resource();
+            action = requirePermissions[0].action();
+            actionCode = action.getCode();
         }
         
+        AuthorizationStage authorization = authorizationCompiler.apply(method);
+        String requiredPermission = authorization.describe();
+        boolean requireDataScope = authorization.requiresDataScope();
+        boolean requiresAuth = authorization.isRequired();
+        
         // Return type analysis
         Class<?> returnType = method.getReturnType();
         boolean isReactive = isReactiveReturnType(returnType);
@@ -95,10 +161,58 @@ public class RouteMetadata {
         
         // Parameters
         List<ParameterMetadata> params = new ArrayList<>();
+        boolean streamingBody = false;
         for (Parameter param : method.getParameters()) {
-            params.add(ParameterMetadata.from(param));
+            ParameterMetadata paramMetadata = ParameterMetadata.from(param);
+            streamingBody |= paramMetadata.getParameterType() == ParameterMetadata.ParameterType.REQUEST_STREAM;
+            params.add(paramMetadata);
+        }
+        String route = controller.getClass().getSimpleName() + "." + method.getName();
+        // DataScopeFilter chỉ được resolve khi route khai báo dataScope = true → fail khi bind,
+        // không để route nhận filter rỗng (= không giới hạn)
+        if (!requireDataScope && params.stream()
+                .anyMatch(p -> p.getParameterType() == ParameterMetadata.ParameterType.DATA_SCOPE)) {
+            throw new IllegalStateException("DataScopeFilter parameter requires @RequirePermission(dataScope = true): " + route);
         }
         
+        // Response cache
+        VertxCacheable cacheable = method.getAnnotation(VertxCacheable.class);
+        long cacheTtlMillis = 0;
+        String[] cacheKeyParams = new String[0];
+        VertxCacheable.CacheScope cacheScope = VertxCacheable.CacheScope.SHARED;
+        Set<String> cacheTags = Set.of();
+        if (cacheable != null && HttpMethod.GET.equals(httpMethod)) {
+            cacheTtlMillis = Math.max(0, cacheable.ttl()) * 1000;
+            cacheKeyParams = cacheable.key();
+            cacheScope = resolveScope(cacheable.scope(), params, requireDataScope, requiresAuth, route);
+            Set<String> tags = new LinkedHashSet<>(List.of(cacheable.tags()));
+            for (RequirePermission permission : requirePermissions) {
+                tags.add(permission.resource());
+            }
+            cacheTags = Set.copyOf(tags);
+        }
+        VertxCacheEvict cacheEvict = method.getAnnotation(VertxCacheEvict.class);
+        Set<String> evictTags = cacheEvict != null ? Set.copyOf(List.of(cacheEvict.resource())) : Set.of();
+        
+        // Request coalescing
+        VertxCoalesce coalesceAnnotation = method.getAnnotation(VertxCoalesce.class);
+        boolean coalesce = coalesceAnnotation != null && HttpMethod.GET.equals(httpMethod);
+        String[] coalesceKeyParams = coalesce ? coalesceAnnotation.key() : new String[0];
+        VertxCacheable.CacheScope coalesceScope = coalesce
+                ? resolveScope(coalesceAnnotation.scope(), params, requireDataScope, requiresAuth, route)
+                : VertxCacheable.CacheScope.SHARED;
+        
+        // Idempotency-Key: opt-in, chỉ route cần đăng nhập (key theo user, không lưu response public)
+        boolean idempotent = method.isAnnotationPresent(VertxIdempotent.class);
+        if (idempotent && (!requiresAuth || streamingBody
+                || !(HttpMethod.POST.equals(httpMethod) || HttpMethod.PUT.equals(httpMethod)))) {
+            throw new IllegalStateException(
+                    "@VertxIdempotent requires an authorized POST / PUT route without streaming body: " + route);
+        }
+        
+        VertxTimeout timeout = method.getAnnotation(VertxTimeout.class);
+        long timeoutMillis = timeout != null ? Math.max(0, timeout.value()) : -1;
+        
         return RouteMetadata.builder()
                 .path(path)
                 .httpMethod(httpMethod)
@@ -108,27 +222,77 @@ public class RouteMetadata {
                 .methodName(method.getName())
                 .resource(resource)
                 .action(action)
+                .actionCode(actionCode)
+                .requiredPermission(requiredPermission)
                 .requireDataScope(requireDataScope)
                 .requiresAuth(requiresAuth)
+                .authorization(authorization)
                 .returnType(returnType)
                 .isReactive(isReactive)
                 .isResponseEntity(isResponseEntity)
                 .parameters(params)
+                .streamingBody(streamingBody)
+                .timeoutMillis(timeoutMillis)
+                .cacheTtlMillis(cacheTtlMillis)
+                .cacheKeyParams(cacheKeyParams)
+                .cacheScope(cacheScope)
+                .cacheTags(cacheTags)
+                .evictTags(evictTags)
+                .coalesce(coalesce)
+                .coalesceKeyParams(coalesceKeyParams)
+                .coalesceScope(coalesceScope)
+                .idempotent(idempotent)
                 .build();
     }
     
+    /**
+     * AUTO fail closed: method nhận VertxPrincipal → USER, route dataScope → DATA_SCOPE,
+     * route cần đăng nhập → USER, chỉ route public mới SHARED.
+     * SHARED trên route cần đăng nhập phải khai báo tường minh.
+     * DATA_SCOPE trên route không có dataScope = true → fail khi bind (không có filter để tạo key).
+     */
+    private static VertxCacheable.CacheScope resolveScope(VertxCacheable.CacheScope scope,
+                                                          List<ParameterMetadata> params,
+                                                          boolean requireDataScope,
+                                                          boolean requiresAuth,
+                                                          String route) {
+        if (scope == VertxCacheable.CacheScope.DATA_SCOPE && !requireDataScope) {
+            throw new IllegalStateException("CacheScope.DATA_SCOPE requires @RequirePermission(dataScope = true): " + route);
+        }
+        if (scope != VertxCacheable.CacheScope.AUTO) {
+            return scope;
+        }
+        boolean usesPrincipal = params.stream()
+                .anyMatch(p -> p.getParameterType() == ParameterMetadata.ParameterType.PRINCIPAL);
+        if (usesPrincipal) {
+            return VertxCacheable.CacheScope.USER;
+        }
+        if (requireDataScope) {
+            return VertxCacheable.CacheScope.DATA_SCOPE;
+        }
+        return requiresAuth ? VertxCacheable.CacheScope.USER : VertxCacheable.CacheScope.SHARED;
+    }
+    
+    /**
+     * Ghi 1 response (status ngoài 100..599 → slot 0)
+     */
+    public void recordResponse(int status, long durationNanos) {
+        latency.record(durationNanos);
+        statusCounts.incrementAndGet(status >= 100 && status < 600 ? status : 0);
+    }
+    
     /**
      * Check nếu cần permission
      */
     public boolean hasPermissionRequired() {
-        return resource != null && action != null;
+        return authorization.isRequired();
     }
     
     /**
-     * Get required permission string (e.g., "CONTACT:VIEW")
+     * Get required permission string (e.g., "CONTACT:VIEW", "(USER:VIEW OR ROLE:VIEW)")
+     * - đã precompute lúc build
      */
     public String getRequiredPermission() {
-        if (!hasPermissionRequired()) return null;
-        return resource + ":" + action.getCode();
+        return requiredPermission;
     }
 }
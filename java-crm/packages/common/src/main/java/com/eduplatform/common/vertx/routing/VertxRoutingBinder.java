@@ -1,29 +1,58 @@
 package com.eduplatform.common.vertx.routing;
 
-import com.eduplatform.common.constant.Action;
+import com.eduplatform.common.cache.ResponseCache;
 import com.eduplatform.common.constant.ErrorCode;
+import com.eduplatform.common.context.Deadline;
+import com.eduplatform.common.context.RequestContext;
+import com.eduplatform.common.domain.DataScope;
+import com.eduplatform.common.domain.DataScopeFilter;
 import com.eduplatform.common.exception.AppException;
+import com.eduplatform.common.idempotency.IdempotencyStore;
+import com.eduplatform.common.idempotency.InMemoryIdempotencyStore;
+import com.eduplatform.common.jfr.HttpRequestEvent;
+import com.eduplatform.common.logging.AccessLog;
+import com.eduplatform.common.metrics.MetricsSource;
+import com.eduplatform.common.metrics.PrometheusWriter;
 import com.eduplatform.common.response.ApiResponse;
+import com.eduplatform.common.response.ErrorBodies;
+import com.eduplatform.common.tracing.Tracing;
+import com.eduplatform.common.tracing.TracingHandler;
+import com.eduplatform.common.util.ETagUtils;
 import com.eduplatform.common.vertx.VertxWrapper;
 import com.eduplatform.common.vertx.annotation.*;
 import com.eduplatform.common.vertx.binder.VertxRouterBinder;
 import com.eduplatform.common.vertx.execution.VertxExecution;
 import com.eduplatform.common.vertx.execution.WorkerPoolManager;
+import com.eduplatform.common.vertx.export.ResponseStreamWriter;
 import com.eduplatform.common.vertx.model.Pageable;
 import com.eduplatform.common.vertx.model.VertxPrincipal;
+import com.eduplatform.common.vertx.security.AuthorizationRule.Decision;
+import com.eduplatform.common.vertx.security.AuthorizationRuleProvider;
+import com.eduplatform.common.vertx.security.AuthorizationStage;
+import com.eduplatform.common.vertx.security.PermissionResolver;
 import com.eduplatform.common.vertx.security.VertxSecurityConfig;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import io.opentelemetry.context.Scope;
+import io.reactivex.rxjava3.core.BackpressureStrategy;
 import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.core.Observable;
 import io.reactivex.rxjava3.core.Single;
+import io.vertx.core.Future;
+import io.vertx.core.MultiMap;
 import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
 import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServerResponse;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.Router;
 import io.vertx.ext.web.RoutingContext;
 import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationContext;
@@ -31,8 +60,16 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 
 import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.zip.CRC32C;
 
 /**
  * VertxRoutingBinder - Tự động scan @VertxRestController và bind routes
@@ -41,12 +78,79 @@ import java.util.concurrent.ConcurrentHashMap;
  * - Scan tất cả bean có @VertxRestController annotation
  * - Cache metadata lúc khởi động (không dùng reflection mỗi request)
  * - Tự động detect reactive vs blocking return types
+ * - Deadline mỗi request (@VertxTimeout / default / X-Request-Timeout): hết hạn → 504,
+ *   hủy task worker + JDBC statement; client ngắt kết nối cũng hủy tương tự
+ * - GET trả JSON có weak ETag, If-None-Match khớp → 304
+ * - @VertxCacheable: cache body JSON đã serialize (hit không vào worker pool),
+ *   @VertxCacheEvict trên route ghi invalidate theo RBAC resource
+ * - @VertxCoalesce: GET trùng key đang chạy đồng thời chờ kết quả của request đầu tiên
+ * - @VertxIdempotent (POST / PUT cần đăng nhập) có Idempotency-Key: lưu response đầu tiên
+ *   (IdempotencyStore) và replay khi retry
+ * - Metrics theo route (latency HdrHistogram, status code) tạo sẵn lúc bind → /metrics
+ * - OpenTelemetry: server span (TracingHandler) đổi tên theo route pattern, là current khi authorize / invoke
+ * - Lỗi: log qua AccessLog (sample theo loại lỗi, ghi bất đồng bộ), body lỗi encode sẵn (ErrorBodies)
+ * - Flowable / Observable / Flux stream chunked (JSON array hoặc NDJSON) có backpressure,
+ *   CompletableFuture / Vert.x Future complete qua callback
  * - Tự động wrap blocking code vào VertxExecution.blocking()
- * - Support @RequirePermission với wildcard
+ * - Support @RequirePermission với wildcard (qua PermissionSet, không allocate)
+ * - Phân quyền compile một lần thành AuthorizationStage (AND/OR, annotation từ
+ *   module khác qua AuthorizationRuleProvider), DB chỉ khi principal chưa có permissions
  */
 @Slf4j
 @Component
-public class VertxRoutingBinder {
+public class VertxRoutingBinder implements MetricsSource {
+
+    /**
+     * Context key chứa RequestContext của request
+     */
+    public static final String KEY_REQUEST_CONTEXT = "requestContext";
+
+    /**
+     * Context key chứa DataScopeFilter của request (khi route có dataScope = true)
+     */
+    public static final String KEY_DATA_SCOPE = "dataScope";
+
+    /**
+     * Context key chứa ResponseCache.Ticket khi route @VertxCacheable bị miss
+     */
+    private static final String KEY_CACHE_TICKET = "responseCacheTicket";
+
+    /**
+     * Context key chứa RequestCoalescer.Flight khi request là leader của route @VertxCoalesce
+     */
+    private static final String KEY_COALESCE_FLIGHT = "coalesceFlight";
+
+    /**
+     * Context key chứa header từ ResponseEntity của leader (chia sẻ cho request đang chờ)
+     */
+    private static final String KEY_ROUTE_HEADERS = "routeHeaders";
+
+    /**
+     * Context key chứa Deadline của request
+     */
+    public static final String KEY_DEADLINE = "deadline";
+
+    /**
+     * Header client gửi deadline (ms) - chỉ rút ngắn được timeout của route
+     */
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout";
+
+    /**
+     * Header client gửi để retry POST / PUT không chạy lại (nhận lại response đầu tiên)
+     */
+    public static final String IDEMPOTENCY_HEADER = "Idempotency-Key";
+
+    /**
+     * Header đánh dấu response được replay từ IdempotencyStore
+     */
+    public static final String IDEMPOTENCY_REPLAYED_HEADER = "Idempotency-Replayed";
+
+    /**
+     * Context key chứa key trong IdempotencyStore khi request đã claim được Idempotency-Key
+     */
+    private static final String KEY_IDEMPOTENCY = "idempotencyKey";
+
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
 
     private final ApplicationContext applicationContext;
     private final ObjectMapper objectMapper;
@@ -54,14 +158,75 @@ public class VertxRoutingBinder {
     // Metadata cache - populated at startup
     private final Map<String, RouteMetadata> routeCache = new ConcurrentHashMap<>();
     
+    // Authorization đã compile theo handler method
+    private final Map<Method, AuthorizationStage> authorizationCache = new ConcurrentHashMap<>();
+    
+    // Routes nhận body dạng ReadStream ("METHOD path", chỉ path tĩnh) - BodyHandler bỏ qua
+    private final Set<String> streamingRoutes = ConcurrentHashMap.newKeySet();
+    
     @Value("${app.base-package:com.eduplatform}")
     private String basePackage;
     
+    // Deadline mặc định cho route không có @VertxTimeout (0 = không giới hạn)
+    @Value("${app.request.timeout.default-ms:30000}")
+    private long defaultTimeoutMs = 30_000;
+    
+    @Value("${app.request.timeout.header-enabled:true}")
+    private boolean timeoutHeaderEnabled = true;
+    
+    // Weak ETag + 304 cho GET trả JSON
+    @Value("${app.http.etag.enabled:true}")
+    private boolean etagEnabled = true;
+    
+    // Response cache cho route @VertxCacheable (bounded theo bytes, tuỳ chọn off-heap)
+    @Value("${app.http.response-cache.enabled:true}")
+    private boolean responseCacheEnabled = true;
+    
+    @Value("${app.http.response-cache.max-bytes:67108864}")
+    private long responseCacheMaxBytes = 64L * 1024 * 1024;
+    
+    @Value("${app.http.response-cache.off-heap:false}")
+    private boolean responseCacheOffHeap;
+    
+    private ResponseCache responseCache;
+
+    // Single-flight cho route @VertxCoalesce và request trùng Idempotency-Key
+    private final RequestCoalescer coalescer = new RequestCoalescer();
+    
+    // Idempotency-Key cho POST / PUT (không có bean IdempotencyStore → lưu trong memory)
+    @Value("${app.http.idempotency.enabled:true}")
+    private boolean idempotencyEnabled = true;
+    
+    @Value("${app.http.idempotency.ttl-seconds:86400}")
+    private long idempotencyTtlSeconds = 86_400;
+    
+    // Key đang chạy chỉ giữ trong lease (không ngắn hơn deadline còn lại của request), complete() mới gia hạn đến TTL
+    @Value("${app.http.idempotency.lease-seconds:60}")
+    private long idempotencyLeaseSeconds = 60;
+    
+    @Autowired(required = false)
+    private IdempotencyStore idempotencyStore;
+    
+    // Phân quyền: đủ quyền từ principal trong memory / phải qua AuthorizationStage.authorize()
+    private final LongAdder authorizedInMemory = new LongAdder();
+    private final LongAdder authorizedResolved = new LongAdder();
+    // Cache hit phải trả trên event loop - khác 0 là có path dispatch từ worker
+    private final LongAdder cacheHitsOffEventLoop = new LongAdder();
+    
     @Autowired(required = false)
     private VertxSecurityConfig securityConfig;
     
     @Autowired(required = false)
     private WorkerPoolManager workerPoolManager;
+    
+    @Autowired(required = false)
+    private List<AuthorizationRuleProvider> authorizationRuleProviders = List.of();
+    
+    @Autowired(required = false)
+    private PermissionResolver permissionResolver;
+    
+    @Autowired(required = false)
+    private AccessLog accessLog;
 
     @Autowired
     public VertxRoutingBinder(ApplicationContext applicationContext,
@@ -86,20 +251,27 @@ public class VertxRoutingBinder {
         // Init VertxWrapper for static access
         VertxWrapper.init(vertx);
         
+        if (responseCacheEnabled) {
+            responseCache = new ResponseCache(responseCacheMaxBytes, responseCacheOffHeap);
+        }
+        if (idempotencyEnabled && idempotencyStore == null) {
+            idempotencyStore = new InMemoryIdempotencyStore(10_000);
+        }
+        
         // Init WorkerPoolManager nếu có
         if (workerPoolManager != null) {
             workerPoolManager.initPools(vertx);
         }
         
-        // Apply security config (BodyHandler với limits)
+        // Apply security config (BodyHandler với limits, trừ streaming routes)
         if (securityConfig != null) {
-            securityConfig.apply(router);
+            securityConfig.apply(router, this::isStreamingRequest);
         } else {
             // Default security config
             VertxSecurityConfig.builder()
                     .bodyLimitMB(10)
                     .build()
-                    .apply(router);
+                    .apply(router, this::isStreamingRequest);
         }
 
         // Bind @VertxBeforeHandler beans first (sorted by order)
@@ -150,17 +322,26 @@ public class VertxRoutingBinder {
         int routeCount = 0;
 
         // Scan methods và build metadata
+        List<RouteMetadata> routes = new ArrayList<>();
         for (Method method : controllerClass.getMethods()) {
-            RouteMetadata metadata = RouteMetadata.from(controller, method, basePath);
-            
-            if (metadata == null) {
-                continue;
+            RouteMetadata metadata = RouteMetadata.from(controller, method, basePath, this::getAuthorizationStage);
+            if (metadata != null) {
+                routes.add(metadata);
             }
-            
+        }
+
+        // getMethods() không có thứ tự → path tĩnh (/users/export) bind trước path có param (/users/:id)
+        routes.sort(Comparator.comparing((RouteMetadata route) -> route.getPath().contains(":")));
+
+        for (RouteMetadata metadata : routes) {
             // Cache metadata với key = "METHOD:path"
             String cacheKey = metadata.getHttpMethod() + ":" + metadata.getPath();
             routeCache.put(cacheKey, metadata);
 
+            if (metadata.isStreamingBody()) {
+                streamingRoutes.add(metadata.getHttpMethod() + " " + metadata.getPath());
+            }
+
             // Bind route với cached metadata
             router.route(metadata.getHttpMethod(), metadata.getPath())
                     .handler(ctx -> handleRequest(ctx, metadata));
@@ -171,31 +352,174 @@ public class VertxRoutingBinder {
         return routeCount;
     }
 
+    /**
+     * Request tới route nhận ReadStream body → không chạy BodyHandler
+     * (WebConfig dùng cho BodyHandler global, request được pause tới khi route đọc)
+     */
+    public boolean isStreamingRequest(RoutingContext ctx) {
+        return !streamingRoutes.isEmpty()
+                && streamingRoutes.contains(ctx.request().method() + " " + ctx.normalizedPath());
+    }
+
+    /**
+     * AuthorizationStage đã compile cho method (compile lần đầu, sau đó lấy từ cache)
+     * PermissionInterceptor cũng dùng method này thay vì đọc annotation mỗi request.
+     */
+    public AuthorizationStage getAuthorizationStage(Method method) {
+        return authorizationCache.computeIfAbsent(method,
+                m -> AuthorizationStage.compile(m, authorizationRuleProviders, permissionResolver));
+    }
+
     private void handleRequest(RoutingContext ctx, RouteMetadata metadata) {
+        long startedAt = System.nanoTime();
+        // JFR: null khi không có recording bật HttpRequestEvent
+        HttpRequestEvent event = HttpRequestEvent.start(metadata.getHttpMethod().name(), metadata.getPath(),
+                metadata.getControllerName() + "." + metadata.getMethodName());
+        // Client ngắt kết nối trước khi response xong → 499
+        ctx.addEndHandler(ar -> {
+            int status = ar.succeeded() ? ctx.response().getStatusCode() : 499;
+            metadata.recordResponse(status, System.nanoTime() - startedAt);
+            if (event != null) {
+                VertxPrincipal user = ctx.get("principal");
+                event.commit(status, user != null ? user.getUserId() : null);
+            }
+        });
+        startDeadline(ctx, metadata);
+        TracingHandler.nameRoute(ctx, metadata.getHttpMethod().name(), metadata.getPath());
+        ctx.put(AccessLog.KEY_ROUTE, metadata.getPath());
+        
+        // Span của request là current trong lúc authorize / dispatch
+        // → hop sang DB pool / Rx scheduler mang theo parent span
+        try (Scope ignored = Tracing.context(ctx).makeCurrent()) {
+            authorizeAndDispatch(ctx, metadata);
+        }
+    }
+    
+    private void authorizeAndDispatch(RoutingContext ctx, RouteMetadata metadata) {
+        AuthorizationStage authorization = metadata.getAuthorization();
+        if (!authorization.isRequired()) {
+            dispatch(ctx, metadata);
+            return;
+        }
+        
+        VertxPrincipal principal = ctx.get("principal");
+        
+        // Fast path: đủ quyền từ principal trong memory
+        if (authorization.evaluate(principal) == Decision.GRANTED) {
+            authorizedInMemory.increment();
+            authorized(ctx, metadata, principal);
+            return;
+        }
+        
+        authorizedResolved.increment();
+        // DENIED / UNRESOLVED: stage tự resolve permissions qua DB pool nếu cần
+        authorization.authorize(principal).subscribe(
+                () -> authorized(ctx, metadata, principal),
+                error -> handleError(ctx, error)
+        );
+    }
+    
+    /**
+     * Deadline của request: @VertxTimeout hoặc default, X-Request-Timeout (ms) chỉ rút ngắn.
+     * Hết hạn → cancel (task worker chưa chạy bị bỏ, JDBC statement đang chạy bị hủy) + 504.
+     * Client ngắt kết nối trước khi response xong → cancel tương tự.
+     */
+    private void startDeadline(RoutingContext ctx, RouteMetadata metadata) {
+        long timeoutMs = metadata.getTimeoutMillis() >= 0 ? metadata.getTimeoutMillis() : defaultTimeoutMs;
+        long requestedMs = timeoutHeaderEnabled ? parseTimeoutHeader(ctx) : 0;
+        if (requestedMs > 0 && (timeoutMs <= 0 || requestedMs < timeoutMs)) {
+            timeoutMs = requestedMs;
+        }
+        
+        Deadline deadline = timeoutMs > 0 ? Deadline.after(Duration.ofMillis(timeoutMs)) : Deadline.unlimited();
+        ctx.put(KEY_DEADLINE, deadline);
+        
+        long timerId = timeoutMs > 0
+                ? ctx.vertx().setTimer(timeoutMs, id -> onDeadlineExceeded(ctx, metadata, deadline))
+                : -1;
+        ctx.addEndHandler(ar -> {
+            if (timerId >= 0) {
+                ctx.vertx().cancelTimer(timerId);
+            }
+            if (ar.failed() && deadline.getCancelReason() == null) {
+                metadata.getClientAborts().increment();
+                deadline.cancel("Client disconnected");
+            }
+        });
+    }
+    
+    private void onDeadlineExceeded(RoutingContext ctx, RouteMetadata metadata, Deadline deadline) {
+        if (ctx.response().ended()) {
+            return;
+        }
+        metadata.getTimeouts().increment();
+        log.warn("Request deadline exceeded: {} {} ({}.{})", metadata.getHttpMethod(), ctx.normalizedPath(),
+                metadata.getControllerName(), metadata.getMethodName());
+        deadline.cancel("Request deadline exceeded");
+        handleError(ctx, new AppException(ErrorCode.GATEWAY_TIMEOUT));
+    }
+    
+    private static long parseTimeoutHeader(RoutingContext ctx) {
+        String value = ctx.request().getHeader(TIMEOUT_HEADER);
+        if (value == null || value.isBlank()) {
+            return 0;
+        }
         try {
-            // Check @RequirePermission if present (using cached metadata)
-            if (metadata.hasPermissionRequired()) {
-                VertxPrincipal principal = ctx.get("principal");
-                if (principal == null) {
-                    handleError(ctx, new AppException(ErrorCode.UNAUTHORIZED, "No principal found"));
-                    return;
-                }
-                
-                Set<String> userPermissions = principal.getPermissions();
-                
-                if (userPermissions == null || !hasPermission(userPermissions, metadata.getResource(), metadata.getAction())) {
-                    handleError(ctx, new AppException(ErrorCode.PERMISSION_DENIED, 
-                            "Missing permission: " + metadata.getRequiredPermission()));
-                    return;
-                }
-                
-                // Store permission info in context for dataScope filtering
-                if (metadata.isRequireDataScope()) {
-                    ctx.put("dataScope", true);
-                    ctx.put("dataScopeResource", metadata.getResource());
-                }
+            return Math.max(0, Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+    
+    private void authorized(RoutingContext ctx, RouteMetadata metadata, VertxPrincipal principal) {
+        // Resolve data scope 1 lần để repository đẩy xuống SQL
+        if (metadata.isRequireDataScope()) {
+            ctx.put(KEY_DATA_SCOPE, resolveDataScope(principal));
+            ctx.put("dataScopeResource", metadata.getResource());
+        }
+        dispatch(ctx, metadata);
+    }
+    
+    private void dispatch(RoutingContext ctx, RouteMetadata metadata) {
+        if (responseCache != null) {
+            // @VertxCacheable hit: trả luôn, không gọi controller
+            if (metadata.getCacheTtlMillis() > 0 && serveFromCache(ctx, metadata)) {
+                return;
             }
-            
+            // @VertxCacheEvict: invalidate trước khi header được gửi (client GET lại thấy dữ liệu mới)
+            if (!metadata.getEvictTags().isEmpty()) {
+                ctx.addHeadersEndHandler(v -> metadata.getEvictTags().forEach(responseCache::invalidateTag));
+            }
+        }
+        
+        // @VertxCoalesce: đã có request trùng key đang chạy → chờ kết quả của nó
+        if (metadata.isCoalesce() && joinFlight(ctx, metadata)) {
+            return;
+        }
+        
+        // @VertxIdempotent có Idempotency-Key: replay response đã lưu, request trùng đang chạy → chờ
+        if (metadata.isIdempotent() && idempotencyEnabled) {
+            String idempotencyKey = ctx.request().getHeader(IDEMPOTENCY_HEADER);
+            if (idempotencyKey != null && !idempotencyKey.isBlank()) {
+                beginIdempotent(ctx, metadata, idempotencyKey.trim());
+                return;
+            }
+        }
+        
+        invoke(ctx, metadata);
+    }
+    
+    private void invoke(RoutingContext ctx, RouteMetadata metadata) {
+        // Bind RequestContext trong lúc gọi controller: BaseResource capture
+        // khi build chain (read-only routing, read-your-writes theo user)
+        VertxPrincipal principal = ctx.get("principal");
+        // RequestContext capture span hiện tại → worker / jOOQ span là con của span request
+        Scope traceScope = Tracing.context(ctx).makeCurrent();
+        RequestContext context = new RequestContext(
+                principal != null ? principal.getUserId() : null, ctx.normalizedPath(), ctx.get(KEY_DEADLINE));
+        ctx.put(KEY_REQUEST_CONTEXT, context);
+        RequestContext previous = RequestContext.bind(context);
+        try {
             // Extract parameters using cached metadata
             Object[] args = extractParameters(ctx, metadata);
             
@@ -203,8 +527,11 @@ public class VertxRoutingBinder {
             invokeMethod(ctx, metadata, args);
             
         } catch (Exception e) {
-            log.error("Error handling request: {}", e.getMessage(), e);
+            // handleError log (AccessLog sample theo loại lỗi) - không log lại ở đây
             handleError(ctx, e);
+        } finally {
+            RequestContext.bind(previous);
+            traceScope.close();
         }
     }
     
@@ -219,13 +546,13 @@ public class VertxRoutingBinder {
                 handleResult(ctx, result);
             } else {
                 // Non-reactive return type - tự động wrap vào blocking
-                VertxExecution.blocking(() -> {
+                VertxExecution.blocking(RequestContext.propagate(() -> {
                     try {
                         return metadata.getMethod().invoke(metadata.getController(), args);
                     } catch (Exception e) {
                         throw new RuntimeException(e);
                     }
-                }).subscribe(
+                })::call).subscribe(
                         result -> handleResult(ctx, result),
                         error -> handleError(ctx, error)
                 );
@@ -236,33 +563,17 @@ public class VertxRoutingBinder {
     }
     
     /**
-     * Check if user has the required permission
-     * Supports wildcard permissions like "CONTACT:*" or "*:VIEW"
+     * Lấy DataScopeFilter từ SecurityUser trong principal - không xác định được → chỉ dữ liệu của mình
      */
-    private boolean hasPermission(Set<String> userPermissions, String resource, Action action) {
-        String requiredPermission = resource + ":" + action.getCode();
-        
-        // Direct match
-        if (userPermissions.contains(requiredPermission)) {
-            return true;
-        }
-        
-        // Wildcard on action: "CONTACT:*"
-        if (userPermissions.contains(resource + ":*")) {
-            return true;
-        }
-        
-        // Wildcard on resource: "*:VIEW"
-        if (userPermissions.contains("*:" + action.getCode())) {
-            return true;
-        }
-        
-        // Super admin wildcard: "*:*"
-        if (userPermissions.contains("*:*")) {
-            return true;
+    private DataScopeFilter resolveDataScope(VertxPrincipal principal) {
+        Object securityUser = principal.getSecurityUser();
+        if (securityUser instanceof DataScopeFilter.Source source) {
+            DataScopeFilter filter = source.dataScopeFilter();
+            if (filter != null) {
+                return filter;
+            }
         }
-        
-        return false;
+        return DataScopeFilter.of(DataScope.OWN, principal.getUserId(), null, null);
     }
 
     /**
@@ -285,17 +596,31 @@ public class VertxRoutingBinder {
             
             case PRINCIPAL -> ctx.get("principal");
             
+            case REQUEST_STREAM -> ctx.request();
+            
+            case DATA_SCOPE -> {
+                // Không có filter (VD: route không qua authorize) → từ chối, không fallback sang ALL
+                DataScopeFilter filter = ctx.get(KEY_DATA_SCOPE);
+                if (filter == null) {
+                    throw new AppException(ErrorCode.FORBIDDEN, "Data scope not resolved");
+                }
+                yield filter;
+            }
+            
             case PAGEABLE -> {
                 Pageable pageable = new Pageable();
                 String page = ctx.request().getParam("page");
                 String size = ctx.request().getParam("size");
                 String sort = ctx.request().getParam("sort");
                 String order = ctx.request().getParam("order");
+                String cursor = ctx.request().getParam("cursor");
                 
                 if (page != null) pageable.setPage(Integer.parseInt(page));
                 if (size != null) pageable.setSize(Integer.parseInt(size));
                 if (sort != null) pageable.setSort(sort);
                 if (order != null) pageable.setOrder(order);
+                // Có param cursor (kể cả rỗng) → keyset mode
+                if (cursor != null) pageable.setCursor(cursor);
                 
                 yield pageable;
             }
@@ -343,6 +668,11 @@ public class VertxRoutingBinder {
 
     @SuppressWarnings("unchecked")
     private void handleResult(RoutingContext ctx, Object result) {
+        // Đã trả 504 (deadline) hoặc response đã kết thúc → bỏ kết quả đến muộn
+        if (ctx.response().ended()) {
+            return;
+        }
+        
         if (result == null) {
             ctx.response()
                     .setStatusCode(204)
@@ -370,44 +700,542 @@ public class VertxRoutingBinder {
         }
         
         // Completable - RxJava reactive (void)
+        // Route tự ghi response (VD: export stream) → không ghi đè bằng 204
         if (result instanceof Completable completable) {
             completable.subscribe(
-                    () -> ctx.response().setStatusCode(204).end(),
+                    () -> {
+                        if (!ctx.response().ended()) {
+                            ctx.response().setStatusCode(204).end();
+                        }
+                    },
                     error -> handleError(ctx, (Throwable) error)
             );
             return;
         }
 
-        // ResponseEntity
-        if (result instanceof ResponseEntity<?> responseEntity) {
-            Object body = responseEntity.getBody();
-            
-            ctx.response()
-                    .setStatusCode(responseEntity.getStatusCode().value())
-                    .putHeader("Content-Type", "application/json");
-            
-            if (body != null) {
-                try {
-                    ctx.response().end(objectMapper.writeValueAsString(body));
-                } catch (Exception e) {
-                    handleError(ctx, e);
-                }
+        // Flowable / Observable / Flux - stream chunked (JSON array hoặc NDJSON),
+        // request(n) theo write queue, client ngắt kết nối → cancel upstream
+        if (result instanceof Flowable<?> flowable) {
+            PublisherResponseWriter.write(ctx, flowable, objectMapper, error -> handleError(ctx, error));
+            return;
+        }
+
+        // Observable không có backpressure → buffer phía server khi client đọc chậm
+        if (result instanceof Observable<?> observable) {
+            PublisherResponseWriter.write(ctx, observable.toFlowable(BackpressureStrategy.BUFFER),
+                    objectMapper, error -> handleError(ctx, error));
+            return;
+        }
+
+        // Reactor Mono (0..1 phần tử) → như Maybe; Flux / Publisher khác → stream
+        if (result instanceof Publisher<?> publisher) {
+            if (isMono(publisher.getClass())) {
+                handleResult(ctx, Maybe.fromPublisher(publisher));
             } else {
-                ctx.response().end();
+                PublisherResponseWriter.write(ctx, Flowable.fromPublisher(publisher),
+                        objectMapper, error -> handleError(ctx, error));
+            }
+            return;
+        }
+
+        // CompletableFuture / CompletionStage - callback khi xong, không block event loop
+        if (result instanceof CompletionStage<?> stage) {
+            io.vertx.core.Context context = ctx.vertx().getOrCreateContext();
+            if (stage instanceof CompletableFuture<?> future && !future.isDone()) {
+                ctx.response().closeHandler(v -> future.cancel(false));
+            }
+            stage.whenComplete((res, error) -> context.runOnContext(v -> {
+                if (error != null) {
+                    handleError(ctx, error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error);
+                } else {
+                    handleResult(ctx, res);
+                }
+            }));
+            return;
+        }
+
+        // Vert.x Future
+        if (result instanceof Future<?> future) {
+            future.onComplete(
+                    res -> handleResult(ctx, res),
+                    error -> handleError(ctx, error)
+            );
+            return;
+        }
+
+        // ResponseEntity (header route set - VD: ETag theo version entity - được giữ)
+        if (result instanceof ResponseEntity<?> responseEntity) {
+            responseEntity.getHeaders().forEach((name, values) -> ctx.response().putHeader(name, values));
+            if (ctx.get(KEY_COALESCE_FLIGHT) != null && !responseEntity.getHeaders().isEmpty()) {
+                // Leader: request chờ nhận cùng header route (không copy header riêng của request - trace, CORS...)
+                MultiMap shared = MultiMap.caseInsensitiveMultiMap();
+                responseEntity.getHeaders().forEach((name, values) -> shared.add(name, values));
+                ctx.put(KEY_ROUTE_HEADERS, shared);
             }
+            writeJson(ctx, responseEntity.getStatusCode().value(), responseEntity.getBody());
             return;
         }
 
         // Plain object - wrap in ApiResponse
+        writeJson(ctx, 200, ApiResponse.success(result));
+    }
+
+    /**
+     * Ghi body JSON. GET 200: weak ETag (hash body đã serialize, hoặc ETag route đã set),
+     * If-None-Match khớp → 304 không body (client polling không tải lại JSON giống hệt)
+     */
+    private void writeJson(RoutingContext ctx, int status, Object body) {
+        HttpServerResponse response = ctx.response();
+        if (status == 304) {
+            response.setStatusCode(304).end();
+            return;
+        }
+        if (body == null) {
+            response.setStatusCode(status)
+                    .putHeader(HttpHeaders.CONTENT_TYPE, "application/json")
+                    .end();
+            return;
+        }
+
+        byte[] json;
         try {
-            ApiResponse<?> response = ApiResponse.success(result);
-            ctx.response()
-                    .setStatusCode(200)
-                    .putHeader("Content-Type", "application/json")
-                    .end(objectMapper.writeValueAsString(response));
+            json = objectMapper.writeValueAsBytes(body);
         } catch (Exception e) {
             handleError(ctx, e);
+            return;
+        }
+        writeJsonBytes(ctx, status, json);
+    }
+
+    /**
+     * Ghi JSON đã serialize (cả khi lấy từ ResponseCache).
+     * Miss của route @VertxCacheable (có ticket) + status 200 → lưu body kèm ETag vào cache.
+     */
+    private void writeJsonBytes(RoutingContext ctx, int status, byte[] json) {
+        HttpServerResponse response = ctx.response();
+        boolean conditional = etagEnabled && status == 200 && HttpMethod.GET.equals(ctx.request().method());
+
+        String etag = response.headers().get(HttpHeaders.ETAG);
+        if (conditional && etag == null) {
+            etag = ETagUtils.weak(json);
+            response.putHeader(HttpHeaders.ETAG, etag);
+        }
+
+        ResponseCache.Ticket ticket = ctx.remove(KEY_CACHE_TICKET);
+        if (ticket != null && status == 200) {
+            responseCache.put(ticket, json, etag);
+        }
+        releaseFlight(ctx, RequestCoalescer.Outcome.body(status, json, etag, ctx.remove(KEY_ROUTE_HEADERS)));
+        recordIdempotent(ctx, status, json);
+
+        if (conditional) {
+            if (!response.headers().contains(HttpHeaders.CACHE_CONTROL)) {
+                // Cho phép cache nhưng luôn revalidate (dữ liệu theo quyền của user)
+                response.putHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+            }
+            if (ETagUtils.matches(ctx.request().getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+                response.setStatusCode(304).end();
+                return;
+            }
+        }
+
+        response.setStatusCode(status)
+                .putHeader(HttpHeaders.CONTENT_TYPE, "application/json")
+                .end(Buffer.buffer(json));
+    }
+
+    // ============================================
+    // Response cache (@VertxCacheable / @VertxCacheEvict)
+    // ============================================
+
+    /**
+     * Hit → ghi bytes đã cache ngay trên event loop (không gọi controller, không vào worker pool).
+     * Chạy sau phân quyền: evaluate() trong memory → dispatch trên event loop; resolve qua DB pool
+     * → callback của executeOnDbPool cũng về event loop. Hit ngoài event loop được đếm
+     * (http_response_cache_hits_off_event_loop_total) để phát hiện path nào đó làm lệch.
+     * Miss → đặt ticket vào context, writeJson lưu body nếu response 200.
+     * Không tạo được key theo scope (thiếu principal / data scope) → không dùng cache.
+     */
+    private boolean serveFromCache(RoutingContext ctx, RouteMetadata metadata) {
+        String key = cacheKey(ctx, metadata);
+        if (key == null) {
+            return false;
+        }
+        ResponseCache.Hit hit = responseCache.get(key);
+        if (hit != null) {
+            if (!io.vertx.core.Context.isOnEventLoopThread()) {
+                cacheHitsOffEventLoop.increment();
+            }
+            if (hit.etag() != null) {
+                ctx.response().putHeader(HttpHeaders.ETAG, hit.etag());
+            }
+            writeJsonBytes(ctx, 200, hit.body());
+            return true;
+        }
+        ctx.put(KEY_CACHE_TICKET, responseCache.ticket(key, metadata.getCacheTags(),
+                Duration.ofMillis(metadata.getCacheTtlMillis())));
+        return false;
+    }
+
+    private static String cacheKey(RoutingContext ctx, RouteMetadata metadata) {
+        return requestKey(ctx, metadata, metadata.getCacheKeyParams(), metadata.getCacheScope());
+    }
+
+    /**
+     * Key = route + path thực tế + query params (toàn bộ hoặc theo keyParams) + phạm vi principal.
+     * Fail closed: scope USER / DATA_SCOPE mà không có principal / filter → null (không dùng chung)
+     */
+    private static String requestKey(RoutingContext ctx, RouteMetadata metadata, String[] keyParams,
+                                     VertxCacheable.CacheScope scope) {
+        StringBuilder key = new StringBuilder(128)
+                .append(metadata.getControllerName()).append('.').append(metadata.getMethodName())
+                .append('|').append(ctx.normalizedPath()).append('?');
+
+        MultiMap query = ctx.queryParams();
+        Collection<String> names = keyParams.length > 0
+                ? List.of(keyParams)
+                : new TreeSet<>(query.names());
+        for (String name : names) {
+            key.append(name).append('=').append(String.join(",", query.getAll(name))).append('&');
+        }
+
+        key.append('|');
+        switch (scope) {
+            case USER -> {
+                VertxPrincipal principal = ctx.get("principal");
+                if (principal != null && principal.getUserId() != null) {
+                    key.append(principal.getUserId());
+                } else if (metadata.isRequiresAuth()) {
+                    return null;
+                } else {
+                    key.append("anonymous");
+                }
+            }
+            case DATA_SCOPE -> {
+                DataScopeFilter filter = ctx.get(KEY_DATA_SCOPE);
+                if (filter == null) {
+                    return null;
+                }
+                key.append(filter.cacheKey());
+            }
+            default -> { }
+        }
+        return key.toString();
+    }
+
+    public ResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    // ============================================
+    // Metrics (/metrics)
+    // ============================================
+
+    @Override
+    public void collect(PrometheusWriter writer) {
+        Collection<RouteMetadata> routes = routeCache.values();
+
+        writer.histogram("http_server_requests_seconds", "Request latency by route");
+        for (RouteMetadata route : routes) {
+            writer.histogramSample("http_server_requests_seconds", route.getLatency().snapshot(), routeLabels(route));
+        }
+
+        writer.counter("http_server_responses_total", "Responses by route and status code (499 = client closed)");
+        for (RouteMetadata route : routes) {
+            for (int status = 0; status < route.getStatusCounts().length(); status++) {
+                long count = route.getStatusCounts().get(status);
+                if (count > 0) {
+                    writer.sample("http_server_responses_total", count, "controller", route.getControllerName(),
+                            "method", route.getMethodName(), "status", Integer.toString(status));
+                }
+            }
+        }
+
+        writeRouteCounter(writer, routes, "http_server_timeouts_total",
+                "Requests cancelled by deadline (504)", RouteMetadata::getTimeouts);
+        writeRouteCounter(writer, routes, "http_server_client_aborts_total",
+                "Requests whose client disconnected before the response ended", RouteMetadata::getClientAborts);
+        writeRouteCounter(writer, routes, "http_server_coalesced_total",
+                "Requests served from a concurrent identical request (@VertxCoalesce)", RouteMetadata::getCoalesced);
+        writeRouteCounter(writer, routes, "http_server_idempotent_replays_total",
+                "Responses replayed for a repeated Idempotency-Key", RouteMetadata::getIdempotentReplays);
+
+        writer.counter("authorization_checks_total", "Route authorization: in-memory principal permissions vs resolve");
+        writer.sample("authorization_checks_total", authorizedInMemory.sum(), "path", "memory");
+        writer.sample("authorization_checks_total", authorizedResolved.sum(), "path", "resolve");
+
+        if (responseCache != null) {
+            ResponseCache.Stats stats = responseCache.stats();
+            writer.gauge("http_response_cache_bytes", "Bytes held by response cache");
+            writer.sample("http_response_cache_bytes", stats.bytes());
+            writer.gauge("http_response_cache_entries", "Entries in response cache");
+            writer.sample("http_response_cache_entries", stats.size());
+            writer.counter("http_response_cache_requests_total", "Response cache lookups by result");
+            writer.sample("http_response_cache_requests_total", stats.hits(), "result", "hit");
+            writer.sample("http_response_cache_requests_total", stats.misses(), "result", "miss");
+            writer.counter("http_response_cache_hits_off_event_loop_total",
+                    "Response cache hits served outside an event loop thread (expected 0)");
+            writer.sample("http_response_cache_hits_off_event_loop_total", cacheHitsOffEventLoop.sum());
+            writer.counter("http_response_cache_evictions_total", "Response cache removals by cause");
+            writer.sample("http_response_cache_evictions_total", stats.evictions(), "cause", "size");
+            writer.sample("http_response_cache_evictions_total", stats.invalidations(), "cause", "invalidate");
+            writer.sample("http_response_cache_evictions_total", stats.rejected(), "cause", "too_large");
+        }
+
+        writer.gauge("http_server_coalesce_in_flight", "Leader requests with waiters registered (coalesce + idempotency)");
+        writer.sample("http_server_coalesce_in_flight", coalescer.inFlight());
+    }
+
+    private static void writeRouteCounter(PrometheusWriter writer, Collection<RouteMetadata> routes, String name,
+                                          String help, Function<RouteMetadata, LongAdder> counter) {
+        writer.counter(name, help);
+        for (RouteMetadata route : routes) {
+            long value = counter.apply(route).sum();
+            if (value > 0) {
+                writer.sample(name, value, "controller", route.getControllerName(), "method", route.getMethodName());
+            }
+        }
+    }
+
+    private static String[] routeLabels(RouteMetadata route) {
+        return new String[] {
+                "controller", route.getControllerName(),
+                "method", route.getMethodName(),
+                "http_method", route.getHttpMethod().name(),
+                "route", route.getPath()
+        };
+    }
+
+    // ============================================
+    // Request coalescing (@VertxCoalesce)
+    // ============================================
+
+    /**
+     * Leader → đặt flight vào context, trả false (gọi controller như thường).
+     * Request trùng key → chờ kết quả của leader trên context của chính nó, trả true.
+     * Không tạo được key theo scope → không gộp (request tự gọi controller).
+     */
+    private boolean joinFlight(RoutingContext ctx, RouteMetadata metadata) {
+        String key = requestKey(ctx, metadata, metadata.getCoalesceKeyParams(), metadata.getCoalesceScope());
+        if (key == null) {
+            return false;
+        }
+        io.vertx.core.Context context = ctx.vertx().getOrCreateContext();
+        RequestCoalescer.Flight flight = coalescer.join(key,
+                outcome -> context.runOnContext(v -> onFlightOutcome(ctx, metadata, outcome)));
+        if (flight == null) {
+            // Leader đã lưu ResponseCache, request chờ không lưu lại
+            ctx.remove(KEY_CACHE_TICKET);
+            return true;
         }
+        ctx.put(KEY_COALESCE_FLIGHT, flight);
+        // Leader kết thúc mà không có body / lỗi dùng chung (304, 204, stream, client ngắt) → request chờ tự chạy
+        ctx.addEndHandler(ar -> releaseFlight(ctx, null));
+        return false;
+    }
+
+    private void onFlightOutcome(RoutingContext ctx, RouteMetadata metadata, RequestCoalescer.Outcome outcome) {
+        // Request chờ đã hết deadline của chính nó / client đã ngắt kết nối
+        if (ctx.response().ended()) {
+            return;
+        }
+        if (outcome == null) {
+            invoke(ctx, metadata);
+            return;
+        }
+        metadata.getCoalesced().increment();
+        if (outcome.error() != null) {
+            handleError(ctx, outcome.error());
+            return;
+        }
+        if (outcome.headers() != null) {
+            ctx.response().headers().setAll(outcome.headers());
+        }
+        if (outcome.etag() != null) {
+            ctx.response().putHeader(HttpHeaders.ETAG, outcome.etag());
+        }
+        writeJsonBytes(ctx, outcome.status(), outcome.body());
+    }
+
+    /**
+     * Leader có kết quả (null = không dùng chung được) → báo các request đang chờ
+     */
+    private void releaseFlight(RoutingContext ctx, RequestCoalescer.Outcome outcome) {
+        RequestCoalescer.Flight flight = ctx.remove(KEY_COALESCE_FLIGHT);
+        if (flight != null) {
+            coalescer.complete(flight, outcome);
+        }
+    }
+
+    // ============================================
+    // Idempotency-Key (@VertxIdempotent)
+    // ============================================
+
+    /**
+     * Key theo user (2 user trùng key không đụng nhau) + fingerprint của request.
+     * Request trùng đang chạy trong instance → chờ response của request gốc,
+     * request đầu tiên claim key trong IdempotencyStore.
+     */
+    private void beginIdempotent(RoutingContext ctx, RouteMetadata metadata, String idempotencyKey) {
+        if (idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            handleError(ctx, new AppException(ErrorCode.BAD_REQUEST, "Idempotency-Key is too long"));
+            return;
+        }
+        // Route @VertxIdempotent luôn cần đăng nhập → không có namespace chung cho anonymous
+        VertxPrincipal principal = ctx.get("principal");
+        if (principal == null || principal.getUserId() == null) {
+            invoke(ctx, metadata);
+            return;
+        }
+        String storeKey = principal.getUserId() + ":" + idempotencyKey;
+        String fingerprint = idempotencyFingerprint(ctx);
+
+        io.vertx.core.Context context = ctx.vertx().getOrCreateContext();
+        RequestCoalescer.Flight flight = coalescer.join("idempotency|" + storeKey + "|" + fingerprint,
+                outcome -> context.runOnContext(v -> onIdempotentOutcome(ctx, metadata, idempotencyKey, outcome)));
+        if (flight == null) {
+            return;
+        }
+        ctx.put(KEY_COALESCE_FLIGHT, flight);
+        ctx.addEndHandler(ar -> finishIdempotent(ctx, ar.succeeded()));
+
+        idempotencyStore.claim(storeKey, fingerprint, idempotencyLease(ctx)).subscribe(
+                claim -> onIdempotentClaim(ctx, metadata, storeKey, claim),
+                error -> handleError(ctx, error)
+        );
+    }
+
+    /**
+     * Lease của key đang chạy: lease-seconds, kéo dài bằng deadline còn lại nếu request được chạy lâu hơn
+     */
+    private Duration idempotencyLease(RoutingContext ctx) {
+        Duration lease = Duration.ofSeconds(idempotencyLeaseSeconds);
+        Deadline deadline = ctx.get(KEY_DEADLINE);
+        if (deadline != null && deadline.hasLimit()) {
+            Duration remaining = Duration.ofNanos(deadline.remainingNanos());
+            if (remaining.compareTo(lease) > 0) {
+                return remaining;
+            }
+        }
+        return lease;
+    }
+
+    private void onIdempotentClaim(RoutingContext ctx, RouteMetadata metadata, String storeKey,
+                                   IdempotencyStore.Claim claim) {
+        // Hết deadline / client ngắt kết nối trong lúc claim → trả key cho retry
+        if (ctx.response().ended()) {
+            if (claim.status() == IdempotencyStore.ClaimStatus.ACQUIRED) {
+                subscribeStore(idempotencyStore.release(storeKey));
+            }
+            return;
+        }
+        switch (claim.status()) {
+            case ACQUIRED -> {
+                ctx.put(KEY_IDEMPOTENCY, storeKey);
+                invoke(ctx, metadata);
+            }
+            case COMPLETED -> {
+                IdempotencyStore.StoredResponse stored = claim.response();
+                releaseFlight(ctx, RequestCoalescer.Outcome.body(stored.status(), stored.body(), null));
+                writeReplay(ctx, metadata, stored.status(), stored.body());
+            }
+            case IN_PROGRESS -> {
+                // Request gốc đang chạy ở instance khác
+                ctx.response().putHeader("Retry-After", "1");
+                handleError(ctx, new AppException(ErrorCode.IDEMPOTENCY_IN_PROGRESS));
+            }
+            case MISMATCH -> handleError(ctx, new AppException(ErrorCode.IDEMPOTENCY_KEY_MISMATCH));
+        }
+    }
+
+    private void onIdempotentOutcome(RoutingContext ctx, RouteMetadata metadata, String idempotencyKey,
+                                     RequestCoalescer.Outcome outcome) {
+        if (ctx.response().ended()) {
+            return;
+        }
+        if (outcome == null) {
+            // Request gốc không có response dùng chung → claim lại (store đã được release)
+            beginIdempotent(ctx, metadata, idempotencyKey);
+        } else if (outcome.error() != null) {
+            handleError(ctx, outcome.error());
+        } else {
+            writeReplay(ctx, metadata, outcome.status(), outcome.body());
+        }
+    }
+
+    /**
+     * Lưu response của request đã claim key: &lt; 500 → complete, 5xx → release (retry chạy lại)
+     */
+    private void recordIdempotent(RoutingContext ctx, int status, byte[] body) {
+        String storeKey = ctx.remove(KEY_IDEMPOTENCY);
+        if (storeKey == null) {
+            return;
+        }
+        subscribeStore(status < 500
+                ? idempotencyStore.complete(storeKey, new IdempotencyStore.StoredResponse(status, body),
+                        Duration.ofSeconds(idempotencyTtlSeconds))
+                : idempotencyStore.release(storeKey));
+    }
+
+    private void finishIdempotent(RoutingContext ctx, boolean succeeded) {
+        // 204 (Completable / Maybe rỗng) không đi qua writeJsonBytes → lưu ở đây
+        if (succeeded && ctx.response().getStatusCode() == 204) {
+            recordIdempotent(ctx, 204, new byte[0]);
+            releaseFlight(ctx, RequestCoalescer.Outcome.body(204, new byte[0], null));
+            return;
+        }
+        // Còn key = response không lưu được (stream, client ngắt kết nối) → retry chạy lại
+        String storeKey = ctx.remove(KEY_IDEMPOTENCY);
+        if (storeKey != null) {
+            subscribeStore(idempotencyStore.release(storeKey));
+        }
+        releaseFlight(ctx, null);
+    }
+
+    private void writeReplay(RoutingContext ctx, RouteMetadata metadata, int status, byte[] body) {
+        metadata.getIdempotentReplays().increment();
+        HttpServerResponse response = ctx.response()
+                .setStatusCode(status)
+                .putHeader(IDEMPOTENCY_REPLAYED_HEADER, "true");
+        if (body.length == 0) {
+            response.end();
+            return;
+        }
+        response.putHeader(HttpHeaders.CONTENT_TYPE, "application/json").end(Buffer.buffer(body));
+    }
+
+    /**
+     * method + CRC32C(path) + CRC32C(body): cùng key nhưng khác request → 422
+     */
+    private static String idempotencyFingerprint(RoutingContext ctx) {
+        CRC32C pathCrc = new CRC32C();
+        byte[] path = ctx.normalizedPath().getBytes(StandardCharsets.UTF_8);
+        pathCrc.update(path, 0, path.length);
+
+        CRC32C bodyCrc = new CRC32C();
+        Buffer body = ctx.body() != null ? ctx.body().buffer() : null;
+        int length = 0;
+        if (body != null) {
+            byte[] bytes = body.getBytes();
+            bodyCrc.update(bytes, 0, bytes.length);
+            length = bytes.length;
+        }
+        return ctx.request().method().name() + ":" + Long.toHexString(pathCrc.getValue())
+                + ":" + Integer.toHexString(length) + "-" + Long.toHexString(bodyCrc.getValue());
+    }
+
+    private static void subscribeStore(Completable operation) {
+        operation.subscribe(() -> {}, error -> log.warn("Idempotency store failed: {}", error.getMessage()));
+    }
+
+    private static boolean isMono(Class<?> type) {
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            if (c.getName().equals("reactor.core.publisher.Mono")) {
+                return true;
+            }
+        }
+        return false;
     }
 
     private void handleError(RoutingContext ctx, Throwable error) {
@@ -418,7 +1246,31 @@ public class VertxRoutingBinder {
             cause = cause.getCause();
         }
         
-        log.error("Request error: {}", cause.getMessage());
+        // Leader @VertxCoalesce: request đang chờ nhận cùng lỗi, trừ 504 (deadline riêng của leader)
+        // và lỗi giữa stream → để chúng tự gọi controller
+        boolean leaderSpecific = ctx.response().headWritten()
+                || (cause instanceof AppException timeout && timeout.getHttpStatus() == 504);
+        releaseFlight(ctx, leaderSpecific ? null : RequestCoalescer.Outcome.failure(cause));
+        
+        // Response đã kết thúc (VD: đã trả 504 khi hết deadline) → lỗi đến muộn của task bị hủy
+        if (ctx.response().ended()) {
+            log.debug("Error after response ended: {}", cause.getMessage());
+            return;
+        }
+        
+        // Response đã bắt đầu gửi (stream chunked) → không thể đổi sang JSON lỗi,
+        // reset connection để client biết file không trọn vẹn
+        if (ctx.response().headWritten()) {
+            if (cause instanceof ResponseStreamWriter.ExportAbortedException) {
+                log.debug("Stream aborted: {}", cause.getMessage());
+            } else {
+                log.error("Stream failed after response started: {}", cause.getMessage(), cause);
+            }
+            if (!ctx.response().ended()) {
+                ctx.response().reset();
+            }
+            return;
+        }
 
         int statusCode;
         int errorCode;
@@ -444,18 +1296,23 @@ public class VertxRoutingBinder {
             errorCode = ErrorCode.INTERNAL_ERROR.getCode();
         }
 
-        ApiResponse<?> response = ApiResponse.error(errorCode, message);
-        
-        try {
-            ctx.response()
-                    .setStatusCode(statusCode)
-                    .putHeader("Content-Type", "application/json")
-                    .end(objectMapper.writeValueAsString(response));
-        } catch (Exception e) {
-            ctx.response()
-                    .setStatusCode(500)
-                    .putHeader("Content-Type", "application/json")
-                    .end("{\"code\":5001,\"message\":\"Internal Server Error\"}");
+        // Sample theo loại lỗi, format + ghi trên thread của AccessLog
+        if (accessLog != null) {
+            accessLog.error(ctx, cause, statusCode);
+        } else {
+            log.error("Request error: {}", cause.getMessage());
+        }
+
+        // ErrorCode với message mặc định → body encode sẵn, không serialize
+        byte[] body = cause instanceof AppException appEx ? ErrorBodies.of(appEx) : null;
+        if (body == null) {
+            body = ErrorBodies.encode(errorCode, message);
         }
+        // Lỗi 4xx của request đã claim Idempotency-Key cũng được replay
+        recordIdempotent(ctx, statusCode, body);
+        ctx.response()
+                .setStatusCode(statusCode)
+                .putHeader("Content-Type", "application/json")
+                .end(Buffer.buffer(body));
     }
 }
@@ -0,0 +1,40 @@
+package com.eduplatform.common.vertx.security;
+
+import com.eduplatform.common.vertx.model.VertxPrincipal;
+
+/**
+ * AuthorizationRule - Một điều kiện phân quyền đã compile sẵn cho route
+ * 
+ * Rule chỉ đọc principal trong memory, không chạm DB:
+ * - GRANTED:    đủ quyền
+ * - DENIED:     không đủ quyền
+ * - UNRESOLVED: principal chưa load permissions → AuthorizationStage
+ *               sẽ resolve qua PermissionResolver rồi đánh giá lại
+ * 
+ * Tạo rule qua {@link AuthorizationRules}.
+ */
+public interface AuthorizationRule {
+
+    enum Decision {
+        GRANTED,
+        DENIED,
+        UNRESOLVED
+    }
+
+    /**
+     * Đánh giá rule với principal (không null)
+     */
+    Decision evaluate(VertxPrincipal principal);
+
+    /**
+     * Route có cần resolve DataScopeFilter không
+     */
+    default boolean requiresDataScope() {
+        return false;
+    }
+
+    /**
+     * Mô tả rule cho log / error message (VD: "USER:VIEW AND ROLE:VIEW")
+     */
+    String describe();
+}
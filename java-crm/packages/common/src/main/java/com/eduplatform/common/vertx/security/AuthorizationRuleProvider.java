@@ -0,0 +1,22 @@
+package com.eduplatform.common.vertx.security;
+
+import java.lang.reflect.Method;
+
+/**
+ * AuthorizationRuleProvider - SPI để module khác đóng góp rule cho route
+ * 
+ * VertxRoutingBinder gọi tất cả provider (Spring beans) lúc bind route,
+ * kết quả được AND với rule từ {@code @RequirePermission} của common.
+ * 
+ * VD: auth-rbac đăng ký provider cho @RequireAuth, @RequirePermission (rbac)
+ * và @CheckPermission.
+ */
+public interface AuthorizationRuleProvider {
+
+    /**
+     * Compile rule cho handler method
+     * 
+     * @return rule, hoặc null nếu method không có annotation mà provider hỗ trợ
+     */
+    AuthorizationRule compile(Method method);
+}
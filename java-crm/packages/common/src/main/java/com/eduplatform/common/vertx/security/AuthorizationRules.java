@@ -0,0 +1,168 @@
+package com.eduplatform.common.vertx.security;
+
+import com.eduplatform.common.vertx.model.VertxPrincipal;
+import com.eduplatform.common.vertx.security.AuthorizationRule.Decision;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * AuthorizationRules - Factory cho các AuthorizationRule cơ bản
+ * 
+ * Rule được build một lần lúc bind route, evaluate trên hot path
+ * không allocate (duyệt array, lookup PermissionSet).
+ */
+public final class AuthorizationRules {
+
+    private static final AuthorizationRule AUTHENTICATED = new Authenticated();
+
+    private AuthorizationRules() {}
+
+    /**
+     * Chỉ cần đăng nhập (@RequireAuth)
+     */
+    public static AuthorizationRule authenticated() {
+        return AUTHENTICATED;
+    }
+
+    /**
+     * Cần quyền RESOURCE:ACTION (hỗ trợ wildcard qua PermissionSet)
+     */
+    public static AuthorizationRule permission(String resource, String action, boolean dataScope) {
+        return new PermissionRule(resource, action, dataScope);
+    }
+
+    /**
+     * Tất cả rule đều phải GRANTED
+     */
+    public static AuthorizationRule allOf(List<AuthorizationRule> rules) {
+        return rules.size() == 1 ? rules.get(0) : new AllOf(rules.toArray(new AuthorizationRule[0]));
+    }
+
+    /**
+     * Chỉ cần một rule GRANTED
+     */
+    public static AuthorizationRule anyOf(List<AuthorizationRule> rules) {
+        return rules.size() == 1 ? rules.get(0) : new AnyOf(rules.toArray(new AuthorizationRule[0]));
+    }
+
+    // ============================================
+    // Implementations
+    // ============================================
+
+    private static final class Authenticated implements AuthorizationRule {
+        @Override
+        public Decision evaluate(VertxPrincipal principal) {
+            return principal.getUserId() != null ? Decision.GRANTED : Decision.DENIED;
+        }
+
+        @Override
+        public String describe() {
+            return "AUTHENTICATED";
+        }
+    }
+
+    private static final class PermissionRule implements AuthorizationRule {
+        private final String resource;
+        private final String action;
+        private final boolean dataScope;
+        private final String description;
+
+        PermissionRule(String resource, String action, boolean dataScope) {
+            this.resource = resource;
+            this.action = action;
+            this.dataScope = dataScope;
+            this.description = resource + ":" + action;
+        }
+
+        @Override
+        public Decision evaluate(VertxPrincipal principal) {
+            if (principal.getPermissionSet().allows(resource, action)) {
+                return Decision.GRANTED;
+            }
+            // Chưa load permissions thì chưa kết luận được
+            return principal.isPermissionsLoaded() ? Decision.DENIED : Decision.UNRESOLVED;
+        }
+
+        @Override
+        public boolean requiresDataScope() {
+            return dataScope;
+        }
+
+        @Override
+        public String describe() {
+            return description;
+        }
+    }
+
+    private static final class AllOf implements AuthorizationRule {
+        private final AuthorizationRule[] rules;
+        private final boolean dataScope;
+
+        AllOf(AuthorizationRule[] rules) {
+            this.rules = rules;
+            this.dataScope = Stream.of(rules).anyMatch(AuthorizationRule::requiresDataScope);
+        }
+
+        @Override
+        public Decision evaluate(VertxPrincipal principal) {
+            Decision result = Decision.GRANTED;
+            for (AuthorizationRule rule : rules) {
+                Decision decision = rule.evaluate(principal);
+                if (decision == Decision.DENIED) {
+                    return Decision.DENIED;
+                }
+                if (decision == Decision.UNRESOLVED) {
+                    result = Decision.UNRESOLVED;
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public boolean requiresDataScope() {
+            return dataScope;
+        }
+
+        @Override
+        public String describe() {
+            return Stream.of(rules).map(AuthorizationRule::describe).collect(Collectors.joining(" AND ", "(", ")"));
+        }
+    }
+
+    private static final class AnyOf implements AuthorizationRule {
+        private final AuthorizationRule[] rules;
+        private final boolean dataScope;
+
+        AnyOf(AuthorizationRule[] rules) {
+            this.rules = rules;
+            this.dataScope = Stream.of(rules).anyMatch(AuthorizationRule::requiresDataScope);
+        }
+
+        @Override
+        public Decision evaluate(VertxPrincipal principal) {
+            Decision result = Decision.DENIED;
+            for (AuthorizationRule rule : rules) {
+                Decision decision = rule.evaluate(principal);
+                if (decision == Decision.GRANTED) {
+                    return Decision.GRANTED;
+                }
+                if (decision == Decision.UNRESOLVED) {
+                    result = Decision.UNRESOLVED;
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public boolean requiresDataScope() {
+            return dataScope;
+        }
+
+        @Override
+        public String describe() {
+            return Stream.of(rules).map(AuthorizationRule::describe).collect(Collectors.joining(" OR ", "(", ")"));
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.eduplatform.common.vertx.security;
+
+import com.eduplatform.common.constant.ErrorCode;
+import com.eduplatform.common.exception.AppException;
+import com.eduplatform.common.jfr.PermissionCheckEvent;
+import com.eduplatform.common.vertx.annotation.Logical;
+import com.eduplatform.common.vertx.annotation.RequirePermission;
+import com.eduplatform.common.vertx.annotation.RequirePermissions;
+import com.eduplatform.common.vertx.execution.WorkerPoolManager;
+import com.eduplatform.common.vertx.model.VertxPrincipal;
+import com.eduplatform.common.vertx.security.AuthorizationRule.Decision;
+import io.reactivex.rxjava3.core.Completable;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * AuthorizationStage - Bước phân quyền duy nhất của một route, compile lúc bind
+ * 
+ * Gom mọi annotation phân quyền thành một AuthorizationRule:
+ * - @RequirePermission / @RequirePermissions (common) - AND/OR
+ * - Annotation của module khác qua AuthorizationRuleProvider (VD: auth-rbac)
+ * 
+ * Mỗi request:
+ * 1. evaluate() từ principal trong memory (PermissionSet, không allocate)
+ * 2. UNRESOLVED (token không mang permissions) → PermissionSet đã resolve của user
+ *    trong cache của PermissionResolver, vẫn trên event loop
+ * 3. Chỉ khi cache miss mới gọi PermissionResolver trên DB pool, kết quả gắn vào
+ *    principal trên event loop (callback của executeOnDbPool), sau đó đánh giá lại
+ * 
+ * Mỗi quyết định cuối cùng ghi PermissionCheckEvent (JFR, khi recording bật event):
+ * evaluate() chỉ ghi GRANTED (caller gọi authorize() cho phần còn lại), authorize() ghi mọi kết quả.
+ */
+public final class AuthorizationStage {
+
+    private static final AuthorizationStage NONE = new AuthorizationStage(null, null);
+
+    private final AuthorizationRule rule;
+    private final PermissionResolver resolver;
+    // describe() của rule tính 1 lần (JFR event, lỗi PERMISSION_DENIED)
+    private final String description;
+
+    private AuthorizationStage(AuthorizationRule rule, PermissionResolver resolver) {
+        this.rule = rule;
+        this.resolver = resolver;
+        this.description = rule != null ? rule.describe() : null;
+    }
+
+    /**
+     * Route không yêu cầu phân quyền
+     */
+    public static AuthorizationStage none() {
+        return NONE;
+    }
+
+    /**
+     * Compile stage cho handler method
+     */
+    public static AuthorizationStage compile(Method method,
+                                             List<AuthorizationRuleProvider> providers,
+                                             PermissionResolver resolver) {
+        List<AuthorizationRule> rules = new ArrayList<>();
+
+        AuthorizationRule permissionRule = compileRequirePermissions(method);
+        if (permissionRule != null) {
+            rules.add(permissionRule);
+        }
+
+        if (providers != null) {
+            for (AuthorizationRuleProvider provider : providers) {
+                AuthorizationRule rule = provider.compile(method);
+                if (rule != null) {
+                    rules.add(rule);
+                }
+            }
+        }
+
+        if (rules.isEmpty()) {
+            return NONE;
+        }
+        return new AuthorizationStage(AuthorizationRules.allOf(rules), resolver);
+    }
+
+    private static AuthorizationRule compileRequirePermissions(Method method) {
+        RequirePermission[] permissions = method.getAnnotationsByType(RequirePermission.class);
+        if (permissions.length == 0) {
+            return null;
+        }
+
+        List<AuthorizationRule> rules = new ArrayList<>(permissions.length);
+        for (RequirePermission permission : permissions) {
+            rules.add(AuthorizationRules.permission(
+                    permission.resource(), permission.action().getCode(), permission.dataScope()));
+        }
+
+        RequirePermissions container = method.getAnnotation(RequirePermissions.class);
+        Logical logical = container != null ? container.logical() : Logical.AND;
+        return logical == Logical.OR ? AuthorizationRules.anyOf(rules) : AuthorizationRules.allOf(rules);
+    }
+
+    // ============================================
+    // Runtime
+    // ============================================
+
+    public boolean isRequired() {
+        return rule != null;
+    }
+
+    public boolean requiresDataScope() {
+        return rule != null && rule.requiresDataScope();
+    }
+
+    /**
+     * Đánh giá đồng bộ từ principal + cache permissions trong memory (hot path, event loop)
+     */
+    public Decision evaluate(VertxPrincipal principal) {
+        PermissionCheckEvent event = rule != null ? PermissionCheckEvent.start() : null;
+        Decision decision = decide(principal);
+        if (event != null && decision == Decision.GRANTED) {
+            event.commit(principal.getUserId(), description, true, true);
+        }
+        return decision;
+    }
+
+    private Decision decide(VertxPrincipal principal) {
+        if (rule == null) {
+            return Decision.GRANTED;
+        }
+        if (principal == null || principal.getUserId() == null) {
+            return Decision.DENIED;
+        }
+        Decision decision = rule.evaluate(principal);
+        if (decision != Decision.UNRESOLVED || resolver == null) {
+            return decision;
+        }
+        ResolvedPermissions cached = resolver.cachedPermissions(principal);
+        if (cached == null) {
+            return Decision.UNRESOLVED;
+        }
+        principal.applyPermissions(cached);
+        return rule.evaluate(principal);
+    }
+
+    /**
+     * Phân quyền đầy đủ: nếu UNRESOLVED thì load permissions qua DB pool rồi đánh giá lại
+     */
+    public Completable authorize(VertxPrincipal principal) {
+        if (rule == null) {
+            return Completable.complete();
+        }
+        if (principal == null || principal.getUserId() == null) {
+            return Completable.error(new AppException(ErrorCode.UNAUTHORIZED, "No principal found"));
+        }
+
+        PermissionCheckEvent event = PermissionCheckEvent.start();
+        Decision decision = decide(principal);
+        if (decision == Decision.GRANTED || decision == Decision.DENIED || resolver == null) {
+            boolean granted = decision == Decision.GRANTED;
+            if (event != null) {
+                event.commit(principal.getUserId(), description, true, granted);
+            }
+            return granted ? Completable.complete() : Completable.error(denied());
+        }
+
+        // Worker chỉ load, principal được gắn permissions trong callback (context của request)
+        return WorkerPoolManager.executeOnDbPool(() -> resolver.resolvePermissions(principal))
+                .flatMapCompletable(permissions -> {
+                    principal.applyPermissions(permissions);
+                    boolean granted = rule.evaluate(principal) == Decision.GRANTED;
+                    if (event != null) {
+                        event.commit(principal.getUserId(), description, false, granted);
+                    }
+                    return granted ? Completable.complete() : Completable.error(denied());
+                });
+    }
+
+    private AppException denied() {
+        return new AppException(ErrorCode.PERMISSION_DENIED, "Missing permission: " + description);
+    }
+
+    /**
+     * Mô tả rule (VD: "USER:VIEW"), null nếu không yêu cầu phân quyền
+     */
+    public String describe() {
+        return description;
+    }
+}
@@ -0,0 +1,25 @@
+package com.eduplatform.common.vertx.security;
+
+import com.eduplatform.common.vertx.model.VertxPrincipal;
+
+/**
+ * PermissionResolver - SPI load permissions cho principal chưa có quyền trong memory
+ * 
+ * - cachedPermissions(): chỉ đọc cache trong memory, gọi trên event loop (không được block)
+ * - resolvePermissions(): chỉ khi cache miss, luôn chạy trên DB worker pool (blocking được),
+ *   implementation nên ghi kết quả vào cache để các request sau của user check trên event loop
+ */
+public interface PermissionResolver {
+
+    /**
+     * @return permissions của principal (không null)
+     */
+    ResolvedPermissions resolvePermissions(VertxPrincipal principal);
+
+    /**
+     * @return permissions đã resolve trước đó (cache theo userId), null nếu chưa có
+     */
+    default ResolvedPermissions cachedPermissions(VertxPrincipal principal) {
+        return null;
+    }
+}
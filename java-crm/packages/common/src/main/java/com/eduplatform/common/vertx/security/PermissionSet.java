@@ -0,0 +1,176 @@
+package com.eduplatform.common.vertx.security;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * PermissionSet - Tập quyền đã index sẵn cho một principal
+ *
+ * Build một lần khi principal được tạo, sau đó mỗi request chỉ cần
+ * tối đa 2 lần HashMap lookup, không nối chuỗi, không duyệt List.
+ *
+ * Hỗ trợ wildcard:
+ * - "USER:VIEW"  → exact
+ * - "USER:*"     → mọi action trên resource
+ * - "*:VIEW"     → action trên mọi resource
+ * - "*:*"        → super admin
+ *
+ * Usage:
+ * <pre>
+ * PermissionSet set = PermissionSet.fromStrings(Set.of("USER:VIEW", "ROLE:*"));
+ * set.allows("USER", "VIEW");   // true
+ * set.allows("ROLE", "DELETE"); // true
+ * </pre>
+ */
+public final class PermissionSet {
+
+    public static final String WILDCARD = "*";
+
+    private static final PermissionSet EMPTY = new PermissionSet(Map.of(), Set.of(), false);
+    private static final PermissionSet ALL = new PermissionSet(Map.of(), Set.of(), true);
+
+    // resource -> grant (actions hoặc wildcard)
+    private final Map<String, Grant> grants;
+
+    // Actions áp dụng cho mọi resource ("*:ACTION")
+    private final Set<String> anyResourceActions;
+
+    // "*:*"
+    private final boolean superAdmin;
+
+    private PermissionSet(Map<String, Grant> grants, Set<String> anyResourceActions, boolean superAdmin) {
+        this.grants = grants;
+        this.anyResourceActions = anyResourceActions;
+        this.superAdmin = superAdmin;
+    }
+
+    public static PermissionSet empty() {
+        return EMPTY;
+    }
+
+    public static PermissionSet all() {
+        return ALL;
+    }
+
+    /**
+     * Build từ danh sách "RESOURCE:ACTION"
+     */
+    public static PermissionSet fromStrings(Collection<String> permissions) {
+        if (permissions == null || permissions.isEmpty()) {
+            return EMPTY;
+        }
+
+        Builder builder = new Builder();
+        for (String permission : permissions) {
+            if (permission == null) continue;
+            int idx = permission.indexOf(':');
+            if (idx <= 0 || idx == permission.length() - 1) continue;
+            builder.add(permission.substring(0, idx), permission.substring(idx + 1));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Build từ permission matrix: resource -> actions (format của SecurityUser)
+     */
+    public static PermissionSet fromMatrix(Map<String, ? extends Collection<String>> matrix, boolean superAdmin) {
+        if (superAdmin) {
+            return ALL;
+        }
+        if (matrix == null || matrix.isEmpty()) {
+            return EMPTY;
+        }
+
+        Builder builder = new Builder();
+        for (Map.Entry<String, ? extends Collection<String>> entry : matrix.entrySet()) {
+            if (entry.getKey() == null || entry.getValue() == null) continue;
+            for (String action : entry.getValue()) {
+                builder.add(entry.getKey(), action);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Check quyền - không allocate, O(1)
+     */
+    public boolean allows(String resource, String action) {
+        if (superAdmin) {
+            return true;
+        }
+        if (resource == null || action == null) {
+            return false;
+        }
+
+        Grant grant = grants.get(resource);
+        if (grant != null && (grant.allActions || grant.actions.contains(action))) {
+            return true;
+        }
+        return anyResourceActions.contains(action);
+    }
+
+    public boolean isSuperAdmin() {
+        return superAdmin;
+    }
+
+    public boolean isEmpty() {
+        return !superAdmin && grants.isEmpty() && anyResourceActions.isEmpty();
+    }
+
+    /**
+     * Grant cho một resource
+     */
+    private static final class Grant {
+        private boolean allActions;
+        private Set<String> actions = Collections.emptySet();
+    }
+
+    /**
+     * Builder - chỉ dùng lúc build, không dùng trên hot path
+     */
+    private static final class Builder {
+        private final Map<String, Grant> grants = new HashMap<>();
+        private final Set<String> anyResourceActions = new HashSet<>();
+        private boolean superAdmin;
+
+        void add(String resource, String action) {
+            if (resource == null || action == null) return;
+
+            boolean anyResource = WILDCARD.equals(resource);
+            boolean anyAction = WILDCARD.equals(action);
+
+            if (anyResource && anyAction) {
+                superAdmin = true;
+            } else if (anyResource) {
+                anyResourceActions.add(action);
+            } else {
+                Grant grant = grants.computeIfAbsent(resource, k -> new Grant());
+                if (anyAction) {
+                    grant.allActions = true;
+                } else {
+                    if (grant.actions.isEmpty()) {
+                        grant.actions = new HashSet<>();
+                    }
+                    grant.actions.add(action);
+                }
+            }
+        }
+
+        PermissionSet build() {
+            if (superAdmin) {
+                return ALL;
+            }
+            if (grants.isEmpty() && anyResourceActions.isEmpty()) {
+                return EMPTY;
+            }
+            for (Grant grant : grants.values()) {
+                grant.actions = grant.allActions ? Collections.emptySet() : Set.copyOf(grant.actions);
+            }
+            return new PermissionSet(Map.copyOf(grants), Set.copyOf(anyResourceActions), false);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.eduplatform.common.vertx.security;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * ResolvedPermissions - Permissions của 1 user đã load + index sẵn, immutable
+ *
+ * Dùng chung giữa các request của cùng user (cache của PermissionResolver):
+ * principal gắn thẳng instance này, không copy Set, không build lại PermissionSet.
+ */
+public record ResolvedPermissions(Set<String> permissions, PermissionSet index) {
+
+    private static final ResolvedPermissions NONE = new ResolvedPermissions(Set.of(), PermissionSet.empty());
+
+    public static ResolvedPermissions none() {
+        return NONE;
+    }
+
+    /**
+     * Từ danh sách "RESOURCE:ACTION"
+     */
+    public static ResolvedPermissions of(Collection<String> permissions) {
+        if (permissions == null || permissions.isEmpty()) {
+            return NONE;
+        }
+        Set<String> copy = Set.copyOf(permissions);
+        return new ResolvedPermissions(copy, PermissionSet.fromStrings(copy));
+    }
+
+    /**
+     * Từ permission matrix: resource -> actions
+     */
+    public static ResolvedPermissions fromMatrix(Map<String, ? extends Collection<String>> matrix) {
+        if (matrix == null || matrix.isEmpty()) {
+            return NONE;
+        }
+        Set<String> permissions = new HashSet<>();
+        matrix.forEach((resource, actions) -> {
+            if (actions != null) {
+                actions.forEach(action -> permissions.add(resource + ":" + action));
+            }
+        });
+        return of(permissions);
+    }
+}
@@ -1,6 +1,7 @@
 package com.eduplatform.common.vertx.security;
 
 import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
 import io.vertx.ext.web.handler.BodyHandler;
 import lombok.Builder;
 import lombok.Getter;
@@ -9,6 +10,7 @@ import lombok.extern.slf4j.Slf4j;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Predicate;
 
 /**
  * VertxSecurityConfig - Cấu hình bảo mật cho Vert.x Router
@@ -60,6 +62,14 @@ public class VertxSecurityConfig {
      * Apply security configuration to router
      */
     public void apply(Router router) {
+        apply(router, ctx -> false);
+    }
+    
+    /**
+     * Apply security configuration, bỏ qua BodyHandler cho request stream body
+     * (route tự đọc ReadStream, không buffer cả body vào memory)
+     */
+    public void apply(Router router, Predicate<RoutingContext> streamingBody) {
         // 1. Apply BodyHandler với limits cho các routes thông thường
         BodyHandler standardHandler = BodyHandler.create()
                 .setBodyLimit(bodyLimit)
@@ -77,7 +87,13 @@ public class VertxSecurityConfig {
         }
         
         // Apply standard handler cho tất cả routes còn lại
-        router.route().handler(standardHandler);
+        router.route().handler(ctx -> {
+            if (streamingBody.test(ctx)) {
+                ctx.next();
+            } else {
+                standardHandler.handle(ctx);
+            }
+        });
         
         log.info("VertxSecurityConfig applied: bodyLimit={}KB, uploadLimit={}MB, publicPaths={}", 
                 bodyLimit / 1024, uploadLimit / (1024 * 1024), publicPaths.size());
@@ -0,0 +1,179 @@
+package com.eduplatform.common.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EntityCacheTest {
+
+    private static final Duration TTL = Duration.ofMinutes(5);
+
+    // Mỗi caller 1 thread riêng (common pool có thể chỉ có 1 thread)
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void loadsOnceThenHits() {
+        EntityCache<String, String> cache = EntityCache.create("test.loadsOnce", 10, TTL);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("v", cache.get("k", () -> {
+            loads.incrementAndGet();
+            return "v";
+        }));
+        assertEquals("v", cache.get("k", () -> {
+            loads.incrementAndGet();
+            return "other";
+        }));
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.stats().hits());
+    }
+
+    @Test
+    void nullIsNotCached() {
+        EntityCache<String, String> cache = EntityCache.create("test.null", 10, TTL);
+
+        assertNull(cache.get("k", () -> null));
+        assertEquals("v", cache.get("k", () -> "v"));
+    }
+
+    @Test
+    void invalidateDuringLoadDiscardsLoadedValue() throws Exception {
+        EntityCache<String, String> cache = EntityCache.create("test.invalidateDuringLoad", 10, TTL);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> load = CompletableFuture.supplyAsync(() -> cache.get("k", () -> {
+            loading.countDown();
+            await(release);
+            return "stale";
+        }), executor);
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        cache.invalidate("k");
+        release.countDown();
+
+        // Caller của load vẫn nhận giá trị, nhưng cache không giữ giá trị cũ
+        assertEquals("stale", load.get(5, TimeUnit.SECONDS));
+        assertNull(cache.getIfPresent("k"));
+        assertEquals("fresh", cache.get("k", () -> "fresh"));
+    }
+
+    @Test
+    void invalidateOtherKeyDoesNotAffectLoad() throws Exception {
+        EntityCache<String, String> cache = EntityCache.create("test.invalidateOther", 10, TTL);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> load = CompletableFuture.supplyAsync(() -> cache.get("k", () -> {
+            loading.countDown();
+            await(release);
+            return "v";
+        }), executor);
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        cache.invalidate("other");
+        release.countDown();
+
+        assertEquals("v", load.get(5, TimeUnit.SECONDS));
+        assertEquals("v", cache.getIfPresent("k"));
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        EntityCache<String, String> cache = EntityCache.create("test.coalesce", 10, TTL);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> cache.get("k", () -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            await(release);
+            return "v";
+        }), executor);
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<String> waiter = CompletableFuture.supplyAsync(() -> cache.get("k", () -> {
+            loads.incrementAndGet();
+            return "second";
+        }), executor);
+        waitForCoalesced(cache);
+        release.countDown();
+
+        assertEquals("v", leader.get(5, TimeUnit.SECONDS));
+        assertEquals("v", waiter.get(5, TimeUnit.SECONDS));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void errorInLoaderIsPropagatedToWaiters() throws Exception {
+        EntityCache<String, String> cache = EntityCache.create("test.error", 10, TTL);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> cache.get("k", () -> {
+            loading.countDown();
+            await(release);
+            throw new StackOverflowError("loader");
+        }), executor);
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<String> waiter = CompletableFuture.supplyAsync(() -> cache.get("k", () -> "second"), executor);
+        waitForCoalesced(cache);
+        release.countDown();
+
+        ExecutionException leaderError = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+        ExecutionException waiterError = assertThrows(ExecutionException.class, () -> waiter.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(StackOverflowError.class, leaderError.getCause());
+        assertInstanceOf(StackOverflowError.class, waiterError.getCause());
+        assertEquals(1, cache.stats().loadFailures());
+    }
+
+    @Test
+    void overflowEvictsDownToBound() {
+        EntityCache<Integer, Integer> cache = EntityCache.create("test.evict", 10, TTL);
+        for (int i = 0; i < 25; i++) {
+            int value = i;
+            cache.get(i, () -> value);
+        }
+        assertTrue(cache.size() <= 10);
+        assertTrue(cache.stats().evictions() > 0);
+    }
+
+    private static void waitForCoalesced(EntityCache<?, ?> cache) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (cache.stats().coalescedLoads() == 0) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("waiter did not join the in-flight load");
+            }
+            Thread.sleep(1);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
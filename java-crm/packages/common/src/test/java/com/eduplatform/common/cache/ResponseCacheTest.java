@@ -0,0 +1,137 @@
+package com.eduplatform.common.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ResponseCacheTest {
+
+    private static final Duration TTL = Duration.ofMinutes(1);
+
+    @Test
+    void storesAndReturnsBodyWithEtag() {
+        ResponseCache cache = new ResponseCache(1024, false);
+        cache.put(cache.ticket("k", Set.of("USER"), TTL), bytes("{\"a\":1}"), "W/\"1\"");
+
+        ResponseCache.Hit hit = cache.get("k");
+        assertNotNull(hit);
+        assertArrayEquals(bytes("{\"a\":1}"), hit.body());
+        assertEquals("W/\"1\"", hit.etag());
+    }
+
+    @Test
+    void offHeapReturnsSameBody() {
+        ResponseCache cache = new ResponseCache(1024, true);
+        cache.put(cache.ticket("k", Set.of("USER"), TTL), bytes("{\"a\":1}"), null);
+
+        assertArrayEquals(bytes("{\"a\":1}"), cache.get("k").body());
+        assertEquals(7, cache.stats().bytes());
+    }
+
+    @Test
+    void invalidateTagBetweenTicketAndPutDiscardsLoad() {
+        ResponseCache cache = new ResponseCache(1024, false);
+        ResponseCache.Ticket ticket = cache.ticket("k", Set.of("USER"), TTL);
+
+        // Write route chạy trong lúc load → kết quả load đã cũ
+        cache.invalidateTag("USER");
+        cache.put(ticket, bytes("stale"), null);
+
+        assertNull(cache.get("k"));
+        assertEquals(0, cache.stats().stores());
+    }
+
+    @Test
+    void invalidateOtherTagKeepsLoad() {
+        ResponseCache cache = new ResponseCache(1024, false);
+        ResponseCache.Ticket ticket = cache.ticket("k", Set.of("USER"), TTL);
+
+        cache.invalidateTag("ROLE");
+        cache.put(ticket, bytes("v"), null);
+
+        assertNotNull(cache.get("k"));
+    }
+
+    @Test
+    void invalidateTagRemovesStoredEntries() {
+        ResponseCache cache = new ResponseCache(1024, false);
+        cache.put(cache.ticket("users", Set.of("USER"), TTL), bytes("u"), null);
+        cache.put(cache.ticket("roles", Set.of("ROLE"), TTL), bytes("r"), null);
+
+        cache.invalidateTag("USER");
+
+        assertNull(cache.get("users"));
+        assertNotNull(cache.get("roles"));
+        assertEquals(1, cache.stats().bytes());
+    }
+
+    @Test
+    void invalidateAllDiscardsInFlightLoads() {
+        ResponseCache cache = new ResponseCache(1024, false);
+        cache.put(cache.ticket("a", Set.of("USER"), TTL), bytes("a"), null);
+        ResponseCache.Ticket ticket = cache.ticket("b", Set.of("USER"), TTL);
+
+        cache.invalidateAll();
+        cache.put(ticket, bytes("b"), null);
+
+        assertNull(cache.get("a"));
+        assertNull(cache.get("b"));
+    }
+
+    @Test
+    void expiredEntryIsMiss() {
+        ResponseCache cache = new ResponseCache(1024, false);
+        cache.put(cache.ticket("k", Set.of("USER"), Duration.ZERO), bytes("v"), null);
+
+        assertNull(cache.get("k"));
+        assertEquals(0, cache.stats().size());
+    }
+
+    @Test
+    void oversizedBodyIsRejected() {
+        ResponseCache cache = new ResponseCache(80, false);
+        cache.put(cache.ticket("k", Set.of("USER"), TTL), new byte[11], null);
+
+        assertNull(cache.get("k"));
+        assertEquals(1, cache.stats().rejected());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedWhenFull() {
+        ResponseCache cache = new ResponseCache(80, false);
+        cache.put(cache.ticket("a", Set.of("USER"), TTL), new byte[10], null);
+        cache.put(cache.ticket("b", Set.of("USER"), TTL), new byte[10], null);
+        for (int i = 0; i < 6; i++) {
+            cache.put(cache.ticket("x" + i, Set.of("USER"), TTL), new byte[10], null);
+        }
+        // Đầy (80 bytes): "a" vừa được đọc → "b" ít dùng nhất bị bỏ
+        assertNotNull(cache.get("a"));
+        cache.put(cache.ticket("c", Set.of("USER"), TTL), new byte[10], null);
+
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(80, cache.stats().bytes());
+        assertEquals(1, cache.stats().evictions());
+    }
+
+    @Test
+    void replacingKeyKeepsByteAccounting() {
+        ResponseCache cache = new ResponseCache(1024, false);
+        cache.put(cache.ticket("k", Set.of("USER"), TTL), new byte[10], null);
+        cache.put(cache.ticket("k", Set.of("USER"), TTL), new byte[4], null);
+
+        assertEquals(1, cache.stats().size());
+        assertEquals(4, cache.stats().bytes());
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,172 @@
+package com.eduplatform.common.db;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchLoaderTest {
+
+    // Mỗi caller 1 thread riêng (common pool có thể chỉ có 1 thread)
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void singleCallerLoadsWithoutWaiting() {
+        List<Set<String>> calls = new CopyOnWriteArrayList<>();
+        BatchLoader<String, String> loader = BatchLoader.create("test.single", Duration.ofSeconds(10), 16,
+                keys -> {
+                    calls.add(Set.copyOf(keys));
+                    return Map.of("a", "A");
+                });
+
+        assertEquals("A", loader.load("a"));
+        assertNull(loader.load("missing"));
+        assertNull(loader.load(null));
+        assertEquals(List.of(Set.of("a"), Set.of("missing")), calls);
+    }
+
+    @Test
+    void runtimeExceptionIsThrownToCaller() {
+        IllegalStateException failure = new IllegalStateException("db down");
+        BatchLoader<String, String> loader = BatchLoader.create("test.runtime", Duration.ZERO, 16,
+                keys -> {
+                    throw failure;
+                });
+
+        assertSame(failure, assertThrows(IllegalStateException.class, () -> loader.load("a")));
+        assertEquals(1, loader.stats().failures());
+    }
+
+    /**
+     * Leader đang chờ window + caller làm đầy batch: batch ném Error → cả 2 nhận Error, không treo
+     */
+    @Test
+    void errorInBatchCompletesEveryCaller() throws Exception {
+        CountDownLatch busyLoading = new CountDownLatch(1);
+        CountDownLatch blockFirst = new CountDownLatch(1);
+        BatchLoader<String, String> loader = BatchLoader.create("test.error", Duration.ofSeconds(1), 2,
+                keys -> {
+                    if (keys.contains("busy")) {
+                        busyLoading.countDown();
+                        await(blockFirst);
+                        return Map.of("busy", "B");
+                    }
+                    throw new StackOverflowError("batch");
+                });
+
+        // Giữ 1 caller đang load → leader của batch sau sẽ chờ window
+        CompletableFuture<String> busy = CompletableFuture.supplyAsync(() -> loader.load("busy"), executor);
+        assertTrue(busyLoading.await(5, TimeUnit.SECONDS));
+
+        AtomicReference<Thread> leaderThread = new AtomicReference<>();
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> {
+            leaderThread.set(Thread.currentThread());
+            return loader.load("a");
+        }, executor);
+        waitForParked(leaderThread);
+
+        CompletableFuture<String> filler = CompletableFuture.supplyAsync(() -> loader.load("b"), executor);
+
+        ExecutionException fillerError = assertThrows(ExecutionException.class, () -> filler.get(5, TimeUnit.SECONDS));
+        ExecutionException leaderError = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(StackOverflowError.class, fillerError.getCause());
+        assertInstanceOf(StackOverflowError.class, leaderError.getCause());
+
+        blockFirst.countDown();
+        assertEquals("B", busy.get(5, TimeUnit.SECONDS));
+        assertEquals(1, loader.stats().failures());
+    }
+
+    @Test
+    void duplicateKeysInBatchShareResult() throws Exception {
+        CountDownLatch busyLoading = new CountDownLatch(1);
+        CountDownLatch blockFirst = new CountDownLatch(1);
+        List<Set<String>> calls = new CopyOnWriteArrayList<>();
+        BatchLoader<String, String> loader = BatchLoader.create("test.dedup", Duration.ofSeconds(1), 2,
+                keys -> {
+                    calls.add(Set.copyOf(keys));
+                    if (keys.contains("busy")) {
+                        busyLoading.countDown();
+                        await(blockFirst);
+                    }
+                    Map<String, String> result = new HashMap<>();
+                    keys.forEach(key -> result.put(key, key.toUpperCase()));
+                    return result;
+                });
+
+        CompletableFuture<String> busy = CompletableFuture.supplyAsync(() -> loader.load("busy"), executor);
+        assertTrue(busyLoading.await(5, TimeUnit.SECONDS));
+
+        AtomicReference<Thread> leaderThread = new AtomicReference<>();
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> {
+            leaderThread.set(Thread.currentThread());
+            return loader.load("a");
+        }, executor);
+        waitForParked(leaderThread);
+        CompletableFuture<String> duplicate = CompletableFuture.supplyAsync(() -> loader.load("a"), executor);
+        waitFor(() -> loader.stats().dedupHits() == 1);
+        CompletableFuture<String> filler = CompletableFuture.supplyAsync(() -> loader.load("b"), executor);
+
+        assertEquals("A", duplicate.get(10, TimeUnit.SECONDS));
+        assertEquals("B", filler.get(10, TimeUnit.SECONDS));
+        assertEquals("A", leader.get(10, TimeUnit.SECONDS));
+        blockFirst.countDown();
+        assertEquals("BUSY", busy.get(5, TimeUnit.SECONDS));
+
+        assertTrue(calls.contains(Set.of("a", "b")));
+        assertEquals(1, loader.stats().dedupHits());
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("condition not reached");
+            }
+            Thread.sleep(1);
+        }
+    }
+
+    private static void waitForParked(AtomicReference<Thread> thread) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (thread.get() == null || thread.get().getState() != Thread.State.TIMED_WAITING) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("leader did not wait for the batch window");
+            }
+            Thread.sleep(1);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
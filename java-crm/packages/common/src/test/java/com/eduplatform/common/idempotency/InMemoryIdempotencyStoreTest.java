@@ -0,0 +1,97 @@
+package com.eduplatform.common.idempotency;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class InMemoryIdempotencyStoreTest {
+
+    private static final Duration LEASE = Duration.ofMinutes(1);
+    private static final Duration TTL = Duration.ofHours(1);
+
+    private final InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(100);
+
+    @Test
+    void firstClaimAcquires() {
+        assertSame(IdempotencyStore.Claim.ACQUIRED, claim("k", "f"));
+    }
+
+    @Test
+    void claimWhileRunningIsInProgress() {
+        claim("k", "f");
+
+        assertSame(IdempotencyStore.Claim.IN_PROGRESS, claim("k", "f"));
+    }
+
+    @Test
+    void sameKeyDifferentRequestIsMismatch() {
+        claim("k", "f");
+
+        assertSame(IdempotencyStore.Claim.MISMATCH, claim("k", "other"));
+    }
+
+    @Test
+    void completedKeyReplaysResponse() {
+        claim("k", "f");
+        store.complete("k", new IdempotencyStore.StoredResponse(201, bytes("{\"id\":1}")), TTL).blockingAwait();
+
+        IdempotencyStore.Claim replay = claim("k", "f");
+
+        assertEquals(IdempotencyStore.ClaimStatus.COMPLETED, replay.status());
+        assertEquals(201, replay.response().status());
+        assertArrayEquals(bytes("{\"id\":1}"), replay.response().body());
+        assertSame(IdempotencyStore.Claim.MISMATCH, claim("k", "other"));
+    }
+
+    @Test
+    void releasedKeyCanBeClaimedAgain() {
+        claim("k", "f");
+        store.release("k").blockingAwait();
+
+        assertSame(IdempotencyStore.Claim.ACQUIRED, claim("k", "f"));
+    }
+
+    @Test
+    void expiredLeaseCanBeClaimedAgain() {
+        store.claim("k", "f", Duration.ZERO).blockingGet();
+
+        // Instance giữ key chết → key mở lại khi hết lease, kể cả với request khác
+        assertSame(IdempotencyStore.Claim.ACQUIRED, claim("k", "other"));
+    }
+
+    @Test
+    void completeAfterReleaseIsIgnored() {
+        claim("k", "f");
+        store.release("k").blockingAwait();
+        store.complete("k", new IdempotencyStore.StoredResponse(200, bytes("{}")), TTL).blockingAwait();
+
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void overflowEvictsCompletedButKeepsInProgress() {
+        InMemoryIdempotencyStore small = new InMemoryIdempotencyStore(2);
+        small.claim("running", "f", LEASE).blockingGet();
+        small.claim("done", "f", LEASE).blockingGet();
+        small.complete("done", new IdempotencyStore.StoredResponse(200, bytes("{}")), TTL).blockingAwait();
+
+        small.claim("new", "f", LEASE).blockingGet();
+
+        assertEquals(2, small.size());
+        assertSame(IdempotencyStore.Claim.IN_PROGRESS, small.claim("running", "f", LEASE).blockingGet());
+        assertSame(IdempotencyStore.Claim.ACQUIRED, small.claim("done", "f", LEASE).blockingGet());
+    }
+
+    private IdempotencyStore.Claim claim(String key, String fingerprint) {
+        return store.claim(key, fingerprint, LEASE).blockingGet();
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
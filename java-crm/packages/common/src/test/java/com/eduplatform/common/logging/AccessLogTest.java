@@ -0,0 +1,131 @@
+package com.eduplatform.common.logging;
+
+import com.eduplatform.common.constant.ErrorCode;
+import com.eduplatform.common.exception.AppException;
+import com.eduplatform.common.metrics.PrometheusWriter;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.ext.web.RoutingContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AccessLogTest {
+
+    @Test
+    void everyEntryIsWrittenOrCountedAsDropped() throws Exception {
+        // Ring nhỏ + nhiều producer → vừa ghi vừa drop, không mất / trùng entry nào
+        AccessLog accessLog = accessLog(8);
+        RoutingContext ctx = request();
+        int producers = 4;
+        int perProducer = 2_000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<Void>> runs = new ArrayList<>();
+        try {
+            for (int p = 0; p < producers; p++) {
+                runs.add(CompletableFuture.runAsync(() -> {
+                    await(start);
+                    for (int i = 0; i < perProducer; i++) {
+                        accessLog.access(ctx, System.nanoTime(), 200);
+                    }
+                }, executor));
+            }
+            start.countDown();
+            CompletableFuture.allOf(runs.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+            accessLog.stop();
+        }
+
+        assertEquals(producers * perProducer,
+                metric(accessLog, "access_log_lines_total") + metric(accessLog, "access_log_dropped_total"));
+        assertEquals(0, metric(accessLog, "access_log_queue_depth"));
+    }
+
+    @Test
+    void entriesAreDrainedWhenRingIsNotFull() throws Exception {
+        AccessLog accessLog = accessLog(1024);
+        RoutingContext ctx = request();
+        try {
+            for (int i = 0; i < 100; i++) {
+                accessLog.access(ctx, System.nanoTime(), 200);
+            }
+        } finally {
+            accessLog.stop();
+        }
+
+        assertEquals(100, metric(accessLog, "access_log_lines_total"));
+        assertEquals(0, metric(accessLog, "access_log_dropped_total"));
+    }
+
+    @Test
+    void repeatedErrorsAreSampled() throws Exception {
+        AccessLog accessLog = new AccessLog();
+        ReflectionTestUtils.setField(accessLog, "errorsPerSecond", 2);
+        accessLog.start();
+        RoutingContext ctx = request();
+        try {
+            for (int i = 0; i < 10; i++) {
+                accessLog.error(ctx, new AppException(ErrorCode.BAD_REQUEST), 400);
+            }
+        } finally {
+            accessLog.stop();
+        }
+
+        assertTrue(metric(accessLog, "access_log_errors_suppressed_total") >= 8);
+    }
+
+    private static AccessLog accessLog(int capacity) {
+        AccessLog accessLog = new AccessLog();
+        ReflectionTestUtils.setField(accessLog, "capacity", capacity);
+        accessLog.start();
+        return accessLog;
+    }
+
+    private static RoutingContext request() {
+        HttpServerRequest request = mock(HttpServerRequest.class);
+        when(request.method()).thenReturn(HttpMethod.GET);
+        when(request.path()).thenReturn("/api/v1/users");
+        HttpServerResponse response = mock(HttpServerResponse.class);
+        when(response.bytesWritten()).thenReturn(42L);
+
+        RoutingContext ctx = mock(RoutingContext.class);
+        when(ctx.request()).thenReturn(request);
+        when(ctx.response()).thenReturn(response);
+        return ctx;
+    }
+
+    private static long metric(AccessLog accessLog, String name) {
+        PrometheusWriter writer = new PrometheusWriter();
+        accessLog.collect(writer);
+        for (String line : writer.toString().split("\n")) {
+            if (line.startsWith(name + " ")) {
+                return Long.parseLong(line.substring(name.length() + 1).trim());
+            }
+        }
+        throw new AssertionError("metric " + name + " not found");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
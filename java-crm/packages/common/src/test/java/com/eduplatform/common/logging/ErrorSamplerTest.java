@@ -0,0 +1,49 @@
+package com.eduplatform.common.logging;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ErrorSamplerTest {
+
+    @Test
+    void linesPerSecondAreCappedPerKey() {
+        ErrorSampler sampler = new ErrorSampler(2, 10);
+
+        assertNotNull(sampler.sample(IllegalStateException.class, false));
+        assertNotNull(sampler.sample(IllegalStateException.class, false));
+        assertNull(sampler.sample(IllegalStateException.class, false));
+        assertNull(sampler.sample(IllegalStateException.class, false));
+
+        // Loại lỗi khác có quota riêng
+        assertNotNull(sampler.sample(IllegalArgumentException.class, false));
+        assertEquals(2, sampler.suppressedTotal());
+    }
+
+    @Test
+    void stackTraceOnlyForServerErrorsAndCapped() {
+        ErrorSampler sampler = new ErrorSampler(100, 1);
+
+        assertFalse(sampler.sample("client", false).stackTrace());
+        assertTrue(sampler.sample("server", true).stackTrace());
+        assertFalse(sampler.sample("server", true).stackTrace());
+    }
+
+    @Test
+    void nextLoggedLineCarriesSuppressedCount() throws InterruptedException {
+        ErrorSampler sampler = new ErrorSampler(1, 10);
+
+        assertEquals(0, sampler.sample("key", false).suppressed());
+        assertNull(sampler.sample("key", false));
+        assertNull(sampler.sample("key", false));
+
+        Thread.sleep(1100);
+
+        assertEquals(2, sampler.sample("key", false).suppressed());
+        assertNull(sampler.sample("key", false));
+    }
+}
@@ -0,0 +1,66 @@
+package com.eduplatform.common.vertx.model;
+
+import com.eduplatform.common.constant.ErrorCode;
+import com.eduplatform.common.exception.AppException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CursorTest {
+
+    @Test
+    void encodeDecodeRoundTrip() {
+        Cursor cursor = new Cursor("createdAt", true, "2024-05-01T10:15:30.123456",
+                "0f8fad5b-d9cb-469f-a165-70867728950e");
+
+        Cursor decoded = Cursor.decode(cursor.encode());
+
+        assertEquals("createdAt", decoded.getSort());
+        assertTrue(decoded.isDescending());
+        assertEquals("2024-05-01T10:15:30.123456", decoded.getValue());
+        assertEquals("0f8fad5b-d9cb-469f-a165-70867728950e", decoded.getId());
+    }
+
+    @Test
+    void roundTripKeepsSeparatorsAndUnicodeInValue() {
+        Cursor cursor = new Cursor("lastName", false, "Nguyễn:Văn|A", "id");
+
+        Cursor decoded = Cursor.decode(cursor.encode());
+
+        assertFalse(decoded.isDescending());
+        assertEquals("Nguyễn:Văn|A", decoded.getValue());
+    }
+
+    @Test
+    void roundTripKeepsEmptyValue() {
+        assertEquals("", Cursor.decode(new Cursor("email", false, "", "id").encode()).getValue());
+    }
+
+    @Test
+    void encodedCursorIsUrlSafe() {
+        String encoded = new Cursor("createdAt", true, "??>>~~", "id").encode();
+
+        assertTrue(encoded.matches("[A-Za-z0-9_-]+"), encoded);
+    }
+
+    @Test
+    void invalidBase64IsBadRequest() {
+        AppException error = assertThrows(AppException.class, () -> Cursor.decode("not base64!"));
+        assertEquals(ErrorCode.BAD_REQUEST, error.getErrorCode());
+    }
+
+    @Test
+    void wrongPartCountIsBadRequest() {
+        String encoded = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("createdAt\u0000d\u0000value".getBytes(StandardCharsets.UTF_8));
+
+        AppException error = assertThrows(AppException.class, () -> Cursor.decode(encoded));
+        assertEquals(ErrorCode.BAD_REQUEST, error.getErrorCode());
+    }
+}
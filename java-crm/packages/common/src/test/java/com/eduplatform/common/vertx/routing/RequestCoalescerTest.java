@@ -0,0 +1,77 @@
+package com.eduplatform.common.vertx.routing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestCoalescerTest {
+
+    private final RequestCoalescer coalescer = new RequestCoalescer();
+
+    @Test
+    void firstCallerLeadsAndWaitersReceiveLeaderOutcome() {
+        List<RequestCoalescer.Outcome> received = new ArrayList<>();
+
+        RequestCoalescer.Flight flight = coalescer.join("k", outcome -> {
+            throw new AssertionError("leader must not be registered as waiter");
+        });
+        assertNotNull(flight);
+        assertNull(coalescer.join("k", received::add));
+        assertNull(coalescer.join("k", received::add));
+        assertEquals(1, coalescer.inFlight());
+
+        RequestCoalescer.Outcome outcome = RequestCoalescer.Outcome.body(200, new byte[]{1}, "W/\"1\"");
+        coalescer.complete(flight, outcome);
+
+        assertEquals(List.of(outcome, outcome), received);
+        assertEquals(0, coalescer.inFlight());
+    }
+
+    @Test
+    void joinAfterCompleteStartsNewFlight() {
+        RequestCoalescer.Flight first = coalescer.join("k", outcome -> {});
+        coalescer.complete(first, RequestCoalescer.Outcome.body(200, new byte[0], null));
+
+        RequestCoalescer.Flight second = coalescer.join("k", outcome -> {});
+        assertNotNull(second);
+        assertTrue(first != second);
+    }
+
+    @Test
+    void nullOutcomeIsDeliveredSoWaitersRunThemselves() {
+        List<RequestCoalescer.Outcome> received = new ArrayList<>();
+        RequestCoalescer.Flight flight = coalescer.join("k", outcome -> {});
+        coalescer.join("k", received::add);
+
+        coalescer.complete(flight, null);
+
+        assertEquals(1, received.size());
+        assertNull(received.get(0));
+    }
+
+    @Test
+    void failureIsSharedWithWaiters() {
+        List<RequestCoalescer.Outcome> received = new ArrayList<>();
+        RequestCoalescer.Flight flight = coalescer.join("k", outcome -> {});
+        coalescer.join("k", received::add);
+
+        IllegalStateException error = new IllegalStateException("boom");
+        coalescer.complete(flight, RequestCoalescer.Outcome.failure(error));
+
+        assertSame(error, received.get(0).error());
+    }
+
+    @Test
+    void differentKeysDoNotCoalesce() {
+        assertNotNull(coalescer.join("a", outcome -> {}));
+        assertNotNull(coalescer.join("b", outcome -> {}));
+        assertEquals(2, coalescer.inFlight());
+    }
+}
@@ -0,0 +1,93 @@
+package com.eduplatform.common.vertx.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PermissionSetTest {
+
+    @Test
+    void exactPermission() {
+        PermissionSet set = PermissionSet.fromStrings(Set.of("USER:VIEW"));
+
+        assertTrue(set.allows("USER", "VIEW"));
+        assertFalse(set.allows("USER", "DELETE"));
+        assertFalse(set.allows("ROLE", "VIEW"));
+    }
+
+    @Test
+    void resourceWildcardAllowsEveryAction() {
+        PermissionSet set = PermissionSet.fromStrings(Set.of("ROLE:*"));
+
+        assertTrue(set.allows("ROLE", "DELETE"));
+        assertFalse(set.allows("USER", "DELETE"));
+    }
+
+    @Test
+    void actionWildcardAllowsEveryResource() {
+        PermissionSet set = PermissionSet.fromStrings(Set.of("*:VIEW"));
+
+        assertTrue(set.allows("USER", "VIEW"));
+        assertTrue(set.allows("FINANCE", "VIEW"));
+        assertFalse(set.allows("USER", "UPDATE"));
+    }
+
+    @Test
+    void fullWildcardIsSuperAdmin() {
+        PermissionSet set = PermissionSet.fromStrings(Set.of("USER:VIEW", "*:*"));
+
+        assertSame(PermissionSet.all(), set);
+        assertTrue(set.allows("ANY", "THING"));
+    }
+
+    @Test
+    void malformedEntriesAreIgnored() {
+        PermissionSet set = PermissionSet.fromStrings(Arrays.asList(null, "", "USER", ":VIEW", "USER:"));
+
+        assertSame(PermissionSet.empty(), set);
+        assertTrue(set.isEmpty());
+        assertFalse(set.allows("USER", "VIEW"));
+    }
+
+    @Test
+    void nullResourceOrActionIsDenied() {
+        PermissionSet set = PermissionSet.fromStrings(Set.of("USER:*"));
+
+        assertFalse(set.allows(null, "VIEW"));
+        assertFalse(set.allows("USER", null));
+    }
+
+    @Test
+    void fromMatrixMatchesFromStrings() {
+        PermissionSet set = PermissionSet.fromMatrix(Map.of("USER", List.of("VIEW", "ADD"), "ROLE", List.of("*")), false);
+
+        assertTrue(set.allows("USER", "ADD"));
+        assertTrue(set.allows("ROLE", "DELETE"));
+        assertFalse(set.allows("USER", "DELETE"));
+        assertSame(PermissionSet.all(), PermissionSet.fromMatrix(Map.of(), true));
+    }
+
+    @Test
+    void resolvedPermissionsIndexMatchesPermissions() {
+        ResolvedPermissions resolved = ResolvedPermissions.fromMatrix(Map.of("USER", List.of("VIEW", "UPDATE")));
+
+        assertEquals(Set.of("USER:VIEW", "USER:UPDATE"), resolved.permissions());
+        assertTrue(resolved.index().allows("USER", "UPDATE"));
+        assertFalse(resolved.index().allows("USER", "DELETE"));
+    }
+
+    @Test
+    void resolvedPermissionsEmptyIsShared() {
+        assertSame(ResolvedPermissions.none(), ResolvedPermissions.of(List.of()));
+        assertSame(ResolvedPermissions.none(), ResolvedPermissions.fromMatrix(null));
+        assertTrue(ResolvedPermissions.none().index().isEmpty());
+    }
+}
@@ -0,0 +1,79 @@
+package com.eduplatform.infra.jooq.condition;
+
+import org.jooq.Condition;
+import org.jooq.Field;
+import org.jooq.impl.DSL;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+
+/**
+ * ArrayConditions - Filter theo tập giá trị bằng 1 array bind thay cho IN (?, ?, ...)
+ *
+ * {@code field.in(list)} render số placeholder theo độ dài list → mỗi độ dài là 1 câu SQL khác:
+ * prepared statement cache của driver / plan cache của server không tái dùng được,
+ * list rất lớn còn chạm giới hạn 32767 bind params của PostgreSQL.
+ *
+ * SQL sinh ra chỉ có 3 dạng, không phụ thuộc số phần tử:
+ * - 1 phần tử:         field = ?
+ * - ≤ SUBQUERY_THRESHOLD: field = ANY(?::uuid[])
+ * - lớn hơn:           field IN (SELECT unnest(?::uuid[]))  → planner được chọn semi-join
+ * - rỗng:              false (không bao giờ render IN ())
+ *
+ * Chưa có số đo: SUBQUERY_THRESHOLD là giá trị khởi điểm, chỉnh theo EXPLAIN ANALYZE
+ * trên dữ liệu thật. Số shape SQL kiểm tra được qua QueryMetrics / pg_stat_statements.
+ *
+ * Usage:
+ * <pre>
+ * condition = condition.and(ArrayConditions.in(USERS.ID, userIds));
+ * </pre>
+ */
+public final class ArrayConditions {
+
+    /**
+     * Trên ngưỡng này dùng unnest subquery (chưa benchmark, xem doc của class)
+     */
+    public static final int SUBQUERY_THRESHOLD = 1_000;
+
+    private ArrayConditions() {}
+
+    /**
+     * field IN values - 1 bind duy nhất
+     */
+    public static <T> Condition in(Field<T> field, Collection<? extends T> values) {
+        if (values == null || values.isEmpty()) {
+            return DSL.falseCondition();
+        }
+        if (values.size() == 1) {
+            return field.eq(DSL.val(values.iterator().next(), field));
+        }
+
+        Field<T[]> array = array(field, values);
+        if (values.size() > SUBQUERY_THRESHOLD) {
+            return field.in(DSL.select(DSL.field("unnest({0})", field.getDataType(), array)));
+        }
+        return field.eq(DSL.any(array));
+    }
+
+    /**
+     * field NOT IN values - rỗng → true
+     */
+    public static <T> Condition notIn(Field<T> field, Collection<? extends T> values) {
+        if (values == null || values.isEmpty()) {
+            return DSL.trueCondition();
+        }
+        if (values.size() == 1) {
+            return field.ne(DSL.val(values.iterator().next(), field));
+        }
+        return field.ne(DSL.all(array(field, values)));
+    }
+
+    /**
+     * Bind values thành 1 array param cùng kiểu với field (VD: uuid[], varchar[])
+     */
+    public static <T> Field<T[]> array(Field<T> field, Collection<? extends T> values) {
+        @SuppressWarnings("unchecked")
+        T[] typed = values.toArray((T[]) Array.newInstance(field.getType(), values.size()));
+        return DSL.val(typed, field.getDataType().getArrayDataType());
+    }
+}
@@ -0,0 +1,71 @@
+package com.eduplatform.infra.jooq.condition;
+
+import com.eduplatform.common.domain.DataScopeFilter;
+import org.jooq.Condition;
+import org.jooq.Field;
+import org.jooq.impl.DSL;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * DataScopeConditionProvider - Chuyển DataScopeFilter thành điều kiện SQL
+ *
+ * Filter được đẩy xuống database để list và count dùng cùng một điều kiện,
+ * phân trang và total luôn đúng, không phải load rows rồi lọc trong Java.
+ *
+ * Predicate sinh ra đều index-friendly:
+ * - OWN:        created_by = ?
+ * - DEPARTMENT: department_id = ?  (nếu bảng có cột department)
+ *               created_by = ANY(?::uuid[])  (bản thân + cấp dưới, 1 array bind)
+ * - ALL:        true
+ *
+ * Usage trong repository:
+ * <pre>
+ * condition = condition.and(DataScopeConditionProvider.of(scope, USERS.CREATED_BY));
+ * </pre>
+ */
+public final class DataScopeConditionProvider {
+
+    private DataScopeConditionProvider() {}
+
+    /**
+     * Điều kiện theo owner column (created_by)
+     */
+    public static Condition of(DataScopeFilter filter, Field<UUID> ownerField) {
+        return of(filter, ownerField, null);
+    }
+
+    /**
+     * Điều kiện theo owner column và department column (nullable)
+     */
+    public static Condition of(DataScopeFilter filter, Field<UUID> ownerField, Field<UUID> departmentField) {
+        if (filter == null || filter.isUnrestricted()) {
+            return DSL.trueCondition();
+        }
+
+        return switch (filter.getScope()) {
+            case ALL -> DSL.trueCondition();
+            case OWN -> ownedBy(ownerField, filter.getUserId());
+            case DEPARTMENT -> {
+                if (departmentField != null && filter.getDepartmentId() != null) {
+                    yield departmentField.eq(filter.getDepartmentId());
+                }
+                yield ownedByAny(ownerField, filter.getVisibleOwnerIds());
+            }
+        };
+    }
+
+    private static Condition ownedBy(Field<UUID> ownerField, UUID userId) {
+        // Không xác định được user → không thấy gì (fail closed)
+        return userId != null ? ownerField.eq(userId) : DSL.falseCondition();
+    }
+
+    private static Condition ownedByAny(Field<UUID> ownerField, Set<UUID> ownerIds) {
+        if (ownerIds == null || ownerIds.isEmpty()) {
+            return DSL.falseCondition();
+        }
+        // 1 bind duy nhất dù số cấp dưới lớn → SQL ổn định, không chạm giới hạn bind params
+        return ArrayConditions.in(ownerField, ownerIds);
+    }
+}
@@ -0,0 +1,57 @@
+package com.eduplatform.infra.jooq.condition;
+
+import com.eduplatform.common.util.SearchTextUtils;
+import org.jooq.Condition;
+import org.jooq.Field;
+import org.jooq.impl.DSL;
+import org.jooq.impl.SQLDataType;
+
+import java.util.List;
+
+/**
+ * TrigramSearchConditionProvider - Điều kiện tìm kiếm trên cột search_text (pg_trgm)
+ * 
+ * Cột search_text đã được chuẩn hóa trong DB (lower + bỏ dấu) và có GIN index
+ * gin_trgm_ops, nên {@code search_text LIKE '%term%'} dùng được index thay vì
+ * seq scan như {@code lower(col) LIKE ...} trên từng cột.
+ * 
+ * - Mỗi từ trong query là một LIKE, AND với nhau ("van nguyen" khớp "Nguyễn Văn")
+ * - rank(): word_similarity để sắp xếp kết quả khớp tốt nhất lên đầu
+ * 
+ * Usage trong repository:
+ * <pre>
+ * condition = condition.and(TrigramSearchConditionProvider.matches(USERS_SEARCH_TEXT, query));
+ * ...orderBy(TrigramSearchConditionProvider.rank(USERS_SEARCH_TEXT, query).desc(), ...)
+ * </pre>
+ */
+public final class TrigramSearchConditionProvider {
+
+    private TrigramSearchConditionProvider() {}
+
+    /**
+     * Điều kiện khớp tất cả các từ trong query
+     */
+    public static Condition matches(Field<String> searchField, String query) {
+        List<String> tokens = SearchTextUtils.tokenize(query);
+        if (tokens.isEmpty()) {
+            return DSL.trueCondition();
+        }
+
+        Condition condition = DSL.trueCondition();
+        for (String token : tokens) {
+            condition = condition.and(searchField.like("%" + SearchTextUtils.escapeLike(token) + "%", '\\'));
+        }
+        return condition;
+    }
+
+    /**
+     * Điểm liên quan (0..1) của query so với search_text
+     */
+    public static Field<Float> rank(Field<String> searchField, String query) {
+        String normalized = SearchTextUtils.normalize(query);
+        if (normalized == null || normalized.isEmpty()) {
+            return DSL.inline(0f);
+        }
+        return DSL.field("word_similarity({0}, {1})", SQLDataType.REAL, DSL.val(normalized), searchField);
+    }
+}
@@ -0,0 +1,131 @@
+package com.eduplatform.infra.jooq.idempotency;
+
+import com.eduplatform.common.idempotency.IdempotencyStore;
+import com.eduplatform.infra.jooq.reactive.ReactiveJooqExecutor;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Single;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Record;
+import org.jooq.Table;
+import org.jooq.impl.DSL;
+import org.jooq.impl.SQLDataType;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * PostgresIdempotencyStore - IdempotencyStore dùng bảng idempotency_keys (V8)
+ *
+ * - claim: INSERT ... ON CONFLICT DO UPDATE ... WHERE expires_at &lt; now
+ *   → 1 row = giữ được key (mới hoặc thay key hết hạn), 0 row = key còn hạn → đọc trạng thái
+ * - Key đang chạy chỉ giữ trong lease (expires_at = now + lease), complete() mới gia hạn đến TTL
+ *   → instance chết giữa chừng không khoá key (IN_PROGRESS) suốt TTL
+ * - Dùng chung giữa các instance: retry của gateway sang instance khác vẫn replay được
+ * - Chạy qua ReactiveJooqExecutor (không chiếm worker thread)
+ * - Bounded bằng TTL: key hết hạn bị thay khi claim, claim() kích hoạt purgeExpired()
+ *   tối đa 1 lần mỗi purgeInterval (không cần scheduler riêng)
+ */
+@Slf4j
+public class PostgresIdempotencyStore implements IdempotencyStore {
+
+    private static final Table<Record> IDEMPOTENCY_KEYS = DSL.table(DSL.name("idempotency_keys"));
+    private static final Field<String> KEY = DSL.field(DSL.name("idempotency_key"), SQLDataType.VARCHAR);
+    private static final Field<String> FINGERPRINT = DSL.field(DSL.name("fingerprint"), SQLDataType.VARCHAR);
+    private static final Field<Integer> RESPONSE_STATUS = DSL.field(DSL.name("response_status"), SQLDataType.INTEGER);
+    private static final Field<String> RESPONSE_BODY = DSL.field(DSL.name("response_body"), SQLDataType.CLOB);
+    private static final Field<LocalDateTime> EXPIRES_AT = DSL.field(DSL.name("expires_at"), SQLDataType.LOCALDATETIME);
+
+    private final DSLContext dsl;
+    private final ReactiveJooqExecutor reactive;
+    private final long purgeIntervalNanos;
+    private final AtomicLong nextPurgeAt = new AtomicLong(System.nanoTime());
+
+    public PostgresIdempotencyStore(DSLContext dsl, ReactiveJooqExecutor reactive, Duration purgeInterval) {
+        this.dsl = dsl;
+        this.reactive = reactive;
+        this.purgeIntervalNanos = purgeInterval.toNanos();
+    }
+
+    @Override
+    public Single<Claim> claim(String key, String fingerprint, Duration lease) {
+        purgeIfDue();
+        LocalDateTime now = LocalDateTime.now();
+        return reactive.executeUpdate(dsl.insertInto(IDEMPOTENCY_KEYS)
+                        .columns(KEY, FINGERPRINT, EXPIRES_AT)
+                        .values(key, fingerprint, now.plus(lease))
+                        .onConflict(KEY)
+                        .doUpdate()
+                        .set(FINGERPRINT, fingerprint)
+                        .set(RESPONSE_STATUS, (Integer) null)
+                        .set(RESPONSE_BODY, (String) null)
+                        .set(EXPIRES_AT, now.plus(lease))
+                        .where(EXPIRES_AT.le(now)))
+                .flatMap(inserted -> inserted > 0
+                        ? Single.just(Claim.ACQUIRED)
+                        : reactive.fetchOptional(
+                                        dsl.select(FINGERPRINT, RESPONSE_STATUS, RESPONSE_BODY)
+                                                .from(IDEMPOTENCY_KEYS)
+                                                .where(KEY.eq(key)),
+                                        record -> toClaim(record, fingerprint))
+                                // Key vừa bị release giữa 2 lệnh → client retry
+                                .defaultIfEmpty(Claim.IN_PROGRESS));
+    }
+
+    @Override
+    public Completable complete(String key, StoredResponse response, Duration ttl) {
+        return reactive.executeUpdate(dsl.update(IDEMPOTENCY_KEYS)
+                        .set(RESPONSE_STATUS, response.status())
+                        .set(RESPONSE_BODY, new String(response.body(), StandardCharsets.UTF_8))
+                        .set(EXPIRES_AT, LocalDateTime.now().plus(ttl))
+                        .where(KEY.eq(key)))
+                .ignoreElement();
+    }
+
+    @Override
+    public Completable release(String key) {
+        return reactive.executeUpdate(dsl.deleteFrom(IDEMPOTENCY_KEYS)
+                        .where(KEY.eq(key))
+                        .and(RESPONSE_STATUS.isNull()))
+                .ignoreElement();
+    }
+
+    /**
+     * Xoá key hết hạn (gọi định kỳ)
+     */
+    public Single<Integer> purgeExpired() {
+        return reactive.executeUpdate(dsl.deleteFrom(IDEMPOTENCY_KEYS)
+                .where(EXPIRES_AT.le(LocalDateTime.now())));
+    }
+
+    private void purgeIfDue() {
+        long now = System.nanoTime();
+        long due = nextPurgeAt.get();
+        if (now - due < 0 || !nextPurgeAt.compareAndSet(due, now + purgeIntervalNanos)) {
+            return;
+        }
+        purgeExpired().subscribe(
+                purged -> {
+                    if (purged > 0) {
+                        log.debug("Purged {} expired idempotency keys", purged);
+                    }
+                },
+                error -> log.warn("Purge idempotency keys failed: {}", error.getMessage()));
+    }
+
+    private static Claim toClaim(Record record, String fingerprint) {
+        if (!fingerprint.equals(record.get(FINGERPRINT))) {
+            return Claim.MISMATCH;
+        }
+        Integer status = record.get(RESPONSE_STATUS);
+        if (status == null) {
+            return Claim.IN_PROGRESS;
+        }
+        String body = record.get(RESPONSE_BODY);
+        return Claim.completed(new StoredResponse(status,
+                body != null ? body.getBytes(StandardCharsets.UTF_8) : new byte[0]));
+    }
+}
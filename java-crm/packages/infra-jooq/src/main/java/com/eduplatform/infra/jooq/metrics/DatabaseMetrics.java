@@ -0,0 +1,101 @@
+package com.eduplatform.infra.jooq.metrics;
+
+import com.eduplatform.common.metrics.MetricsSource;
+import com.eduplatform.common.metrics.PrometheusWriter;
+import com.eduplatform.infra.jooq.routing.ReadReplicaConnectionProvider;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DatabaseMetrics - Hikari pool (primary + replicas), replica lag, tổng hợp QueryMetrics
+ *
+ * - hikari_*: connection active / idle / tổng / số thread đang chờ connection
+ *   (pending > 0 kéo dài = pool thiếu connection, không phải DB chậm)
+ * - db_queries_*: tổng trên mọi query shape (chi tiết theo shape xem QueryMetrics.snapshot(),
+ *   không đưa SQL vào label)
+ */
+public class DatabaseMetrics implements MetricsSource {
+
+    private final Map<String, DataSource> pools = new LinkedHashMap<>();
+    private final List<ReadReplicaConnectionProvider.Replica> replicas;
+    private final QueryMetrics queryMetrics;
+
+    public DatabaseMetrics(DataSource primary, ReadReplicaConnectionProvider replicaProvider,
+                           QueryMetrics queryMetrics) {
+        this.pools.put("primary", primary);
+        this.replicas = replicaProvider != null ? replicaProvider.getReplicas() : List.of();
+        this.replicas.forEach(replica -> pools.put(replica.getName(), replica.getDataSource()));
+        this.queryMetrics = queryMetrics;
+    }
+
+    @Override
+    public void collect(PrometheusWriter writer) {
+        Map<String, HikariDataSource> hikari = new LinkedHashMap<>();
+        pools.forEach((name, dataSource) -> {
+            HikariDataSource pool = unwrap(dataSource);
+            if (pool != null && pool.getHikariPoolMXBean() != null) {
+                hikari.put(name, pool);
+            }
+        });
+
+        writer.gauge("hikari_connections_max", "Maximum pool size");
+        hikari.forEach((name, pool) -> writer.sample("hikari_connections_max", pool.getMaximumPoolSize(), "pool", name));
+        writer.gauge("hikari_connections_active", "Connections in use");
+        hikari.forEach((name, pool) -> writer.sample("hikari_connections_active",
+                pool.getHikariPoolMXBean().getActiveConnections(), "pool", name));
+        writer.gauge("hikari_connections_idle", "Idle connections");
+        hikari.forEach((name, pool) -> writer.sample("hikari_connections_idle",
+                pool.getHikariPoolMXBean().getIdleConnections(), "pool", name));
+        writer.gauge("hikari_connections_total", "Open connections");
+        hikari.forEach((name, pool) -> writer.sample("hikari_connections_total",
+                pool.getHikariPoolMXBean().getTotalConnections(), "pool", name));
+        writer.gauge("hikari_connections_pending", "Threads waiting for a connection");
+        hikari.forEach((name, pool) -> writer.sample("hikari_connections_pending",
+                pool.getHikariPoolMXBean().getThreadsAwaitingConnection(), "pool", name));
+
+        if (!replicas.isEmpty()) {
+            writer.gauge("db_replica_healthy", "1 = replica in rotation");
+            replicas.forEach(r -> writer.sample("db_replica_healthy", r.isHealthy() ? 1 : 0, "replica", r.getName()));
+            writer.gauge("db_replica_lag_seconds", "Replication lag at last health check (-1 = unknown)");
+            replicas.forEach(r -> writer.sample("db_replica_lag_seconds",
+                    r.getLagMillis() < 0 ? -1 : r.getLagMillis() / 1000.0, "replica", r.getName()));
+        }
+
+        if (queryMetrics != null) {
+            long count = 0;
+            long errors = 0;
+            double totalMs = 0;
+            double acquireMs = 0;
+            for (QueryMetrics.ShapeStats shape : queryMetrics.snapshot()) {
+                count += shape.count();
+                errors += shape.errors();
+                totalMs += shape.totalMs();
+                acquireMs += shape.acquireMs();
+            }
+            writer.counter("db_queries_total", "Executed jOOQ queries");
+            writer.sample("db_queries_total", count);
+            writer.counter("db_query_errors_total", "Failed jOOQ queries");
+            writer.sample("db_query_errors_total", errors);
+            writer.counter("db_query_seconds_total", "Total query execution time");
+            writer.sample("db_query_seconds_total", totalMs / 1000.0);
+            writer.counter("db_connection_acquire_seconds_total", "Total time waiting for a pooled connection");
+            writer.sample("db_connection_acquire_seconds_total", acquireMs / 1000.0);
+        }
+    }
+
+    private static HikariDataSource unwrap(DataSource dataSource) {
+        if (dataSource instanceof HikariDataSource hikari) {
+            return hikari;
+        }
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
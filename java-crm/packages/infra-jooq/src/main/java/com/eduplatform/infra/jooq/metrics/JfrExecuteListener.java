@@ -0,0 +1,70 @@
+package com.eduplatform.infra.jooq.metrics;
+
+import com.eduplatform.common.context.RequestContext;
+import com.eduplatform.common.jfr.SqlQueryEvent;
+import org.jooq.ExecuteContext;
+import org.jooq.ExecuteListener;
+
+/**
+ * JfrExecuteListener - Ghi SqlQueryEvent (JFR) cho mỗi query jOOQ (JDBC path)
+ *
+ * - Event tắt (không có recording nào bật com.eduplatform.SqlQuery) → start() chỉ
+ *   check isEnabled(), không lưu gì vào ExecuteContext
+ * - Fingerprint (SqlFingerprint) chỉ tính khi event vượt threshold và sẽ được commit
+ * - Begin ở start() → duration gồm render, lấy connection, execute và fetch
+ *
+ * Độc lập với QueryMetricsListener: vẫn có event khi app.jooq.metrics tắt.
+ */
+public class JfrExecuteListener implements ExecuteListener {
+
+    private static final String EVENT_KEY = JfrExecuteListener.class.getName() + ".event";
+
+    @Override
+    public void start(ExecuteContext ctx) {
+        SqlQueryEvent event = new SqlQueryEvent();
+        if (!event.isEnabled()) {
+            return;
+        }
+        event.begin();
+        ctx.data(EVENT_KEY, event);
+    }
+
+    @Override
+    public void recordEnd(ExecuteContext ctx) {
+        SqlQueryEvent event = event(ctx);
+        if (event != null) {
+            event.rows++;
+        }
+    }
+
+    @Override
+    public void exception(ExecuteContext ctx) {
+        SqlQueryEvent event = event(ctx);
+        if (event != null) {
+            event.failed = true;
+        }
+    }
+
+    @Override
+    public void end(ExecuteContext ctx) {
+        SqlQueryEvent event = event(ctx);
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (!event.shouldCommit() || ctx.sql() == null) {
+            return;
+        }
+        RequestContext context = RequestContext.current();
+        event.fingerprint = SqlFingerprint.of(ctx.sql());
+        event.path = context != null ? context.getPath() : null;
+        if (event.rows == 0) {
+            event.rows = Math.max(ctx.rows(), 0);
+        }
+        event.commit();
+    }
+
+    private static SqlQueryEvent event(ExecuteContext ctx) {
+        return (SqlQueryEvent) ctx.data(EVENT_KEY);
+    }
+}
@@ -0,0 +1,50 @@
+package com.eduplatform.infra.jooq.metrics;
+
+import org.jooq.ConnectionProvider;
+import org.jooq.exception.DataAccessException;
+
+import java.sql.Connection;
+
+/**
+ * MeteredConnectionProvider - Đo thời gian chờ lấy connection từ pool
+ * 
+ * Bọc ConnectionProvider thật (DataSourceConnectionProvider → Hikari).
+ * JDBC path chạy đồng bộ trên cùng thread nên thời gian acquire được giữ
+ * trong ThreadLocal, QueryMetricsListener lấy ra khi query kết thúc và
+ * cộng vào shape tương ứng → phân biệt "query chậm" và "chờ pool".
+ */
+public class MeteredConnectionProvider implements ConnectionProvider {
+
+    private static final ThreadLocal<long[]> ACQUIRE_NANOS = ThreadLocal.withInitial(() -> new long[1]);
+
+    private final ConnectionProvider delegate;
+
+    public MeteredConnectionProvider(ConnectionProvider delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Connection acquire() throws DataAccessException {
+        long start = System.nanoTime();
+        try {
+            return delegate.acquire();
+        } finally {
+            ACQUIRE_NANOS.get()[0] += System.nanoTime() - start;
+        }
+    }
+
+    @Override
+    public void release(Connection connection) throws DataAccessException {
+        delegate.release(connection);
+    }
+
+    /**
+     * Lấy và reset thời gian acquire tích luỹ trên thread hiện tại
+     */
+    static long takeAcquireNanos() {
+        long[] holder = ACQUIRE_NANOS.get();
+        long value = holder[0];
+        holder[0] = 0;
+        return value;
+    }
+}
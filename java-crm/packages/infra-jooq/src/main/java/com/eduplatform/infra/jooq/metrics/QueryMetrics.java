@@ -0,0 +1,223 @@
+package com.eduplatform.infra.jooq.metrics;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * QueryMetrics - Metrics theo query shape + slow-query log
+ * 
+ * Key = fingerprint. Caller (method repository) chỉ có trong slow-query log:
+ * tìm caller cần walk stack, không làm cho mọi query.
+ * 
+ * Mỗi shape giữ: số lần chạy, lỗi, tổng/max duration, tổng rows,
+ * tổng thời gian chờ connection (Hikari). Cập nhật bằng LongAdder,
+ * không lock trên hot path.
+ * 
+ * - Bounded theo maxShapes: vượt quá thì gom vào shape {@link #OVERFLOW}
+ * - Slow-query log là ring buffer cố định slowLogSize entries
+ * 
+ * Được QueryMetricsListener ghi, đọc qua snapshot() / slowQueries().
+ */
+public class QueryMetrics {
+
+    public static final String OVERFLOW = "<other>";
+
+    private final ConcurrentHashMap<String, Shape> shapes = new ConcurrentHashMap<>();
+    private final ArrayDeque<SlowQuery> slowLog;
+    private final int maxShapes;
+    private final int slowLogSize;
+
+    public QueryMetrics(int maxShapes, int slowLogSize) {
+        this.maxShapes = maxShapes;
+        this.slowLogSize = slowLogSize;
+        this.slowLog = new ArrayDeque<>(slowLogSize);
+    }
+
+    // ============================================
+    // Write (QueryMetricsListener)
+    // ============================================
+
+    /**
+     * Ghi nhận một lần execute
+     */
+    public Shape record(String fingerprint, long durationNanos,
+                        long acquireNanos, long rows, boolean failed) {
+        Shape shape = shape(fingerprint);
+        shape.count.increment();
+        shape.totalNanos.add(durationNanos);
+        shape.maxNanos.accumulateAndGet(durationNanos, Math::max);
+        shape.acquireNanos.add(acquireNanos);
+        shape.rows.add(rows);
+        if (failed) {
+            shape.errors.increment();
+        }
+        return shape;
+    }
+
+    /**
+     * Thêm vào slow-query log (đẩy entry cũ nhất ra khi đầy)
+     */
+    public SlowQuery addSlowQuery(String fingerprint, String caller, long durationNanos,
+                                  long acquireNanos, long rows) {
+        SlowQuery entry = new SlowQuery(fingerprint, caller, Instant.now(),
+                TimeUnit.NANOSECONDS.toMillis(durationNanos),
+                TimeUnit.NANOSECONDS.toMillis(acquireNanos), rows);
+        synchronized (slowLog) {
+            if (slowLog.size() >= slowLogSize) {
+                slowLog.pollFirst();
+            }
+            slowLog.addLast(entry);
+        }
+        return entry;
+    }
+
+    private Shape shape(String fingerprint) {
+        Shape shape = shapes.get(fingerprint);
+        if (shape != null) {
+            return shape;
+        }
+        String key = shapes.size() >= maxShapes ? OVERFLOW : fingerprint;
+        return shapes.computeIfAbsent(key, k -> new Shape());
+    }
+
+    // ============================================
+    // Read
+    // ============================================
+
+    /**
+     * Snapshot tất cả shapes, sắp theo tổng thời gian giảm dần
+     */
+    public List<ShapeStats> snapshot() {
+        List<ShapeStats> result = new ArrayList<>(shapes.size());
+        shapes.forEach((key, shape) -> result.add(shape.toStats(key)));
+        result.sort(Comparator.comparingDouble(ShapeStats::totalMs).reversed());
+        return result;
+    }
+
+    /**
+     * Top N shapes theo tổng thời gian
+     */
+    public List<ShapeStats> top(int limit) {
+        List<ShapeStats> all = snapshot();
+        return all.size() > limit ? all.subList(0, limit) : all;
+    }
+
+    /**
+     * Slow-query log, mới nhất trước
+     */
+    public List<SlowQuery> slowQueries() {
+        synchronized (slowLog) {
+            List<SlowQuery> result = new ArrayList<>(slowLog);
+            Collections.reverse(result);
+            return result;
+        }
+    }
+
+    public void reset() {
+        shapes.clear();
+        synchronized (slowLog) {
+            slowLog.clear();
+        }
+    }
+
+    // ============================================
+    // Types
+    // ============================================
+
+    /**
+     * Accumulator của một shape
+     */
+    public static final class Shape {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final LongAdder acquireNanos = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+
+        // Lần auto-EXPLAIN gần nhất (nanoTime), tránh EXPLAIN lặp lại cùng shape
+        private final AtomicLong lastExplainAt = new AtomicLong(Long.MIN_VALUE);
+
+        /**
+         * true nếu shape chưa EXPLAIN trong khoảng interval gần đây (và claim lượt EXPLAIN)
+         */
+        boolean tryClaimExplain(long intervalNanos) {
+            long now = System.nanoTime();
+            long last = lastExplainAt.get();
+            if (last != Long.MIN_VALUE && now - last < intervalNanos) {
+                return false;
+            }
+            return lastExplainAt.compareAndSet(last, now);
+        }
+
+        private ShapeStats toStats(String fingerprint) {
+            long n = count.sum();
+            double totalMs = totalNanos.sum() / 1_000_000.0;
+            return new ShapeStats(
+                    fingerprint,
+                    n,
+                    errors.sum(),
+                    totalMs,
+                    n == 0 ? 0 : totalMs / n,
+                    maxNanos.get() / 1_000_000.0,
+                    rows.sum(),
+                    acquireNanos.sum() / 1_000_000.0);
+        }
+    }
+
+    /**
+     * Số liệu của một shape tại thời điểm snapshot
+     */
+    public record ShapeStats(
+            String fingerprint,
+            long count,
+            long errors,
+            double totalMs,
+            double avgMs,
+            double maxMs,
+            long rows,
+            double acquireMs
+    ) {}
+
+    /**
+     * Một entry trong slow-query log. Plan được gắn sau (auto-EXPLAIN chạy async).
+     */
+    public static final class SlowQuery {
+        private final String fingerprint;
+        private final String caller;
+        private final Instant at;
+        private final long durationMs;
+        private final long acquireMs;
+        private final long rows;
+        private volatile String plan;
+
+        SlowQuery(String fingerprint, String caller, Instant at, long durationMs, long acquireMs, long rows) {
+            this.fingerprint = fingerprint;
+            this.caller = caller;
+            this.at = at;
+            this.durationMs = durationMs;
+            this.acquireMs = acquireMs;
+            this.rows = rows;
+        }
+
+        public String getFingerprint() { return fingerprint; }
+        public String getCaller() { return caller; }
+        public Instant getAt() { return at; }
+        public long getDurationMs() { return durationMs; }
+        public long getAcquireMs() { return acquireMs; }
+        public long getRows() { return rows; }
+        public String getPlan() { return plan; }
+
+        void setPlan(String plan) {
+            this.plan = plan;
+        }
+    }
+}
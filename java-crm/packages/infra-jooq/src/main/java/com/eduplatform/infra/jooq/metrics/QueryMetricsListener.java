@@ -0,0 +1,215 @@
+package com.eduplatform.infra.jooq.metrics;
+
+import com.eduplatform.common.db.DbRouting;
+import com.eduplatform.common.vertx.execution.WorkerPoolManager;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.DSLContext;
+import org.jooq.ExecuteContext;
+import org.jooq.ExecuteListener;
+import org.jooq.ExecuteType;
+import org.jooq.Query;
+import org.jooq.conf.ParamType;
+import org.jooq.conf.Settings;
+import org.jooq.conf.SettingsTools;
+import org.jooq.impl.DSL;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * QueryMetricsListener - ExecuteListener đo từng query jOOQ (JDBC path)
+ * 
+ * Thay cho executeLogging (render + log SQL mỗi query, không có số liệu):
+ * - fingerprint: SQL đã chuẩn hoá (SqlFingerprint)
+ * - duration (start → end, gồm fetch), rows fetched/affected, thời gian chờ connection
+ * 
+ * Query vượt slowThreshold → WARN + slow-query log (QueryMetrics), kèm caller
+ * (method repository gọi query, VD: UserRepository.findUsersByCriteria). Caller chỉ
+ * tìm (StackWalker) cho slow query, query nhanh không trả chi phí walk stack.
+ * 
+ * Vượt explainThreshold và là SELECT → auto-EXPLAIN async trên DB pool
+ * (mỗi shape tối đa 1 lần / explainInterval, tối đa MAX_INFLIGHT_EXPLAIN cùng lúc):
+ * - EXPLAIN (GENERIC_PLAN) với $1, $2... (PostgreSQL 16+): plan không chứa bind values
+ * - Cùng routing với query gốc: query chạy trong DbRouting.readOnly() → EXPLAIN trên replica
+ * 
+ * Không log SQL có bind values ở WARN, chỉ log fingerprint.
+ */
+@Slf4j
+public class QueryMetricsListener implements ExecuteListener {
+
+    private static final String TIMING_KEY = QueryMetricsListener.class.getName() + ".timing";
+    private static final String INFRA_PACKAGE = "com.eduplatform.infra.jooq.";
+    private static final String APP_PACKAGE = "com.eduplatform.";
+    private static final String UNKNOWN_CALLER = "unknown";
+    private static final int MAX_INFLIGHT_EXPLAIN = 2;
+
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+
+    private final QueryMetrics metrics;
+    private final DSLContext explainDsl;
+    private final DSLContext explainRenderer;
+    private final long slowThresholdNanos;
+    private final long explainThresholdNanos;
+    private final long explainIntervalNanos;
+    private final AtomicInteger inflightExplains = new AtomicInteger();
+
+    /**
+     * @param explainDsl DSLContext KHÔNG gắn listener này, cùng ConnectionProvider (replica routing)
+     *                   với DSLContext chính (null = tắt auto-EXPLAIN)
+     */
+    public QueryMetricsListener(QueryMetrics metrics, DSLContext explainDsl,
+                                Duration slowThreshold, Duration explainThreshold, Duration explainInterval) {
+        this.metrics = metrics;
+        this.explainDsl = explainDsl;
+        this.explainRenderer = explainDsl != null ? positionalRenderer(explainDsl) : null;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.explainThresholdNanos = explainThreshold.toNanos();
+        this.explainIntervalNanos = explainInterval.toNanos();
+    }
+
+    // ============================================
+    // ExecuteListener
+    // ============================================
+
+    @Override
+    public void start(ExecuteContext ctx) {
+        ctx.data(TIMING_KEY, new Timing(System.nanoTime()));
+    }
+
+    @Override
+    public void recordEnd(ExecuteContext ctx) {
+        Timing timing = timing(ctx);
+        if (timing != null) {
+            timing.rows++;
+        }
+    }
+
+    @Override
+    public void exception(ExecuteContext ctx) {
+        Timing timing = timing(ctx);
+        if (timing != null) {
+            timing.failed = true;
+        }
+    }
+
+    @Override
+    public void end(ExecuteContext ctx) {
+        Timing timing = timing(ctx);
+        long acquireNanos = MeteredConnectionProvider.takeAcquireNanos();
+        if (timing == null || ctx.sql() == null) {
+            return;
+        }
+
+        long duration = System.nanoTime() - timing.startNanos;
+        long rows = timing.rows > 0 ? timing.rows : Math.max(ctx.rows(), 0);
+        String fingerprint = SqlFingerprint.of(ctx.sql());
+
+        QueryMetrics.Shape shape = metrics.record(fingerprint, duration, acquireNanos, rows, timing.failed);
+
+        if (duration >= slowThresholdNanos) {
+            // end() vẫn chạy trong method repository đã gọi query → stack còn caller
+            String caller = findCaller();
+            QueryMetrics.SlowQuery entry = metrics.addSlowQuery(fingerprint, caller, duration, acquireNanos, rows);
+            log.warn("Slow query {}ms (acquire {}ms, rows {}) at {}: {}",
+                    entry.getDurationMs(), entry.getAcquireMs(), rows, caller, fingerprint);
+
+            if (duration >= explainThresholdNanos && !timing.failed) {
+                explainAsync(ctx, shape, entry);
+            }
+        }
+    }
+
+    // ============================================
+    // Auto-EXPLAIN
+    // ============================================
+
+    private void explainAsync(ExecuteContext ctx, QueryMetrics.Shape shape, QueryMetrics.SlowQuery entry) {
+        if (explainDsl == null || ctx.type() != ExecuteType.READ || !isSelect(ctx.sql())) {
+            return;
+        }
+        Query query = ctx.query();
+        if (query == null || !shape.tryClaimExplain(explainIntervalNanos)) {
+            return;
+        }
+        if (inflightExplains.incrementAndGet() > MAX_INFLIGHT_EXPLAIN) {
+            inflightExplains.decrementAndGet();
+            return;
+        }
+
+        // Render trên thread hiện tại (query object không thread-safe), bind → $n (không inline giá trị)
+        String sql = explainRenderer.render(query);
+        boolean readOnly = DbRouting.isReadOnly();
+        Callable<String> explain = () -> explainDsl.fetch("EXPLAIN (GENERIC_PLAN, FORMAT TEXT) " + sql)
+                .stream()
+                .map(record -> String.valueOf(record.get(0)))
+                .collect(Collectors.joining("\n"));
+
+        WorkerPoolManager.executeOnDbPool(() -> readOnly ? DbRouting.readOnly(explain) : explain.call())
+                .doFinally(inflightExplains::decrementAndGet)
+                .subscribe(plan -> {
+                    entry.setPlan(plan);
+                    log.warn("Plan for slow query at {}: {}\n{}", entry.getCaller(), entry.getFingerprint(), plan);
+                }, error -> log.debug("Auto-EXPLAIN failed for {}: {}", entry.getFingerprint(), error.getMessage()));
+    }
+
+    private static boolean isSelect(String sql) {
+        String head = sql.stripLeading();
+        return head.regionMatches(true, 0, "select", 0, 6) || head.regionMatches(true, 0, "with", 0, 4);
+    }
+
+    // ============================================
+    // Helpers
+    // ============================================
+
+    private static DSLContext positionalRenderer(DSLContext dsl) {
+        Settings settings = SettingsTools.clone(dsl.settings())
+                .withParamType(ParamType.NAMED)
+                .withRenderNamedParamPrefix("$");
+        return DSL.using(dsl.configuration().derive(settings));
+    }
+
+    private static Timing timing(ExecuteContext ctx) {
+        return (Timing) ctx.data(TIMING_KEY);
+    }
+
+    /**
+     * Method repository gần nhất trên stack, không có thì frame đầu tiên của app
+     * (ngoài infra-jooq). Bỏ qua proxy Spring (tên class có $$).
+     */
+    private static String findCaller() {
+        Optional<StackWalker.StackFrame> frame = STACK_WALKER.walk(frames -> frames
+                .filter(f -> f.getClassName().startsWith(APP_PACKAGE)
+                        && !f.getClassName().startsWith(INFRA_PACKAGE)
+                        && !f.getClassName().contains("$$"))
+                .filter(f -> f.getClassName().endsWith("Repository") || f.getClassName().endsWith("RepositoryImpl"))
+                .findFirst());
+        if (frame.isEmpty()) {
+            frame = STACK_WALKER.walk(frames -> frames
+                    .filter(f -> f.getClassName().startsWith(APP_PACKAGE)
+                            && !f.getClassName().startsWith(INFRA_PACKAGE))
+                    .findFirst());
+        }
+        return frame.map(QueryMetricsListener::describe).orElse(UNKNOWN_CALLER);
+    }
+
+    private static String describe(StackWalker.StackFrame frame) {
+        String className = frame.getClassName();
+        return className.substring(className.lastIndexOf('.') + 1) + "." + frame.getMethodName();
+    }
+
+    /**
+     * Trạng thái đo của một lần execute (lưu trong ExecuteContext.data)
+     */
+    private static final class Timing {
+        private final long startNanos;
+        private long rows;
+        private boolean failed;
+
+        private Timing(long startNanos) {
+            this.startNanos = startNanos;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.eduplatform.infra.jooq.metrics;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * SqlFingerprint - Chuẩn hoá SQL thành "shape" để gom metrics
+ * 
+ * Các query chỉ khác nhau ở giá trị bind / literal / số phần tử IN
+ * cho ra cùng fingerprint:
+ * <pre>
+ * select ... where id in (?, ?, ?) and name = 'abc' limit 20
+ * → select ... where id in (?+) and name = ? limit ?
+ * </pre>
+ * 
+ * SQL jOOQ render ra ổn định theo từng method repository nên kết quả
+ * được cache (bounded) theo chuỗi SQL gốc, regex chỉ chạy lần đầu.
+ */
+public final class SqlFingerprint {
+
+    private static final int MAX_CACHED = 2_048;
+    private static final int MAX_LENGTH = 2_000;
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern VALUES_LIST = Pattern.compile("(\\(\\?\\+\\))(?:\\s*,\\s*\\(\\?\\+\\))+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final ConcurrentHashMap<String, String> CACHE = new ConcurrentHashMap<>();
+
+    private SqlFingerprint() {}
+
+    public static String of(String sql) {
+        if (sql == null || sql.isEmpty()) {
+            return "";
+        }
+        String cached = CACHE.get(sql);
+        if (cached != null) {
+            return cached;
+        }
+
+        String fingerprint = normalize(sql);
+        if (CACHE.size() >= MAX_CACHED) {
+            CACHE.clear();
+        }
+        CACHE.put(sql, fingerprint);
+        return fingerprint;
+    }
+
+    static String normalize(String sql) {
+        String result = STRING_LITERAL.matcher(sql).replaceAll("?");
+        result = NUMBER_LITERAL.matcher(result).replaceAll("?");
+        result = IN_LIST.matcher(result).replaceAll("(?+)");
+        // Multi-row insert: values (?+), (?+), ... → values (?+), ...
+        result = VALUES_LIST.matcher(result).replaceAll("$1, ...");
+        result = WHITESPACE.matcher(result).replaceAll(" ").trim();
+        return result.length() > MAX_LENGTH ? result.substring(0, MAX_LENGTH) + "..." : result;
+    }
+}
@@ -0,0 +1,62 @@
+package com.eduplatform.infra.jooq.paging;
+
+import com.eduplatform.common.vertx.model.Pageable;
+import org.jooq.Condition;
+import org.jooq.DSLContext;
+import org.jooq.Table;
+import org.jooq.impl.DSL;
+
+/**
+ * CountEstimator - Total ước lượng từ planner cho bảng lớn
+ * 
+ * COUNT(*) chính xác phải quét toàn bộ kết quả, chậm ngang list query.
+ * Với list không filter trên bảng lớn, total chỉ để hiển thị "~120.000 kết quả"
+ * là đủ → pg_class.reltuples (cập nhật bởi ANALYZE / autovacuum).
+ * 
+ * Có filter → luôn COUNT(*) chính xác: "Plan Rows" của EXPLAIN với filter
+ * (LIKE, unaccent, data scope) có thể lệch nhiều bậc, không dùng làm total.
+ * 
+ * Nếu ước lượng nhỏ hơn exactThreshold → COUNT(*) chính xác (rẻ, và
+ * sai số với bảng nhỏ dễ thấy). Khi trả số ước lượng, set
+ * pageable.totalEstimated = true để client hiển thị "khoảng".
+ * 
+ * Usage:
+ * <pre>
+ * boolean unfiltered = isEmpty(query) &amp;&amp; isEmpty(status) &amp;&amp; scope.isUnrestricted();
+ * return CountEstimator.count(dsl, USERS, condition, unfiltered, pageable, CountEstimator.DEFAULT_EXACT_THRESHOLD);
+ * </pre>
+ */
+public final class CountEstimator {
+
+    public static final long DEFAULT_EXACT_THRESHOLD = 10_000;
+
+    private CountEstimator() {}
+
+    /**
+     * Count chính xác, hoặc ước lượng nếu không filter và bảng đủ lớn
+     */
+    public static long count(DSLContext dsl, Table<?> table, Condition condition, boolean unfiltered,
+                             Pageable pageable, long exactThreshold) {
+        long estimate = unfiltered ? tableEstimate(dsl, table) : -1;
+
+        if (estimate < exactThreshold) {
+            return dsl.selectCount().from(table).where(condition).fetchOne(0, Long.class);
+        }
+
+        if (pageable != null) {
+            pageable.setTotalEstimated(true);
+        }
+        return estimate;
+    }
+
+    /**
+     * Số dòng ước lượng của cả bảng (pg_class.reltuples), -1 nếu chưa ANALYZE
+     */
+    public static long tableEstimate(DSLContext dsl, Table<?> table) {
+        Float reltuples = dsl.select(DSL.field("reltuples", Float.class))
+                .from(DSL.table("pg_class"))
+                .where(DSL.field("oid").eq(DSL.field("to_regclass({0})::oid", Object.class, DSL.val(table.getName()))))
+                .fetchOne(0, Float.class);
+        return reltuples != null ? reltuples.longValue() : -1;
+    }
+}
@@ -0,0 +1,48 @@
+package com.eduplatform.infra.jooq.paging;
+
+import org.jooq.Cursor;
+import org.jooq.DSLContext;
+import org.jooq.Record;
+import org.jooq.ResultQuery;
+
+import java.util.function.Consumer;
+
+/**
+ * CursorStream - Duyệt kết quả lớn bằng server-side cursor, không load cả Result vào memory
+ *
+ * PostgreSQL JDBC chỉ dùng cursor (fetchSize) khi autocommit tắt → query chạy trong
+ * transaction read-only. Mỗi lần driver lấy fetchSize rows, heap chỉ giữ 1 "trang" rows.
+ *
+ * Dùng cho export: consumer có thể block (backpressure) hoặc ném exception để dừng sớm,
+ * cursor + transaction được đóng trong mọi trường hợp.
+ *
+ * Usage:
+ * <pre>
+ * CursorStream.forEach(dsl, dsl.selectFrom(USERS).orderBy(USERS.ID), CursorStream.DEFAULT_FETCH_SIZE,
+ *         record -> sink.accept(mapToUser(record)));
+ * </pre>
+ */
+public final class CursorStream {
+
+    public static final int DEFAULT_FETCH_SIZE = 1_000;
+
+    private CursorStream() {}
+
+    /**
+     * @return số rows đã duyệt
+     */
+    public static <R extends Record> long forEach(DSLContext dsl, ResultQuery<R> query, int fetchSize,
+                                                  Consumer<? super R> consumer) {
+        return dsl.transactionResult(() -> {
+            dsl.execute("SET TRANSACTION READ ONLY");
+            long rows = 0;
+            try (Cursor<R> cursor = query.fetchSize(fetchSize).fetchLazy()) {
+                for (R record : cursor) {
+                    consumer.accept(record);
+                    rows++;
+                }
+            }
+            return rows;
+        });
+    }
+}
@@ -0,0 +1,174 @@
+package com.eduplatform.infra.jooq.paging;
+
+import com.eduplatform.common.constant.ErrorCode;
+import com.eduplatform.common.exception.AppException;
+import com.eduplatform.common.vertx.model.Cursor;
+import com.eduplatform.common.vertx.model.Pageable;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.Condition;
+import org.jooq.Field;
+import org.jooq.Record;
+import org.jooq.RecordMapper;
+import org.jooq.SortField;
+import org.jooq.impl.DSL;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * PageQuery - Áp dụng Pageable (offset hoặc keyset) vào jOOQ query
+ * 
+ * - Sort chỉ nhận field trong whitelist (không đưa input client vào SQL),
+ *   sort không hợp lệ → dùng default
+ * - Luôn order theo (sortField, id) để thứ tự ổn định
+ * - KEYSET: WHERE (sortField, id) > / < (cursorValue, cursorId), không OFFSET
+ *   → dùng index (sortField, id), trang sâu vẫn nhanh như trang đầu
+ * - Fetch size + 1 để biết còn trang sau, set nextCursor vào Pageable
+ * 
+ * Sort field phải NOT NULL (hoặc luôn có giá trị) để so sánh row hợp lệ.
+ * 
+ * Usage trong repository:
+ * <pre>
+ * PageQuery page = PageQuery.of(pageable, SORT_FIELDS, "createdAt", USERS.ID);
+ * return page.fetch(dsl.select(getUserFields())
+ *                 .from(USERS)
+ *                 .where(condition.and(page.seekCondition()))
+ *                 .orderBy(page.orderBy())
+ *                 .offset(page.offset())
+ *                 .limit(page.limit())
+ *                 .fetch(), this::mapToUser);
+ * </pre>
+ */
+@Slf4j
+public final class PageQuery {
+
+    private static final int DEFAULT_SIZE = 20;
+
+    private final Pageable pageable;
+    private final String sortKey;
+    private final Field<Object> sortField;
+    private final Field<UUID> idField;
+    private final boolean descending;
+    private final int size;
+
+    @SuppressWarnings("unchecked")
+    private PageQuery(Pageable pageable, String sortKey, Field<?> sortField, Field<UUID> idField, boolean descending) {
+        this.pageable = pageable;
+        this.sortKey = sortKey;
+        this.sortField = (Field<Object>) sortField;
+        this.idField = idField;
+        this.descending = descending;
+        this.size = pageable.getSize() > 0 ? pageable.getSize() : DEFAULT_SIZE;
+    }
+
+    /**
+     * @param sortFields  whitelist: tên sort từ request → field
+     * @param defaultSort key trong whitelist dùng khi request không có / sai sort
+     * @param idField     tie-breaker (primary key)
+     */
+    public static PageQuery of(Pageable pageable, Map<String, Field<?>> sortFields, String defaultSort,
+                               Field<UUID> idField) {
+        String sortKey = pageable.getSort();
+        if (sortKey == null || !sortFields.containsKey(sortKey)) {
+            if (sortKey != null) {
+                log.debug("Sort '{}' không nằm trong whitelist, dùng '{}'", sortKey, defaultSort);
+            }
+            sortKey = defaultSort;
+        }
+        // Mặc định mới nhất trước khi client không chỉ định sort
+        boolean descending = pageable.getSort() == null || pageable.isDescending();
+        return new PageQuery(pageable, sortKey, sortFields.get(sortKey), idField, descending);
+    }
+
+    public boolean isKeyset() {
+        return pageable.isKeyset();
+    }
+
+    /**
+     * ORDER BY (sortField, id) cùng chiều
+     */
+    public List<SortField<?>> orderBy() {
+        List<SortField<?>> orderBy = new ArrayList<>(2);
+        orderBy.add(descending ? sortField.desc() : sortField.asc());
+        orderBy.add(descending ? idField.desc() : idField.asc());
+        return orderBy;
+    }
+
+    /**
+     * Điều kiện seek sau cursor (true nếu offset mode hoặc trang đầu)
+     */
+    public Condition seekCondition() {
+        if (!pageable.isKeyset() || pageable.getCursor() == null) {
+            return DSL.trueCondition();
+        }
+
+        Cursor cursor = Cursor.decode(pageable.getCursor());
+        if (!sortKey.equals(cursor.getSort()) || descending != cursor.isDescending()) {
+            throw new AppException(ErrorCode.BAD_REQUEST, "Cursor không khớp với sort/order của request");
+        }
+
+        Object value = parseValue(cursor.getValue());
+        UUID id;
+        try {
+            id = UUID.fromString(cursor.getId());
+        } catch (IllegalArgumentException e) {
+            throw new AppException(ErrorCode.BAD_REQUEST, "Invalid cursor");
+        }
+
+        return descending
+                ? DSL.row(sortField, idField).lt(DSL.row(DSL.val(value, sortField), DSL.val(id, idField)))
+                : DSL.row(sortField, idField).gt(DSL.row(DSL.val(value, sortField), DSL.val(id, idField)));
+    }
+
+    public int offset() {
+        return pageable.isKeyset() ? 0 : pageable.getPage() * size;
+    }
+
+    /**
+     * size + 1: dòng thừa để biết còn trang sau
+     */
+    public int limit() {
+        return size + 1;
+    }
+
+    /**
+     * Map kết quả, cắt dòng thừa và set nextCursor (keyset mode)
+     */
+    public <R extends Record, T> List<T> fetch(List<R> records, RecordMapper<? super R, T> mapper) {
+        boolean hasNext = records.size() > size;
+        List<R> pageRecords = hasNext ? records.subList(0, size) : records;
+
+        List<T> items = new ArrayList<>(pageRecords.size());
+        for (R record : pageRecords) {
+            items.add(mapper.map(record));
+        }
+
+        if (pageable.isKeyset()) {
+            pageable.setNextCursor(hasNext ? nextCursor(pageRecords.get(pageRecords.size() - 1)) : null);
+        }
+        return items;
+    }
+
+    private String nextCursor(Record last) {
+        Object value = last.get(sortField);
+        UUID id = last.get(idField);
+        return new Cursor(sortKey, descending, value != null ? value.toString() : "", String.valueOf(id)).encode();
+    }
+
+    private Object parseValue(String raw) {
+        Class<?> type = sortField.getType();
+        try {
+            if (type == String.class) return raw;
+            if (type == LocalDateTime.class) return LocalDateTime.parse(raw);
+            if (type == OffsetDateTime.class) return OffsetDateTime.parse(raw);
+            if (type == UUID.class) return UUID.fromString(raw);
+            return sortField.getDataType().convert(raw);
+        } catch (RuntimeException e) {
+            throw new AppException(ErrorCode.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,419 @@
+package com.eduplatform.infra.jooq.reactive;
+
+import com.eduplatform.common.vertx.VertxWrapper;
+import com.eduplatform.common.vertx.execution.WorkerPoolManager;
+import io.reactivex.rxjava3.core.BackpressureStrategy;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import io.vertx.core.Future;
+import io.vertx.core.json.Json;
+import io.vertx.pgclient.PgBuilder;
+import io.vertx.pgclient.PgConnectOptions;
+import io.vertx.sqlclient.Pool;
+import io.vertx.sqlclient.PoolOptions;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.RowStream;
+import io.vertx.sqlclient.Tuple;
+import io.vertx.sqlclient.data.Numeric;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.ConnectionProvider;
+import org.jooq.Cursor;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.JSON;
+import org.jooq.JSONB;
+import org.jooq.Query;
+import org.jooq.Record;
+import org.jooq.RecordMapper;
+import org.jooq.Select;
+import org.jooq.conf.ParamType;
+import org.jooq.conf.Settings;
+import org.jooq.conf.SettingsTools;
+import org.jooq.impl.DSL;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ReactiveJooqExecutor - Chạy query jOOQ trên Vert.x PG client (non-blocking)
+ * 
+ * Query vẫn viết bằng jOOQ DSL như repository hiện tại, chỉ khác cách execute:
+ * - Render SQL với bind $1, $2... (format của PG client) + Tuple bind values
+ * - Chạy trên Pool của vertx-pg-client, pipelining bật → nhiều query trên
+ *   cùng connection không phải chờ round-trip
+ * - Row → jOOQ Record (cùng fields của select) để tái dùng mapper của repository
+ * - Trả Single / Maybe / Flowable, callback chạy trên event loop gọi query
+ *   → route đọc không cần hop sang worker pool
+ * 
+ * Opt-in theo từng method của repository:
+ * <pre>
+ * public Maybe&lt;User&gt; getUserByIdAsync(UUID id) {
+ *     return reactive.fetchOptional(
+ *             dsl.select(getUserFields()).from(USERS).where(USERS.ID.eq(id)),
+ *             this::mapToUser);
+ * }
+ * </pre>
+ * 
+ * Mặc định tắt (app.reactive-db.enabled=false) → fallback về JDBC trên DB worker pool,
+ * cùng API nên repository không phải đổi. Bật cần cấu hình credentials riêng
+ * (app.reactive-db.*), pool này không đi qua DataSource / Hikari.
+ * 
+ * Khi bật, query qua PG client KHÔNG có những gì JDBC path có:
+ * - Không read replica routing (DbRouting / ReadReplicaConnectionProvider) → luôn vào host cấu hình
+ * - Không chạy ExecuteListener của DSLContext (QueryMetricsListener, timeout theo Deadline)
+ * - Không statement timeout → chỉ dùng cho query ngắn, có index (lookup theo id / key)
+ * 
+ * stream() tôn trọng demand của downstream: PG client fetch theo request(n),
+ * fallback JDBC đọc qua server-side cursor (fetchSize) thay vì load cả Result.
+ */
+@Slf4j
+@Component
+public class ReactiveJooqExecutor {
+
+    private final DSLContext dsl;
+    private final DSLContext renderer;
+
+    @Value("${app.reactive-db.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.reactive-db.host:${DB_HOST:localhost}}")
+    private String host;
+
+    @Value("${app.reactive-db.port:${DB_PORT:5432}}")
+    private int port;
+
+    @Value("${app.reactive-db.database:${DB_NAME:eduplatform}}")
+    private String database;
+
+    @Value("${app.reactive-db.username:${DB_USERNAME:postgres}}")
+    private String username;
+
+    @Value("${app.reactive-db.password:${DB_PASSWORD:postgres}}")
+    private String password;
+
+    @Value("${app.reactive-db.max-size:8}")
+    private int maxSize;
+
+    @Value("${app.reactive-db.pipelining-limit:256}")
+    private int pipeliningLimit;
+
+    private volatile Pool pool;
+
+    public ReactiveJooqExecutor(DSLContext dsl) {
+        this.dsl = dsl;
+        // Render $n thay vì ? - clone settings để không ảnh hưởng DSLContext chính
+        Settings settings = SettingsTools.clone(dsl.settings())
+                .withParamType(ParamType.NAMED)
+                .withRenderNamedParamPrefix("$");
+        this.renderer = DSL.using(dsl.configuration().derive(settings));
+    }
+
+    // ============================================
+    // Public API
+    // ============================================
+
+    /**
+     * Fetch tất cả rows dưới dạng jOOQ Record
+     */
+    public Single<List<Record>> fetch(Select<?> select) {
+        return fetch(select, record -> record);
+    }
+
+    /**
+     * Fetch và map từng Record (dùng mapper sẵn có của repository)
+     */
+    public <T> Single<List<T>> fetch(Select<?> select, RecordMapper<? super Record, T> mapper) {
+        if (!enabled) {
+            return WorkerPoolManager.executeOnDbPool(() -> dsl.fetch(select).map(mapper));
+        }
+
+        Field<?>[] fields = select.getSelect().toArray(new Field<?>[0]);
+        return execute(select).map(rows -> {
+            List<T> items = new ArrayList<>(rows.size());
+            for (Row row : rows) {
+                items.add(mapper.map(toRecord(row, fields)));
+            }
+            return items;
+        });
+    }
+
+    /**
+     * Fetch 0..1 row - empty nếu không có
+     */
+    public <T> Maybe<T> fetchOptional(Select<?> select, RecordMapper<? super Record, T> mapper) {
+        return fetch(select, mapper).flatMapMaybe(items -> items.isEmpty() ? Maybe.empty() : Maybe.just(items.get(0)));
+    }
+
+    /**
+     * Fetch giá trị cột đầu tiên của row đầu tiên (VD: count)
+     */
+    public <T> Single<T> fetchValue(Select<?> select, Class<T> type) {
+        return fetch(select, record -> record.get(0, type)).map(items -> {
+            if (items.isEmpty() || items.get(0) == null) {
+                throw new IllegalStateException("Query returned no value");
+            }
+            return items.get(0);
+        });
+    }
+
+    /**
+     * INSERT / UPDATE / DELETE - trả số rows bị ảnh hưởng
+     */
+    public Single<Integer> executeUpdate(Query query) {
+        if (!enabled) {
+            return WorkerPoolManager.executeOnDbPool(() -> dsl.execute(query));
+        }
+        return execute(query).map(RowSet::rowCount);
+    }
+
+    /**
+     * Stream rows qua cursor (fetchSize rows mỗi lần) trong transaction read-only
+     * Dùng cho export / list lớn, không giữ toàn bộ kết quả trong memory:
+     * rows chỉ được đọc khi downstream request(n), consumer chậm → cursor dừng theo.
+     */
+    public Flowable<Record> stream(Select<?> select, int fetchSize) {
+        if (!enabled) {
+            return Flowable.using(
+                    () -> JdbcCursor.open(dsl, select, fetchSize),
+                    cursor -> Flowable.<Record>generate(emitter -> {
+                        if (cursor.hasNext()) {
+                            emitter.onNext(cursor.next());
+                        } else {
+                            emitter.onComplete();
+                        }
+                    }),
+                    JdbcCursor::close)
+                    // Cùng 1 worker thread cho open / fetch / close của connection
+                    .subscribeOn(Schedulers.io());
+        }
+
+        Field<?>[] fields = select.getSelect().toArray(new Field<?>[0]);
+        String sql = renderer.render(select);
+        Tuple binds = toTuple(select);
+        Demand demand = new Demand();
+
+        return Flowable.<Record>create(emitter -> pool().withTransaction(conn -> conn.prepare(sql)
+                .compose(ps -> {
+                    RowStream<Row> stream = ps.createStream(fetchSize, binds);
+                    emitter.setCancellable(stream::close);
+                    // Pause trước khi gắn handler: chỉ fetch theo demand đã request
+                    demand.attach(stream);
+                    return Future.<Void>future(promise -> stream
+                            .exceptionHandler(promise::tryFail)
+                            .endHandler(v -> promise.tryComplete())
+                            .handler(row -> emitter.onNext(toRecord(row, fields))));
+                }))
+                .onComplete(ar -> {
+                    if (ar.succeeded()) {
+                        emitter.onComplete();
+                    } else {
+                        emitter.tryOnError(ar.cause());
+                    }
+                }), BackpressureStrategy.ERROR)
+                .doOnRequest(demand::request);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // ============================================
+    // Internal
+    // ============================================
+
+    private Single<RowSet<Row>> execute(Query query) {
+        String sql = renderer.render(query);
+        Tuple binds = toTuple(query);
+        return Single.create(emitter -> pool().preparedQuery(sql)
+                .execute(binds)
+                .onComplete(ar -> {
+                    if (ar.succeeded()) {
+                        emitter.onSuccess(ar.result());
+                    } else {
+                        emitter.onError(ar.cause());
+                    }
+                }));
+    }
+
+    private Tuple toTuple(Query query) {
+        List<Object> values = query.getBindValues();
+        Tuple tuple = Tuple.tuple();
+        for (Object value : values) {
+            tuple.addValue(toPgValue(value));
+        }
+        return tuple;
+    }
+
+    /**
+     * Kiểu jOOQ/JDBC → kiểu PG client hiểu được
+     */
+    private static Object toPgValue(Object value) {
+        if (value instanceof Timestamp timestamp) return timestamp.toLocalDateTime();
+        if (value instanceof JSONB jsonb) return Json.decodeValue(jsonb.data());
+        if (value instanceof JSON json) return Json.decodeValue(json.data());
+        if (value instanceof Character c) return String.valueOf(c);
+        if (value instanceof Enum<?> e) return e.name();
+        return value;
+    }
+
+    /**
+     * Row → Record với cùng fields của select (convert theo DataType của field)
+     */
+    private Record toRecord(Row row, Field<?>[] fields) {
+        Record record = dsl.newRecord(fields);
+        int columns = Math.min(row.size(), fields.length);
+        for (int i = 0; i < columns; i++) {
+            Object value = row.getValue(i);
+            if (value instanceof Numeric numeric) {
+                value = numeric.bigDecimalValue();
+            }
+            setValue(record, fields[i], value);
+        }
+        record.changed(false);
+        return record;
+    }
+
+    private static <T> void setValue(Record record, Field<T> field, Object value) {
+        record.set(field, value == null ? null : field.getDataType().convert(value));
+    }
+
+    private Pool pool() {
+        Pool current = pool;
+        if (current == null) {
+            synchronized (this) {
+                current = pool;
+                if (current == null) {
+                    current = createPool();
+                    pool = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private Pool createPool() {
+        PgConnectOptions connectOptions = new PgConnectOptions()
+                .setHost(host)
+                .setPort(port)
+                .setDatabase(database)
+                .setUser(username)
+                .setPassword(password)
+                .setCachePreparedStatements(true)
+                .setPipeliningLimit(pipeliningLimit);
+
+        PoolOptions poolOptions = new PoolOptions()
+                .setMaxSize(maxSize)
+                .setName("reactive-pg");
+
+        log.info("Reactive PG pool: {}:{}/{} (maxSize={}, pipeliningLimit={})",
+                host, port, database, maxSize, pipeliningLimit);
+
+        return PgBuilder.pool()
+                .with(poolOptions)
+                .connectingTo(connectOptions)
+                .using(VertxWrapper.vertx())
+                .build();
+    }
+
+    /**
+     * Demand của downstream trước / sau khi RowStream được tạo (prepare là async)
+     */
+    private static final class Demand {
+
+        private RowStream<Row> stream;
+        private long pending;
+
+        synchronized void request(long n) {
+            if (stream != null) {
+                stream.fetch(n);
+            } else {
+                long total = pending + n;
+                pending = total < 0 ? Long.MAX_VALUE : total;
+            }
+        }
+
+        synchronized void attach(RowStream<Row> rowStream) {
+            stream = rowStream;
+            rowStream.pause();
+            if (pending > 0) {
+                rowStream.fetch(pending);
+            }
+        }
+    }
+
+    /**
+     * Fallback JDBC: server-side cursor (autocommit tắt + fetchSize) trên connection riêng,
+     * rollback + trả connection khi xong / downstream hủy
+     */
+    private static final class JdbcCursor {
+
+        private final ConnectionProvider provider;
+        private final Connection connection;
+        private final Cursor<? extends Record> cursor;
+
+        private JdbcCursor(ConnectionProvider provider, Connection connection, Cursor<? extends Record> cursor) {
+            this.provider = provider;
+            this.connection = connection;
+            this.cursor = cursor;
+        }
+
+        static JdbcCursor open(DSLContext dsl, Select<?> select, int fetchSize) throws SQLException {
+            ConnectionProvider provider = dsl.configuration().connectionProvider();
+            Connection connection = provider.acquire();
+            try {
+                connection.setAutoCommit(false);
+                connection.setReadOnly(true);
+                DSLContext local = DSL.using(connection, dsl.dialect(), dsl.settings());
+                return new JdbcCursor(provider, connection, local.fetchLazy(select.fetchSize(fetchSize)));
+            } catch (RuntimeException | SQLException e) {
+                release(provider, connection);
+                throw e;
+            }
+        }
+
+        boolean hasNext() {
+            return cursor.hasNext();
+        }
+
+        Record next() {
+            return cursor.fetchNext();
+        }
+
+        void close() {
+            try {
+                cursor.close();
+            } finally {
+                release(provider, connection);
+            }
+        }
+
+        private static void release(ConnectionProvider provider, Connection connection) {
+            try {
+                connection.rollback();
+                connection.setReadOnly(false);
+                connection.setAutoCommit(true);
+            } catch (SQLException e) {
+                log.warn("Reset cursor connection failed: {}", e.getMessage());
+            } finally {
+                provider.release(connection);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        Pool current = pool;
+        if (current != null) {
+            current.close();
+        }
+    }
+}
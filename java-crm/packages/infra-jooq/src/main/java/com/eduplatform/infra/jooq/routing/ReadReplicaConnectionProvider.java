@@ -0,0 +1,177 @@
+package com.eduplatform.infra.jooq.routing;
+
+import com.eduplatform.common.db.DbRouting;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.ConnectionProvider;
+import org.jooq.exception.DataAccessException;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ReadReplicaConnectionProvider - Route connection read-only sang read replica
+ * 
+ * - Thread đang trong DbRouting.readOnly() → connection từ replica, còn lại → primary
+ * - Load balancing: round-robin trên các replica đang healthy
+ * - Lag-aware: health check định kỳ đo replication lag, replica lag vượt maxLag
+ *   hoặc không kết nối được bị loại khỏi vòng cho tới lần check sau
+ * - Fallback: không còn replica healthy / lấy connection lỗi → primary
+ * 
+ * Lag = 0 khi instance không ở recovery mode (VD: test với 2 Postgres độc lập)
+ * hoặc đã replay hết WAL nhận được (tránh báo lag giả khi primary rảnh).
+ * 
+ * Transaction mở trong readOnly() cũng đi replica: chỉ dùng cho code thuần đọc
+ * (BaseResource.readQuery()/page()), write luôn ở ngoài readOnly().
+ */
+@Slf4j
+public class ReadReplicaConnectionProvider implements ConnectionProvider, AutoCloseable {
+
+    private static final String LAG_SQL = """
+            SELECT CASE
+                     WHEN NOT pg_is_in_recovery() THEN 0
+                     WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                     ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+                   END
+            """;
+
+    private final ConnectionProvider primary;
+    private final List<Replica> replicas;
+    private final long maxLagMillis;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService healthChecker;
+
+    public ReadReplicaConnectionProvider(ConnectionProvider primary, List<Replica> replicas,
+                                         Duration maxLag, Duration checkInterval) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.maxLagMillis = maxLag.toMillis();
+        this.healthChecker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "replica-health");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        checkHealth();
+        long interval = checkInterval.toMillis();
+        healthChecker.scheduleWithFixedDelay(this::checkHealth, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    // ============================================
+    // ConnectionProvider
+    // ============================================
+
+    @Override
+    public Connection acquire() throws DataAccessException {
+        if (DbRouting.isReadOnly()) {
+            Connection connection = acquireReplica();
+            if (connection != null) {
+                return connection;
+            }
+        }
+        return primary.acquire();
+    }
+
+    @Override
+    public void release(Connection connection) throws DataAccessException {
+        // Connection của Hikari tự trả về đúng pool khi close()
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            throw new DataAccessException("Error closing connection", e);
+        }
+    }
+
+    private Connection acquireReplica() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (!replica.healthy) {
+                continue;
+            }
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException e) {
+                replica.healthy = false;
+                log.warn("Replica {} unavailable, falling back: {}", replica.name, e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    // ============================================
+    // Health / lag check
+    // ============================================
+
+    private void checkHealth() {
+        for (Replica replica : replicas) {
+            boolean wasHealthy = replica.healthy;
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(LAG_SQL)) {
+                long lag = rs.next() ? rs.getLong(1) : Long.MAX_VALUE;
+                replica.lagMillis = lag;
+                replica.healthy = lag <= maxLagMillis;
+                if (!replica.healthy) {
+                    log.warn("Replica {} lagging {}ms (max {}ms), routing reads to primary", replica.name, lag, maxLagMillis);
+                }
+            } catch (SQLException e) {
+                replica.healthy = false;
+                replica.lagMillis = -1;
+                if (wasHealthy) {
+                    log.warn("Replica {} health check failed: {}", replica.name, e.getMessage());
+                }
+            }
+            if (!wasHealthy && replica.healthy) {
+                log.info("Replica {} healthy (lag {}ms)", replica.name, replica.lagMillis);
+            }
+        }
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    @Override
+    public void close() {
+        healthChecker.shutdownNow();
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.debug("Error closing replica {}: {}", replica.name, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Một read replica (DataSource riêng, thường là HikariDataSource)
+     */
+    public static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy;
+        private volatile long lagMillis = -1;
+
+        public Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        public String getName() { return name; }
+        public DataSource getDataSource() { return dataSource; }
+        public boolean isHealthy() { return healthy; }
+        public long getLagMillis() { return lagMillis; }
+    }
+}
@@ -0,0 +1,114 @@
+package com.eduplatform.infra.jooq.timeout;
+
+import com.eduplatform.common.constant.ErrorCode;
+import com.eduplatform.common.context.Deadline;
+import com.eduplatform.common.exception.AppException;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.ExecuteContext;
+import org.jooq.ExecuteListener;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DeadlineExecuteListener - Gắn Deadline của request (RequestContext) vào JDBC statement
+ * 
+ * - Trước khi execute: đã hết hạn → không gửi query, ném GATEWAY_TIMEOUT;
+ *   còn hạn → setQueryTimeout(thời gian còn lại, làm tròn lên giây)
+ * - Deadline.cancel() (hết hạn / client ngắt kết nối) → Statement.cancel() cho query đang chạy,
+ *   connection về lại Hikari ngay thay vì giữ tới khi query xong
+ * - Query bị hủy vì deadline (SQLState 57014) → AppException GATEWAY_TIMEOUT (504)
+ * 
+ * Registration giữ tới end() → áp dụng cả lúc fetch cursor (fetchLazy / export).
+ * Query ngoài request (job, scheduler) không có Deadline → không bị ảnh hưởng.
+ */
+@Slf4j
+public class DeadlineExecuteListener implements ExecuteListener {
+
+    private static final String REGISTRATION_KEY = DeadlineExecuteListener.class.getName() + ".registration";
+
+    /**
+     * PostgreSQL: canceling statement due to user request / statement timeout
+     */
+    private static final String QUERY_CANCELED = "57014";
+
+    @Override
+    public void executeStart(ExecuteContext ctx) {
+        Deadline deadline = Deadline.current();
+        Statement statement = ctx.statement();
+        if (deadline == null || statement == null) {
+            return;
+        }
+
+        deadline.check();
+        if (deadline.hasLimit()) {
+            applyQueryTimeout(statement, deadline.remainingNanos());
+        }
+        ctx.data(REGISTRATION_KEY, deadline.onCancel(() -> cancelAsync(statement)));
+    }
+
+    @Override
+    public void exception(ExecuteContext ctx) {
+        release(ctx);
+
+        Deadline deadline = Deadline.current();
+        if (deadline != null && deadline.isExpired() && isQueryCanceled(ctx.sqlException())) {
+            String reason = deadline.getCancelReason() != null ? deadline.getCancelReason() : "Request deadline exceeded";
+            ctx.exception(new AppException(ErrorCode.GATEWAY_TIMEOUT, reason));
+        }
+    }
+
+    @Override
+    public void end(ExecuteContext ctx) {
+        release(ctx);
+    }
+
+    // ============================================
+    // Helpers
+    // ============================================
+
+    private static void applyQueryTimeout(Statement statement, long remainingNanos) {
+        int seconds = (int) Math.min(Integer.MAX_VALUE,
+                Math.max(1, TimeUnit.NANOSECONDS.toSeconds(remainingNanos + TimeUnit.SECONDS.toNanos(1) - 1)));
+        try {
+            int current = statement.getQueryTimeout();
+            if (current == 0 || seconds < current) {
+                statement.setQueryTimeout(seconds);
+            }
+        } catch (SQLException e) {
+            log.debug("Cannot set query timeout: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Statement.cancel() của PostgreSQL mở connection mới gửi CancelRequest (blocking)
+     * → chạy trên virtual thread, hook của Deadline được gọi từ event loop
+     */
+    private static void cancelAsync(Statement statement) {
+        Thread.ofVirtual().name("jdbc-cancel").start(() -> {
+            try {
+                statement.cancel();
+            } catch (SQLException e) {
+                log.debug("Statement cancel failed: {}", e.getMessage());
+            }
+        });
+    }
+
+    private static void release(ExecuteContext ctx) {
+        Object registration = ctx.data(REGISTRATION_KEY);
+        if (registration instanceof Deadline.Registration r) {
+            ctx.data(REGISTRATION_KEY, null);
+            r.close();
+        }
+    }
+
+    private static boolean isQueryCanceled(SQLException e) {
+        for (SQLException current = e; current != null; current = current.getNextException()) {
+            if (QUERY_CANCELED.equals(current.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
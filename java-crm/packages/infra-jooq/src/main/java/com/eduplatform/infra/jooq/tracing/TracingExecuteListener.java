@@ -0,0 +1,81 @@
+package com.eduplatform.infra.jooq.tracing;
+
+import com.eduplatform.common.tracing.Tracing;
+import com.eduplatform.infra.jooq.metrics.SqlFingerprint;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import org.jooq.ExecuteContext;
+import org.jooq.ExecuteListener;
+
+/**
+ * TracingExecuteListener - Span CLIENT cho mỗi query jOOQ (JDBC path)
+ *
+ * - Parent = Context hiện tại trên worker (RequestContext.propagate / Tracing.inSpan đã makeCurrent)
+ *   → query là con của span worker / span request
+ * - Span bắt đầu ở start() → gồm render, lấy connection (Hikari), execute và fetch
+ * - db.query.text = fingerprint (SqlFingerprint, không có bind values), chỉ tính khi span được sample
+ * - Tên span: từ khoá đầu của SQL (SELECT / INSERT / UPDATE / DELETE / WITH...)
+ *
+ * Chỉ đăng ký khi app.tracing.enabled (JooqConfig).
+ */
+public class TracingExecuteListener implements ExecuteListener {
+
+    private static final String SPAN_KEY = TracingExecuteListener.class.getName() + ".span";
+
+    private static final AttributeKey<String> DB_SYSTEM = AttributeKey.stringKey("db.system.name");
+    private static final AttributeKey<String> DB_OPERATION = AttributeKey.stringKey("db.operation.name");
+    private static final AttributeKey<String> DB_QUERY = AttributeKey.stringKey("db.query.text");
+    private static final AttributeKey<Long> DB_ROWS = AttributeKey.longKey("db.response.returned_rows");
+
+    @Override
+    public void start(ExecuteContext ctx) {
+        Span span = Tracing.tracer().spanBuilder("sql")
+                .setSpanKind(SpanKind.CLIENT)
+                .setAttribute(DB_SYSTEM, "postgresql")
+                .startSpan();
+        ctx.data(SPAN_KEY, span);
+    }
+
+    @Override
+    public void exception(ExecuteContext ctx) {
+        Span span = span(ctx);
+        if (span != null && ctx.exception() != null) {
+            span.recordException(ctx.exception());
+            span.setStatus(StatusCode.ERROR);
+        }
+    }
+
+    @Override
+    public void end(ExecuteContext ctx) {
+        Span span = span(ctx);
+        if (span == null) {
+            return;
+        }
+        String sql = ctx.sql();
+        if (span.isRecording() && sql != null) {
+            String operation = operation(sql);
+            span.updateName(operation);
+            span.setAttribute(DB_OPERATION, operation);
+            span.setAttribute(DB_QUERY, SqlFingerprint.of(sql));
+            if (ctx.rows() >= 0) {
+                span.setAttribute(DB_ROWS, (long) ctx.rows());
+            }
+        }
+        span.end();
+    }
+
+    private static Span span(ExecuteContext ctx) {
+        return (Span) ctx.data(SPAN_KEY);
+    }
+
+    private static String operation(String sql) {
+        String head = sql.stripLeading();
+        int end = 0;
+        while (end < head.length() && Character.isLetter(head.charAt(end))) {
+            end++;
+        }
+        return end == 0 ? "sql" : head.substring(0, end).toUpperCase();
+    }
+}
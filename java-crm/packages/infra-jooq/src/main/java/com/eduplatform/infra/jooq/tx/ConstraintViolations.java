@@ -0,0 +1,40 @@
+package com.eduplatform.infra.jooq.tx;
+
+import org.postgresql.util.PSQLException;
+import org.postgresql.util.ServerErrorMessage;
+
+/**
+ * ConstraintViolations - Đọc tên constraint từ lỗi unique violation (SQLSTATE 23505)
+ * 
+ * Dùng khi để DB phát hiện trùng (INSERT ... ON CONFLICT / UPDATE) thay vì
+ * SELECT exists trước → service map constraint sang thông báo nghiệp vụ.
+ * <pre>
+ * catch (DataAccessException e) {
+ *     String constraint = ConstraintViolations.uniqueConstraint(e);
+ *     if ("users_email_key".equals(constraint)) throw new AppException(DUPLICATE_ENTRY, "Email đã tồn tại");
+ *     throw e;
+ * }
+ * </pre>
+ */
+public final class ConstraintViolations {
+
+    public static final String UNIQUE_VIOLATION = "23505";
+
+    private ConstraintViolations() {}
+
+    /**
+     * Tên constraint bị vi phạm, null nếu không phải unique violation
+     */
+    public static String uniqueConstraint(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof PSQLException psql && UNIQUE_VIOLATION.equals(psql.getSQLState())) {
+                ServerErrorMessage message = psql.getServerErrorMessage();
+                return message != null && message.getConstraint() != null ? message.getConstraint() : "";
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,109 @@
+package com.eduplatform.infra.jooq.tx;
+
+import lombok.RequiredArgsConstructor;
+import org.jooq.DSLContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * JooqTransactions - Chạy nhiều lệnh repository trong 1 transaction, commit 1 lần
+ * 
+ * DSLContext dùng ThreadLocalTransactionProvider (JooqConfig): trong inTransaction()
+ * mọi repository gọi dsl trên cùng thread dùng chung connection của transaction,
+ * repository không cần nhận Configuration/DSLContext riêng.
+ * 
+ * - Exception bất kỳ → rollback, RuntimeException (VD: AppException) ném ra nguyên vẹn
+ * - Lồng nhau → join transaction ngoài (không tạo savepoint, không thêm round-trip)
+ * - Code chậm không liên quan DB (hash password, gọi API) để NGOÀI transaction
+ * - afterCompletion(): việc cần chạy sau khi transaction ngoài cùng kết thúc
+ *   (VD: invalidate cache lần 2 để reader không nạp lại giá trị cũ trước commit)
+ * 
+ * Usage:
+ * <pre>
+ * User created = transactions.inTransaction(() -> {
+ *     User user = userRepository.insertUserIfAbsent(draft);
+ *     userRepository.insertRoles(user.getId(), roleIds);
+ *     return user;
+ * });
+ * </pre>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class JooqTransactions {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private final DSLContext dsl;
+
+    public <T> T inTransaction(Supplier<T> work) {
+        Scope scope = enter();
+        try {
+            return dsl.transactionResult(work::get);
+        } finally {
+            exit(scope);
+        }
+    }
+
+    public void inTransaction(Runnable work) {
+        Scope scope = enter();
+        try {
+            dsl.transaction(work::run);
+        } finally {
+            exit(scope);
+        }
+    }
+
+    /**
+     * Thread hiện tại có đang trong inTransaction() không
+     */
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * Chạy callback sau khi transaction ngoài cùng kết thúc (commit hoặc rollback),
+     * ngoài transaction thì chạy ngay. Callback phải idempotent (VD: invalidate cache).
+     */
+    public static void afterCompletion(Runnable callback) {
+        Scope scope = CURRENT.get();
+        if (scope == null) {
+            callback.run();
+        } else {
+            scope.callbacks.add(callback);
+        }
+    }
+
+    private static Scope enter() {
+        Scope scope = CURRENT.get();
+        if (scope == null) {
+            scope = new Scope();
+            CURRENT.set(scope);
+        }
+        scope.depth++;
+        return scope;
+    }
+
+    private static void exit(Scope scope) {
+        if (--scope.depth > 0) {
+            return;
+        }
+        CURRENT.remove();
+        for (Runnable callback : scope.callbacks) {
+            try {
+                callback.run();
+            } catch (RuntimeException e) {
+                log.warn("afterCompletion callback failed", e);
+            }
+        }
+    }
+
+    private static final class Scope {
+        private int depth;
+        private final List<Runnable> callbacks = new ArrayList<>();
+    }
+}
@@ -0,0 +1,148 @@
+package com.eduplatform.infra.jooq.paging;
+
+import com.eduplatform.common.constant.ErrorCode;
+import com.eduplatform.common.exception.AppException;
+import com.eduplatform.common.vertx.model.Cursor;
+import com.eduplatform.common.vertx.model.Pageable;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Record2;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.jooq.impl.SQLDataType;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PageQueryTest {
+
+    private static final Field<UUID> ID = DSL.field(DSL.name("users", "id"), SQLDataType.UUID);
+    private static final Field<LocalDateTime> CREATED_AT =
+            DSL.field(DSL.name("users", "created_at"), SQLDataType.LOCALDATETIME);
+    private static final Field<String> EMAIL = DSL.field(DSL.name("users", "email"), SQLDataType.VARCHAR);
+    private static final Map<String, Field<?>> SORT_FIELDS = Map.of("createdAt", CREATED_AT, "email", EMAIL);
+
+    private final DSLContext dsl = DSL.using(SQLDialect.POSTGRES);
+
+    @Test
+    void offsetModeUsesPageOffsetWithoutSeek() {
+        PageQuery page = PageQuery.of(new Pageable(2, 10), SORT_FIELDS, "createdAt", ID);
+
+        assertEquals(20, page.offset());
+        assertEquals(11, page.limit());
+        assertEquals(DSL.trueCondition(), page.seekCondition());
+    }
+
+    @Test
+    void keysetFirstPageSetsNextCursorFromLastRow() {
+        Pageable pageable = keyset(null, 2);
+        PageQuery page = PageQuery.of(pageable, SORT_FIELDS, "createdAt", ID);
+        List<Record2<LocalDateTime, UUID>> rows = rows(3);
+
+        List<UUID> items = page.fetch(rows, r -> r.get(ID));
+
+        assertEquals(List.of(rows.get(0).value2(), rows.get(1).value2()), items);
+        Cursor next = Cursor.decode(pageable.getNextCursor());
+        assertEquals("createdAt", next.getSort());
+        assertTrue(next.isDescending());
+        assertEquals(rows.get(1).value1().toString(), next.getValue());
+        assertEquals(rows.get(1).value2().toString(), next.getId());
+        assertEquals(0, page.offset());
+    }
+
+    @Test
+    void lastKeysetPageHasNoNextCursor() {
+        Pageable pageable = keyset(null, 5);
+        PageQuery.of(pageable, SORT_FIELDS, "createdAt", ID).fetch(rows(3), r -> r.get(ID));
+
+        assertNull(pageable.getNextCursor());
+    }
+
+    @Test
+    void nextCursorRoundTripsIntoSeekCondition() {
+        Pageable first = keyset(null, 2);
+        List<Record2<LocalDateTime, UUID>> rows = rows(3);
+        PageQuery.of(first, SORT_FIELDS, "createdAt", ID).fetch(rows, r -> r.get(ID));
+
+        Pageable second = keyset(first.getNextCursor(), 2);
+        String sql = dsl.renderInlined(PageQuery.of(second, SORT_FIELDS, "createdAt", ID).seekCondition());
+
+        // Mặc định DESC → (created_at, id) < (giá trị, id) của dòng cuối trang trước
+        assertTrue(sql.contains("<"), sql);
+        assertTrue(sql.contains(rows.get(1).value2().toString()), sql);
+        assertTrue(sql.contains("2024-01-01 00:02:00"), sql);
+    }
+
+    @Test
+    void ascendingCursorSeeksForward() {
+        Pageable pageable = keyset(new Cursor("email", false, "b@x.io", UUID.randomUUID().toString()).encode(), 2);
+        pageable.setSort("email");
+        pageable.setOrder("asc");
+
+        String sql = dsl.renderInlined(PageQuery.of(pageable, SORT_FIELDS, "createdAt", ID).seekCondition());
+
+        assertTrue(sql.contains(">"), sql);
+        assertTrue(sql.contains("'b@x.io'"), sql);
+    }
+
+    @Test
+    void cursorFromDifferentSortIsRejected() {
+        Pageable first = keyset(null, 2);
+        PageQuery.of(first, SORT_FIELDS, "createdAt", ID).fetch(rows(3), r -> r.get(ID));
+
+        Pageable second = keyset(first.getNextCursor(), 2);
+        second.setSort("email");
+        second.setOrder("desc");
+
+        AppException error = assertThrows(AppException.class,
+                () -> PageQuery.of(second, SORT_FIELDS, "createdAt", ID).seekCondition());
+        assertEquals(ErrorCode.BAD_REQUEST, error.getErrorCode());
+    }
+
+    @Test
+    void tamperedCursorValueIsBadRequest() {
+        String cursor = new Cursor("createdAt", true, "not-a-date", UUID.randomUUID().toString()).encode();
+
+        AppException error = assertThrows(AppException.class,
+                () -> PageQuery.of(keyset(cursor, 2), SORT_FIELDS, "createdAt", ID).seekCondition());
+        assertEquals(ErrorCode.BAD_REQUEST, error.getErrorCode());
+    }
+
+    @Test
+    void unknownSortFallsBackToDefault() {
+        Pageable pageable = keyset(null, 1);
+        pageable.setSort("password_hash");
+        PageQuery.of(pageable, SORT_FIELDS, "createdAt", ID).fetch(rows(2), r -> r.get(ID));
+
+        assertNotNull(pageable.getNextCursor());
+        assertEquals("createdAt", Cursor.decode(pageable.getNextCursor()).getSort());
+    }
+
+    private static Pageable keyset(String cursor, int size) {
+        Pageable pageable = new Pageable(0, size);
+        pageable.setCursor(cursor);
+        return pageable;
+    }
+
+    /**
+     * Dòng theo thứ tự DESC như DB trả về: created_at giảm dần từng phút
+     */
+    private List<Record2<LocalDateTime, UUID>> rows(int count) {
+        List<Record2<LocalDateTime, UUID>> rows = new ArrayList<>(count);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, count);
+        for (int i = 0; i < count; i++) {
+            rows.add(dsl.newRecord(CREATED_AT, ID).values(start.minusMinutes(i), UUID.randomUUID()));
+        }
+        return rows;
+    }
+}
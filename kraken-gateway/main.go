@@ -19,12 +19,14 @@ import (
 type Gateway struct {
 	mux    *http.ServeMux
 	routes []RouteConfig
+	trace  *TraceContext
 }
 
-func NewGateway() *Gateway {
+func NewGateway(trace *TraceContext) *Gateway {
 	return &Gateway{
 		mux:    http.NewServeMux(),
 		routes: []RouteConfig{},
+		trace:  trace,
 	}
 }
 
@@ -53,7 +55,8 @@ func (g *Gateway) AddRoute(path, target, stripPrefix string) {
 	// Strip trailing wildcard for ServeMux
 	pattern := strings.TrimSuffix(path, "*")
 	g.mux.HandleFunc(pattern, func(w http.ResponseWriter, r *http.Request) {
-		log.Printf("[Gateway] %s %s -> %s", r.Method, r.URL.Path, target)
+		traceID := g.trace.Propagate(r)
+		log.Printf("[Gateway] %s %s -> %s trace=%s", r.Method, r.URL.Path, target, traceID)
 		proxy.ServeHTTP(w, r)
 	})
 
@@ -76,6 +79,8 @@ func main() {
 
 	viper.SetDefault("server.port", "8000")
 	viper.SetDefault("server.host", "0.0.0.0")
+	viper.SetDefault("tracing.sample_ratio", 0.1)
+	viper.SetDefault("tracing.trust_incoming", false)
 
 	if err := viper.ReadInConfig(); err != nil {
 		log.Printf("Config file not found, using defaults: %v", err)
@@ -85,7 +90,10 @@ func main() {
 	host := viper.GetString("server.host")
 
 	// Initialize gateway
-	gateway := NewGateway()
+	gateway := NewGateway(NewTraceContext(
+		viper.GetFloat64("tracing.sample_ratio"),
+		viper.GetBool("tracing.trust_incoming"),
+	))
 
 	// Load routing configuration
 	config, err := loadConfig()
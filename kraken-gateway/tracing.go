@@ -0,0 +1,140 @@
+package main
+
+import (
+	"crypto/rand"
+	"encoding/binary"
+	"encoding/hex"
+	"net/http"
+	"strings"
+)
+
+const (
+	traceparentHeader = "traceparent"
+	tracestateHeader  = "tracestate"
+)
+
+// TraceContext ensures every proxied request carries a valid W3C traceparent
+// (https://www.w3.org/TR/trace-context/) so upstream services join one trace.
+//
+// The gateway does not export spans of its own. Upstream parent-based samplers
+// (java-crm: app.tracing.sampler=parent_ratio) honour the sampled flag it sends,
+// so the gateway owns the sampling decision for edge traffic:
+//   - a valid incoming traceparent keeps its trace-id / parent-id (client-side
+//     correlation), but the sampled flag is decided again at sampleRatio and
+//     tracestate is dropped - a client cannot force sampling with flags=01
+//   - with trustIncoming (callers are trusted internal services) the incoming
+//     traceparent and tracestate are forwarded unchanged
+//   - a missing or malformed one is replaced by a new root with a random
+//     trace-id / parent-id, sampled at sampleRatio
+type TraceContext struct {
+	sampleRatio   float64
+	trustIncoming bool
+}
+
+func NewTraceContext(sampleRatio float64, trustIncoming bool) *TraceContext {
+	if sampleRatio < 0 {
+		sampleRatio = 0
+	}
+	if sampleRatio > 1 {
+		sampleRatio = 1
+	}
+	return &TraceContext{sampleRatio: sampleRatio, trustIncoming: trustIncoming}
+}
+
+// Propagate validates or creates the traceparent header and returns the trace-id
+func (t *TraceContext) Propagate(r *http.Request) string {
+	if traceID, parentID, ok := parseTraceparent(r.Header.Get(traceparentHeader)); ok {
+		if t.trustIncoming {
+			return traceID
+		}
+		// trace-id is client-chosen: decide with fresh randomness, not from its bits
+		r.Header.Del(tracestateHeader)
+		r.Header.Set(traceparentHeader, "00-"+traceID+"-"+parentID+"-"+sampledFlags(t.sampledRandom()))
+		return traceID
+	}
+
+	// tracestate belongs to the discarded parent
+	r.Header.Del(tracestateHeader)
+
+	traceID := randomHex(16)
+	r.Header.Set(traceparentHeader, "00-"+traceID+"-"+randomHex(8)+"-"+sampledFlags(t.sampled(traceID)))
+	return traceID
+}
+
+func sampledFlags(sampled bool) string {
+	if sampled {
+		return "01"
+	}
+	return "00"
+}
+
+// sampledRandom decides at sampleRatio from a fresh random id
+func (t *TraceContext) sampledRandom() bool {
+	return t.sampled(randomHex(16))
+}
+
+// sampled uses the lower 8 bytes of the trace-id, like TraceIdRatioBased samplers
+func (t *TraceContext) sampled(traceID string) bool {
+	if t.sampleRatio >= 1 {
+		return true
+	}
+	if t.sampleRatio <= 0 {
+		return false
+	}
+	raw, err := hex.DecodeString(traceID[16:])
+	if err != nil {
+		return false
+	}
+	value := binary.BigEndian.Uint64(raw) >> 1 // 63-bit, same range as a positive int64
+	return float64(value) < t.sampleRatio*float64(uint64(1)<<63)
+}
+
+// parseTraceparent accepts "version-traceid-parentid-flags" per W3C Trace Context
+// and returns the trace-id and parent-id
+func parseTraceparent(value string) (string, string, bool) {
+	value = strings.TrimSpace(value)
+	if len(value) < 55 {
+		return "", "", false
+	}
+	version := value[0:2]
+	if !isLowerHex(version) || version == "ff" {
+		return "", "", false
+	}
+	// version 00 has exactly 4 fields, later versions may append more
+	if (version == "00" && len(value) != 55) || (len(value) > 55 && value[55] != '-') {
+		return "", "", false
+	}
+	if value[2] != '-' || value[35] != '-' || value[52] != '-' {
+		return "", "", false
+	}
+	traceID, parentID, flags := value[3:35], value[36:52], value[53:55]
+	if !isLowerHex(traceID) || !isLowerHex(parentID) || !isLowerHex(flags) {
+		return "", "", false
+	}
+	if traceID == strings.Repeat("0", 32) || parentID == strings.Repeat("0", 16) {
+		return "", "", false
+	}
+	return traceID, parentID, true
+}
+
+func isLowerHex(s string) bool {
+	for i := 0; i < len(s); i++ {
+		c := s[i]
+		if (c < '0' || c > '9') && (c < 'a' || c > 'f') {
+			return false
+		}
+	}
+	return true
+}
+
+func randomHex(n int) string {
+	buf := make([]byte, n)
+	if _, err := rand.Read(buf); err != nil {
+		panic(err)
+	}
+	// all-zero ids are invalid
+	if strings.Trim(hex.EncodeToString(buf), "0") == "" {
+		buf[n-1] = 1
+	}
+	return hex.EncodeToString(buf)
+}